@@ -1,15 +1,18 @@
 package org.monarchinitiative.phenol.analysis;
 
 
+import org.monarchinitiative.phenol.ontology.data.PackedTermIdSet;
 import org.monarchinitiative.phenol.ontology.data.TermId;
 
-import java.util.HashSet;
 import java.util.Set;
 
 /**
  * Instances of this class represent items (genes, represented by TermId objects) that are annotated to
  * the same GO/HPO/etc Term. The GO/HPO/etc Term itself is not represented in this object.
  *
+ * <p>The gene ids are kept in {@link PackedTermIdSet}s, as there is one instance of this class for
+ * each term and the total number of gene-term associations is large.
+ *
  * @author Sebastian Bauer
  * @author Peter Robinson (refactor)
  */
@@ -17,12 +20,12 @@ public class DirectAndIndirectTermAnnotations {
   /**
    * List of directly annotated genes
    */
-  private final Set<TermId> directAnnotated = new HashSet<>();
+  private final Set<TermId> directAnnotated = new PackedTermIdSet();
 
   /**
    * List of genes annotated in total (direct or via annotation propagation)
    */
-  private final Set<TermId> totalAnnotated = new HashSet<>();
+  private final Set<TermId> totalAnnotated = new PackedTermIdSet();
 
 
   public void addGeneAnnotationDirect(TermId geneId) {
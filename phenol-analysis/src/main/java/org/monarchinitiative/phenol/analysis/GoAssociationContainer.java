@@ -14,8 +14,6 @@ import org.monarchinitiative.phenol.ontology.data.TermId;
 import java.io.File;
 import java.util.*;
 
-import static org.monarchinitiative.phenol.ontology.algo.OntologyAlgorithm.getAncestorTerms;
-
 public class GoAssociationContainer implements AssociationContainer {
 
   /** Fake root added for GO that we do not want to add to the associations. */
@@ -157,13 +155,14 @@ public class GoAssociationContainer implements AssociationContainer {
           DirectAndIndirectTermAnnotations termAnnots = annotationMap.get(primaryGoId);
           termAnnots.addGeneAnnotationDirect(domainTermId);
           // In addition to the direct annotation, the gene is also indirectly annotated to all of the
-          // GO Term's ancestors
-          Set<TermId> ancs = getAncestorTerms(ontology, primaryGoId, true);
-          for (TermId ancestor : ancs) {
-            annotationMap.putIfAbsent(ancestor, new DirectAndIndirectTermAnnotations());
-            DirectAndIndirectTermAnnotations termAncAnnots = annotationMap.get(ancestor);
-            termAncAnnots.addGeneAnnotationTotal(domainTermId);
+          // GO Term's ancestors via propagating relationships (true path rule)
+          int ordinal = ontology.ordinalOf(primaryGoId);
+          if (ordinal == -1) {
+            throw new IllegalArgumentException("no such vertex in graph: " + primaryGoId);
           }
+          ontology.getPropagatingAncestorOrdinals(ordinal).forEach(ancestorOrdinal ->
+            annotationMap.computeIfAbsent(ontology.termAt(ancestorOrdinal), k -> new DirectAndIndirectTermAnnotations())
+              .addGeneAnnotationTotal(domainTermId));
         }
       } catch (PhenolException e) {
         System.err.println("[ERROR (StudySet.java)] " + e.getMessage());
@@ -7,10 +7,12 @@ import org.monarchinitiative.phenol.annotations.formats.hpo.AssociationType;
 import org.monarchinitiative.phenol.annotations.formats.hpo.GeneToAssociation;
 import org.monarchinitiative.phenol.base.PhenolRuntimeException;
 import org.monarchinitiative.phenol.ontology.data.TermId;
+import org.monarchinitiative.phenol.utils.ResourceLoader;
 
 import java.io.*;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * This class parses
@@ -19,6 +21,7 @@ import java.util.Map;
  *   <li>mim2gene_medgen (has links between OMIM disease ids and genes/NCBIGene ids</li>
  *   <li>Optionally, Orphanet's gene file, en_product6.xml (has links between Orphanet diseases and genes)</li>
  * </ol>
+ * The Orphanet file is parsed concurrently with the other two.
  */
 public class Gene2DiseaseAssociationParser {
   private static final String ENTREZ_GENE_PREFIX = "NCBIGene";
@@ -72,11 +75,13 @@ public class Gene2DiseaseAssociationParser {
   }
 
   Gene2DiseaseAssociationParser(File homoSapiensGeneInfoFile, File mim2geneMedgenFile, File orphanet2GeneFile) {
-    parseMim2geneAndGeneInfo(homoSapiensGeneInfoFile, mim2geneMedgenFile);
     if (!orphanet2GeneFile.exists()) {
       throw new PhenolRuntimeException("Cannot find Orphanet en_product6.xml file");
     }
-    parseOrphaToGene(orphanet2GeneFile, mim2geneMedgenFile);
+    CompletableFuture<Multimap<TermId, Gene>> orphaToGene = ResourceLoader.create().submit(orphanet2GeneFile.getName(),
+      () -> new OrphaGeneToDiseaseParser(orphanet2GeneFile, mim2geneMedgenFile).getOrphaDiseaseToGeneSymbolMap());
+    parseMim2geneAndGeneInfo(homoSapiensGeneInfoFile, mim2geneMedgenFile);
+    addOrphaToGene(ResourceLoader.join(orphaToGene));
   }
 
   /**
@@ -113,9 +118,7 @@ public class Gene2DiseaseAssociationParser {
   }
 
 
-  private void parseOrphaToGene(File orphaToGeneFile, File mim2geneMedgenFile) {
-    OrphaGeneToDiseaseParser parser = new OrphaGeneToDiseaseParser(orphaToGeneFile, mim2geneMedgenFile);
-    Multimap<TermId, Gene> orphaToGene = parser.getOrphaDiseaseToGeneSymbolMap();
+  private void addOrphaToGene(Multimap<TermId, Gene> orphaToGene) {
     int size_before = associationMap.size();
     for (Map.Entry<TermId, Gene> entry : orphaToGene.entries()) {
       TermId orpha = entry.getKey();
@@ -49,14 +49,13 @@ public class GeneInfoParser {
       // to crash, so we check for previously found term ids with the seen set.
       // The TermId <-> symbol mapping is one to one.
       Set<TermId> seen = new HashSet<>();
+      TabFields a = new TabFields();
       while ((line = br.readLine()) != null) {
-        String[] a = line.split("\t");
-        String taxon = a[0];
-        if (!taxon.equals("9606")) continue; // i.e., we want only Homo sapiens sapiens and not Neaderthal etc.
-        if (!("unknown".equals(a[9]))) {
-          String geneId = a[1];
-          String symbol = a[2];
-          TermId tid = TermId.of(ENTREZ_GENE_PREFIX, geneId);
+        a.reset(line);
+        if (!a.fieldEquals(0, "9606")) continue; // i.e., we want only Homo sapiens sapiens and not Neaderthal etc.
+        if (!a.fieldEquals(9, "unknown")) {
+          TermId tid = TermId.of(ENTREZ_GENE_PREFIX, line, a.start(1), a.end(1));
+          String symbol = a.get(2);
           if (seen.contains(tid)) {
             continue;
           }
@@ -7,9 +7,13 @@ import org.monarchinitiative.phenol.annotations.obo.hpo.HpoDiseaseAnnotationPars
 import org.monarchinitiative.phenol.base.PhenolRuntimeException;
 import org.monarchinitiative.phenol.ontology.data.Ontology;
 import org.monarchinitiative.phenol.ontology.data.TermId;
+import org.monarchinitiative.phenol.utils.ResourceLoader;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import java.io.*;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
 
 /**
@@ -33,11 +37,15 @@ import java.util.stream.Collectors;
  *   associationList - List of all {@link DiseaseToGeneAssociation}<br>
  *
  * </p>
+ * <p>The gene to disease associations and the {@code phenotype.hpoa} file are independent of each other and are parsed
+ * concurrently with a {@link ResourceLoader}.</p>
  * <a href="mailto:michael.gargano@jax.org">Michael Gargano</a>
  * <a href="mailto:peter.robinson@jax.org">Peter Robinson</a>
  */
 public class HpoAssociationParser {
 
+  private static final Logger LOGGER = LoggerFactory.getLogger(HpoAssociationParser.class);
+
   private final Ontology hpoOntology;
   /** Path to Homo_sapiens.gene_info.gz */
   private final File homoSapiensGeneInfoFile;
@@ -75,8 +83,7 @@ public class HpoAssociationParser {
     this.orphaToGeneFile = new File(orphaToGenePath);
     this.phenotypeDotHpoaFile = new File(phenotypeHpoaPath);
 
-    ingestDisease2GeneAssociations();
-    ingestPhenotypeHpoaFile();
+    ingest();
   }
 
   /** Parse everything except the Orphanet data!.*/
@@ -86,7 +93,7 @@ public class HpoAssociationParser {
     this.mim2geneMedgenFile = new File(mim2geneMedgenPath);
     this.orphaToGeneFile = null;
     this.phenotypeDotHpoaFile = null;
-    ingestDisease2GeneAssociations();
+    ingest();
   }
 
   /**
@@ -107,8 +114,7 @@ public class HpoAssociationParser {
     this.phenotypeDotHpoaFile = phenotypeHpoaFile;
     // The following skips the orphaToGeneFile to gene file because it is null
     // TODO this class is not elegant, it needs refactoring.
-    ingestDisease2GeneAssociations();
-    ingestPhenotypeHpoaFile();
+    ingest();
   }
 
   public HpoAssociationParser(File geneInfoFile,
@@ -122,14 +128,34 @@ public class HpoAssociationParser {
     this.orphaToGeneFile = orphaToGeneFile;
     this.phenotypeDotHpoaFile = phenotypeHpoaFile;
 
-    ingestDisease2GeneAssociations();
-    ingestPhenotypeHpoaFile();
+    ingest();
+  }
+
+  /**
+   * Parse the gene to disease associations and the phenotype.hpoa file concurrently and link them, populating all
+   * maps and {@link #phenotypeToGeneList}. Without a phenotype.hpoa file, only the gene to disease associations are
+   * parsed and {@link #phenotypeToGeneList} remains unset.
+   */
+  private void ingest() {
+    ResourceLoader loader = ResourceLoader.create();
+    CompletableFuture<Gene2DiseaseAssociationParser> associations =
+      loader.submit("gene to disease associations", this::parseDisease2GeneAssociations);
+    CompletableFuture<Multimap<TermId, TermId>> phenotypeToDisease = phenotypeDotHpoaFile == null
+      ? null
+      : loader.submit("phenotype.hpoa", this::parsePhenotypeHpoaFile);
+    // in this order, so a failure of the associations is reported first as before
+    setDisease2GeneAssociations(ResourceLoader.join(associations));
+    if (phenotypeToDisease != null) {
+      setTermToGene(ResourceLoader.join(phenotypeToDisease));
+    }
+    LOGGER.debug("Parsed associations: {}", loader.await());
   }
 
   /**
-   * Ingest the phenotype.hpoa file. This will population {@link #phenotypeToGeneList}.
+   * Parse the phenotype.hpoa file.
+   * @return Multimap from the HPO ids to the ids of the diseases annotated with them.
    */
-  private void ingestPhenotypeHpoaFile() {
+  private Multimap<TermId, TermId> parsePhenotypeHpoaFile() {
     if (! phenotypeDotHpoaFile.exists()) {
       throw new PhenolRuntimeException("Cannot find phenotype.hpoa file");
     }
@@ -144,7 +170,7 @@ public class HpoAssociationParser {
         phenotypeToDisease.put(hpoId,entry.getKey()); // diseaseId to HPO id multimpa
       }
     }
-    setTermToGene(phenotypeToDisease);
+    return phenotypeToDisease;
   }
 
 
@@ -230,7 +256,7 @@ public class HpoAssociationParser {
    * Parse data from mim2gene_medgen, Gene Info, and Orphanet to get a list of gene to symbol and
    * gene to disease annotations.
    */
-  private void ingestDisease2GeneAssociations() {
+  private Gene2DiseaseAssociationParser parseDisease2GeneAssociations() {
     Gene2DiseaseAssociationParser parser;
     if (this.orphaToGeneFile != null) {
       parser = new Gene2DiseaseAssociationParser(this.homoSapiensGeneInfoFile,
@@ -240,6 +266,10 @@ public class HpoAssociationParser {
       parser = new Gene2DiseaseAssociationParser(this.homoSapiensGeneInfoFile,
         this.mim2geneMedgenFile);
     }
+    return parser;
+  }
+
+  private void setDisease2GeneAssociations(Gene2DiseaseAssociationParser parser) {
     Multimap<TermId, GeneToAssociation> associationMap = parser.getAssociationMap();
     ImmutableList.Builder<DiseaseToGeneAssociation> builder = new ImmutableList.Builder<>();
     for (TermId omimCurie : associationMap.keySet()) {
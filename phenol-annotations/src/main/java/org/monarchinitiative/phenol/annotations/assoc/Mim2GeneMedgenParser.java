@@ -64,26 +64,24 @@ public class Mim2GeneMedgenParser {
     Multimap<TermId, GeneToAssociation> associationMap = ArrayListMultimap.create();
     try (BufferedReader br = new BufferedReader(new FileReader(mim2geneMedgenFile))) {
       String line;
+      TabFields associations = new TabFields();
       while ((line = br.readLine()) != null) {
         if (line.startsWith("#")) continue;
-        String[] associations = line.split("\t");
-        if (associations[2].equals("phenotype")) {
-          String mimid = associations[0];
-          TermId omimCurie = TermId.of(OMIM_PREFIX, mimid);
-          String entrezGeneNumber = associations[1];
-          TermId entrezId = TermId.of(ENTREZ_GENE_PREFIX, entrezGeneNumber);
-          String symbol = geneIdToSymbolMap.get(entrezId);
-          if ("-".equals(entrezGeneNumber)) {
+        associations.reset(line);
+        if (associations.fieldEquals(2, "phenotype")) {
+          TermId omimCurie = TermId.of(OMIM_PREFIX, line, associations.start(0), associations.end(0));
+          if (associations.fieldEquals(1, "-")) {
             continue;
           }
+          TermId geneId = TermId.of(ENTREZ_GENE_PREFIX, line, associations.start(1), associations.end(1));
+          String symbol = geneIdToSymbolMap.get(geneId);
           // rarely, mim2gene has a format error and the following prevents downstream errors with null pointer
           if (symbol == null) {
             symbol = "-";
           }
-          TermId geneId = TermId.of(ENTREZ_GENE_PREFIX, entrezGeneNumber);
           Gene gene = new Gene(geneId, symbol);
           AssociationType associationType = AssociationType.MENDELIAN;
-          if (associations[5].contains("susceptibility")) {
+          if (associations.fieldContains(5, "susceptibility")) {
             associationType = AssociationType.POLYGENIC;
           }
           GeneToAssociation g2a = new GeneToAssociation(gene, associationType);
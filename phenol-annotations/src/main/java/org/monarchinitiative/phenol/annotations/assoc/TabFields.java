@@ -0,0 +1,90 @@
+package org.monarchinitiative.phenol.annotations.assoc;
+
+import java.util.Arrays;
+
+/**
+ * Locates the tab-separated fields of a line without splitting it into substrings.
+ *
+ * <p>One instance is meant to be reused for all lines of a file, see {@link #reset(String)}. Term
+ * ids can then be looked up from the line directly with {@link
+ * org.monarchinitiative.phenol.ontology.data.TermId#of(String, CharSequence, int, int)}.
+ */
+final class TabFields {
+
+  /** The current line. */
+  private String line;
+
+  /** Start index of each field; the end of field <code>i</code> is <code>starts[i + 1] - 1</code>. */
+  private int[] starts = new int[16];
+
+  /** Number of fields in the current line. */
+  private int count;
+
+  /**
+   * Locate the fields of <code>line</code>.
+   *
+   * @param line The line to locate the fields of.
+   * @return <code>this</code>
+   */
+  TabFields reset(String line) {
+    this.line = line;
+    this.count = 0;
+    int start = 0;
+    while (true) {
+      if (count + 1 >= starts.length) {
+        starts = Arrays.copyOf(starts, 2 * starts.length);
+      }
+      starts[count++] = start;
+      final int tab = line.indexOf('\t', start);
+      if (tab == -1) {
+        starts[count] = line.length() + 1;
+        return this;
+      }
+      start = tab + 1;
+    }
+  }
+
+  /** @return The current line. */
+  String line() {
+    return line;
+  }
+
+  /** @return Number of fields in the current line. */
+  int count() {
+    return count;
+  }
+
+  /** @return Start index of field <code>i</code> (inclusive). */
+  int start(int i) {
+    checkIndex(i);
+    return starts[i];
+  }
+
+  /** @return End index of field <code>i</code> (exclusive). */
+  int end(int i) {
+    checkIndex(i);
+    return starts[i + 1] - 1;
+  }
+
+  /** @return Field <code>i</code> as a freshly created {@link String}. */
+  String get(int i) {
+    return line.substring(start(i), end(i));
+  }
+
+  /** @return Whether field <code>i</code> is equal to <code>value</code>. */
+  boolean fieldEquals(int i, String value) {
+    return end(i) - start(i) == value.length() && line.startsWith(value, start(i));
+  }
+
+  /** @return Whether field <code>i</code> contains <code>value</code>. */
+  boolean fieldContains(int i, String value) {
+    final int pos = line.indexOf(value, start(i));
+    return pos != -1 && pos + value.length() <= end(i);
+  }
+
+  private void checkIndex(int i) {
+    if (i < 0 || i >= count) {
+      throw new ArrayIndexOutOfBoundsException("Field " + i + " out of range, line has " + count + " fields");
+    }
+  }
+}
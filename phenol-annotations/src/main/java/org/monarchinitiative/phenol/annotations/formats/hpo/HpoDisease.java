@@ -147,8 +147,7 @@ public final class HpoDisease {
    */
   private boolean isAnnotatedTo(TermId tid, Ontology ontology) {
     List<TermId> direct = getPhenotypicAbnormalityTermIdList();
-    Set<TermId> ancs = ontology.getAllAncestorTermIds(direct,true);
-    return ancs.contains(tid);
+    return ontology.getAllAncestorOrdinals(direct, true).contains(ontology.ordinalOf(tid));
   }
 
 
@@ -248,10 +248,18 @@ class HpoAnnotationLine {
   private static List<TermId> getModifiers(String lst) {
     ImmutableList.Builder<TermId> builder = new ImmutableList.Builder<>();
     if (lst == null || lst.isEmpty()) return builder.build(); //return empty list
-    String[] modifierTermStrings = lst.split(";");
-    for (String mt : modifierTermStrings) {
-      TermId mtId = TermId.of(mt.trim());
+    // look up the trimmed ids directly from the list, without splitting it into substrings
+    int start = 0;
+    while (start < lst.length()) {
+      int end = lst.indexOf(';', start);
+      if (end == -1) end = lst.length();
+      int from = start;
+      int to = end;
+      while (from < to && lst.charAt(from) <= ' ') ++from;
+      while (to > from && lst.charAt(to - 1) <= ' ') --to;
+      TermId mtId = TermId.of(lst, from, to);
       builder.add(mtId);
+      start = end + 1;
     }
     return builder.build();
   }
@@ -8,6 +8,7 @@ import org.monarchinitiative.phenol.base.PhenolException;
 import org.monarchinitiative.phenol.base.PhenolRuntimeException;
 
 import org.monarchinitiative.phenol.ontology.data.*;
+import org.monarchinitiative.phenol.utils.PhaseRecorder;
 
 import java.io.BufferedReader;
 
@@ -28,6 +29,10 @@ import static org.monarchinitiative.phenol.ontology.algo.OntologyAlgorithm.exist
  * @author <a href="mailto:michael.gargano@jax.org">Michael Gargano</a>
  */
 public class HpoDiseaseAnnotationParser {
+  /**
+   * Name of the phase building the {@link HpoDisease} objects from the parsed lines.
+   */
+  public static final String DISEASE_CONSTRUCTION = "disease construction";
   /**
    * Path to the phenotype.hpoa annotation file.
    */
@@ -56,6 +61,11 @@ public class HpoDiseaseAnnotationParser {
    * We will parse in disease models from the following databases.
    */
   private final Set<String> databasePrefixes;
+  /**
+   * Records the parse and disease construction phases, disabled unless given to
+   * {@link #loadDiseaseMap(String, Ontology, List, PhaseRecorder)}.
+   */
+  private final PhaseRecorder phaseRecorder;
 
 
   public static Map<TermId, HpoDisease> loadDiseaseMap(String annotationFile, Ontology ontology) {
@@ -69,7 +79,16 @@ public class HpoDiseaseAnnotationParser {
   }
 
   public static Map<TermId, HpoDisease> loadDiseaseMap(String annotationFile, Ontology ontology, List<String> databases) {
-    HpoDiseaseAnnotationParser parser = new HpoDiseaseAnnotationParser(annotationFile, ontology, databases);
+    return loadDiseaseMap(annotationFile, ontology, databases, PhaseRecorder.disabled());
+  }
+
+  /**
+   * Load the diseases of the given databases, recording the {@link PhaseRecorder#PARSE} and
+   * {@link #DISEASE_CONSTRUCTION} phases in <code>phaseRecorder</code>.
+   */
+  public static Map<TermId, HpoDisease> loadDiseaseMap(String annotationFile, Ontology ontology, List<String> databases,
+                                                       PhaseRecorder phaseRecorder) {
+    HpoDiseaseAnnotationParser parser = new HpoDiseaseAnnotationParser(annotationFile, ontology, databases, phaseRecorder);
     try {
       return parser.parse();
     } catch (PhenolException e) {
@@ -84,6 +103,7 @@ public class HpoDiseaseAnnotationParser {
     this.ontology = ontology;
     this.diseaseMap = new HashMap<>();
     databasePrefixes = DEFAULT_DATABASE_PREFIXES;
+    this.phaseRecorder = PhaseRecorder.disabled();
   }
 
   /**
@@ -92,8 +112,10 @@ public class HpoDiseaseAnnotationParser {
    * @param annotationFile path to the the {@code phenotype.hpoa} file
    * @param ontology       reference to HPO Ontology object
    * @param databases      list of databases we will keep for parsing (from OMIM, ORPHA, DECIPHER)
+   * @param phaseRecorder  records the parse and disease construction phases
    */
-  private HpoDiseaseAnnotationParser(String annotationFile, Ontology ontology, List<String> databases) {
+  private HpoDiseaseAnnotationParser(String annotationFile, Ontology ontology, List<String> databases,
+                                     PhaseRecorder phaseRecorder) {
     this.annotationFilePath = annotationFile;
     this.ontology = ontology;
     this.diseaseMap = new HashMap<>();
@@ -102,6 +124,7 @@ public class HpoDiseaseAnnotationParser {
       builder.add(database);
     }
     databasePrefixes = builder.build();
+    this.phaseRecorder = phaseRecorder;
   }
 
   private HpoDiseaseAnnotationParser(File annotationFile, Ontology ontology) {
@@ -109,6 +132,7 @@ public class HpoDiseaseAnnotationParser {
     this.ontology = ontology;
     this.diseaseMap = new HashMap<>();
     databasePrefixes = DEFAULT_DATABASE_PREFIXES;
+    this.phaseRecorder = PhaseRecorder.disabled();
   }
 
   /**
@@ -156,16 +180,21 @@ public class HpoDiseaseAnnotationParser {
     Map<TermId, List<HpoAnnotationLine>> disease2AnnotLineMap = new HashMap<>();
     Multimap<TermId, TermId> termToDisease = ArrayListMultimap.create();
     ImmutableList.Builder<String> errorbuilder = new ImmutableList.Builder<>();
+    int lineCount = 0;
+    int invalidLineCount = 0;
 
-    try (BufferedReader br = new BufferedReader(new FileReader(this.annotationFilePath))) {
+    try (BufferedReader br = new BufferedReader(new FileReader(this.annotationFilePath));
+         PhaseRecorder.Phase phase = phaseRecorder.start(PhaseRecorder.PARSE)) {
       String line = br.readLine();
       while (line.startsWith("#")) {
         line = br.readLine();
       } // this skips the comments (including the definition of the header)
       while ((line = br.readLine()) != null) {
+        lineCount++;
         HpoAnnotationLine aline = HpoAnnotationLine.constructFromString(line);
         if (!aline.hasValidNumberOfFields()) {
           errorbuilder.add(String.format("Invalid number of fields: %s", line));
+          invalidLineCount++;
           continue;
         }
         if (!termToDisease.containsEntry(aline.getPhenotypeId(), aline.getDiseaseTermId())) {
@@ -181,11 +210,24 @@ public class HpoDiseaseAnnotationParser {
       ImmutableMultimap.Builder<TermId, TermId> builderTermToDisease = new ImmutableMultimap.Builder<>();
       builderTermToDisease.putAll(termToDisease);
       this.phenotypeToDiseaseMap = builderTermToDisease.build();
+      phase.count("lines", lineCount)
+        .count("invalid lines", invalidLineCount)
+        .count("diseases", disease2AnnotLineMap.size());
     } catch (IOException e) {
       throw new PhenolException(String.format("Could not read annotation file: %s", e.getMessage()));
     }
     // When we get down here, we have added all of the disease annotations to the disease2AnnotLineMap
     // Now we want to transform them into HpoDisease objects
+    try (PhaseRecorder.Phase phase = phaseRecorder.start(DISEASE_CONSTRUCTION)) {
+      buildDiseases(disease2AnnotLineMap, errorbuilder);
+      phase.count("diseases", diseaseMap.size());
+    }
+    this.errors = errorbuilder.build();
+    return diseaseMap;
+  }
+
+  private void buildDiseases(Map<TermId, List<HpoAnnotationLine>> disease2AnnotLineMap,
+                             ImmutableList.Builder<String> errorbuilder) {
     for (TermId diseaseId : disease2AnnotLineMap.keySet()) {
       String diseaseDatabasePrefix = diseaseId.getPrefix();
       if (!databasePrefixes.contains(diseaseDatabasePrefix)) {
@@ -229,8 +271,6 @@ public class HpoDiseaseAnnotationParser {
           clinicalCourseListBuilder.build());
       this.diseaseMap.put(hpoDisease.getDiseaseDatabaseId(), hpoDisease);
     }
-    this.errors = errorbuilder.build();
-    return diseaseMap;
   }
 
   /**
@@ -44,6 +44,21 @@ class HpoAssociationParserTest {
     assertNotNull(parser);
   }
 
+  /** Without Orphanet and phenotype.hpoa files, only the OMIM gene to disease associations are parsed. */
+  @Test
+  void testWithoutOrphanetAndPhenotypes() {
+    ClassLoader classLoader = this.getClass().getClassLoader();
+    URL mim2GeneUrl = classLoader.getResource("mim2gene_medgen.excerpt");
+    URL geneInfoUrl = classLoader.getResource("Homo_sapiens.gene_info.excerpt.gz");
+    Ontology ontology = OntologyLoader.loadOntology(classLoader.getResourceAsStream("hp_head.obo"));
+
+    HpoAssociationParser omimParser = new HpoAssociationParser(geneInfoUrl.getPath(), mim2GeneUrl.getPath(), ontology);
+
+    assertTrue(omimParser.getDiseaseToAssociationsMap().containsKey(TermId.of("OMIM:142900")));
+    assertEquals(parser.getGeneIdToSymbolMap(), omimParser.getGeneIdToSymbolMap());
+    assertNull(omimParser.getPhenotypeToGene());
+  }
+
   /**
    * TBX5 is the only gene involved with Holt-Oram syndrome (OMIM:142900), and
    * TBX5 is not associated with other diseases. TBX5 has the EntrezGene id 6910
@@ -0,0 +1,33 @@
+package org.monarchinitiative.phenol.annotations.assoc;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TabFieldsTest {
+
+  @Test
+  void testFields() {
+    TabFields fields = new TabFields().reset("100100\t2200\tphenotype\t\tC0000\tsusceptibility to");
+    assertEquals(6, fields.count());
+    assertEquals("100100", fields.get(0));
+    assertEquals(7, fields.start(1));
+    assertEquals(11, fields.end(1));
+    assertTrue(fields.fieldEquals(2, "phenotype"));
+    assertFalse(fields.fieldEquals(2, "pheno"));
+    assertEquals("", fields.get(3));
+    assertTrue(fields.fieldContains(5, "susceptibility"));
+    assertFalse(fields.fieldContains(4, "susceptibility"));
+    assertThrows(ArrayIndexOutOfBoundsException.class, () -> fields.get(6));
+  }
+
+  @Test
+  void testReuseWithManyFields() {
+    TabFields fields = new TabFields();
+    fields.reset(String.join("\t", new String[40]).replace("null", "x"));
+    assertEquals(40, fields.count());
+    fields.reset("single");
+    assertEquals(1, fields.count());
+    assertEquals("single", fields.get(0));
+  }
+}
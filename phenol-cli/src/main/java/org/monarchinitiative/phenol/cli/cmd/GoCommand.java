@@ -20,10 +20,12 @@ public class GoCommand implements Callable<Integer> {
    */
   @CommandLine.Option(names = {"-i", "--id"}, description = "term ID to search for enrichment")
   private String goTermId = "GO:0097190";
+  @CommandLine.Option(names = {"--cache-dir"}, description = "directory for caching the parsed ontology (optional)")
+  private String cacheDir;
 
   @Override
   public Integer call() {
-    GoEnrichmentDemo go = new GoEnrichmentDemo(pathGoObo, pathGoGaf, goTermId);
+    GoEnrichmentDemo go = new GoEnrichmentDemo(pathGoObo, pathGoGaf, goTermId, cacheDir);
     go.run();
     return 0;
   }
@@ -14,13 +14,15 @@ public class HpDemoCommand implements Callable<Integer> {
     private String hpoPath;
     @CommandLine.Option(names = {"-a","--annot"}, description = "path to HPO annotation file (phenotyoe.hpoa", required = true)
     private String annotPath;
+    @CommandLine.Option(names = {"--cache-dir"}, description = "directory for caching the parsed ontology (optional)")
+    private String cacheDir;
 
 
 
 
   @Override
   public Integer call() {
-    HpDemo hp = new HpDemo(hpoPath, annotPath);
+    HpDemo hp = new HpDemo(hpoPath, annotPath, cacheDir);
     hp.run();
     return 0;
   }
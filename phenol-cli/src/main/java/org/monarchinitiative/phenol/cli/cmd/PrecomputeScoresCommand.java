@@ -68,6 +68,12 @@ public class PrecomputeScoresCommand implements Callable<Integer> {
   )
   private String outputScoreDistFile;
 
+  @CommandLine.Option(
+    names = {"--cache-dir"},
+    description = "Directory for caching the parsed ontology, optional."
+  )
+  private String cacheDir;
+
   /** @return Return number of threads to use. */
   public int getNumThreads() {
     return numThreads;
@@ -109,6 +115,11 @@ public class PrecomputeScoresCommand implements Callable<Integer> {
     return outputScoreDistFile;
   }
 
+  /** @return Path to the ontology cache directory, <code>null</code> if not caching. */
+  public String getCacheDir() {
+    return cacheDir;
+  }
+
   @Override
   public String toString() {
     return "PrecomputeScoresOptions [numThreads="
@@ -127,12 +138,14 @@ public class PrecomputeScoresCommand implements Callable<Integer> {
         + geneToTermLinkFile
         + ", outputScoreDistFile="
         + outputScoreDistFile
+        + ", cacheDir="
+        + cacheDir
         + "]";
   }
 
   @Override
   public Integer call() {
-    PrecomputeScores scores = new PrecomputeScores(this.oboFile, this.numIterations, this.seed, this.numThreads, this.outputScoreDistFile);
+    PrecomputeScores scores = new PrecomputeScores(this.oboFile, this.numIterations, this.seed, this.numThreads, this.outputScoreDistFile, this.cacheDir);
     scores.run();
     return 0;
   }
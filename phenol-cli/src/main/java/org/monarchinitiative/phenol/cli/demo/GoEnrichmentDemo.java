@@ -5,6 +5,7 @@ import org.monarchinitiative.phenol.analysis.mgsa.MgsaCalculation;
 import org.monarchinitiative.phenol.analysis.mgsa.MgsaGOTermsResultContainer;
 import org.monarchinitiative.phenol.annotations.formats.go.GoGaf21Annotation;
 import org.monarchinitiative.phenol.io.OntologyLoader;
+import org.monarchinitiative.phenol.io.snapshot.OntologyCache;
 import org.monarchinitiative.phenol.ontology.data.Ontology;
 import org.monarchinitiative.phenol.ontology.data.Term;
 import org.monarchinitiative.phenol.ontology.data.TermAnnotation;
@@ -13,6 +14,7 @@ import org.monarchinitiative.phenol.ontology.data.TermId;
 import org.monarchinitiative.phenol.analysis.*;
 
 import java.io.File;
+import java.nio.file.Paths;
 import java.util.*;
 
 import com.google.common.collect.ImmutableSet;
@@ -67,9 +69,18 @@ public final class GoEnrichmentDemo {
 
 
   public GoEnrichmentDemo(String pathGoObo, String pathGoGaf, String goTermId) {
+    this(pathGoObo, pathGoGaf, goTermId, null);
+  }
+
+  /**
+   * @param cacheDir directory for caching the parsed GO, <code>null</code> to always parse go.obo.
+   */
+  public GoEnrichmentDemo(String pathGoObo, String pathGoGaf, String goTermId, String cacheDir) {
     this.targetGoTerm = TermId.of(goTermId);
     System.out.println("[INFO] parsing  " + pathGoObo);
-    gontology = OntologyLoader.loadOntology(new File(pathGoObo), "GO");
+    gontology = cacheDir == null
+      ? OntologyLoader.loadOntology(new File(pathGoObo), "GO")
+      : OntologyLoader.loadOntology(new File(pathGoObo), OntologyCache.of(Paths.get(cacheDir)), "GO");
     int n_terms = gontology.countAllTerms();
     System.out.println("[INFO] parsed " + n_terms + " GO terms.");
     System.out.println("[INFO] parsing  " + pathGoGaf);
@@ -2,10 +2,12 @@ package org.monarchinitiative.phenol.cli.demo;
 
 import org.monarchinitiative.phenol.annotations.formats.hpo.HpoDisease;
 import org.monarchinitiative.phenol.io.OntologyLoader;
+import org.monarchinitiative.phenol.io.snapshot.OntologyCache;
 import org.monarchinitiative.phenol.annotations.obo.hpo.HpoDiseaseAnnotationParser;
 import org.monarchinitiative.phenol.ontology.data.*;
 
 import java.io.File;
+import java.nio.file.Paths;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
@@ -21,17 +23,26 @@ public class HpDemo {
   private final String hpoPath;
   /** Path to the phenotyoe.hpoa file. */
   private final String annotPath;
+  /** Directory for caching the parsed ontology, <code>null</code> to always parse hp.obo. */
+  private final String cacheDir;
 
 
 
   public HpDemo(String hpoPath, String annotPath) {
+    this(hpoPath, annotPath, null);
+  }
+
+  public HpDemo(String hpoPath, String annotPath, String cacheDir) {
     this.hpoPath = hpoPath;
     this.annotPath = annotPath;
+    this.cacheDir = cacheDir;
   }
 
 
   public void run() {
-    Ontology hpo = OntologyLoader.loadOntology(new File(hpoPath));
+    Ontology hpo = cacheDir == null
+      ? OntologyLoader.loadOntology(new File(hpoPath))
+      : OntologyLoader.loadOntology(new File(hpoPath), OntologyCache.of(Paths.get(cacheDir)));
     TermId rootTermId = hpo.getRootTermId();
     String rootLabel = hpo.getTermMap().get(rootTermId).getName();
 
@@ -4,6 +4,7 @@ import org.monarchinitiative.phenol.base.PhenolException;
 import org.monarchinitiative.phenol.annotations.formats.hpo.HpoGeneAnnotation;
 import org.monarchinitiative.phenol.annotations.formats.hpo.HpoSubOntologyRootTermIds;
 import org.monarchinitiative.phenol.io.OntologyLoader;
+import org.monarchinitiative.phenol.io.snapshot.OntologyCache;
 import org.monarchinitiative.phenol.annotations.scoredist.ScoreDistributionWriter;
 import org.monarchinitiative.phenol.annotations.scoredist.TextFileScoreDistributionWriter;
 import org.monarchinitiative.phenol.ontology.algo.InformationContentComputation;
@@ -16,6 +17,7 @@ import org.monarchinitiative.phenol.ontology.scoredist.SimilarityScoreSampling;
 import org.monarchinitiative.phenol.ontology.similarity.ResnikSimilarity;
 import java.io.File;
 import java.io.IOException;
+import java.nio.file.Paths;
 import java.util.*;
 import java.util.Map.Entry;
 
@@ -63,8 +65,15 @@ public class PrecomputeScores {
 
   /** Constructor. */
   public PrecomputeScores(String hpOboPath, int numIter, int seed,int numThreads, String outfile) {
+    this(hpOboPath, numIter, seed, numThreads, outfile, null);
+  }
+
+  /** Constructor, caching the parsed ontology in <code>cacheDir</code> unless it is <code>null</code>. */
+  public PrecomputeScores(String hpOboPath, int numIter, int seed, int numThreads, String outfile, String cacheDir) {
     LOGGER.info("Loading ontology from OBO...");
-      Ontology hpo = OntologyLoader.loadOntology(new File(hpOboPath));
+    Ontology hpo = cacheDir == null
+      ? OntologyLoader.loadOntology(new File(hpOboPath))
+      : OntologyLoader.loadOntology(new File(hpOboPath), OntologyCache.of(Paths.get(cacheDir)));
     phenotypicAbnormalitySubOntology = hpo.subOntology(HpoSubOntologyRootTermIds.PHENOTYPIC_ABNORMALITY);
     LOGGER.info("Done loading ontology.");
     this.numIterations = numIter;
@@ -1,5 +1,7 @@
 package org.monarchinitiative.phenol.graph.algo;
 
+import java.util.ArrayDeque;
+import java.util.Deque;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.Set;
@@ -10,6 +12,10 @@ import org.monarchinitiative.phenol.graph.IdLabeledEdge;
 /**
  * Topological sorting for {@link DefaultDirectedGraph}s using the <b>visitor pattern</b>.
  *
+ * <p>For the graph of an ontology, prefer {@link
+ * org.monarchinitiative.phenol.ontology.data.Ontology#getTopologicalOrder()}, which is computed
+ * once over the term ordinals and traversed without any hashing.
+ *
  * @param <V> vertex type of graph, see {@link DefaultDirectedGraph} for requirements on vertex type
  * @param <E> edge type to use in the graph, also see {@link DefaultDirectedGraph} for details
  * @author <a href="mailto:manuel.holtgrewe@bihealth.de">Manuel Holtgrewe</a>
@@ -51,34 +57,46 @@ public final class TopologicalSorting<
   }
 
   /**
-   * Tarjan's <code>visit()</code>.
+   * Tarjan's <code>visit()</code>, with an explicit stack instead of recursion so that long chains
+   * cannot overflow the call stack.
    *
    * @param g {@link DefaultDirectedGraph} to traverse
    * @param unmarked Unmarked vertices
    * @param tmpMarked Temporarily marked vertices
-   * @param v Vertex to start from
+   * @param start Vertex to start from
    * @param selector {@link NeighborSelector} to select neighbors with
    */
   private void startFromImpl(
       G g,
       Set<V> unmarked,
       Set<V> tmpMarked,
-      V v,
+      V start,
       VertexVisitor<V, E> visitor,
       NeighborSelector<V, E> selector) {
-    if (tmpMarked.contains(v)) {
-      throw new GraphNotDagException("Graph is not a DAG");
-    }
-    if (unmarked.contains(v)) {
-      tmpMarked.add(v);
-      Iterator<V> nextVertices = selector.nextFrom(g, v);
-      while (nextVertices.hasNext()) {
-        startFromImpl(g, unmarked, tmpMarked, nextVertices.next(), visitor, selector);
-      }
-      unmarked.remove(v);
-      tmpMarked.remove(v);
-      if (!visitor.visit(g, v)) {
-        return;
+    // vertices on the current path and the iterators over their remaining neighbors
+    final Deque<V> path = new ArrayDeque<>();
+    final Deque<Iterator<V>> nextVertices = new ArrayDeque<>();
+    tmpMarked.add(start);
+    path.push(start);
+    nextVertices.push(selector.nextFrom(g, start));
+    while (!path.isEmpty()) {
+      final Iterator<V> it = nextVertices.peek();
+      if (it.hasNext()) {
+        final V v = it.next();
+        if (tmpMarked.contains(v)) {
+          throw new GraphNotDagException("Graph is not a DAG");
+        }
+        if (unmarked.contains(v)) {
+          tmpMarked.add(v);
+          path.push(v);
+          nextVertices.push(selector.nextFrom(g, v));
+        }
+      } else {
+        final V v = path.pop();
+        nextVertices.pop();
+        unmarked.remove(v);
+        tmpMarked.remove(v);
+        visitor.visit(g, v);
       }
     }
   }
@@ -0,0 +1,88 @@
+package org.monarchinitiative.phenol.graph.csr;
+
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheBuilderSpec;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.CacheStats;
+import com.google.common.cache.LoadingCache;
+
+/**
+ * {@link ClosureIndex} over the ancestors in a {@link CsrGraph} that computes the set of a vertex on
+ * first access and keeps it in a bounded, concurrent cache. Pass the {@link CsrGraph#reversed()
+ * reversed} graph for the descendants.
+ *
+ * <p>The cache is configured by a {@link CacheBuilderSpec} string, e.g. <code>
+ * "maximumSize=10000"</code> for size-based eviction of the least recently used sets or <code>
+ * "maximumSize=10000,expireAfterAccess=10m"</code> to also drop sets not used for ten minutes. Hit
+ * and miss counts are always recorded and available via {@link #stats()}.
+ *
+ * <p>On serialization, only the graph and the cache specification are written; the cache starts
+ * out empty after deserialization.
+ */
+public final class CachingClosure implements ClosureIndex {
+
+  /** Serial UId for serialization. */
+  private static final long serialVersionUID = 1L;
+
+  /** Default cache specification. */
+  public static final String DEFAULT_SPEC = "maximumSize=10000";
+
+  /** The graph to search in. */
+  private final CsrGraph graph;
+
+  /** The {@link CacheBuilderSpec} string the cache was built from. */
+  private final String spec;
+
+  /** The cached sets, by vertex ordinal. */
+  private final transient LoadingCache<Integer, OrdinalSet> cache;
+
+  /**
+   * @param graph The {@link CsrGraph} to compute the closure for.
+   * @param spec {@link CacheBuilderSpec} string configuring size bound and eviction policy.
+   * @throws IllegalArgumentException if <code>spec</code> cannot be parsed.
+   */
+  public CachingClosure(CsrGraph graph, String spec) {
+    this.graph = graph;
+    this.spec = spec;
+    this.cache = CacheBuilder.from(spec)
+      .recordStats()
+      .build(new CacheLoader<Integer, OrdinalSet>() {
+        @Override
+        public OrdinalSet load(Integer ordinal) {
+          return OnDemandClosure.ancestorsOf(graph, ordinal);
+        }
+      });
+  }
+
+  @Override
+  public int vertexCount() {
+    return graph.vertexCount();
+  }
+
+  @Override
+  public OrdinalSet get(int ordinal) {
+    if (ordinal < 0 || ordinal >= graph.vertexCount()) {
+      throw new IndexOutOfBoundsException("Ordinal " + ordinal + " out of range [0, " + graph.vertexCount() + ")");
+    }
+    return cache.getUnchecked(ordinal);
+  }
+
+  /** @return The {@link CacheBuilderSpec} string the cache was built from. */
+  public String getSpec() {
+    return spec;
+  }
+
+  /** @return Snapshot of the cache's hit, miss, and eviction counts. */
+  public CacheStats stats() {
+    return cache.stats();
+  }
+
+  private Object readResolve() {
+    return new CachingClosure(graph, spec);
+  }
+
+  @Override
+  public String toString() {
+    return "CachingClosure [vertexCount=" + graph.vertexCount() + ", spec=" + spec + "]";
+  }
+}
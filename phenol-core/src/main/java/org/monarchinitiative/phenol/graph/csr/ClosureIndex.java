@@ -0,0 +1,32 @@
+package org.monarchinitiative.phenol.graph.csr;
+
+import java.io.Serializable;
+
+/**
+ * Access to the transitive closure of a {@link CsrGraph}: the {@link OrdinalSet} of vertices
+ * reachable from each vertex, including the vertex itself.
+ *
+ * <p>Implementations differ in when the sets are computed: {@link OrdinalClosure} precomputes all
+ * of them, {@link CachingClosure} computes them on first access and keeps them in a bounded cache,
+ * and {@link OnDemandClosure} computes them on every access.
+ */
+public interface ClosureIndex extends Serializable {
+
+  /** @return Number of vertices covered by the closure. */
+  int vertexCount();
+
+  /**
+   * @param ordinal Ordinal of the vertex.
+   * @return {@link OrdinalSet} of vertices reachable from <code>ordinal</code>, including itself.
+   */
+  OrdinalSet get(int ordinal);
+
+  /**
+   * @param ordinal Ordinal of the vertex to start from.
+   * @param reachable Ordinal of the vertex to check.
+   * @return Whether <code>reachable</code> can be reached from <code>ordinal</code>.
+   */
+  default boolean contains(int ordinal, int reachable) {
+    return get(ordinal).contains(reachable);
+  }
+}
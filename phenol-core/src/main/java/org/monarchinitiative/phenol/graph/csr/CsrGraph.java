@@ -0,0 +1,292 @@
+package org.monarchinitiative.phenol.graph.csr;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.function.IntPredicate;
+
+/**
+ * Immutable directed graph over dense <code>int</code> vertex ordinals, stored in compressed
+ * sparse row (CSR) layout.
+ *
+ * <p>Edges point from a child to its parent, in line with the edges of the ontology graphs. Both
+ * directions are stored: the neighbors of vertex <code>v</code> are found in the slice
+ * <code>[offsets[v], offsets[v + 1])</code> of the corresponding target array. Neighbors within a
+ * slice are sorted ascending, so iteration order is deterministic.
+ *
+ * <p>Each edge may carry an <code>int</code> label, e.g. a code for its relationship type, that is
+ * stored alongside the neighbor in both directions. Graphs built without labels report label
+ * <code>0</code> for all edges.
+ *
+ * <h5>Performance Note</h5>
+ *
+ * <p>{@link #parentsOf(int)} and {@link #childrenOf(int)} return fresh copies. In hot loops, use
+ * {@link #parentCount(int)}/{@link #parent(int, int)} and the corresponding child accessors, which
+ * do not allocate.
+ */
+public final class CsrGraph implements Serializable {
+
+  /** Serial UId for serialization. */
+  private static final long serialVersionUID = 1L;
+
+  /** Number of vertices. */
+  private final int vertexCount;
+
+  /** Offsets into {@link #parents}, length <code>vertexCount + 1</code>. */
+  private final int[] parentOffsets;
+
+  /** Parent ordinals for all vertices, concatenated. */
+  private final int[] parents;
+
+  /** Offsets into {@link #children}, length <code>vertexCount + 1</code>. */
+  private final int[] childOffsets;
+
+  /** Child ordinals for all vertices, concatenated. */
+  private final int[] children;
+
+  /** Labels of the edges in {@link #parents}, <code>null</code> if the graph is unlabelled. */
+  private final int[] parentLabels;
+
+  /** Labels of the edges in {@link #children}, <code>null</code> if the graph is unlabelled. */
+  private final int[] childLabels;
+
+  private CsrGraph(
+      int vertexCount,
+      int[] parentOffsets,
+      int[] parents,
+      int[] parentLabels,
+      int[] childOffsets,
+      int[] children,
+      int[] childLabels) {
+    this.vertexCount = vertexCount;
+    this.parentOffsets = parentOffsets;
+    this.parents = parents;
+    this.parentLabels = parentLabels;
+    this.childOffsets = childOffsets;
+    this.children = children;
+    this.childLabels = childLabels;
+  }
+
+  /**
+   * Build a {@link CsrGraph} from an edge list.
+   *
+   * <p>The edge <code>i</code> goes from <code>sources[i]</code> (the child) to
+   * <code>targets[i]</code> (the parent).
+   *
+   * @param vertexCount Number of vertices, all ordinals must be in <code>[0, vertexCount)</code>.
+   * @param sources Source (child) ordinal of each edge.
+   * @param targets Target (parent) ordinal of each edge.
+   * @return Freshly built {@link CsrGraph}.
+   * @throws IllegalArgumentException if the arrays differ in length or an ordinal is out of range.
+   */
+  public static CsrGraph of(int vertexCount, int[] sources, int[] targets) {
+    return build(vertexCount, sources, targets, null);
+  }
+
+  /**
+   * Build a {@link CsrGraph} from a labelled edge list.
+   *
+   * <p>The edge <code>i</code> goes from <code>sources[i]</code> (the child) to
+   * <code>targets[i]</code> (the parent) and carries the label <code>labels[i]</code>.
+   *
+   * @param vertexCount Number of vertices, all ordinals must be in <code>[0, vertexCount)</code>.
+   * @param sources Source (child) ordinal of each edge.
+   * @param targets Target (parent) ordinal of each edge.
+   * @param labels Label of each edge.
+   * @return Freshly built {@link CsrGraph}.
+   * @throws IllegalArgumentException if the arrays differ in length or an ordinal is out of range.
+   */
+  public static CsrGraph of(int vertexCount, int[] sources, int[] targets, int[] labels) {
+    if (labels.length != sources.length) {
+      throw new IllegalArgumentException(
+        "Edge source and label arrays differ in length: " + sources.length + " vs. " + labels.length);
+    }
+    return build(vertexCount, sources, targets, labels);
+  }
+
+  private static CsrGraph build(int vertexCount, int[] sources, int[] targets, int[] labels) {
+    if (sources.length != targets.length) {
+      throw new IllegalArgumentException(
+        "Edge source and target arrays differ in length: " + sources.length + " vs. " + targets.length);
+    }
+    for (int i = 0; i < sources.length; ++i) {
+      checkOrdinal(sources[i], vertexCount);
+      checkOrdinal(targets[i], vertexCount);
+    }
+    final int[] parentOffsets = new int[vertexCount + 1];
+    final int[] parents = new int[sources.length];
+    final int[] parentLabels = labels == null ? null : new int[sources.length];
+    bucket(vertexCount, sources, targets, labels, parentOffsets, parents, parentLabels);
+    final int[] childOffsets = new int[vertexCount + 1];
+    final int[] children = new int[sources.length];
+    final int[] childLabels = labels == null ? null : new int[sources.length];
+    bucket(vertexCount, targets, sources, labels, childOffsets, children, childLabels);
+    return new CsrGraph(vertexCount, parentOffsets, parents, parentLabels, childOffsets, children, childLabels);
+  }
+
+  private static void checkOrdinal(int ordinal, int vertexCount) {
+    if (ordinal < 0 || ordinal >= vertexCount) {
+      throw new IllegalArgumentException("Ordinal " + ordinal + " out of range [0, " + vertexCount + ")");
+    }
+  }
+
+  /**
+   * Counting sort of <code>values</code> (and <code>labels</code>, if not <code>null</code>) by
+   * <code>keys</code>, filling <code>offsets</code> and the bucketed values and labels, each bucket
+   * sorted ascending by value.
+   */
+  private static void bucket(
+      int vertexCount, int[] keys, int[] values, int[] labels, int[] offsets, int[] bucketed, int[] bucketedLabels) {
+    for (int key : keys) {
+      ++offsets[key + 1];
+    }
+    for (int v = 0; v < vertexCount; ++v) {
+      offsets[v + 1] += offsets[v];
+    }
+    final int[] fill = Arrays.copyOf(offsets, vertexCount);
+    // value in the upper, label in the lower half, so that sorting orders by value
+    final long[] packed = new long[keys.length];
+    for (int i = 0; i < keys.length; ++i) {
+      packed[fill[keys[i]]++] = ((long) values[i] << 32) | (labels == null ? 0 : labels[i] & 0xFFFFFFFFL);
+    }
+    for (int v = 0; v < vertexCount; ++v) {
+      Arrays.sort(packed, offsets[v], offsets[v + 1]);
+    }
+    for (int i = 0; i < packed.length; ++i) {
+      bucketed[i] = (int) (packed[i] >>> 32);
+      if (bucketedLabels != null) {
+        bucketedLabels[i] = (int) packed[i];
+      }
+    }
+  }
+
+  /** @return Number of vertices in the graph. */
+  public int vertexCount() {
+    return vertexCount;
+  }
+
+  /** @return Number of edges in the graph. */
+  public int edgeCount() {
+    return parents.length;
+  }
+
+  /**
+   * @param v Ordinal of the vertex.
+   * @return Number of parents (out-neighbors) of <code>v</code>.
+   */
+  public int parentCount(int v) {
+    return parentOffsets[v + 1] - parentOffsets[v];
+  }
+
+  /**
+   * @param v Ordinal of the vertex.
+   * @param i Index of the parent, in <code>[0, parentCount(v))</code>.
+   * @return Ordinal of the <code>i</code>-th parent of <code>v</code>.
+   */
+  public int parent(int v, int i) {
+    return parents[parentOffsets[v] + i];
+  }
+
+  /**
+   * @param v Ordinal of the vertex.
+   * @param i Index of the parent, in <code>[0, parentCount(v))</code>.
+   * @return Label of the edge from <code>v</code> to its <code>i</code>-th parent.
+   */
+  public int parentLabel(int v, int i) {
+    return parentLabels == null ? 0 : parentLabels[parentOffsets[v] + i];
+  }
+
+  /**
+   * @param v Ordinal of the vertex.
+   * @return Sorted copy of the ordinals of the parents (out-neighbors) of <code>v</code>.
+   */
+  public int[] parentsOf(int v) {
+    return Arrays.copyOfRange(parents, parentOffsets[v], parentOffsets[v + 1]);
+  }
+
+  /**
+   * @param v Ordinal of the vertex.
+   * @return Number of children (in-neighbors) of <code>v</code>.
+   */
+  public int childCount(int v) {
+    return childOffsets[v + 1] - childOffsets[v];
+  }
+
+  /**
+   * @param v Ordinal of the vertex.
+   * @param i Index of the child, in <code>[0, childCount(v))</code>.
+   * @return Ordinal of the <code>i</code>-th child of <code>v</code>.
+   */
+  public int child(int v, int i) {
+    return children[childOffsets[v] + i];
+  }
+
+  /**
+   * @param v Ordinal of the vertex.
+   * @param i Index of the child, in <code>[0, childCount(v))</code>.
+   * @return Label of the edge from the <code>i</code>-th child of <code>v</code> to <code>v</code>.
+   */
+  public int childLabel(int v, int i) {
+    return childLabels == null ? 0 : childLabels[childOffsets[v] + i];
+  }
+
+  /**
+   * @param v Ordinal of the vertex.
+   * @return Sorted copy of the ordinals of the children (in-neighbors) of <code>v</code>.
+   */
+  public int[] childrenOf(int v) {
+    return Arrays.copyOfRange(children, childOffsets[v], childOffsets[v + 1]);
+  }
+
+  /**
+   * Return the graph with all edges reversed, i.e. with parents and children swapped.
+   *
+   * <p>The result shares the arrays of this graph and is created in constant time. Any algorithm
+   * following parent edges thus follows child edges when run on the reversed graph, e.g. {@link
+   * OnDemandClosure} yields the descendants instead of the ancestors.
+   *
+   * @return {@link CsrGraph} with reversed edges.
+   */
+  public CsrGraph reversed() {
+    return new CsrGraph(vertexCount, childOffsets, children, childLabels, parentOffsets, parents, parentLabels);
+  }
+
+  /**
+   * Return the graph with the same vertices and the edges whose label is accepted by <code>
+   * keepLabel</code>.
+   *
+   * @param keepLabel {@link IntPredicate} selecting the labels of the edges to keep.
+   * @return Freshly built {@link CsrGraph}, or this graph if all edges are kept.
+   */
+  public CsrGraph filterEdges(IntPredicate keepLabel) {
+    int kept = 0;
+    for (int i = 0; i < parents.length; ++i) {
+      if (keepLabel.test(parentLabels == null ? 0 : parentLabels[i])) {
+        ++kept;
+      }
+    }
+    if (kept == parents.length) {
+      return this;
+    }
+    final int[] sources = new int[kept];
+    final int[] targets = new int[kept];
+    final int[] labels = new int[kept];
+    int n = 0;
+    for (int v = 0; v < vertexCount; ++v) {
+      for (int i = 0; i < parentCount(v); ++i) {
+        final int label = parentLabel(v, i);
+        if (keepLabel.test(label)) {
+          sources[n] = v;
+          targets[n] = parent(v, i);
+          labels[n] = label;
+          ++n;
+        }
+      }
+    }
+    return build(vertexCount, sources, targets, parentLabels == null ? null : labels);
+  }
+
+  @Override
+  public String toString() {
+    return "CsrGraph [vertexCount=" + vertexCount + ", edgeCount=" + edgeCount() + "]";
+  }
+}
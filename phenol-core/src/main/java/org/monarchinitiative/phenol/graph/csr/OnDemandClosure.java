@@ -0,0 +1,69 @@
+package org.monarchinitiative.phenol.graph.csr;
+
+import java.util.Arrays;
+
+/**
+ * {@link ClosureIndex} over the ancestors in a {@link CsrGraph} that does not store anything but
+ * runs a breadth-first search on each access. Pass the {@link CsrGraph#reversed() reversed} graph
+ * for the descendants.
+ *
+ * <p>This trades query time for memory and construction time and is meant for large ontologies of
+ * which only few terms are ever queried.
+ */
+public final class OnDemandClosure implements ClosureIndex {
+
+  /** Serial UId for serialization. */
+  private static final long serialVersionUID = 1L;
+
+  /** The graph to search in. */
+  private final CsrGraph graph;
+
+  public OnDemandClosure(CsrGraph graph) {
+    this.graph = graph;
+  }
+
+  @Override
+  public int vertexCount() {
+    return graph.vertexCount();
+  }
+
+  @Override
+  public OrdinalSet get(int ordinal) {
+    return ancestorsOf(graph, ordinal);
+  }
+
+  /**
+   * @param graph The {@link CsrGraph} to search in.
+   * @param ordinal Ordinal of the vertex to start from.
+   * @return {@link OrdinalSet} of the vertices reachable via parent edges, including the start.
+   */
+  static OrdinalSet ancestorsOf(CsrGraph graph, int ordinal) {
+    final long[] seen = new long[OrdinalSet.wordCount(graph.vertexCount())];
+    int[] queue = new int[16];
+    int head = 0;
+    int tail = 0;
+    queue[tail++] = ordinal;
+    seen[ordinal >>> 6] |= 1L << ordinal;
+    while (head < tail) {
+      final int v = queue[head++];
+      for (int i = 0; i < graph.parentCount(v); ++i) {
+        final int p = graph.parent(v, i);
+        if ((seen[p >>> 6] & (1L << p)) == 0) {
+          seen[p >>> 6] |= 1L << p;
+          if (tail == queue.length) {
+            queue = Arrays.copyOf(queue, 2 * tail);
+          }
+          queue[tail++] = p;
+        }
+      }
+    }
+    final int[] reached = Arrays.copyOf(queue, tail);
+    Arrays.sort(reached);
+    return OrdinalSet.ofSorted(graph.vertexCount(), reached);
+  }
+
+  @Override
+  public String toString() {
+    return "OnDemandClosure [vertexCount=" + graph.vertexCount() + "]";
+  }
+}
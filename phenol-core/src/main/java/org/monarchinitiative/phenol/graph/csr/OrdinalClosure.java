@@ -0,0 +1,448 @@
+package org.monarchinitiative.phenol.graph.csr;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.IntConsumer;
+import java.util.function.IntPredicate;
+
+/**
+ * Precomputed transitive closure of a {@link CsrGraph}, stored as one {@link OrdinalSet} per vertex.
+ *
+ * <p>The closure is reflexive, i.e. each vertex is contained in its own set. This mirrors the
+ * convention of {@link org.monarchinitiative.phenol.ontology.data.Ontology#getAncestorTermIds} that a
+ * term is its own ancestor.
+ */
+public final class OrdinalClosure implements ClosureIndex {
+
+  /** Serial UId for serialization. */
+  private static final long serialVersionUID = 1L;
+
+  /** Number of vertices of a layer processed by one task. */
+  private static final int CHUNK_SIZE = 512;
+
+  /** The reachable vertices, indexed by vertex ordinal. */
+  private final OrdinalSet[] sets;
+
+  private OrdinalClosure(OrdinalSet[] sets) {
+    this.sets = sets;
+  }
+
+  /**
+   * Wrap sets computed earlier, e.g. read back from a serialized form.
+   *
+   * @param sets The reachable vertices, indexed by vertex ordinal. The array is not copied,
+   *     callers must not modify it afterwards.
+   * @return {@link OrdinalClosure} of the given sets.
+   */
+  public static OrdinalClosure of(OrdinalSet[] sets) {
+    return new OrdinalClosure(sets);
+  }
+
+  /**
+   * Compute the ancestor closure of <code>graph</code> in the calling thread.
+   *
+   * @param graph The {@link CsrGraph} to compute the closure for.
+   * @return Freshly computed {@link OrdinalClosure}.
+   * @see #ancestorsOf(CsrGraph, Executor)
+   */
+  public static OrdinalClosure ancestorsOf(CsrGraph graph) {
+    return ancestorsOf(graph, Runnable::run);
+  }
+
+  /**
+   * Compute the ancestor closure of <code>graph</code>, i.e. all vertices reachable via parent
+   * edges.
+   *
+   * <p>The vertices are processed in topological order, layer by layer: the first layer consists of
+   * the vertices without parents, each following layer of the vertices whose parents all are in
+   * earlier layers. The set of each vertex is the union of its parents' sets plus the vertex itself.
+   * The vertices of a layer are independent of each other and are processed in chunks on <code>
+   * executor</code>. The result does not depend on the executor or the scheduling.
+   *
+   * <p>Vertices on or below a cycle never enter a layer; their sets are computed by a breadth-first
+   * search in the calling thread.
+   *
+   * @param graph The {@link CsrGraph} to compute the closure for.
+   * @param executor {@link Executor} for processing the chunks of a layer.
+   * @return Freshly computed {@link OrdinalClosure}.
+   */
+  public static OrdinalClosure ancestorsOf(CsrGraph graph, Executor executor) {
+    return complete(graph, new OrdinalSet[graph.vertexCount()], executor);
+  }
+
+  /**
+   * Update the ancestor closure of an earlier version of a graph to its current version, computing
+   * only the sets of the <code>affected</code> vertices.
+   *
+   * <p>The sets of the other vertices are taken from <code>previous</code>, with their members
+   * mapped to the current ordinals; the affected ones are computed layer by layer as in {@link
+   * #ancestorsOf(CsrGraph, Executor)}, starting from the sets of their unaffected parents.
+   *
+   * @param previous Ancestor closure of the earlier version of the graph.
+   * @param graph The current version of the graph.
+   * @param previousOrdinals Ordinal in the earlier version of each vertex of <code>graph</code>,
+   *     <code>-1</code> for vertices without a counterpart.
+   * @param affected Vertices of <code>graph</code> whose sets may have changed, see {@link
+   *     #affectedBy(CsrGraph, CsrGraph, int[])}. All vertices without counterpart must be included.
+   * @param executor {@link Executor} for processing the chunks of a layer.
+   * @return The ancestor closure of <code>graph</code>.
+   */
+  public static OrdinalClosure update(
+      ClosureIndex previous, CsrGraph graph, int[] previousOrdinals, OrdinalSet affected, Executor executor) {
+    final int vertexCount = graph.vertexCount();
+    final int[] currentOrdinals = new int[previous.vertexCount()];
+    Arrays.fill(currentOrdinals, -1);
+    boolean identity = previous.vertexCount() == vertexCount;
+    for (int v = 0; v < vertexCount; ++v) {
+      if (previousOrdinals[v] != -1) {
+        currentOrdinals[previousOrdinals[v]] = v;
+      }
+      identity &= previousOrdinals[v] == v;
+    }
+
+    final OrdinalSet[] sets = new OrdinalSet[vertexCount];
+    for (int v = 0; v < vertexCount; ++v) {
+      if (affected.contains(v)) {
+        continue;
+      }
+      final OrdinalSet previousSet = previous.get(previousOrdinals[v]);
+      if (identity) {
+        sets[v] = previousSet;
+        continue;
+      }
+      // the ancestors of an unaffected vertex are unaffected, so all of them have a current ordinal
+      final int[] members = previousSet.toArray();
+      boolean sorted = true;
+      for (int i = 0; i < members.length; ++i) {
+        members[i] = currentOrdinals[members[i]];
+        sorted &= i == 0 || members[i - 1] < members[i];
+      }
+      if (!sorted) {
+        Arrays.sort(members);
+      }
+      sets[v] = OrdinalSet.ofSorted(vertexCount, members);
+    }
+    return complete(graph, sets, executor);
+  }
+
+  /**
+   * Determine the vertices of the current version of a graph whose reachable vertices may differ
+   * from those in an earlier version: the vertices without counterpart or whose parents changed, and
+   * all their descendants.
+   *
+   * <p>Use the {@link CsrGraph#reversed() reversed} graphs for the vertices whose descendants may
+   * have changed.
+   *
+   * @param previousGraph The earlier version of the graph.
+   * @param graph The current version of the graph.
+   * @param previousOrdinals Ordinal in <code>previousGraph</code> of each vertex of <code>graph
+   *     </code>, <code>-1</code> for vertices without a counterpart.
+   * @return {@link OrdinalSet} of the affected vertices of <code>graph</code>.
+   */
+  public static OrdinalSet affectedBy(CsrGraph previousGraph, CsrGraph graph, int[] previousOrdinals) {
+    return affectedBy(previousGraph, graph, previousOrdinals, label -> false, label -> false);
+  }
+
+  /**
+   * Determine the affected vertices as {@link #affectedBy(CsrGraph, CsrGraph, int[])} does, also
+   * counting a vertex as changed if an edge to one of its parents now passes <code>propagates</code>
+   * while it did not pass <code>previousPropagates</code> before, or vice versa, e.g. if its
+   * relationship type changed from one that propagates annotations to one that does not.
+   *
+   * @param previousGraph The earlier version of the graph.
+   * @param graph The current version of the graph.
+   * @param previousOrdinals Ordinal in <code>previousGraph</code> of each vertex of <code>graph
+   *     </code>, <code>-1</code> for vertices without a counterpart.
+   * @param previousPropagates {@link IntPredicate} over the edge labels of <code>previousGraph</code>.
+   * @param propagates {@link IntPredicate} over the edge labels of <code>graph</code>.
+   * @return {@link OrdinalSet} of the affected vertices of <code>graph</code>.
+   */
+  public static OrdinalSet affectedBy(CsrGraph previousGraph, CsrGraph graph, int[] previousOrdinals,
+      IntPredicate previousPropagates, IntPredicate propagates) {
+    final int vertexCount = graph.vertexCount();
+    final boolean[] affected = new boolean[vertexCount];
+    final int[] queue = new int[vertexCount];
+    int tail = 0;
+    for (int v = 0; v < vertexCount; ++v) {
+      if (previousOrdinals[v] == -1
+          || parentsChanged(previousGraph, graph, previousOrdinals, previousPropagates, propagates, v)) {
+        affected[v] = true;
+        queue[tail++] = v;
+      }
+    }
+    for (int head = 0; head < tail; ++head) {
+      final int v = queue[head];
+      for (int i = 0; i < graph.childCount(v); ++i) {
+        final int c = graph.child(v, i);
+        if (!affected[c]) {
+          affected[c] = true;
+          queue[tail++] = c;
+        }
+      }
+    }
+    final int[] members = Arrays.copyOf(queue, tail);
+    Arrays.sort(members);
+    return OrdinalSet.ofSorted(vertexCount, members);
+  }
+
+  /**
+   * @return Whether the parents of <code>v</code>, or whether the edges to them propagate, differ from
+   *     those of its previous counterpart.
+   */
+  private static boolean parentsChanged(CsrGraph previousGraph, CsrGraph graph, int[] previousOrdinals,
+      IntPredicate previousPropagates, IntPredicate propagates, int v) {
+    final int previous = previousOrdinals[v];
+    final int parentCount = graph.parentCount(v);
+    if (parentCount != previousGraph.parentCount(previous)) {
+      return true;
+    }
+    // each edge as previous parent ordinal in the upper and propagation in the lowest bit
+    final long[] parents = new long[parentCount];
+    final long[] previousParents = new long[parentCount];
+    for (int i = 0; i < parentCount; ++i) {
+      final int parent = previousOrdinals[graph.parent(v, i)];
+      if (parent == -1) {
+        return true;
+      }
+      parents[i] = edgeKey(parent, propagates.test(graph.parentLabel(v, i)));
+      previousParents[i] = edgeKey(previousGraph.parent(previous, i),
+        previousPropagates.test(previousGraph.parentLabel(previous, i)));
+    }
+    Arrays.sort(parents);
+    Arrays.sort(previousParents);
+    return !Arrays.equals(parents, previousParents);
+  }
+
+  private static long edgeKey(int parent, boolean propagates) {
+    return ((long) parent << 1) | (propagates ? 1 : 0);
+  }
+
+  /**
+   * Compute the missing sets in topological order of the vertices with missing sets; the given sets
+   * must be complete, i.e. contain only vertices whose sets are given, too.
+   */
+  private static OrdinalClosure complete(CsrGraph graph, OrdinalSet[] sets, Executor executor) {
+    final int vertexCount = graph.vertexCount();
+    final boolean[] missing = new boolean[vertexCount];
+    int missingCount = 0;
+    for (int v = 0; v < vertexCount; ++v) {
+      if (sets[v] == null) {
+        missing[v] = true;
+        ++missingCount;
+      }
+    }
+
+    // Kahn's algorithm over the missing vertices, counting only missing parents; the layers are
+    // stored consecutively in order, the current one is [layerStart, layerEnd).
+    final int[] pendingParents = new int[vertexCount];
+    final int[] order = new int[missingCount];
+    int ordered = 0;
+    for (int v = 0; v < vertexCount; ++v) {
+      if (!missing[v]) {
+        continue;
+      }
+      for (int i = 0; i < graph.parentCount(v); ++i) {
+        if (missing[graph.parent(v, i)]) {
+          ++pendingParents[v];
+        }
+      }
+      if (pendingParents[v] == 0) {
+        order[ordered++] = v;
+      }
+    }
+    int layerStart = 0;
+    while (layerStart < ordered) {
+      final int layerEnd = ordered;
+      computeLayer(graph, sets, order, layerStart, layerEnd, executor);
+      for (int i = layerStart; i < layerEnd; ++i) {
+        final int v = order[i];
+        for (int j = 0; j < graph.childCount(v); ++j) {
+          final int c = graph.child(v, j);
+          if (missing[c] && --pendingParents[c] == 0) {
+            order[ordered++] = c;
+          }
+        }
+      }
+      layerStart = layerEnd;
+    }
+
+    if (ordered < missingCount) {
+      computeByBreadthFirstSearch(graph, sets);
+    }
+
+    return new OrdinalClosure(sets);
+  }
+
+  /**
+   * Compute the descendant closure of <code>graph</code> in the calling thread.
+   *
+   * @param graph The {@link CsrGraph} to compute the closure for.
+   * @return Freshly computed {@link OrdinalClosure}.
+   * @see #descendantsOf(CsrGraph, Executor)
+   */
+  public static OrdinalClosure descendantsOf(CsrGraph graph) {
+    return descendantsOf(graph, Runnable::run);
+  }
+
+  /**
+   * Compute the descendant closure of <code>graph</code>, i.e. all vertices reachable via child
+   * edges.
+   *
+   * <p>This is the ancestor closure of the {@link CsrGraph#reversed() reversed} graph, so the layers
+   * start at the leaves and each set is the union of the vertex's children's sets.
+   *
+   * @param graph The {@link CsrGraph} to compute the closure for.
+   * @param executor {@link Executor} for processing the chunks of a layer.
+   * @return Freshly computed {@link OrdinalClosure}.
+   * @see #ancestorsOf(CsrGraph, Executor)
+   */
+  public static OrdinalClosure descendantsOf(CsrGraph graph, Executor executor) {
+    return ancestorsOf(graph.reversed(), executor);
+  }
+
+  /** Compute the sets of the vertices <code>order[from, to)</code>, in chunks on the executor. */
+  private static void computeLayer(
+      CsrGraph graph, OrdinalSet[] sets, int[] order, int from, int to, Executor executor) {
+    if (to - from <= CHUNK_SIZE) {
+      new LayerChunk(graph, sets, order, from, to).run();
+      return;
+    }
+    final List<CompletableFuture<Void>> futures = new ArrayList<>();
+    for (int chunkStart = from; chunkStart < to; chunkStart += CHUNK_SIZE) {
+      final LayerChunk chunk = new LayerChunk(graph, sets, order, chunkStart, Math.min(to, chunkStart + CHUNK_SIZE));
+      futures.add(CompletableFuture.runAsync(chunk, executor));
+    }
+    CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).join();
+  }
+
+  /** Fill the missing sets by a breadth-first search from each vertex. */
+  private static void computeByBreadthFirstSearch(CsrGraph graph, OrdinalSet[] sets) {
+    final int vertexCount = graph.vertexCount();
+    // Vertices are marked as seen by stamping them with the start ordinal.
+    final int[] seenStamp = new int[vertexCount];
+    Arrays.fill(seenStamp, -1);
+    final int[] queue = new int[vertexCount];
+    for (int start = 0; start < vertexCount; ++start) {
+      if (sets[start] != null) {
+        continue;
+      }
+      int head = 0;
+      int tail = 0;
+      queue[tail++] = start;
+      seenStamp[start] = start;
+      while (head < tail) {
+        final int v = queue[head++];
+        for (int i = 0; i < graph.parentCount(v); ++i) {
+          final int p = graph.parent(v, i);
+          if (seenStamp[p] != start) {
+            seenStamp[p] = start;
+            queue[tail++] = p;
+          }
+        }
+      }
+      final int[] reached = Arrays.copyOf(queue, tail);
+      Arrays.sort(reached);
+      sets[start] = OrdinalSet.ofSorted(vertexCount, reached);
+    }
+  }
+
+  /**
+   * Computes the sets of a chunk of vertices of one layer as union of their parents' sets.
+   *
+   * <p>The union is collected in a scratch bitset; only the touched words are visited when
+   * extracting and clearing it, so the cost is linear in the size of the parents' sets.
+   */
+  private static final class LayerChunk implements Runnable {
+    private final CsrGraph graph;
+    private final OrdinalSet[] sets;
+    private final int[] order;
+    private final int from;
+    private final int to;
+
+    LayerChunk(CsrGraph graph, OrdinalSet[] sets, int[] order, int from, int to) {
+      this.graph = graph;
+      this.sets = sets;
+      this.order = order;
+      this.from = from;
+      this.to = to;
+    }
+
+    @Override
+    public void run() {
+      final int vertexCount = graph.vertexCount();
+      final long[] words = new long[OrdinalSet.wordCount(vertexCount)];
+      final int[] touched = new int[words.length];
+      final int[] touchedCount = new int[1];
+      final IntConsumer mark = ordinal -> {
+        final int w = ordinal >>> 6;
+        if (words[w] == 0) {
+          touched[touchedCount[0]++] = w;
+        }
+        words[w] |= 1L << ordinal;
+      };
+
+      for (int i = from; i < to; ++i) {
+        final int v = order[i];
+        touchedCount[0] = 0;
+        mark.accept(v);
+        for (int j = 0; j < graph.parentCount(v); ++j) {
+          sets[graph.parent(v, j)].forEach(mark);
+        }
+
+        Arrays.sort(touched, 0, touchedCount[0]);
+        int size = 0;
+        for (int t = 0; t < touchedCount[0]; ++t) {
+          size += Long.bitCount(words[touched[t]]);
+        }
+        final int[] members = new int[size];
+        int n = 0;
+        for (int t = 0; t < touchedCount[0]; ++t) {
+          final int w = touched[t];
+          long word = words[w];
+          while (word != 0) {
+            members[n++] = (w << 6) + Long.numberOfTrailingZeros(word);
+            word &= word - 1;
+          }
+          words[w] = 0;
+        }
+        sets[v] = OrdinalSet.ofSorted(vertexCount, members);
+      }
+    }
+  }
+
+  @Override
+  public int vertexCount() {
+    return sets.length;
+  }
+
+  @Override
+  public OrdinalSet get(int ordinal) {
+    return sets[ordinal];
+  }
+
+  @Override
+  public boolean contains(int ordinal, int reachable) {
+    return sets[ordinal].contains(reachable);
+  }
+
+  /**
+   * Estimate the heap usage of the closure, assuming 12 byte object headers and compressed oops.
+   *
+   * @return Estimated number of bytes used by the closure and its sets.
+   */
+  public long estimatedSizeInBytes() {
+    long result = 16 + ((16 + 4L * sets.length + 7) & ~7L);
+    for (OrdinalSet set : sets) {
+      result += set.estimatedSizeInBytes();
+    }
+    return result;
+  }
+
+  @Override
+  public String toString() {
+    return "OrdinalClosure [vertexCount=" + sets.length + "]";
+  }
+}
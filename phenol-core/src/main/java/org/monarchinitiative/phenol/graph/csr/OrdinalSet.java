@@ -0,0 +1,441 @@
+package org.monarchinitiative.phenol.graph.csr;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+import java.util.function.IntConsumer;
+
+/**
+ * Immutable set of vertex ordinals from a universe <code>[0, universeSize)</code>.
+ *
+ * <p>Depending on its density, the set is stored either as a sorted <code>int</code> array or as a
+ * bitset of <code>long</code> words, whichever takes less memory. Ancestor sets in ontologies are
+ * mostly small compared to the number of terms and end up as sorted arrays; the sets of terms close
+ * to the leaves of deep ontologies or the descendant sets of terms close to the root end up as
+ * bitsets.
+ *
+ * <h5>Performance Note</h5>
+ *
+ * <p>{@link #contains(int)} is <code>O(1)</code> for bitsets and a binary search for sorted arrays.
+ * As sorted arrays are only used for sets smaller than <code>universeSize / 32</code> elements, the
+ * latter is a handful of comparisons in practice.
+ */
+public final class OrdinalSet implements Serializable {
+
+  /** Serial UId for serialization. */
+  private static final long serialVersionUID = 1L;
+
+  /** Shared sorted array for empty sets. */
+  private static final int[] EMPTY_ARRAY = new int[0];
+
+  /** Size of the universe the ordinals are taken from. */
+  private final int universeSize;
+
+  /** Number of elements in the set. */
+  private final int size;
+
+  /** Sorted members, <code>null</code> if stored as bitset. */
+  private final int[] sorted;
+
+  /** Bitset words, <code>null</code> if stored as sorted array. */
+  private final long[] words;
+
+  private OrdinalSet(int universeSize, int size, int[] sorted, long[] words) {
+    this.universeSize = universeSize;
+    this.size = size;
+    this.sorted = sorted;
+    this.words = words;
+  }
+
+  /**
+   * @param universeSize Size of the universe.
+   * @return Empty {@link OrdinalSet}.
+   */
+  public static OrdinalSet empty(int universeSize) {
+    return new OrdinalSet(universeSize, 0, EMPTY_ARRAY, null);
+  }
+
+  /**
+   * Create {@link OrdinalSet} from sorted, distinct ordinals.
+   *
+   * @param universeSize Size of the universe.
+   * @param sortedOrdinals Ordinals, sorted ascending and free of duplicates. The array is not
+   *     copied, callers must not modify it afterwards.
+   * @return {@link OrdinalSet} in the most compact representation.
+   */
+  public static OrdinalSet ofSorted(int universeSize, int[] sortedOrdinals) {
+    if (preferBitset(universeSize, sortedOrdinals.length)) {
+      final long[] words = new long[wordCount(universeSize)];
+      for (int ordinal : sortedOrdinals) {
+        words[ordinal >>> 6] |= 1L << ordinal;
+      }
+      return new OrdinalSet(universeSize, sortedOrdinals.length, null, words);
+    }
+    return new OrdinalSet(universeSize, sortedOrdinals.length, sortedOrdinals, null);
+  }
+
+  /**
+   * Create {@link OrdinalSet} from arbitrary ordinals.
+   *
+   * @param universeSize Size of the universe.
+   * @param ordinals Ordinals, possibly unsorted and with duplicates. The array is not modified.
+   * @return {@link OrdinalSet} in the most compact representation.
+   */
+  public static OrdinalSet of(int universeSize, int... ordinals) {
+    final int[] copy = ordinals.clone();
+    Arrays.sort(copy);
+    int n = 0;
+    for (int i = 0; i < copy.length; ++i) {
+      if (i == 0 || copy[i] != copy[i - 1]) {
+        copy[n++] = copy[i];
+      }
+    }
+    return ofSorted(universeSize, n == copy.length ? copy : Arrays.copyOf(copy, n));
+  }
+
+  /**
+   * Create {@link OrdinalSet} from bitset words.
+   *
+   * @param universeSize Size of the universe.
+   * @param words Bitset words of length <code>ceil(universeSize / 64)</code>. The array is not
+   *     copied, callers must not modify it afterwards.
+   * @return {@link OrdinalSet} in the most compact representation.
+   */
+  public static OrdinalSet ofBits(int universeSize, long[] words) {
+    int size = 0;
+    for (long word : words) {
+      size += Long.bitCount(word);
+    }
+    if (preferBitset(universeSize, size)) {
+      return new OrdinalSet(universeSize, size, null, words);
+    }
+    final int[] sorted = new int[size];
+    int n = 0;
+    for (int w = 0; w < words.length; ++w) {
+      long word = words[w];
+      while (word != 0) {
+        sorted[n++] = (w << 6) + Long.numberOfTrailingZeros(word);
+        word &= word - 1;
+      }
+    }
+    return new OrdinalSet(universeSize, size, sorted, null);
+  }
+
+  /** @return Whether a bitset takes less memory than a sorted array for the given size. */
+  private static boolean preferBitset(int universeSize, int size) {
+    return 4L * size > 8L * wordCount(universeSize);
+  }
+
+  /** @return Number of <code>long</code> words required for a bitset over the universe. */
+  static int wordCount(int universeSize) {
+    return (universeSize + 63) >>> 6;
+  }
+
+  /** @return Size of the universe the ordinals are taken from. */
+  public int universeSize() {
+    return universeSize;
+  }
+
+  /** @return Number of ordinals in the set. */
+  public int size() {
+    return size;
+  }
+
+  /** @return Whether the set is empty. */
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  /**
+   * @param ordinal Ordinal to query for.
+   * @return Whether <code>ordinal</code> is contained in the set.
+   */
+  public boolean contains(int ordinal) {
+    if (ordinal < 0 || ordinal >= universeSize) {
+      return false;
+    } else if (words != null) {
+      return (words[ordinal >>> 6] & (1L << ordinal)) != 0;
+    } else {
+      return Arrays.binarySearch(sorted, ordinal) >= 0;
+    }
+  }
+
+  /**
+   * @param other Other {@link OrdinalSet} over the same universe.
+   * @return Whether the two sets have at least one ordinal in common.
+   */
+  public boolean intersects(OrdinalSet other) {
+    if (words != null && other.words != null) {
+      for (int w = 0; w < words.length; ++w) {
+        if ((words[w] & other.words[w]) != 0) {
+          return true;
+        }
+      }
+      return false;
+    } else if (words != null) {
+      return other.intersects(this);
+    } else if (other.words != null) {
+      for (int ordinal : sorted) {
+        if (other.contains(ordinal)) {
+          return true;
+        }
+      }
+      return false;
+    } else {
+      int i = 0;
+      int j = 0;
+      while (i < sorted.length && j < other.sorted.length) {
+        if (sorted[i] == other.sorted[j]) {
+          return true;
+        } else if (sorted[i] < other.sorted[j]) {
+          ++i;
+        } else {
+          ++j;
+        }
+      }
+      return false;
+    }
+  }
+
+  /**
+   * @param other Other {@link OrdinalSet} over the same universe.
+   * @return Number of ordinals contained in both sets.
+   */
+  public int intersectionSize(OrdinalSet other) {
+    if (words != null && other.words != null) {
+      int result = 0;
+      for (int w = 0; w < words.length; ++w) {
+        result += Long.bitCount(words[w] & other.words[w]);
+      }
+      return result;
+    } else if (words != null) {
+      return other.intersectionSize(this);
+    } else if (other.words != null) {
+      int result = 0;
+      for (int ordinal : sorted) {
+        if (other.contains(ordinal)) {
+          ++result;
+        }
+      }
+      return result;
+    } else {
+      int result = 0;
+      int i = 0;
+      int j = 0;
+      while (i < sorted.length && j < other.sorted.length) {
+        if (sorted[i] == other.sorted[j]) {
+          ++result;
+          ++i;
+          ++j;
+        } else if (sorted[i] < other.sorted[j]) {
+          ++i;
+        } else {
+          ++j;
+        }
+      }
+      return result;
+    }
+  }
+
+  /**
+   * @param other Other {@link OrdinalSet} over the same universe.
+   * @return Freshly created {@link OrdinalSet} with the ordinals contained in both sets.
+   */
+  public OrdinalSet intersection(OrdinalSet other) {
+    if (words != null && other.words != null) {
+      final long[] result = new long[words.length];
+      for (int w = 0; w < words.length; ++w) {
+        result[w] = words[w] & other.words[w];
+      }
+      return ofBits(universeSize, result);
+    } else if (words != null) {
+      return other.intersection(this);
+    } else {
+      final int[] result = new int[Math.min(size, other.size)];
+      int n = 0;
+      if (other.words != null) {
+        for (int ordinal : sorted) {
+          if (other.contains(ordinal)) {
+            result[n++] = ordinal;
+          }
+        }
+      } else {
+        int i = 0;
+        int j = 0;
+        while (i < sorted.length && j < other.sorted.length) {
+          if (sorted[i] == other.sorted[j]) {
+            result[n++] = sorted[i];
+            ++i;
+            ++j;
+          } else if (sorted[i] < other.sorted[j]) {
+            ++i;
+          } else {
+            ++j;
+          }
+        }
+      }
+      return ofSorted(universeSize, Arrays.copyOf(result, n));
+    }
+  }
+
+  /**
+   * @param other Other {@link OrdinalSet} over the same universe.
+   * @return Smallest ordinal contained in both sets, <code>-1</code> if the sets are disjoint.
+   */
+  public int firstCommon(OrdinalSet other) {
+    if (words != null && other.words != null) {
+      for (int w = 0; w < words.length; ++w) {
+        final long common = words[w] & other.words[w];
+        if (common != 0) {
+          return (w << 6) + Long.numberOfTrailingZeros(common);
+        }
+      }
+      return -1;
+    } else if (words != null) {
+      return other.firstCommon(this);
+    } else if (other.words != null) {
+      for (int ordinal : sorted) {
+        if (other.contains(ordinal)) {
+          return ordinal;
+        }
+      }
+      return -1;
+    } else {
+      int i = 0;
+      int j = 0;
+      while (i < sorted.length && j < other.sorted.length) {
+        if (sorted[i] == other.sorted[j]) {
+          return sorted[i];
+        } else if (sorted[i] < other.sorted[j]) {
+          ++i;
+        } else {
+          ++j;
+        }
+      }
+      return -1;
+    }
+  }
+
+  /**
+   * @param other Other {@link OrdinalSet} over the same universe.
+   * @return Number of ordinals contained in either set.
+   */
+  public int unionSize(OrdinalSet other) {
+    return size + other.size - intersectionSize(other);
+  }
+
+  /**
+   * Set the bits of the ordinals in this set in <code>target</code>.
+   *
+   * @param target Bitset words of length <code>ceil(universeSize / 64)</code>.
+   */
+  public void orInto(long[] target) {
+    if (words != null) {
+      for (int w = 0; w < words.length; ++w) {
+        target[w] |= words[w];
+      }
+    } else {
+      for (int ordinal : sorted) {
+        target[ordinal >>> 6] |= 1L << ordinal;
+      }
+    }
+  }
+
+  /**
+   * Call <code>consumer</code> for each ordinal in the set, in ascending order.
+   *
+   * @param consumer {@link IntConsumer} to call.
+   */
+  public void forEach(IntConsumer consumer) {
+    if (words != null) {
+      for (int w = 0; w < words.length; ++w) {
+        long word = words[w];
+        while (word != 0) {
+          consumer.accept((w << 6) + Long.numberOfTrailingZeros(word));
+          word &= word - 1;
+        }
+      }
+    } else {
+      for (int ordinal : sorted) {
+        consumer.accept(ordinal);
+      }
+    }
+  }
+
+  /** @return Iterator over the ordinals in the set, in ascending order. */
+  public PrimitiveIterator.OfInt iterator() {
+    if (words == null) {
+      return Arrays.stream(sorted).iterator();
+    }
+    return new PrimitiveIterator.OfInt() {
+      private int wordIdx = 0;
+      private long word = words.length == 0 ? 0 : words[0];
+
+      @Override
+      public boolean hasNext() {
+        while (word == 0 && wordIdx + 1 < words.length) {
+          word = words[++wordIdx];
+        }
+        return word != 0;
+      }
+
+      @Override
+      public int nextInt() {
+        if (!hasNext()) {
+          throw new NoSuchElementException();
+        }
+        final int result = (wordIdx << 6) + Long.numberOfTrailingZeros(word);
+        word &= word - 1;
+        return result;
+      }
+    };
+  }
+
+  /** @return Freshly allocated array with the ordinals in the set, in ascending order. */
+  public int[] toArray() {
+    if (words == null) {
+      return sorted.clone();
+    }
+    final int[] result = new int[size];
+    final int[] n = {0};
+    forEach(ordinal -> result[n[0]++] = ordinal);
+    return result;
+  }
+
+  /**
+   * Estimate the heap usage of this set, assuming 12 byte object headers and compressed oops.
+   *
+   * @return Estimated number of bytes used by this object and its arrays.
+   */
+  public long estimatedSizeInBytes() {
+    final long self = 32; // header, three ints and two references, padded
+    if (words != null) {
+      return self + align(16 + 8L * words.length);
+    } else {
+      return self + (sorted == EMPTY_ARRAY ? 0 : align(16 + 4L * sorted.length));
+    }
+  }
+
+  private static long align(long bytes) {
+    return (bytes + 7) & ~7L;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) return true;
+    if (o == null || getClass() != o.getClass()) return false;
+    OrdinalSet that = (OrdinalSet) o;
+    return universeSize == that.universeSize && size == that.size && Arrays.equals(toArray(), that.toArray());
+  }
+
+  @Override
+  public int hashCode() {
+    return 31 * universeSize + Arrays.hashCode(toArray());
+  }
+
+  @Override
+  public String toString() {
+    return Arrays.toString(toArray());
+  }
+}
@@ -0,0 +1,9 @@
+/**
+ * Compact, <code>int</code>-indexed graph structures.
+ *
+ * <p>The classes in this package work on dense vertex ordinals instead of {@link
+ * org.monarchinitiative.phenol.ontology.data.TermId} objects. They back the hot paths of {@link
+ * org.monarchinitiative.phenol.ontology.data.ImmutableOntology} (parent/child lookups, ancestor
+ * queries) without hashing or allocating iterators per hop.
+ */
+package org.monarchinitiative.phenol.graph.csr;
@@ -3,7 +3,8 @@ package org.monarchinitiative.phenol.ontology.algo;
 import java.util.*;
 import java.util.Map.Entry;
 
-import com.google.common.collect.Sets;
+import org.monarchinitiative.phenol.graph.csr.OrdinalSet;
+import org.monarchinitiative.phenol.graph.csr.TopologicalOrder;
 import org.monarchinitiative.phenol.ontology.data.*;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -112,40 +113,40 @@ public final class InformationContentComputation {
   /**
    * This method returns the <b>most informative common ancestor (MICA)</b> of a set of
    * two terms t1 and t2. It is designed to use the map returned by {@link #computeInformationContent}.
+   *
+   * <p>The common ancestors are found by intersecting the ancestor sets of the two terms. Of two
+   * common ancestors with equal information content, the one with the greater level in the {@link
+   * Ontology#getTopologicalOrder() topological order} is returned, in line with {@link MicaIndex},
+   * which should be used when looking up the MICA of many pairs.
+   *
    * @param t1 The first term
    * @param t2 the second term
    * @param ontology reference to the ontology
    * @param term2ic map of information content calculated for each term
-   * @return The term representing the most informative common ancestor
+   * @return The term representing the most informative common ancestor, <code>null</code> if
+   *     either term is unknown
    */
   public static TermId mostInformativeCommonAncestor(TermId t1, TermId t2, Ontology ontology, Map<TermId, Double> term2ic) {
     // Case 1, terms are identical
     if (t1.equals(t2)) return t1;
-    // Case 2, t2 is an ancestor of t1
-    Set<TermId> anc1 = ontology.getAncestorTermIds(t1,false);
-    if (anc1.contains(t2)) return t2;
-    // Case 3, t1 is an ancestor of t2
-    Set<TermId> anc2 = ontology.getAncestorTermIds(t2,false);
-    if (anc2.contains(t1)) return t1;
-    // Case 4, t1 and t2 are not ancestors of one another
-    Sets.SetView<TermId> intersection = Sets.intersection(anc1,anc2);
-    TermId mica = null;
-    double maxIC = -1.0; // information content
-    Deque<TermId> stack = new ArrayDeque<>();
-    stack.push(t1);
-    while (! stack.isEmpty()) {
-      TermId t = stack.pop();
-      if (intersection.contains(t)) {
-        double ic = term2ic.get(t);
-        if (ic>maxIC) {
-          mica=t;
-          maxIC=ic;
-        }
-      }
-      for (TermId p : ontology.getParentTermIds(t)) {
-        stack.push(p);
+    final int ordinal1 = ontology.ordinalOf(t1);
+    final int ordinal2 = ontology.ordinalOf(t2);
+    if (ordinal1 == -1 || ordinal2 == -1) {
+      return null;
+    }
+    final OrdinalSet common = ontology.getAncestorOrdinals(ordinal1)
+      .intersection(ontology.getAncestorOrdinals(ordinal2));
+    final TopologicalOrder order = ontology.getTopologicalOrder();
+    int mica = -1;
+    double maxIC = Double.NEGATIVE_INFINITY; // information content
+    for (PrimitiveIterator.OfInt it = common.iterator(); it.hasNext(); ) {
+      final int ordinal = it.nextInt();
+      final double ic = term2ic.getOrDefault(ontology.termAt(ordinal), 0.0);
+      if (ic > maxIC || (ic == maxIC && order.level(ordinal) > order.level(mica))) {
+        mica = ordinal;
+        maxIC = ic;
       }
     }
-    return mica;
+    return mica == -1 ? null : ontology.termAt(mica);
   }
 }
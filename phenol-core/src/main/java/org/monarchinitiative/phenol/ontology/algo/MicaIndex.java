@@ -0,0 +1,194 @@
+package org.monarchinitiative.phenol.ontology.algo;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.stream.IntStream;
+
+import org.monarchinitiative.phenol.graph.csr.OrdinalSet;
+import org.monarchinitiative.phenol.graph.csr.TopologicalOrder;
+import org.monarchinitiative.phenol.ontology.data.Ontology;
+import org.monarchinitiative.phenol.ontology.data.TermId;
+
+/**
+ * Index for looking up the <b>most informative common ancestor (MICA)</b> of two terms and its
+ * information content.
+ *
+ * <p>On construction, the terms are ranked by descending information content. The ancestor set of
+ * each term is stored over the ranks instead of the ordinals, created from the ontology's ancestor
+ * closure on the first lookup involving the term, so the index builds no closure beyond what the
+ * ontology's {@link org.monarchinitiative.phenol.ontology.data.ClosureMode} provides. The MICA of
+ * two terms is then the first common element of their ancestor sets, which is found by scanning the
+ * two sets in parallel (or and-ing their bitsets word by word) and stopping at the first hit,
+ * without materializing the intersection.
+ *
+ * <p>Terms of equal information content are ranked by descending {@link
+ * org.monarchinitiative.phenol.graph.csr.TopologicalOrder#level(int) level}, so that of two common
+ * ancestors with equal information content, the more specific one is returned. Terms without an
+ * entry in the information content map are ranked last and have an information content of
+ * <code>0</code>.
+ *
+ * <p>The index is immutable and may be shared between threads and similarity measures, e.g. for
+ * computing Resnik, Lin or Jiang-Conrath scores from {@link #micaInformationContent(TermId, TermId)}
+ * and {@link #informationContent(TermId)}.
+ */
+public final class MicaIndex {
+
+  /** {@link Ontology} the index was built for. */
+  private final Ontology ontology;
+
+  /** {@link Map} from {@link TermId} to its information content. */
+  private final Map<TermId, Double> termToIc;
+
+  /** Ordinal of the term at each rank. */
+  private final int[] ordinalAtRank;
+
+  /** Information content of the term at each rank, descending. */
+  private final double[] icAtRank;
+
+  /** Information content of each term, by ordinal. */
+  private final double[] icOfOrdinal;
+
+  /** Rank of each term, by ordinal. */
+  private final int[] rankOfOrdinal;
+
+  /** Ranks of the ancestors (including itself) of each term, by ordinal, created on first use. */
+  private final AtomicReferenceArray<OrdinalSet> rankedAncestors;
+
+  /**
+   * Build the index.
+   *
+   * @param ontology {@link Ontology} to base the index on.
+   * @param termToIc {@link Map} from {@link TermId} to its information content.
+   */
+  public MicaIndex(Ontology ontology, Map<TermId, Double> termToIc) {
+    this.ontology = ontology;
+    this.termToIc = termToIc;
+    final int vertexCount = ontology.getCsrGraph().vertexCount();
+
+    icOfOrdinal = new double[vertexCount];
+    for (int ordinal = 0; ordinal < vertexCount; ++ordinal) {
+      final Double ic = termToIc.get(ontology.termAt(ordinal));
+      icOfOrdinal[ordinal] = ic == null ? Double.NEGATIVE_INFINITY : ic;
+    }
+    final TopologicalOrder order = ontology.getTopologicalOrder();
+    ordinalAtRank = IntStream.range(0, vertexCount)
+      .boxed()
+      .sorted(Comparator.<Integer>comparingDouble(ordinal -> -icOfOrdinal[ordinal])
+        .thenComparingInt(ordinal -> -order.level(ordinal))
+        .thenComparingInt(ordinal -> ordinal))
+      .mapToInt(Integer::intValue)
+      .toArray();
+    icAtRank = new double[vertexCount];
+    rankOfOrdinal = new int[vertexCount];
+    for (int rank = 0; rank < vertexCount; ++rank) {
+      final int ordinal = ordinalAtRank[rank];
+      rankOfOrdinal[ordinal] = rank;
+      if (icOfOrdinal[ordinal] == Double.NEGATIVE_INFINITY) {
+        icOfOrdinal[ordinal] = 0.0;
+      }
+      icAtRank[rank] = icOfOrdinal[ordinal];
+    }
+    rankedAncestors = new AtomicReferenceArray<>(vertexCount);
+  }
+
+  /** @return Ranks of the ancestors of the term with the given ordinal, created on first call. */
+  private OrdinalSet rankedAncestors(int ordinal) {
+    OrdinalSet result = rankedAncestors.get(ordinal);
+    if (result == null) {
+      // concurrent callers may both compute the set, they are equal
+      final int[] ranks = ontology.getAncestorOrdinals(ordinal).toArray();
+      for (int i = 0; i < ranks.length; ++i) {
+        ranks[i] = rankOfOrdinal[ranks[i]];
+      }
+      Arrays.sort(ranks);
+      result = OrdinalSet.ofSorted(rankOfOrdinal.length, ranks);
+      rankedAncestors.set(ordinal, result);
+    }
+    return result;
+  }
+
+  /**
+   * Look up the MICA of two terms by their ordinals.
+   *
+   * @param ordinalA Ordinal of the first term.
+   * @param ordinalB Ordinal of the second term.
+   * @return Ordinal of the MICA, <code>-1</code> if the terms have no common ancestor.
+   */
+  public int micaOrdinal(int ordinalA, int ordinalB) {
+    final int rank = rankedAncestors(ordinalA).firstCommon(rankedAncestors(ordinalB));
+    return rank == -1 ? -1 : ordinalAtRank[rank];
+  }
+
+  /**
+   * Look up the MICA of two terms.
+   *
+   * @param a {@link TermId} of the first term.
+   * @param b {@link TermId} of the second term.
+   * @return {@link TermId} of the MICA, <code>null</code> if the terms have no common ancestor or
+   *     one of them is not a vertex of the ontology's graph.
+   */
+  public TermId mica(TermId a, TermId b) {
+    final int ordinalA = ontology.ordinalOf(a);
+    final int ordinalB = ontology.ordinalOf(b);
+    if (ordinalA == -1 || ordinalB == -1) {
+      return null;
+    }
+    final int mica = micaOrdinal(ordinalA, ordinalB);
+    return mica == -1 ? null : ontology.termAt(mica);
+  }
+
+  /**
+   * Look up the information content of the MICA of two terms by their ordinals.
+   *
+   * @param ordinalA Ordinal of the first term.
+   * @param ordinalB Ordinal of the second term.
+   * @return Information content of the MICA, <code>0</code> if the terms have no common ancestor.
+   */
+  public double micaInformationContent(int ordinalA, int ordinalB) {
+    final int rank = rankedAncestors(ordinalA).firstCommon(rankedAncestors(ordinalB));
+    return rank == -1 ? 0.0 : icAtRank[rank];
+  }
+
+  /**
+   * Look up the information content of the MICA of two terms, i.e. their Resnik similarity.
+   *
+   * @param a {@link TermId} of the first term.
+   * @param b {@link TermId} of the second term.
+   * @return Information content of the MICA, <code>0</code> if the terms have no common ancestor or
+   *     one of them is not a vertex of the ontology's graph.
+   */
+  public double micaInformationContent(TermId a, TermId b) {
+    final int ordinalA = ontology.ordinalOf(a);
+    final int ordinalB = ontology.ordinalOf(b);
+    if (ordinalA == -1 || ordinalB == -1) {
+      return 0.0;
+    }
+    return micaInformationContent(ordinalA, ordinalB);
+  }
+
+  /**
+   * @param termId {@link TermId} of the term.
+   * @return Information content of the term, <code>0</code> if it is unknown.
+   */
+  public double informationContent(TermId termId) {
+    final int ordinal = ontology.ordinalOf(termId);
+    return ordinal == -1 ? 0.0 : icOfOrdinal[ordinal];
+  }
+
+  /** @return Underlying {@link Ontology}. */
+  public Ontology getOntology() {
+    return ontology;
+  }
+
+  /** @return {@link Map} from {@link TermId} to information content. */
+  public Map<TermId, Double> getTermToIc() {
+    return termToIc;
+  }
+
+  @Override
+  public String toString() {
+    return "MicaIndex [termCount=" + ordinalAtRank.length + "]";
+  }
+}
@@ -1,8 +1,7 @@
 package org.monarchinitiative.phenol.ontology.algo;
 
-import org.monarchinitiative.phenol.graph.IdLabeledEdge;
-import org.monarchinitiative.phenol.graph.algo.BreadthFirstSearch;
-import org.jgrapht.graph.DefaultDirectedGraph;
+import org.monarchinitiative.phenol.graph.csr.CsrGraph;
+import org.monarchinitiative.phenol.graph.csr.ReachabilityIndex;
 import org.monarchinitiative.phenol.ontology.data.*;
 
 import com.google.common.collect.ImmutableSet;
@@ -26,23 +25,29 @@ public class OntologyAlgorithm {
   private OntologyAlgorithm() {
   }
 
+  /**
+   * Check whether there is a path from sourceID to destID along the (child to parent) edges of the
+   * ontology, i.e. whether destID is a proper ancestor of sourceID. The check is answered by the
+   * ontology's {@link Ontology#getReachabilityIndex() reachability index}.
+   *
+   * @param ontology The ontology to which the terms belong
+   * @param sourceID The term to start from
+   * @param destID The term to reach
+   * @return true if destID can be reached from sourceID, false if not or if both terms are the same
+   * @throws IllegalArgumentException if sourceID is not a term of the ontology's graph
+   */
   public static boolean existsPath(
       Ontology ontology,
       final TermId sourceID,
       TermId destID) {
     // special case -- a term cannot have a path to itself in an ontology (DAG)
     if (sourceID.equals(destID)) return false;
-    final DefaultDirectedGraph<TermId, IdLabeledEdge> graph = ontology.getGraph();
-    List<TermId> visited = new ArrayList<>();
-    BreadthFirstSearch<TermId, IdLabeledEdge> bfs = new BreadthFirstSearch<>();
-    bfs.startFromForward(
-        graph,
-        sourceID,
-        (g, termId) -> {
-          visited.add(termId);
-          return true;
-        });
-    return visited.contains(destID);
+    final int source = ontology.ordinalOf(sourceID);
+    if (source == -1) {
+      throw new IllegalArgumentException("no such vertex in graph: " + sourceID);
+    }
+    final int dest = ontology.ordinalOf(destID);
+    return dest != -1 && ontology.getReachabilityIndex().reaches(source, dest);
   }
 
   /**
@@ -72,11 +77,15 @@ public class OntologyAlgorithm {
       Ontology ontology,
       TermId parentTermId,
       boolean includeOriginalTerm) {
+    final int ordinal = ontology.ordinalOf(parentTermId);
+    if (ordinal == -1) {
+      throw new IllegalArgumentException("no such vertex in graph: " + parentTermId);
+    }
+    final CsrGraph csrGraph = ontology.getCsrGraph();
     ImmutableSet.Builder<TermId> kids = new ImmutableSet.Builder<>();
     if (includeOriginalTerm) kids.add(parentTermId);
-    for (IdLabeledEdge edge : ontology.getGraph().incomingEdgesOf(parentTermId)) {
-      TermId sourceId = (TermId) edge.getSource();
-      kids.add(sourceId);
+    for (int i = 0; i < csrGraph.childCount(ordinal); ++i) {
+      kids.add(ontology.termAt(csrGraph.child(ordinal, i)));
     }
     return kids.build();
   }
@@ -130,20 +139,16 @@ public class OntologyAlgorithm {
    *
    * @param ontology The ontology to which parentTermId belongs
    * @param parentTermId The term whose descendents were are seeking
-   * @return A set of all descendents of parentTermId (including the parentTermId itself)
+   * @return A set of all descendents of parentTermId (including the parentTermId itself), backed by
+   *     the ontology's descendant closure, see {@link Ontology#getDescendantTermIds(TermId)}
+   * @throws IllegalArgumentException if parentTermId is not a term of the ontology's graph
    */
   public static Set<TermId> getDescendents(
     Ontology ontology, TermId parentTermId) {
-    ImmutableSet.Builder<TermId> descset = new ImmutableSet.Builder<>();
-    Deque<TermId> stack = new ArrayDeque<>();
-    stack.push(parentTermId);
-    while (!stack.isEmpty()) {
-      TermId tid = stack.pop();
-      descset.add(tid);
-      Set<TermId> directChildrenSet = getChildTerms(ontology, tid, false);
-      directChildrenSet.forEach(stack::push);
+    if (ontology.ordinalOf(parentTermId) == -1) {
+      throw new IllegalArgumentException("no such vertex in graph: " + parentTermId);
     }
-    return descset.build();
+    return ontology.getDescendantTermIds(parentTermId);
   }
 
   /**
@@ -160,21 +165,25 @@ public class OntologyAlgorithm {
       Ontology ontology,
       TermId childTermId,
       boolean includeOriginalTerm) {
+    final int ordinal = ontology.ordinalOf(childTermId);
+    if (ordinal == -1) {
+      throw new IllegalArgumentException("no such vertex in graph: " + childTermId);
+    }
+    final CsrGraph csrGraph = ontology.getCsrGraph();
+    final List<RelationshipType> relationshipTypes = ontology.getRelationshipTypes();
     ImmutableSet.Builder<TermId> anccset = new ImmutableSet.Builder<>();
     if (includeOriginalTerm) anccset.add(childTermId);
-    for (IdLabeledEdge edge : ontology.getGraph().outgoingEdgesOf(childTermId)) {
-      int edgeId = edge.getId();
-      Relationship rel = ontology.getRelationMap().get(edgeId);
-      if (rel == null) {
-        logger.error("Could not retrieve relation for id={} [child term={}]", edgeId, ontology.getTermMap().get(childTermId).getName());
+    for (int i = 0; i < csrGraph.parentCount(ordinal); ++i) {
+      final int label = csrGraph.parentLabel(ordinal, i);
+      if (label == -1) {
+        logger.error("Could not retrieve relation for edge to {} [child term={}]",
+          ontology.termAt(csrGraph.parent(ordinal, i)), childTermId);
         continue;
       }
-      RelationshipType reltyp = rel.getRelationshipType();
-      if (! reltyp.propagates()) {
+      if (! relationshipTypes.get(label).propagates()) {
         continue; // this is a relationship that does not follow the annotation-propagation rule (aka true path rule)
       }
-      TermId destId = (TermId) edge.getTarget();
-      anccset.add(destId);
+      anccset.add(ontology.termAt(csrGraph.parent(ordinal, i)));
     }
     return anccset.build();
   }
@@ -186,9 +195,7 @@ public class OntologyAlgorithm {
       TermId rootTerm,
       Set<TermId> children,
       boolean includeOriginalTerm) {
-    ImmutableOntology subontology =
-        (ImmutableOntology) ontology.subOntology(rootTerm);
-    return getAncestorTerms(subontology, children, includeOriginalTerm);
+    return getAncestorTerms(ontology.subOntology(rootTerm), children, includeOriginalTerm);
   }
 
   public static Set<TermId> getAncestorTerms(
@@ -196,9 +203,7 @@ public class OntologyAlgorithm {
       TermId rootTerm,
       TermId child,
       boolean includeOriginalTerm) {
-    ImmutableOntology subontology =
-        (ImmutableOntology) ontology.subOntology(rootTerm);
-    return getAncestorTerms(subontology, child, includeOriginalTerm);
+    return getAncestorTerms(ontology.subOntology(rootTerm), child, includeOriginalTerm);
   }
 
   public static Set<TermId> getAncestorTerms(
@@ -207,14 +212,8 @@ public class OntologyAlgorithm {
       boolean includeOriginalTerm) {
     ImmutableSet.Builder<TermId> builder = new ImmutableSet.Builder<>();
     if (includeOriginalTerm) builder.addAll(children);
-    Deque<TermId> stack = new ArrayDeque<>();
-    Set<TermId> parents = getParentTerms(ontology, children, false);
-    for (TermId t : parents) stack.push(t);
-    while (!stack.isEmpty()) {
-      TermId tid = stack.pop();
-      builder.add(tid);
-      Set<TermId> prnts = getParentTerms(ontology, tid, false);
-      for (TermId t : prnts) stack.push(t);
+    for (TermId child : children) {
+      addProperAncestors(ontology, child, builder);
     }
     return builder.build();
   }
@@ -225,18 +224,26 @@ public class OntologyAlgorithm {
       boolean includeOriginalTerm) {
     ImmutableSet.Builder<TermId> builder = new ImmutableSet.Builder<>();
     if (includeOriginalTerm) builder.add(child);
-    Deque<TermId> stack = new ArrayDeque<>();
-    Set<TermId> parents = getParentTerms(ontology, child, false);
-    for (TermId t : parents) stack.push(t);
-    while (!stack.isEmpty()) {
-      TermId tid = stack.pop();
-      builder.add(tid);
-      Set<TermId> prnts = getParentTerms(ontology, tid, false);
-      for (TermId t : prnts) stack.push(t);
-    }
+    addProperAncestors(ontology, child, builder);
     return builder.build();
   }
 
+  /**
+   * Add the ancestors of child (excluding child itself) via propagating relationships, in line with
+   * {@link #getParentTerms(Ontology, TermId, boolean)}, from the ontology's closure.
+   */
+  private static void addProperAncestors(Ontology ontology, TermId child, ImmutableSet.Builder<TermId> builder) {
+    final int ordinal = ontology.ordinalOf(child);
+    if (ordinal == -1) {
+      throw new IllegalArgumentException("no such vertex in graph: " + child);
+    }
+    ontology.getPropagatingAncestorOrdinals(ordinal).forEach(a -> {
+      if (a != ordinal) {
+        builder.add(ontology.termAt(a));
+      }
+    });
+  }
+
   /**
    * Find all of the direct parents of childTermId (do not include "grandchildren" and other
    * descendents).
@@ -264,9 +271,15 @@ public class OntologyAlgorithm {
     return ontology.getAncestorTermIds(childTermId);
   }
 
+  /**
+   * @param ontology An ontology
+   * @param source The putative subclass
+   * @param dest The putative superclass
+   * @return true iff dest is source itself or one of its ancestors via any relationship
+   */
   public static boolean isSubclass(
     Ontology ontology, TermId source, TermId dest) {
-    return ontology.getAncestorTermIds(source).contains(dest);
+    return ontology.isAncestor(dest, source);
   }
 
   public static boolean termsAreSiblings(
@@ -284,11 +297,18 @@ public class OntologyAlgorithm {
    */
   public static boolean termsAreRelated(
     Ontology ontology, TermId t1, TermId t2) {
-    Set<TermId> ancs1 = getAncestorTerms(ontology, t1, false);
-    Set<TermId> ancs2 = getAncestorTerms(ontology, t2, false);
-    Set<TermId> isect = Sets.intersection(ancs1, ancs2);
-    for (TermId tid : isect) {
-      if (!ontology.isRootTerm(tid)) {
+    final int o1 = ontology.ordinalOf(t1);
+    final int o2 = ontology.ordinalOf(t2);
+    if (o1 == -1 || o2 == -1) {
+      throw new IllegalArgumentException("no such vertex in graph: " + (o1 == -1 ? t1 : t2));
+    }
+    // Check the proper ancestors of t1 against the index rather than intersecting both ancestor sets.
+    final ReachabilityIndex reachability = ontology.getPropagatingReachabilityIndex();
+    final int root = ontology.ordinalOf(ontology.getRootTermId());
+    final PrimitiveIterator.OfInt ancestors = ontology.getPropagatingAncestorOrdinals(o1).iterator();
+    while (ancestors.hasNext()) {
+      final int a = ancestors.nextInt();
+      if (a != o1 && a != o2 && a != root && reachability.reaches(o2, a)) {
         return true;
       }
     }
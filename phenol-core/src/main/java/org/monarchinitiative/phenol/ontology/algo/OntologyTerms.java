@@ -60,24 +60,15 @@ public final class OntologyTerms {
    * @param termId The root of the sub ontology DAG to query for.
    * @param ontology The {@link Ontology} to iterate in.
    * @return Newly created {@link Set} with {@link TermId}s of children of the term corresponding to
-   *     {@link TermId} (including {@link TermId}).
+   *     {@link TermId} (including {@link TermId}), copied from {@link
+   *     Ontology#getDescendantTermIds(TermId)}.
    * @param <O> {@link Ontology} specialization to use.
    */
   public static <O extends Ontology> Set<TermId> childrenOf(TermId termId, O ontology) {
-    Set<TermId> result = new HashSet<>();
-
-    visitChildrenOf(
-        termId,
-        ontology,
-        new TermVisitor<O>() {
-          @Override
-          public boolean visit(O ontology, TermId termId) {
-            result.add(termId);
-            return true;
-          }
-        });
-
-    return result;
+    if (ontology.ordinalOf(termId) == -1) {
+      throw new IllegalArgumentException("no such vertex in graph: " + termId);
+    }
+    return new HashSet<>(ontology.getDescendantTermIds(termId));
   }
 
   /**
@@ -1,26 +1,27 @@
 package org.monarchinitiative.phenol.ontology.algo;
 
-import java.util.HashMap;
-import java.util.HashSet;
-import java.util.Iterator;
-import java.util.Set;
-
-import org.monarchinitiative.phenol.graph.algo.TopologicalSorting;
-import org.monarchinitiative.phenol.graph.algo.VertexVisitor;
-import org.monarchinitiative.phenol.graph.util.GraphUtil;
-import org.jgrapht.graph.DefaultDirectedGraph;
-import org.monarchinitiative.phenol.graph.IdLabeledEdge;
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+import org.monarchinitiative.phenol.graph.csr.CsrGraph;
 import org.monarchinitiative.phenol.ontology.data.Ontology;
 import org.monarchinitiative.phenol.ontology.data.TermId;
-import com.google.common.collect.ImmutableSortedSet;
-
-// TODO: Separate separation of algorithm and generated data structure to equalize with graph.algo
 
 /**
  * Shortest path table for {@link Ontology} objects.
  *
  * <p>The length is given in number of edges to traverse.
  *
+ * <p>Distances are only stored for the pairs of a term and one of its ancestors, as all other
+ * pairs are not connected by a directed path. For each term, the ordinals of its ancestors
+ * (including itself) are kept in a sorted slice of one array and the distances in a parallel slice
+ * of a second array, in compressed sparse row layout. The table thus takes memory proportional to
+ * the size of the ancestor closure instead of the square of the number of terms.
+ *
+ * <p>The table is computed upon construction by a breadth-first search from each term along the
+ * parent edges of {@link Ontology#getCsrGraph()}; the searches are independent and run in parallel
+ * on the common fork join pool.
+ *
  * @author <a href="mailto:manuel.holtgrewe@bihealth.de">Manuel Holtgrewe</a>
  * @author <a href="mailto:sebastian.koehler@charite.de">Sebastian Koehler</a>
  */
@@ -29,15 +30,19 @@ public final class ShortestPathTable {
   /** Integer used for "no path". */
   private static final int DISTANCE_INFINITY = -1;
 
-  /** Number of terms. */
-  private final int termIdCount;
+  /** Number of terms to search from per parallel task, sharing one set of buffers. */
+  private static final int CHUNK_SIZE = 1024;
 
-  /** Mapping from term ID to term index. */
-  private final HashMap<TermId, Integer> termIdToIdx;
+  /** The {@link Ontology} for translating {@link TermId}s to ordinals. */
+  private final Ontology ontology;
 
-  /**
-   * Precomputed distances between all terms.
-   */
+  /** Offsets into {@link #ancestors} and {@link #distances}, length <code>vertexCount + 1</code>. */
+  private final int[] offsets;
+
+  /** Sorted ancestor ordinals (including the term itself) of all terms, concatenated. */
+  private final int[] ancestors;
+
+  /** Distance to the ancestor at the same position in {@link #ancestors}. */
   private final int[] distances;
 
   /**
@@ -48,39 +53,80 @@ public final class ShortestPathTable {
    * @param ontology reference to Ontology object
    */
   public ShortestPathTable(Ontology ontology) {
-    termIdCount = ontology.getNonObsoleteTermIds().size();
-    distances = new int[termIdCount * termIdCount];
-    termIdToIdx = new HashMap<>(termIdCount);
+    this.ontology = ontology;
+    final CsrGraph graph = ontology.getCsrGraph();
+    final int vertexCount = graph.vertexCount();
+
+    // ancestor ordinal in the upper, distance in the lower half, so that sorting orders by ordinal
+    final long[][] packed = new long[vertexCount][];
+    final int chunkCount = (vertexCount + CHUNK_SIZE - 1) / CHUNK_SIZE;
+    IntStream.range(0, chunkCount)
+      .parallel()
+      .forEach(chunk -> {
+        final SearchScratch scratch = new SearchScratch(vertexCount);
+        for (int v = chunk * CHUNK_SIZE; v < Math.min(vertexCount, (chunk + 1) * CHUNK_SIZE); ++v) {
+          packed[v] = scratch.search(graph, v);
+        }
+      });
 
-    int i = 0;
-    for (TermId termId : ImmutableSortedSet.copyOf(ontology.getNonObsoleteTermIds())) {
-      termIdToIdx.put(termId, i++);
+    offsets = new int[vertexCount + 1];
+    for (int v = 0; v < vertexCount; ++v) {
+      offsets[v + 1] = offsets[v] + packed[v].length;
+    }
+    ancestors = new int[offsets[vertexCount]];
+    distances = new int[offsets[vertexCount]];
+    for (int v = 0; v < vertexCount; ++v) {
+      for (int i = 0; i < packed[v].length; ++i) {
+        ancestors[offsets[v] + i] = (int) (packed[v][i] >>> 32);
+        distances[offsets[v] + i] = (int) packed[v][i];
+      }
     }
-
-    precomputeDistances(ontology);
   }
 
-  private void precomputeDistances(Ontology ontology) {
-    // Initialize with values "infinity".
-    for (int i = 0; i < distances.length; ++i) {
-      distances[i] = DISTANCE_INFINITY;
+  /** Buffers for the breadth-first searches of one parallel task. */
+  private static final class SearchScratch {
+
+    /** Queue of the search, holding the reached vertices in order of distance. */
+    private final int[] queue;
+
+    /** Distance of each vertex reached in the current search. */
+    private final int[] distance;
+
+    /** Start vertex of the search that last reached each vertex. */
+    private final int[] seenStamp;
+
+    SearchScratch(int vertexCount) {
+      queue = new int[vertexCount];
+      distance = new int[vertexCount];
+      seenStamp = new int[vertexCount];
+      Arrays.fill(seenStamp, -1);
     }
-    // Precompute distances from topological sorting.
-    new TopologicalSorting<TermId, IdLabeledEdge, DefaultDirectedGraph<TermId, IdLabeledEdge>>()
-        .startForward(ontology.getGraph(), new BuildDistanceTableVertexVisitor());
-  }
 
-  /**
-   * Set distance.
-   *
-   * @param source Starting term.
-   * @param dest Destination term.
-   * @param distance Distance value.
-   */
-  private void setDistance(TermId source, TermId dest, int distance) {
-    final Integer idxSource = termIdToIdx.get(source);
-    final Integer idxDest = termIdToIdx.get(dest);
-    distances[idxSource * termIdCount + idxDest] = distance;
+    /** @return Sorted ancestors of <code>start</code> with distances, packed into <code>long</code>s. */
+    long[] search(CsrGraph graph, int start) {
+      int head = 0;
+      int tail = 0;
+      queue[tail++] = start;
+      distance[start] = 0;
+      seenStamp[start] = start;
+      while (head < tail) {
+        final int v = queue[head++];
+        for (int i = 0; i < graph.parentCount(v); ++i) {
+          final int p = graph.parent(v, i);
+          if (seenStamp[p] != start) {
+            seenStamp[p] = start;
+            distance[p] = distance[v] + 1;
+            queue[tail++] = p;
+          }
+        }
+      }
+      final long[] result = new long[tail];
+      for (int i = 0; i < tail; ++i) {
+        result[i] = ((long) queue[i] << 32) | distance[queue[i]];
+      }
+      Arrays.sort(result);
+      return result;
+    }
   }
 
   /**
@@ -98,13 +144,26 @@ public final class ShortestPathTable {
    *     is no path.
    */
   public int getDistance(TermId source, TermId dest) {
-    final Integer idxSource = termIdToIdx.get(source);
-    final Integer idxDest = termIdToIdx.get(dest);
-    if (idxSource == null || idxDest == null) {
+    final int ordinalSource = ontology.ordinalOf(source);
+    final int ordinalDest = ontology.ordinalOf(dest);
+    if (ordinalSource == -1 || ordinalDest == -1) {
       return DISTANCE_INFINITY;
-    } else {
-      return distances[idxSource * termIdCount + idxDest];
     }
+    return getDistance(ordinalSource, ordinalDest);
+  }
+
+  /**
+   * Query for distance between two terms by their ordinals, see {@link #getDistance(TermId,
+   * TermId)}.
+   *
+   * @param source Ordinal of the starting term.
+   * @param dest Ordinal of the destination term.
+   * @return Distance between {@code source} and {@code dest}; {@link #DISTANCE_INFINITY} if there
+   *     is no path.
+   */
+  public int getDistance(int source, int dest) {
+    final int i = Arrays.binarySearch(ancestors, offsets[source], offsets[source + 1], dest);
+    return i < 0 ? DISTANCE_INFINITY : distances[i];
   }
 
   /**
@@ -126,39 +185,60 @@ public final class ShortestPathTable {
     }
   }
 
-  /** Helper class implementing the building of the vertex distance table. */
-  private class BuildDistanceTableVertexVisitor implements VertexVisitor<TermId, IdLabeledEdge> {
-
-    /** Set of TermId values that were already handled. */
-    private final Set<TermId> seen = new HashSet<>();
-
-    @Override
-    public boolean visit(DefaultDirectedGraph<TermId, IdLabeledEdge> g, TermId termId) {
-      // Distance to self is 0.
-      setDistance(termId, termId, 0);
-
-      // Compute distance to all seen so far (no other can be reachable, we are doing
-      // topological sorting!), via all reachable from here.
-      for (TermId destTermId : seen) {
-        int minDist = DISTANCE_INFINITY;
-        final Iterator<TermId> viaIter = GraphUtil.viaOutEdgeIterator(g, termId);
-        while (viaIter.hasNext()) {
-          final TermId viaTermId = viaIter.next();
-          final int tmpDist = getDistance(viaTermId, destTermId);
-          if (tmpDist != DISTANCE_INFINITY) {
-            final int candDist = tmpDist + 1;
-            if (minDist == DISTANCE_INFINITY || candDist < minDist) {
-              minDist = candDist;
-            }
-          }
-        }
-        if (minDist != DISTANCE_INFINITY) {
-          setDistance(termId, destTermId, minDist);
+  /**
+   * Query for the length of the shortest undirected path between two terms that goes up from each
+   * term to a common ancestor, i.e. the minimum over all common ancestors of the sum of the
+   * distances of the two terms to it.
+   *
+   * <p>If one term is an ancestor of the other, the result is at most {@link
+   * #getDistanceSymmetric(TermId, TermId)}.
+   *
+   * @param a The first term.
+   * @param b The second term.
+   * @return Length of the shortest path via a common ancestor; {@link #DISTANCE_INFINITY} if the
+   *     terms have no common ancestor.
+   */
+  public int getDistanceViaCommonAncestor(TermId a, TermId b) {
+    final int ordinalA = ontology.ordinalOf(a);
+    final int ordinalB = ontology.ordinalOf(b);
+    if (ordinalA == -1 || ordinalB == -1) {
+      return DISTANCE_INFINITY;
+    }
+    int minDist = DISTANCE_INFINITY;
+    int i = offsets[ordinalA];
+    int j = offsets[ordinalB];
+    while (i < offsets[ordinalA + 1] && j < offsets[ordinalB + 1]) {
+      if (ancestors[i] == ancestors[j]) {
+        final int candDist = distances[i] + distances[j];
+        if (minDist == DISTANCE_INFINITY || candDist < minDist) {
+          minDist = candDist;
         }
+        ++i;
+        ++j;
+      } else if (ancestors[i] < ancestors[j]) {
+        ++i;
+      } else {
+        ++j;
       }
-
-      seen.add(termId);
-      return true;
     }
+    return minDist;
+  }
+
+  /** @return Number of stored (term, ancestor) distances. */
+  public int entryCount() {
+    return ancestors.length;
+  }
+
+  /**
+   * Estimate the heap usage of the table, assuming 12 byte object headers and compressed oops.
+   *
+   * @return Estimated number of bytes used by the table, excluding the ontology.
+   */
+  public long estimatedSizeInBytes() {
+    return 24 + arrayBytes(offsets.length) + arrayBytes(ancestors.length) + arrayBytes(distances.length);
+  }
+
+  private static long arrayBytes(int length) {
+    return (16 + 4L * length + 7) & ~7L;
   }
 }
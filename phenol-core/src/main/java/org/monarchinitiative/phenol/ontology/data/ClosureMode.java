@@ -0,0 +1,15 @@
+package org.monarchinitiative.phenol.ontology.data;
+
+/**
+ * Selects how {@link ImmutableOntology} provides the ancestors of its terms.
+ *
+ * @see ImmutableOntology.Builder#closureMode(ClosureMode)
+ */
+public enum ClosureMode {
+  /** Precompute the ancestors of all terms when constructing the ontology (default). */
+  EAGER,
+  /** Compute the ancestors of a term on first access and keep them in a bounded cache. */
+  LAZY,
+  /** Compute the ancestors of a term on each access, without storing them. */
+  NONE
+}
@@ -2,6 +2,7 @@ package org.monarchinitiative.phenol.ontology.data;
 
 import com.google.common.collect.ImmutableMap;
 import java.util.Map;
+import java.util.Objects;
 
 /**
  * Implementation of immutable {@link Dbxref}s.
@@ -48,6 +49,21 @@ public class Dbxref {
     return trailingModifiers;
   }
 
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) return true;
+    if (o == null || getClass() != o.getClass()) return false;
+    Dbxref that = (Dbxref) o;
+    return Objects.equals(name, that.name) &&
+      Objects.equals(description, that.description) &&
+      Objects.equals(trailingModifiers, that.trailingModifiers);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(name, description, trailingModifiers);
+  }
+
   @Override
   public String toString() {
     return "Dbxref [name="
@@ -1,17 +1,28 @@
 package org.monarchinitiative.phenol.ontology.data;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
 import com.google.common.collect.*;
 import org.monarchinitiative.phenol.base.PhenolRuntimeException;
 import org.monarchinitiative.phenol.graph.IdLabeledEdge;
-import org.monarchinitiative.phenol.graph.algo.BreadthFirstSearch;
+import com.google.common.cache.CacheStats;
+import org.monarchinitiative.phenol.graph.csr.CachingClosure;
+import org.monarchinitiative.phenol.graph.csr.ClosureIndex;
+import org.monarchinitiative.phenol.graph.csr.CsrGraph;
+import org.monarchinitiative.phenol.graph.csr.OnDemandClosure;
+import org.monarchinitiative.phenol.graph.csr.OrdinalClosure;
+import org.monarchinitiative.phenol.graph.csr.OrdinalSet;
+import org.monarchinitiative.phenol.graph.csr.ReachabilityIndex;
+import org.monarchinitiative.phenol.graph.csr.TopologicalOrder;
 import org.monarchinitiative.phenol.graph.util.CompatibilityChecker;
-import org.monarchinitiative.phenol.graph.util.GraphUtil;
+import org.monarchinitiative.phenol.utils.PhaseRecorder;
 import org.jgrapht.graph.DefaultDirectedGraph;
-import org.monarchinitiative.phenol.ontology.algo.OntologyTerms;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -54,8 +65,53 @@ public class ImmutableOntology implements Ontology {
   /** The mapping from edge Id to relationship. */
   private final ImmutableMap<Integer, Relationship> relationMap;
 
-  /** Precomputed ancestors (including vertex itself). */
-  private final ImmutableMap<TermId, ImmutableSet<TermId>> precomputedAncestors;
+  /** Term ids of the graph's vertices, indexed by their ordinal (sorted by term id). */
+  private final TermId[] ordinalToTermId;
+
+  /** Mapping from term id of graph vertex to its ordinal. */
+  private final ImmutableMap<TermId, Integer> termIdToOrdinal;
+
+  /** The graph's structure over term ordinals, in CSR layout, edges labelled by index into {@link #relationshipTypes}. */
+  private final CsrGraph csrGraph;
+
+  /** The relationship types of the edges, indexed by their label in {@link #csrGraph}. */
+  private final ImmutableList<RelationshipType> relationshipTypes;
+
+  /** How the ancestors are provided. */
+  private final ClosureMode closureMode;
+
+  /** Ancestors (including vertex itself), indexed by term ordinal; computed as selected by {@link #closureMode}. */
+  private final ClosureIndex ancestorClosure;
+
+  /** Executor for computing {@link #descendantClosure}; <code>null</code> after deserialization. */
+  private final transient Executor closureExecutor;
+
+  /**
+   * Descendants (including vertex itself), indexed by term ordinal; created on first use by {@link
+   * #descendantClosure()}, so ontologies that are only queried for ancestors do not pay for it.
+   */
+  private transient volatile ClosureIndex descendantClosure;
+
+  /**
+   * Ancestors via propagating relationships only (see {@link RelationshipType#propagates()}),
+   * created on first use by {@link #propagatingAncestorClosure()}.
+   */
+  private transient volatile ClosureIndex propagatingAncestorClosure;
+
+  /** Index for subsumption checks, created on first use by {@link #getReachabilityIndex()}. */
+  private transient volatile ReachabilityIndex reachabilityIndex;
+
+  /**
+   * Index for subsumption checks via propagating relationships, created on first use by {@link
+   * #getPropagatingReachabilityIndex()}.
+   */
+  private transient volatile ReachabilityIndex propagatingReachabilityIndex;
+
+  /** Topological order of {@link #csrGraph}, created on first use by {@link #getTopologicalOrder()}. */
+  private transient volatile TopologicalOrder topologicalOrder;
+
+  /** Sub ontology views by root, created on first use by {@link #subOntologyViews()}. */
+  private transient volatile ConcurrentMap<TermId, Ontology> subOntologyViews;
 
   /**
    * Constructor.
@@ -76,6 +132,62 @@ public class ImmutableOntology implements Ontology {
       Collection<TermId> obsoleteTermIds,
       ImmutableMap<TermId, Term> termMap,
       ImmutableMap<Integer, Relationship> relationMap) {
+    this(metaInfo, graph, rootTermId, nonObsoleteTermIds, obsoleteTermIds, termMap, relationMap,
+      ClosureMode.EAGER, CachingClosure.DEFAULT_SPEC, ForkJoinPool.commonPool());
+  }
+
+  /**
+   * Constructor.
+   *
+   * @param metaInfo {@link ImmutableMap} with meta information.
+   * @param graph Graph to use for underlying structure.
+   * @param rootTermId Root node's {@link TermId}.
+   * @param nonObsoleteTermIds {@link Collection} of {@link TermId}s of non-obsolete terms.
+   * @param obsoleteTermIds {@link Collection} of {@link TermId}s of obsolete terms.
+   * @param termMap Mapping from {@link TermId} to <code>T</code>.
+   * @param relationMap Mapping from numeric edge Id to <code>R</code>.
+   * @param closureMode {@link ClosureMode} selecting when ancestors are computed.
+   * @param closureCacheSpec {@link com.google.common.cache.CacheBuilderSpec} string for the cache of
+   *     {@link ClosureMode#LAZY}, see {@link CachingClosure}.
+   * @param closureExecutor {@link Executor} for precomputing the ancestors of independent terms in
+   *     parallel in {@link ClosureMode#EAGER}, see {@link OrdinalClosure#ancestorsOf(CsrGraph, Executor)}.
+   */
+  public ImmutableOntology(
+      ImmutableSortedMap<String, String> metaInfo,
+      DefaultDirectedGraph<TermId, IdLabeledEdge> graph,
+      TermId rootTermId,
+      Collection<TermId> nonObsoleteTermIds,
+      Collection<TermId> obsoleteTermIds,
+      ImmutableMap<TermId, Term> termMap,
+      ImmutableMap<Integer, Relationship> relationMap,
+      ClosureMode closureMode,
+      String closureCacheSpec,
+      Executor closureExecutor) {
+    this(metaInfo, graph, rootTermId, nonObsoleteTermIds, obsoleteTermIds, termMap, relationMap,
+      closureMode, closureCacheSpec, closureExecutor, null, PhaseRecorder.disabled());
+  }
+
+  /**
+   * Constructor for {@link Builder}, {@link SerializedOntology} and {@link OntologyDelta}, taking the
+   * ancestor closure if it has been precomputed.
+   *
+   * @param ancestorClosure Provides the ancestor closure of the graph, or <code>null</code> to compute
+   *     it as selected by <code>closureMode</code>.
+   * @param phaseRecorder {@link PhaseRecorder} for the index build and closure precompute phases.
+   */
+  ImmutableOntology(
+      ImmutableSortedMap<String, String> metaInfo,
+      DefaultDirectedGraph<TermId, IdLabeledEdge> graph,
+      TermId rootTermId,
+      Collection<TermId> nonObsoleteTermIds,
+      Collection<TermId> obsoleteTermIds,
+      ImmutableMap<TermId, Term> termMap,
+      ImmutableMap<Integer, Relationship> relationMap,
+      ClosureMode closureMode,
+      String closureCacheSpec,
+      Executor closureExecutor,
+      ClosureSource ancestorClosure,
+      PhaseRecorder phaseRecorder) {
     this.metaInfo = metaInfo;
     this.graph = graph;
     this.rootTermId = rootTermId;
@@ -85,30 +197,176 @@ public class ImmutableOntology implements Ontology {
     this.allTermIds =
         ImmutableSet.copyOf(Sets.union(this.nonObsoleteTermIds, this.obsoleteTermIds));
     this.relationMap = relationMap;
-    this.precomputedAncestors = precomputeAncestors();
+    try (PhaseRecorder.Phase phase = phaseRecorder.start(PhaseRecorder.INDEX_BUILD)) {
+      this.ordinalToTermId = graph.vertexSet().stream().sorted().toArray(TermId[]::new);
+      this.termIdToOrdinal = indexOrdinals(ordinalToTermId);
+      final Map<RelationshipType, Integer> labels = new LinkedHashMap<>();
+      this.csrGraph = buildCsrGraph(labels);
+      this.relationshipTypes = ImmutableList.copyOf(labels.keySet());
+      phase.count("vertices", csrGraph.vertexCount())
+        .count("edges", csrGraph.edgeCount())
+        .count("relationship types", relationshipTypes.size());
+    }
+    this.closureMode = closureMode;
+    final ClosureIndex providedClosure = ancestorClosure == null
+      ? null
+      : ancestorClosure.closureOf(ordinalToTermId, csrGraph, relationshipTypes);
+    if (providedClosure != null) {
+      this.ancestorClosure = providedClosure;
+    } else {
+      try (PhaseRecorder.Phase phase = phaseRecorder.start(PhaseRecorder.CLOSURE_PRECOMPUTE)) {
+        this.ancestorClosure = closureOf(csrGraph, closureCacheSpec, closureExecutor);
+        phase.count("vertices", csrGraph.vertexCount());
+      }
+    }
+    this.closureExecutor = closureExecutor;
+  }
+
+  /** Provides the ancestor closure of a new ontology, e.g. read back or updated from an earlier version. */
+  interface ClosureSource {
+    /**
+     * @param ordinalToTermId Term ids of the graph's vertices, indexed by their ordinal.
+     * @param graph The graph over the ordinals.
+     * @param relationshipTypes Relationship types of the graph's edge labels.
+     * @return The ancestor closure of <code>graph</code>, or <code>null</code> to compute it as
+     *     selected by the closure mode.
+     */
+    ClosureIndex closureOf(TermId[] ordinalToTermId, CsrGraph graph, List<RelationshipType> relationshipTypes);
+  }
+
+  private static ImmutableMap<TermId, Integer> indexOrdinals(TermId[] ordinalToTermId) {
+    final ImmutableMap.Builder<TermId, Integer> builder = ImmutableMap.builderWithExpectedSize(ordinalToTermId.length);
+    for (int i = 0; i < ordinalToTermId.length; ++i) {
+      builder.put(ordinalToTermId[i], i);
+    }
+    return builder.build();
+  }
+
+  /** @return The ancestor closure of <code>graph</code>, computed as selected by {@link #closureMode}. */
+  private ClosureIndex closureOf(CsrGraph graph, String closureCacheSpec, Executor closureExecutor) {
+    switch (closureMode) {
+      case LAZY:
+        return new CachingClosure(graph, closureCacheSpec);
+      case NONE:
+        return new OnDemandClosure(graph);
+      case EAGER:
+      default:
+        return OrdinalClosure.ancestorsOf(graph, closureExecutor == null ? ForkJoinPool.commonPool() : closureExecutor);
+    }
   }
 
   /**
-   * @return Precomputed map from term id to list of ancestor term ids (a term is its own ancestor).
+   * @return The descendant closure, built with the same {@link ClosureMode} as the ancestor closure
+   *     on first call.
    */
-  private ImmutableMap<TermId, ImmutableSet<TermId>> precomputeAncestors() {
-    final ImmutableMap.Builder<TermId, ImmutableSet<TermId>> mapBuilder = ImmutableMap.builder();
-
-    for (TermId termId : graph.vertexSet()) {
-      final ImmutableSet.Builder<TermId> setBuilder = ImmutableSet.builder();
-      BreadthFirstSearch<TermId, IdLabeledEdge> bfs = new BreadthFirstSearch<>();
-      bfs.startFromForward(
-        graph,
-        termId,
-        (g, v) -> {
-          setBuilder.add(v);
-          return true;
-        });
+  private ClosureIndex descendantClosure() {
+    ClosureIndex result = descendantClosure;
+    if (result == null) {
+      synchronized (this) {
+        result = descendantClosure;
+        if (result == null) {
+          // the descendants are the ancestors in the reversed graph
+          result = closureOf(csrGraph.reversed(), closureCacheSpec(), closureExecutor);
+          descendantClosure = result;
+        }
+      }
+    }
+    return result;
+  }
 
-      mapBuilder.put(termId, setBuilder.build());
+  /**
+   * @return The ancestor closure via propagating relationships, built with the same {@link
+   *     ClosureMode} as the ancestor closure on first call; the ancestor closure itself if all
+   *     relationships propagate.
+   */
+  private ClosureIndex propagatingAncestorClosure() {
+    ClosureIndex result = propagatingAncestorClosure;
+    if (result == null) {
+      synchronized (this) {
+        result = propagatingAncestorClosure;
+        if (result == null) {
+          final CsrGraph propagatingGraph = csrGraph.filterEdges(this::propagates);
+          result = propagatingGraph == csrGraph
+            ? ancestorClosure
+            : closureOf(propagatingGraph, closureCacheSpec(), closureExecutor);
+          propagatingAncestorClosure = result;
+        }
+      }
     }
+    return result;
+  }
+
+  /** @return Whether edges with the given label in {@link #csrGraph} propagate annotations. */
+  private boolean propagates(int label) {
+    return propagates(relationshipTypes, label);
+  }
+
+  /**
+   * @return Whether edges with the given label propagate annotations, for a graph labelled by index
+   *     into <code>relationshipTypes</code>.
+   */
+  static boolean propagates(List<RelationshipType> relationshipTypes, int label) {
+    return label != -1 && relationshipTypes.get(label).propagates();
+  }
+
+  /** @return The precomputed ancestor closure, for {@link SerializedOntology}. */
+  ClosureIndex ancestorClosure() {
+    return ancestorClosure;
+  }
 
-    return mapBuilder.build();
+  /** @return The descendant closure if it has been created already, for {@link SerializedOntology}. */
+  ClosureIndex computedDescendantClosure() {
+    return descendantClosure;
+  }
+
+  /** Set the descendant closure read back by {@link SerializedOntology}. */
+  void restoreDescendantClosure(ClosureIndex closure) {
+    descendantClosure = closure;
+  }
+
+  /**
+   * Replace the ontology by its compact {@link SerializedOntology} form in Java serialization.
+   *
+   * @return {@link SerializedOntology} of this ontology.
+   */
+  private Object writeReplace() {
+    return new SerializedOntology(this);
+  }
+
+  /** @return The {@link Executor} for computing closures, the common pool after deserialization. */
+  Executor closureExecutor() {
+    return closureExecutor == null ? ForkJoinPool.commonPool() : closureExecutor;
+  }
+
+  /** @return The cache specification of the ancestor closure, or the default one. */
+  String closureCacheSpec() {
+    return ancestorClosure instanceof CachingClosure
+      ? ((CachingClosure) ancestorClosure).getSpec()
+      : CachingClosure.DEFAULT_SPEC;
+  }
+
+  /**
+   * @param labels Receives the label of each {@link RelationshipType}, in order of first occurrence.
+   * @return {@link CsrGraph} with the same structure as {@link #graph}, using term ordinals as
+   *     vertices and labelling each edge with its relationship type; <code>-1</code> for edges
+   *     without entry in {@link #relationMap}.
+   */
+  private CsrGraph buildCsrGraph(Map<RelationshipType, Integer> labels) {
+    final int edgeCount = graph.edgeSet().size();
+    final int[] sources = new int[edgeCount];
+    final int[] targets = new int[edgeCount];
+    final int[] edgeLabels = new int[edgeCount];
+    int i = 0;
+    for (IdLabeledEdge edge : graph.edgeSet()) {
+      sources[i] = termIdToOrdinal.get((TermId) edge.getSource());
+      targets[i] = termIdToOrdinal.get((TermId) edge.getTarget());
+      final Relationship relationship = relationMap.get(edge.getId());
+      edgeLabels[i] = relationship == null
+        ? -1
+        : labels.computeIfAbsent(relationship.getRelationshipType(), type -> labels.size());
+      ++i;
+    }
+    return CsrGraph.of(ordinalToTermId.length, sources, targets, edgeLabels);
   }
 
   @Override
@@ -131,6 +389,56 @@ public class ImmutableOntology implements Ontology {
     return relationMap;
   }
 
+  @Override
+  public CsrGraph getCsrGraph() {
+    return csrGraph;
+  }
+
+  @Override
+  public List<RelationshipType> getRelationshipTypes() {
+    return relationshipTypes;
+  }
+
+  @Override
+  public int ordinalOf(TermId termId) {
+    final Integer ordinal = termIdToOrdinal.get(termId);
+    return ordinal == null ? -1 : ordinal;
+  }
+
+  @Override
+  public TermId termAt(int ordinal) {
+    return ordinalToTermId[ordinal];
+  }
+
+  @Override
+  public Set<TermId> getParentTermIds(TermId termId) {
+    final int ordinal = ordinalOf(termId);
+    if (ordinal == -1) {
+      throw new IllegalArgumentException("no such vertex in graph: " + termId);
+    }
+    final Set<TermId> result = new HashSet<>();
+    for (int i = 0; i < csrGraph.parentCount(ordinal); ++i) {
+      result.add(ordinalToTermId[csrGraph.parent(ordinal, i)]);
+    }
+    return result;
+  }
+
+  /** @return The {@link ClosureMode} the ontology was built with. */
+  public ClosureMode getClosureMode() {
+    return closureMode;
+  }
+
+  /**
+   * @return Hit and miss counts of the ancestor cache if built with {@link ClosureMode#LAZY}, empty
+   *     otherwise.
+   */
+  public Optional<CacheStats> getClosureCacheStats() {
+    if (ancestorClosure instanceof CachingClosure) {
+      return Optional.of(((CachingClosure) ancestorClosure).stats());
+    }
+    return Optional.empty();
+  }
+
   @Override
   public boolean isRootTerm(TermId termId) {
     return termId.equals(rootTermId);
@@ -143,31 +451,149 @@ public class ImmutableOntology implements Ontology {
       return ImmutableSet.of();
     }
 
-    final ImmutableSet<TermId> precomputed = precomputedAncestors.getOrDefault(termId, ImmutableSet.of());
-    if (includeRoot) {
-      return precomputed;
-    } else {
-      return ImmutableSet.copyOf(Sets.difference(precomputed, ImmutableSet.of(rootTermId)));
+    final int ordinal = ordinalOf(termId);
+    if (ordinal == -1) {
+      return ImmutableSet.of();
+    }
+    return ancestorView(ancestorClosure.get(ordinal), includeRoot);
+  }
+
+  @Override
+  public OrdinalSet getAncestorOrdinals(int ordinal) {
+    return ancestorClosure.get(ordinal);
+  }
+
+  @Override
+  public boolean isAncestor(TermId ancestor, TermId termId) {
+    final int ordinal = ordinalOf(termId);
+    final int ancestorOrdinal = ordinalOf(ancestor);
+    return ordinal != -1 && ancestorOrdinal != -1 && getReachabilityIndex().reaches(ordinal, ancestorOrdinal);
+  }
+
+  @Override
+  public ReachabilityIndex getReachabilityIndex() {
+    ReachabilityIndex result = reachabilityIndex;
+    if (result == null) {
+      synchronized (this) {
+        result = reachabilityIndex;
+        if (result == null) {
+          result = ReachabilityIndex.of(csrGraph);
+          reachabilityIndex = result;
+        }
+      }
+    }
+    return result;
+  }
+
+  @Override
+  public ReachabilityIndex getPropagatingReachabilityIndex() {
+    ReachabilityIndex result = propagatingReachabilityIndex;
+    if (result == null) {
+      synchronized (this) {
+        result = propagatingReachabilityIndex;
+        if (result == null) {
+          final CsrGraph propagatingGraph = csrGraph.filterEdges(this::propagates);
+          result = propagatingGraph == csrGraph ? getReachabilityIndex() : ReachabilityIndex.of(propagatingGraph);
+          propagatingReachabilityIndex = result;
+        }
+      }
     }
+    return result;
+  }
+
+  @Override
+  public TopologicalOrder getTopologicalOrder() {
+    TopologicalOrder result = topologicalOrder;
+    if (result == null) {
+      synchronized (this) {
+        result = topologicalOrder;
+        if (result == null) {
+          result = TopologicalOrder.of(csrGraph);
+          topologicalOrder = result;
+        }
+      }
+    }
+    return result;
+  }
+
+  @Override
+  public Set<TermId> getPropagatingAncestorTermIds(TermId termId) {
+    final int ordinal = ordinalOf(termId);
+    if (getPrimaryTermId(termId) == null || ordinal == -1) {
+      return ImmutableSet.of();
+    }
+    return ancestorView(propagatingAncestorClosure().get(ordinal), true);
+  }
+
+  @Override
+  public OrdinalSet getPropagatingAncestorOrdinals(int ordinal) {
+    return propagatingAncestorClosure().get(ordinal);
+  }
+
+  @Override
+  public Set<TermId> getDescendantTermIds(TermId termId) {
+    final int ordinal = ordinalOf(termId);
+    if (ordinal == -1) {
+      return ImmutableSet.of();
+    }
+    return new OrdinalTermIdSet(this, descendantClosure().get(ordinal), -1);
+  }
+
+  @Override
+  public OrdinalSet getDescendantOrdinals(int ordinal) {
+    return descendantClosure().get(ordinal);
+  }
+
+  @Override
+  public int descendantCount(TermId termId) {
+    final int ordinal = ordinalOf(termId);
+    return ordinal == -1 ? 0 : descendantClosure().get(ordinal).size();
   }
 
   @Override
   public Set<TermId> getAllAncestorTermIds(Collection<TermId> termIds, boolean includeRoot) {
-    final Set<TermId> result = new HashSet<>();
+    return new OrdinalTermIdSet(this, getAllAncestorOrdinals(termIds, includeRoot), -1);
+  }
+
+  @Override
+  public OrdinalSet getAllAncestorOrdinals(Collection<TermId> termIds, boolean includeRoot) {
+    return ancestorUnion(this, csrGraph.vertexCount(), termIds, includeRoot ? -1 : ordinalOf(rootTermId));
+  }
+
+  /**
+   * @return {@link OrdinalSet} with the ancestor ordinals of all <code>termIds</code> in <code>
+   *     ontology</code>, without <code>excludedOrdinal</code> (if not <code>-1</code>).
+   */
+  static OrdinalSet ancestorUnion(Ontology ontology, int universeSize, Collection<TermId> termIds, int excludedOrdinal) {
+    final long[] words = new long[(universeSize + 63) >>> 6];
     for (TermId termId : termIds) {
-      result.addAll(getAncestorTermIds(termId, true));
+      final int ordinal = ontology.ordinalOf(termId);
+      if (ordinal != -1) {
+        ontology.getAncestorOrdinals(ordinal).orInto(words);
+      }
     }
-    if (!includeRoot) {
-      result.remove(rootTermId);
+    if (excludedOrdinal != -1) {
+      words[excludedOrdinal >>> 6] &= ~(1L << excludedOrdinal);
     }
-    return result;
+    return OrdinalSet.ofBits(universeSize, words);
   }
 
   @Override
   public Set<TermId> getCommonAncestors(TermId a, TermId b) {
-    Set<TermId> ancA = getAncestorTermIds(a, false);
-    Set<TermId> ancB = getAncestorTermIds(b, false);
-    return Sets.intersection(ancA, ancB);
+    final int ordinalA = ordinalOf(a);
+    final int ordinalB = ordinalOf(b);
+    if (getPrimaryTermId(a) == null || getPrimaryTermId(b) == null || ordinalA == -1 || ordinalB == -1) {
+      return ImmutableSet.of();
+    }
+    return ancestorView(ancestorClosure.get(ordinalA).intersection(ancestorClosure.get(ordinalB)), false);
+  }
+
+  /**
+   * @return Lazy {@link Set} view of the {@link TermId}s of <code>ordinals</code>, hiding the root
+   *     unless <code>includeRoot</code> is set.
+   */
+  private Set<TermId> ancestorView(OrdinalSet ordinals, boolean includeRoot) {
+    return new OrdinalTermIdSet(this, ordinals, includeRoot ? -1 : ordinalOf(rootTermId));
   }
 
   @Override
@@ -201,47 +627,36 @@ public class ImmutableOntology implements Ontology {
     return obsoleteTermIds;
   }
 
+  /**
+   * {@inheritDoc}
+   *
+   * <p>The sub ontology is a view sharing this ontology's term map, ordinals and closures; nothing
+   * is copied or recomputed. Views are cached, so repeated calls with the same root return the same
+   * instance.
+   *
+   * @throws IllegalArgumentException if {@code subOntologyRoot} is not a vertex of the graph.
+   */
   @Override
   public Ontology subOntology(TermId subOntologyRoot) {
-    final Set<TermId> childTermIds = OntologyTerms.childrenOf(subOntologyRoot, this);
-    final DefaultDirectedGraph<TermId, IdLabeledEdge> subGraph = GraphUtil.subGraph(graph, childTermIds);
-    Set<TermId> intersectingTerms = Sets.intersection(nonObsoleteTermIds, childTermIds);
-
-    // make sure the TermI map contains only terms from the subontology
-    final ImmutableMap.Builder<TermId, Term> termBuilder = ImmutableMap.builder();
-    for (TermId tid : intersectingTerms) {
-      termBuilder.put(tid, termMap.get(tid));
-    }
-
-    ImmutableMap<TermId, Term> subsetTermMap = termBuilder.build();
-    // Only retain relations where both source and destination are terms in the subontology
-    final ImmutableMap.Builder<Integer, Relationship> relationBuilder = ImmutableMap.builder();
-    for (Map.Entry<Integer, Relationship> entry : relationMap.entrySet() ) {
-      Relationship tr = entry.getValue();
-      if (subsetTermMap.containsKey(tr.getSource()) && subsetTermMap.containsKey(tr.getTarget())) {
-        relationBuilder.put(entry.getKey(), entry.getValue());
-      }
+    if (ordinalOf(subOntologyRoot) == -1) {
+      throw new IllegalArgumentException("no such vertex in graph: " + subOntologyRoot);
     }
-    // Note: natural order returns a builder whose keys are ordered by their natural ordering.
-    final ImmutableSortedMap.Builder<String, String> metaInfoBuilder = ImmutableSortedMap.naturalOrder();
-    for (Map.Entry<String, String> entry : metaInfo.entrySet()) {
-      metaInfoBuilder.put(entry.getKey(), entry.getValue());
-    }
-    metaInfoBuilder.put(
-        "provenance",
-        String.format(
-            "Ontology created as a subset from original ontology with root %s",
-            getTermMap().get(rootTermId).getName()));
-    ImmutableSortedMap<String, String> extendedMetaInfo = metaInfoBuilder.build();
+    return subOntologyViews().computeIfAbsent(subOntologyRoot, root -> new SubOntologyView(this, root));
+  }
 
-    return new ImmutableOntology(
-        extendedMetaInfo,
-        subGraph,
-        subOntologyRoot,
-        intersectingTerms,
-        Sets.intersection(obsoleteTermIds, childTermIds),
-        subsetTermMap,
-        relationBuilder.build());
+  /** @return The cache of sub ontology views, created on first call. */
+  private ConcurrentMap<TermId, Ontology> subOntologyViews() {
+    ConcurrentMap<TermId, Ontology> result = subOntologyViews;
+    if (result == null) {
+      synchronized (this) {
+        result = subOntologyViews;
+        if (result == null) {
+          result = new ConcurrentHashMap<>();
+          subOntologyViews = result;
+        }
+      }
+    }
+    return result;
   }
 
   @Override
@@ -261,6 +676,10 @@ public class ImmutableOntology implements Ontology {
     private Map<String, String> metaInfo = new LinkedHashMap<>();
     private Collection<Term> terms = new ArrayList<>();
     private Collection<Relationship> relationships = new ArrayList<>();
+    private ClosureMode closureMode = ClosureMode.EAGER;
+    private String closureCacheSpec = CachingClosure.DEFAULT_SPEC;
+    private Executor closureExecutor = ForkJoinPool.commonPool();
+    private PhaseRecorder phaseRecorder = PhaseRecorder.disabled();
 
     public Builder metaInfo(Map<String, String> metaInfo) {
       Objects.requireNonNull(metaInfo);
@@ -280,6 +699,50 @@ public class ImmutableOntology implements Ontology {
       return this;
     }
 
+    /**
+     * Select whether ancestors are precomputed for all terms ({@link ClosureMode#EAGER}, the
+     * default), computed and cached on first access ({@link ClosureMode#LAZY}), or computed on each
+     * access ({@link ClosureMode#NONE}).
+     */
+    public Builder closureMode(ClosureMode closureMode) {
+      Objects.requireNonNull(closureMode);
+      this.closureMode = closureMode;
+      return this;
+    }
+
+    /**
+     * Configure the ancestor cache of {@link ClosureMode#LAZY} by a {@link
+     * com.google.common.cache.CacheBuilderSpec} string, e.g. <code>"maximumSize=5000"</code> or
+     * <code>"maximumSize=5000,expireAfterAccess=10m"</code>. Defaults to {@value
+     * CachingClosure#DEFAULT_SPEC}.
+     */
+    public Builder closureCacheSpec(String closureCacheSpec) {
+      Objects.requireNonNull(closureCacheSpec);
+      this.closureCacheSpec = closureCacheSpec;
+      return this;
+    }
+
+    /**
+     * Set the {@link Executor} for precomputing the ancestor closure. Terms in the same topological
+     * layer are processed in parallel, defaults to {@link ForkJoinPool#commonPool()}. The result
+     * does not depend on the executor.
+     */
+    public Builder closureExecutor(Executor closureExecutor) {
+      Objects.requireNonNull(closureExecutor);
+      this.closureExecutor = closureExecutor;
+      return this;
+    }
+
+    /**
+     * Set the {@link PhaseRecorder} for the graph build, compatibility check, index build and
+     * closure precompute phases of {@link #build()}.
+     */
+    public Builder phaseRecorder(PhaseRecorder phaseRecorder) {
+      Objects.requireNonNull(phaseRecorder);
+      this.phaseRecorder = phaseRecorder;
+      return this;
+    }
+
     public ImmutableOntology build() {
       // A heuristic for determining root node(s).
       // If there are multiple candidate roots, we will just put owl:Thing as the root one.
@@ -311,7 +774,18 @@ public class ImmutableOntology implements Ontology {
       Map<Integer, Relationship> relationshipMap = relationships.stream()
         .collect(Collectors.toMap(Relationship::getId, Function.identity()));
 
-      DefaultDirectedGraph<TermId, IdLabeledEdge> phenolGraph = makeDefaultDirectedGraph(nonObsoleteTermIds, relationships);
+      DefaultDirectedGraph<TermId, IdLabeledEdge> phenolGraph;
+      try (PhaseRecorder.Phase phase = phaseRecorder.start(PhaseRecorder.GRAPH_BUILD)) {
+        phenolGraph = makeDefaultDirectedGraph(nonObsoleteTermIds, relationships);
+        phase.count("terms", terms.size())
+          .count("relationships", relationships.size())
+          .count("vertices", phenolGraph.vertexSet().size())
+          .count("edges", phenolGraph.edgeSet().size());
+      }
+      try (PhaseRecorder.Phase phase = phaseRecorder.start(PhaseRecorder.COMPATIBILITY_CHECK)) {
+        CompatibilityChecker.check(phenolGraph.vertexSet(), phenolGraph.edgeSet());
+        phase.count("vertices", phenolGraph.vertexSet().size());
+      }
 
       return new ImmutableOntology(
         ImmutableSortedMap.copyOf(metaInfo),
@@ -320,7 +794,12 @@ public class ImmutableOntology implements Ontology {
         nonObsoleteTermIds,
         obsoleteTermIds,
         ImmutableMap.copyOf(termsMap),
-        ImmutableMap.copyOf(relationshipMap));
+        ImmutableMap.copyOf(relationshipMap),
+        closureMode,
+        closureCacheSpec,
+        closureExecutor,
+        null,
+        phaseRecorder);
     }
 
     private DefaultDirectedGraph<TermId, IdLabeledEdge> makeDefaultDirectedGraph(Set<TermId> nonObsoleteTermIds, Collection<Relationship> relationships) {
@@ -336,8 +815,6 @@ public class ImmutableOntology implements Ontology {
         phenolGraph.addVertex(objectTermId);
         phenolGraph.addEdge(subjectTermId, objectTermId, new IdLabeledEdge(relationship.getId()));
       }
-
-      CompatibilityChecker.check(phenolGraph.vertexSet(), phenolGraph.edgeSet());
       return phenolGraph;
     }
 
@@ -379,6 +856,10 @@ public class ImmutableOntology implements Ontology {
       terms.add(rootTerm);
       int edgeId = 1 + relationships.stream().mapToInt(Relationship::getId).max().orElse(0);
       for (TermId rootCandidate : rootCandidates) {
+        if (rootCandidate.equals(rootTerm.getId())) {
+          // owl:Thing already is one of the candidates, do not make it its own child
+          continue;
+        }
         IdLabeledEdge idLabeledEdge = new IdLabeledEdge(edgeId++);
         //Note-for the "artificial root term, we use the IS_A relation
         Relationship relationship = new Relationship(rootCandidate, rootTerm.getId(), idLabeledEdge.getId(), RelationshipType.IS_A);
@@ -2,7 +2,12 @@ package org.monarchinitiative.phenol.ontology.data;
 
 import java.io.Serializable;
 import java.util.*;
+import java.util.stream.IntStream;
 
+import org.monarchinitiative.phenol.graph.csr.CsrGraph;
+import org.monarchinitiative.phenol.graph.csr.OrdinalSet;
+import org.monarchinitiative.phenol.graph.csr.ReachabilityIndex;
+import org.monarchinitiative.phenol.graph.csr.TopologicalOrder;
 import org.monarchinitiative.phenol.graph.util.GraphUtil;
 
 /**
@@ -34,6 +39,99 @@ public interface Ontology extends MinimalOntology, Serializable {
     }
   }
 
+  /**
+   * Return the ontology's structure over dense term ordinals.
+   *
+   * <p>Each vertex of {@link #getGraph()} is assigned an ordinal in <code>[0, n)</code>, ordered
+   * by {@link TermId}. The returned {@link CsrGraph} has the same edges (child to parent) as {@link
+   * #getGraph()} and is the preferred way of traversing the ontology in performance-critical code.
+   *
+   * @return {@link CsrGraph} over the term ordinals.
+   */
+  CsrGraph getCsrGraph();
+
+  /**
+   * Look up the ordinal of a term, see {@link #getCsrGraph()}.
+   *
+   * @param termId The {@link TermId} of a vertex of {@link #getGraph()}; alternative ids are not
+   *     resolved.
+   * @return Ordinal of {@code termId} or <code>-1</code> if it is not a vertex of the graph.
+   */
+  int ordinalOf(TermId termId);
+
+  /**
+   * Look up the term at an ordinal, see {@link #getCsrGraph()}.
+   *
+   * @param ordinal Ordinal in <code>[0, getCsrGraph().vertexCount())</code>.
+   * @return The {@link TermId} with the given ordinal.
+   */
+  TermId termAt(int ordinal);
+
+  /**
+   * @param ordinal Ordinal of the term to query the parents for.
+   * @return Sorted ordinals of the parents of the term with the given ordinal.
+   */
+  default int[] parentsOf(int ordinal) {
+    return getCsrGraph().parentsOf(ordinal);
+  }
+
+  /**
+   * @param ordinal Ordinal of the term to query the children for.
+   * @return Sorted ordinals of the children of the term with the given ordinal.
+   */
+  default int[] childrenOf(int ordinal) {
+    return getCsrGraph().childrenOf(ordinal);
+  }
+
+  /**
+   * Return the relationship types of the ontology's edges.
+   *
+   * <p>Each edge of {@link #getCsrGraph()} is labelled with the index of its {@link
+   * RelationshipType} in the returned list, see {@link CsrGraph#parentLabel(int, int)}, or with
+   * <code>-1</code> if its relationship is unknown.
+   *
+   * @return {@link List} of the {@link RelationshipType}s, indexed by edge label.
+   */
+  List<RelationshipType> getRelationshipTypes();
+
+  /**
+   * @param ordinal Ordinal of the term to query the parents for.
+   * @param relationshipType The {@link RelationshipType} of the edges to follow.
+   * @return Sorted ordinals of the parents of the term with the given ordinal via edges of the
+   *     given type.
+   */
+  default int[] parentsOf(int ordinal, RelationshipType relationshipType) {
+    final CsrGraph csrGraph = getCsrGraph();
+    final int label = getRelationshipTypes().indexOf(relationshipType);
+    final int[] result = new int[csrGraph.parentCount(ordinal)];
+    int n = 0;
+    for (int i = 0; i < csrGraph.parentCount(ordinal); ++i) {
+      if (label != -1 && csrGraph.parentLabel(ordinal, i) == label) {
+        result[n++] = csrGraph.parent(ordinal, i);
+      }
+    }
+    return Arrays.copyOf(result, n);
+  }
+
+  /**
+   * @param ordinal Ordinal of the term to query the children for.
+   * @param relationshipType The {@link RelationshipType} of the edges to follow.
+   * @return Sorted ordinals of the children of the term with the given ordinal via edges of the
+   *     given type.
+   */
+  default int[] childrenOf(int ordinal, RelationshipType relationshipType) {
+    final CsrGraph csrGraph = getCsrGraph();
+    final int label = getRelationshipTypes().indexOf(relationshipType);
+    final int[] result = new int[csrGraph.childCount(ordinal)];
+    int n = 0;
+    for (int i = 0; i < csrGraph.childCount(ordinal); ++i) {
+      if (label != -1 && csrGraph.childLabel(ordinal, i) == label) {
+        result[n++] = csrGraph.child(ordinal, i);
+      }
+    }
+    return Arrays.copyOf(result, n);
+  }
+
   /**
    * Return all the {@link TermId}s of all ancestors from {@code termId}.
    *
@@ -55,16 +153,166 @@ public interface Ontology extends MinimalOntology, Serializable {
     return getAncestorTermIds(termId, true);
   }
 
+  /**
+   * Return the {@link TermId}s of all ancestors of {@code termId} that are reached via relationships
+   * that propagate annotations (see {@link RelationshipType#propagates()}), i.e. the terms an item
+   * annotated to {@code termId} is implicitly annotated to by the true path rule.
+   *
+   * <p>The result equals {@link #getAncestorTermIds(TermId)} if all relationships of the ontology
+   * propagate, and the same closure is used in that case.
+   *
+   * @param termId The {@link TermId} to query ancestor {@link TermId}s for.
+   * @return {@link Set} of {@link TermId}s of the ancestors of {@code termId} via propagating
+   *     relationships (including itself and the root), an empty {@link Set} if {@code termId} is
+   *     not a valid term ID in the ontology.
+   */
+  Set<TermId> getPropagatingAncestorTermIds(TermId termId);
+
+  /**
+   * Return the ordinals of all ancestors of the term with the given ordinal via propagating
+   * relationships (including itself), see {@link #getPropagatingAncestorTermIds(TermId)}.
+   *
+   * @param ordinal Ordinal of the term to query the ancestors for.
+   * @return {@link OrdinalSet} with the ordinals of the ancestors.
+   */
+  OrdinalSet getPropagatingAncestorOrdinals(int ordinal);
+
+  /**
+   * Return the ordinals of all ancestors of the term with the given ordinal (including itself and
+   * the root), see {@link #getCsrGraph()}.
+   *
+   * @param ordinal Ordinal of the term to query the ancestors for.
+   * @return {@link OrdinalSet} with the ordinals of the ancestors.
+   */
+  OrdinalSet getAncestorOrdinals(int ordinal);
+
+  /**
+   * Check whether {@code ancestor} is an ancestor of {@code termId}.
+   *
+   * <p>In line with {@link #getAncestorTermIds(TermId)}, a term is its own ancestor. Alternative ids
+   * are not resolved. The check uses {@link #getReachabilityIndex()} and neither builds nor reads
+   * ancestor sets, so it is cheap regardless of the {@link ClosureMode}.
+   *
+   * @param ancestor The {@link TermId} of the putative ancestor.
+   * @param termId The {@link TermId} of the term to check the ancestors of.
+   * @return Whether {@code ancestor} is an ancestor of {@code termId}.
+   */
+  boolean isAncestor(TermId ancestor, TermId termId);
+
+  /**
+   * Return the index for checking whether a term is an ancestor of another in (about) constant
+   * time, built on first call.
+   *
+   * @return {@link ReachabilityIndex} over the ordinals of {@link #getCsrGraph()}.
+   */
+  ReachabilityIndex getReachabilityIndex();
+
+  /**
+   * Return the index for checking whether a term is an ancestor of another via propagating
+   * relationships only (see {@link RelationshipType#propagates()}), built on first call.
+   *
+   * <p>Use this index where the ancestors of {@link #getPropagatingAncestorTermIds(TermId)} are
+   * meant, e.g. for checking whether two terms share an ancestor annotations propagate to.
+   *
+   * @return {@link ReachabilityIndex} over the ordinals of {@link #getCsrGraph()}, following only
+   *     the edges of propagating relationships.
+   */
+  ReachabilityIndex getPropagatingReachabilityIndex();
+
+  /**
+   * Return the topological order of {@link #getCsrGraph()} with the level and depth of each term,
+   * computed on first call and kept.
+   *
+   * <p>Bottom-up computations (e.g. propagating annotation counts to the ancestors) should sweep
+   * over this order instead of sorting or recursing over {@link #getGraph()}.
+   *
+   * @return {@link TopologicalOrder} over the ordinals of {@link #getCsrGraph()}.
+   * @throws org.monarchinitiative.phenol.graph.algo.GraphNotDagException if the graph has a cycle.
+   */
+  TopologicalOrder getTopologicalOrder();
+
+  /**
+   * Return all the {@link TermId}s of all descendants of {@code termId}.
+   *
+   * <p>The descendants are taken from a closure that mirrors the ancestor closure and is built on
+   * first use. Alternative ids are not resolved.
+   *
+   * @param termId The {@link TermId} to query descendant {@link TermId}s for.
+   * @return {@link Set} of {@link TermId}s of the descendants of {@code termId} (including itself),
+   *     an empty {@link Set} if {@code termId} is not a vertex of {@link #getGraph()}.
+   */
+  Set<TermId> getDescendantTermIds(TermId termId);
+
+  /**
+   * Return the ordinals of all descendants of the term with the given ordinal (including itself),
+   * see {@link #getCsrGraph()}.
+   *
+   * @param ordinal Ordinal of the term to query the descendants for.
+   * @return {@link OrdinalSet} with the ordinals of the descendants.
+   */
+  OrdinalSet getDescendantOrdinals(int ordinal);
+
+  /**
+   * @param termId The {@link TermId} to count the descendants of.
+   * @return Number of descendants of {@code termId} (including itself), <code>0</code> if {@code
+   *     termId} is not a vertex of {@link #getGraph()}.
+   */
+  int descendantCount(TermId termId);
+
   /**
    * Return all the {@link TermId}s of all ancestors from {@code termIds}.
    *
    * @param termIds {@link Collection} of {@link TermId}s to gather all parents except for the root.
    * @param includeRoot Whether or not to include the root's {@link TermId}
-   * @return {@link Set} of {@link TermId}s including all {@link TermId}s from {@code termIds},
-   *     including all ancestors.
+   * @return Read-only {@link Set} of {@link TermId}s including all {@link TermId}s from {@code
+   *     termIds}, including all ancestors, backed by {@link #getAllAncestorOrdinals(Collection,
+   *     boolean)}.
    */
   Set<TermId> getAllAncestorTermIds(Collection<TermId> termIds, boolean includeRoot);
 
+  /**
+   * Return the ordinals of all ancestors of {@code termIds} (including the terms themselves), see
+   * {@link #getAllAncestorTermIds(Collection, boolean)}.
+   *
+   * <p>The ancestor sets of the terms are or-ed into one bitset, so the union is computed without
+   * materializing any {@link TermId} sets. The result is meant to be kept and reused, e.g. for
+   * comparing the annotations of an item against many others via {@link
+   * OrdinalSet#intersectionSize(OrdinalSet)} and {@link OrdinalSet#unionSize(OrdinalSet)}.
+   *
+   * @param termIds {@link Collection} of {@link TermId}s, ids that are not vertices of {@link
+   *     #getCsrGraph()} are ignored.
+   * @param includeRoot Whether or not to include the root's ordinal.
+   * @return {@link OrdinalSet} with the ordinals of the ancestors of all {@code termIds}.
+   */
+  OrdinalSet getAllAncestorOrdinals(Collection<TermId> termIds, boolean includeRoot);
+
+  /**
+   * Return the ancestor unions of many term collections, see {@link
+   * #getAllAncestorOrdinals(Collection, boolean)}, e.g. of the annotations of all diseases.
+   *
+   * <p>The unions are computed in parallel on the common fork join pool.
+   *
+   * @param termIdCollections {@link Map} from key (e.g. disease id) to the {@link TermId}s of the
+   *     key.
+   * @param includeRoot Whether or not to include the root's ordinal.
+   * @param <K> Type of the keys.
+   * @return Read-only {@link Map} from key to the {@link OrdinalSet} with the ordinals of the
+   *     ancestors of its {@link TermId}s, in the iteration order of {@code termIdCollections}.
+   */
+  default <K> Map<K, OrdinalSet> getAllAncestorOrdinals(
+      Map<K, ? extends Collection<TermId>> termIdCollections, boolean includeRoot) {
+    final List<Map.Entry<K, ? extends Collection<TermId>>> entries = new ArrayList<>(termIdCollections.entrySet());
+    final OrdinalSet[] unions = new OrdinalSet[entries.size()];
+    IntStream.range(0, unions.length)
+      .parallel()
+      .forEach(i -> unions[i] = getAllAncestorOrdinals(entries.get(i).getValue(), includeRoot));
+    final Map<K, OrdinalSet> result = new LinkedHashMap<>();
+    for (int i = 0; i < unions.length; ++i) {
+      result.put(entries.get(i).getKey(), unions[i]);
+    }
+    return Collections.unmodifiableMap(result);
+  }
+
   Set<TermId> getCommonAncestors(TermId a, TermId b);
 
   boolean containsTerm(TermId tid);
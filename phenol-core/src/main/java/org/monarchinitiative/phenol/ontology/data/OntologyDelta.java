@@ -0,0 +1,335 @@
+package org.monarchinitiative.phenol.ontology.data;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.function.IntPredicate;
+
+import com.google.common.collect.HashMultiset;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.ImmutableSortedMap;
+import com.google.common.collect.Multiset;
+import org.jgrapht.graph.DefaultDirectedGraph;
+import org.monarchinitiative.phenol.graph.IdLabeledEdge;
+import org.monarchinitiative.phenol.graph.csr.ClosureIndex;
+import org.monarchinitiative.phenol.graph.csr.CsrGraph;
+import org.monarchinitiative.phenol.graph.csr.OrdinalClosure;
+import org.monarchinitiative.phenol.graph.csr.OrdinalSet;
+import org.monarchinitiative.phenol.graph.util.CompatibilityChecker;
+import org.monarchinitiative.phenol.utils.PhaseRecorder;
+
+/**
+ * The changes between two versions of an ontology, e.g. consecutive releases of the HPO, to update
+ * an {@link ImmutableOntology} without building it again.
+ *
+ * <p>{@link #between(Ontology, Ontology)} compares the terms by their id and the relationships by
+ * source, target and type; relationship ids are not stable across releases and are ignored. {@link
+ * #applyTo(ImmutableOntology)} rebuilds the graph and its ordinal indices, which takes time linear
+ * in the size of the ontology, but recomputes the ancestor closure only for the terms whose
+ * ancestors may have changed, i.e. the added terms and the terms whose parents changed and their
+ * descendants. The sets of the other terms are taken over from the updated ontology. A descendant
+ * closure computed already is updated the same way. The returned {@link OntologyUpdate} tells which
+ * terms are affected, so that derived data such as information content can be updated selectively.
+ *
+ * <pre>
+ * OntologyDelta delta = OntologyDelta.between(previousRelease, currentRelease);
+ * OntologyUpdate update = delta.applyTo(previousRelease);
+ * Set&lt;TermId&gt; stale = update.getAffectedTermIds();
+ * </pre>
+ */
+public final class OntologyDelta {
+
+  /** Meta information of the current version. */
+  private final ImmutableSortedMap<String, String> metaInfo;
+
+  /** Id of the root term of the current version. */
+  private final TermId rootTermId;
+
+  /** Terms that are not obsolete in the current version and were not in the previous one, or were obsolete. */
+  private final ImmutableList<Term> addedTerms;
+
+  /** Terms that are not obsolete in both versions but differ, as of the current version. */
+  private final ImmutableList<Term> changedTerms;
+
+  /** Ids of obsolete terms in the current version that were not obsolete in the previous one. */
+  private final ImmutableSet<TermId> obsoletedTermIds;
+
+  /** Ids of terms of the previous version that are not in the current one. */
+  private final ImmutableSet<TermId> removedTermIds;
+
+  /** Relationships of the current version without counterpart in the previous one. */
+  private final ImmutableList<Relationship> addedRelationships;
+
+  /** Relationships of the previous version without counterpart in the current one. */
+  private final ImmutableList<Relationship> removedRelationships;
+
+  private OntologyDelta(
+      ImmutableSortedMap<String, String> metaInfo,
+      TermId rootTermId,
+      List<Term> addedTerms,
+      List<Term> changedTerms,
+      Set<TermId> obsoletedTermIds,
+      Set<TermId> removedTermIds,
+      List<Relationship> addedRelationships,
+      List<Relationship> removedRelationships) {
+    this.metaInfo = metaInfo;
+    this.rootTermId = rootTermId;
+    this.addedTerms = ImmutableList.copyOf(addedTerms);
+    this.changedTerms = ImmutableList.copyOf(changedTerms);
+    this.obsoletedTermIds = ImmutableSet.copyOf(obsoletedTermIds);
+    this.removedTermIds = ImmutableSet.copyOf(removedTermIds);
+    this.addedRelationships = ImmutableList.copyOf(addedRelationships);
+    this.removedRelationships = ImmutableList.copyOf(removedRelationships);
+  }
+
+  /**
+   * Compute the changes from <code>previous</code> to <code>current</code>.
+   *
+   * @param previous The earlier version of the ontology.
+   * @param current The later version of the ontology.
+   * @return The {@link OntologyDelta} turning <code>previous</code> into <code>current</code>.
+   */
+  public static OntologyDelta between(Ontology previous, Ontology current) {
+    final List<Term> addedTerms = new ArrayList<>();
+    final List<Term> changedTerms = new ArrayList<>();
+    for (TermId termId : new TreeSet<>(current.getNonObsoleteTermIds())) {
+      final Term term = current.getTermMap().get(termId);
+      if (!previous.getNonObsoleteTermIds().contains(termId)) {
+        addedTerms.add(term);
+      } else if (!term.equals(previous.getTermMap().get(termId))) {
+        changedTerms.add(term);
+      }
+    }
+
+    final Set<TermId> obsoletedTermIds = new TreeSet<>(current.getObsoleteTermIds());
+    obsoletedTermIds.removeAll(previous.getObsoleteTermIds());
+    final Set<TermId> removedTermIds = new TreeSet<>(previous.getAllTermIds());
+    removedTermIds.removeAll(current.getAllTermIds());
+
+    // relationships may occur more than once, each occurrence needs a counterpart
+    final Multiset<List<Object>> unmatched = HashMultiset.create();
+    for (Relationship relationship : previous.getRelationMap().values()) {
+      unmatched.add(key(relationship));
+    }
+    final List<Relationship> addedRelationships = new ArrayList<>();
+    for (Relationship relationship : current.getRelationMap().values()) {
+      if (unmatched.remove(key(relationship), 1) == 0) {
+        addedRelationships.add(relationship);
+      }
+    }
+    final List<Relationship> removedRelationships = new ArrayList<>();
+    for (Relationship relationship : previous.getRelationMap().values()) {
+      if (unmatched.remove(key(relationship), 1) > 0) {
+        removedRelationships.add(relationship);
+      }
+    }
+
+    return new OntologyDelta(ImmutableSortedMap.copyOf(current.getMetaInfo()), current.getRootTermId(),
+      addedTerms, changedTerms, obsoletedTermIds, removedTermIds, addedRelationships, removedRelationships);
+  }
+
+  /** @return Key identifying a relationship across versions, without its id. */
+  private static List<Object> key(Relationship relationship) {
+    return Arrays.asList(relationship.getSource(), relationship.getTarget(), relationship.getRelationshipType());
+  }
+
+  /** @return Meta information of the current version. */
+  public Map<String, String> getMetaInfo() {
+    return metaInfo;
+  }
+
+  /** @return Id of the root term of the current version. */
+  public TermId getRootTermId() {
+    return rootTermId;
+  }
+
+  /** @return Terms that are not obsolete in the current version but were missing or obsolete in the previous one. */
+  public List<Term> getAddedTerms() {
+    return addedTerms;
+  }
+
+  /** @return Terms that are not obsolete in both versions but whose names, synonyms etc. changed. */
+  public List<Term> getChangedTerms() {
+    return changedTerms;
+  }
+
+  /** @return Ids of terms that are obsolete in the current version but were not in the previous one. */
+  public Set<TermId> getObsoletedTermIds() {
+    return obsoletedTermIds;
+  }
+
+  /** @return Ids of terms of the previous version that are not in the current one. */
+  public Set<TermId> getRemovedTermIds() {
+    return removedTermIds;
+  }
+
+  /** @return Relationships of the current version without counterpart in the previous one. */
+  public List<Relationship> getAddedRelationships() {
+    return addedRelationships;
+  }
+
+  /** @return Relationships of the previous version without counterpart in the current one. */
+  public List<Relationship> getRemovedRelationships() {
+    return removedRelationships;
+  }
+
+  /** @return Ids of all added, changed, obsoleted and removed terms. */
+  public Set<TermId> getChangedTermIds() {
+    final ImmutableSet.Builder<TermId> result = ImmutableSet.builder();
+    addedTerms.forEach(term -> result.add(term.getId()));
+    changedTerms.forEach(term -> result.add(term.getId()));
+    return result.addAll(obsoletedTermIds).addAll(removedTermIds).build();
+  }
+
+  /** @return Whether the versions have the same terms and relationships. */
+  public boolean isEmpty() {
+    return addedTerms.isEmpty() && changedTerms.isEmpty() && obsoletedTermIds.isEmpty() && removedTermIds.isEmpty()
+      && addedRelationships.isEmpty() && removedRelationships.isEmpty();
+  }
+
+  /**
+   * Apply the changes to <code>ontology</code>, usually the previous version the delta was computed
+   * from. Kept relationships keep their ids, added ones are numbered after the highest kept id. The
+   * result has the {@link ClosureMode} of <code>ontology</code>; in {@link ClosureMode#EAGER} only the
+   * ancestor sets of affected terms are computed, otherwise the closures start empty as usual.
+   *
+   * @param ontology The ontology to update, which is not modified.
+   * @return {@link OntologyUpdate} with the updated ontology and the affected terms.
+   */
+  public OntologyUpdate applyTo(ImmutableOntology ontology) {
+    final Set<TermId> dropped = new TreeSet<>(removedTermIds);
+    dropped.addAll(obsoletedTermIds);
+
+    final Map<TermId, Term> terms = new LinkedHashMap<>();
+    for (TermId termId : ontology.getNonObsoleteTermIds()) {
+      if (!dropped.contains(termId)) {
+        terms.put(termId, ontology.getTermMap().get(termId));
+      }
+    }
+    changedTerms.forEach(term -> terms.put(term.getId(), term));
+    addedTerms.forEach(term -> terms.put(term.getId(), term));
+    final Map<TermId, Term> termMap = new TreeMap<>();
+    for (Term term : terms.values()) {
+      termMap.put(term.getId(), term);
+      for (TermId alternateId : term.getAltTermIds()) {
+        termMap.put(alternateId, term);
+      }
+    }
+    final Set<TermId> obsoleteTermIds = new TreeSet<>(ontology.getObsoleteTermIds());
+    obsoleteTermIds.removeAll(removedTermIds);
+    obsoleteTermIds.removeAll(terms.keySet());
+    obsoleteTermIds.addAll(obsoletedTermIds);
+
+    final Multiset<List<Object>> removed = HashMultiset.create();
+    for (Relationship relationship : removedRelationships) {
+      removed.add(key(relationship));
+    }
+    final Map<Integer, Relationship> relationMap = new LinkedHashMap<>();
+    int nextId = 1;
+    for (Relationship relationship : ontology.getRelationMap().values()) {
+      if (removed.remove(key(relationship), 1) == 0) {
+        relationMap.put(relationship.getId(), relationship);
+        nextId = Math.max(nextId, relationship.getId() + 1);
+      }
+    }
+    for (Relationship relationship : addedRelationships) {
+      relationMap.put(nextId, new Relationship(relationship.getSource(), relationship.getTarget(), nextId,
+        relationship.getRelationshipType()));
+      ++nextId;
+    }
+
+    final DefaultDirectedGraph<TermId, IdLabeledEdge> graph = new DefaultDirectedGraph<>(IdLabeledEdge.class);
+    terms.keySet().forEach(graph::addVertex);
+    for (Relationship relationship : relationMap.values()) {
+      graph.addVertex(relationship.getSource());
+      graph.addVertex(relationship.getTarget());
+      graph.addEdge(relationship.getSource(), relationship.getTarget(), new IdLabeledEdge(relationship.getId()));
+    }
+    CompatibilityChecker.check(graph.vertexSet(), graph.edgeSet());
+
+    final ClosureUpdate closureUpdate = new ClosureUpdate(ontology);
+    final ImmutableOntology result = new ImmutableOntology(
+      metaInfo,
+      graph,
+      rootTermId,
+      terms.keySet(),
+      obsoleteTermIds,
+      ImmutableMap.copyOf(termMap),
+      ImmutableMap.copyOf(relationMap),
+      ontology.getClosureMode(),
+      ontology.closureCacheSpec(),
+      ontology.closureExecutor(),
+      closureUpdate,
+      PhaseRecorder.disabled());
+
+    // the descendants change for the ancestors of changed terms, i.e. their descendants in the reversed graphs
+    final CsrGraph reversed = result.getCsrGraph().reversed();
+    final OrdinalSet descendantsAffected =
+      OrdinalClosure.affectedBy(ontology.getCsrGraph().reversed(), reversed, closureUpdate.previousOrdinals,
+        closureUpdate.previousPropagates, closureUpdate.propagates);
+    final ClosureIndex previousDescendants = ontology.computedDescendantClosure();
+    if (previousDescendants instanceof OrdinalClosure) {
+      result.restoreDescendantClosure(OrdinalClosure.update(previousDescendants, reversed,
+        closureUpdate.previousOrdinals, descendantsAffected, ontology.closureExecutor()));
+    }
+    return new OntologyUpdate(this, result, closureUpdate.ancestorsAffected, descendantsAffected);
+  }
+
+  /**
+   * Maps the ordinals of the updated ontology to those of the previous one and determines the terms
+   * whose ancestors may have changed, updating the ancestor closure of an {@link ClosureMode#EAGER}
+   * ontology.
+   */
+  private static final class ClosureUpdate implements ImmutableOntology.ClosureSource {
+
+    private final ImmutableOntology previous;
+
+    private final IntPredicate previousPropagates;
+
+    private int[] previousOrdinals;
+
+    private IntPredicate propagates;
+
+    private OrdinalSet ancestorsAffected;
+
+    ClosureUpdate(ImmutableOntology previous) {
+      this.previous = previous;
+      this.previousPropagates = label -> ImmutableOntology.propagates(previous.getRelationshipTypes(), label);
+    }
+
+    @Override
+    public ClosureIndex closureOf(TermId[] ordinalToTermId, CsrGraph graph, List<RelationshipType> relationshipTypes) {
+      previousOrdinals = new int[ordinalToTermId.length];
+      for (int v = 0; v < ordinalToTermId.length; ++v) {
+        previousOrdinals[v] = previous.ordinalOf(ordinalToTermId[v]);
+      }
+      // a changed relationship type may change the propagating ancestors, even with the same parents
+      propagates = label -> ImmutableOntology.propagates(relationshipTypes, label);
+      ancestorsAffected =
+        OrdinalClosure.affectedBy(previous.getCsrGraph(), graph, previousOrdinals, previousPropagates, propagates);
+      if (previous.getClosureMode() != ClosureMode.EAGER || !(previous.ancestorClosure() instanceof OrdinalClosure)) {
+        return null;
+      }
+      return OrdinalClosure.update(previous.ancestorClosure(), graph, previousOrdinals, ancestorsAffected,
+        previous.closureExecutor());
+    }
+  }
+
+  @Override
+  public String toString() {
+    return "OntologyDelta [addedTerms=" + addedTerms.size()
+      + ", changedTerms=" + changedTerms.size()
+      + ", obsoletedTermIds=" + obsoletedTermIds.size()
+      + ", removedTermIds=" + removedTermIds.size()
+      + ", addedRelationships=" + addedRelationships.size()
+      + ", removedRelationships=" + removedRelationships.size()
+      + "]";
+  }
+}
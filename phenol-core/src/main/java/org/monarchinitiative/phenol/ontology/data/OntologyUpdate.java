@@ -0,0 +1,79 @@
+package org.monarchinitiative.phenol.ontology.data;
+
+import java.util.Set;
+
+import com.google.common.collect.ImmutableSet;
+import org.monarchinitiative.phenol.graph.csr.OrdinalSet;
+
+/**
+ * Result of {@link OntologyDelta#applyTo(ImmutableOntology)}: the updated ontology and the terms
+ * affected by the changes.
+ *
+ * <p>A term is affected if it was changed itself, or if its ancestors or descendants may differ
+ * from those in the ontology the delta was applied to. Caches of derived data can keep the entries
+ * of all other terms, e.g. the information content of a term depends on the annotations of its
+ * descendants and only needs updating for {@link #getTermIdsWithChangedDescendants()}.
+ */
+public final class OntologyUpdate {
+
+  private final OntologyDelta delta;
+
+  private final ImmutableOntology ontology;
+
+  /** Ordinals in {@link #ontology} of the terms whose ancestors may have changed. */
+  private final OrdinalSet ancestorsAffected;
+
+  /** Ordinals in {@link #ontology} of the terms whose descendants may have changed. */
+  private final OrdinalSet descendantsAffected;
+
+  OntologyUpdate(
+      OntologyDelta delta, ImmutableOntology ontology, OrdinalSet ancestorsAffected, OrdinalSet descendantsAffected) {
+    this.delta = delta;
+    this.ontology = ontology;
+    this.ancestorsAffected = ancestorsAffected;
+    this.descendantsAffected = descendantsAffected;
+  }
+
+  /** @return The applied {@link OntologyDelta}. */
+  public OntologyDelta getDelta() {
+    return delta;
+  }
+
+  /** @return The updated ontology. */
+  public ImmutableOntology getOntology() {
+    return ontology;
+  }
+
+  /**
+   * @return Ids of the terms of the updated ontology whose ancestors may have changed, i.e. whose
+   *     ancestor closure entries were recomputed.
+   */
+  public Set<TermId> getTermIdsWithChangedAncestors() {
+    return new OrdinalTermIdSet(ontology, ancestorsAffected, -1);
+  }
+
+  /** @return Ids of the terms of the updated ontology whose descendants may have changed. */
+  public Set<TermId> getTermIdsWithChangedDescendants() {
+    return new OrdinalTermIdSet(ontology, descendantsAffected, -1);
+  }
+
+  /**
+   * @return Ids of the changed terms of the delta, including removed ones, and of the terms whose
+   *     ancestors or descendants may have changed.
+   */
+  public Set<TermId> getAffectedTermIds() {
+    return ImmutableSet.<TermId>builder()
+      .addAll(delta.getChangedTermIds())
+      .addAll(getTermIdsWithChangedAncestors())
+      .addAll(getTermIdsWithChangedDescendants())
+      .build();
+  }
+
+  @Override
+  public String toString() {
+    return "OntologyUpdate [delta=" + delta
+      + ", termsWithChangedAncestors=" + ancestorsAffected.size()
+      + ", termsWithChangedDescendants=" + descendantsAffected.size()
+      + "]";
+  }
+}
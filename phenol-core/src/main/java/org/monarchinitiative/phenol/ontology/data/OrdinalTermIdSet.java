@@ -0,0 +1,96 @@
+package org.monarchinitiative.phenol.ontology.data;
+
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+
+import org.monarchinitiative.phenol.graph.csr.OrdinalSet;
+
+/**
+ * Read-only {@link java.util.Set} of {@link TermId}s backed by an {@link OrdinalSet}.
+ *
+ * <p>The {@link TermId}s are not materialized; membership tests translate the {@link TermId} to its
+ * ordinal and iteration translates ordinals back to {@link TermId}s, in ordinal order. Optionally,
+ * one ordinal (e.g., the root term) can be hidden from the view.
+ *
+ * <p>Used by the {@link Ontology} implementations for returning ancestor and descendant sets.
+ */
+public final class OrdinalTermIdSet extends AbstractSet<TermId> {
+
+  /** The ontology for translating between {@link TermId}s and ordinals. */
+  private final Ontology ontology;
+
+  /** The backing ordinals. */
+  private final OrdinalSet ordinals;
+
+  /** Ordinal hidden from the view, <code>-1</code> for none. */
+  private final int excludedOrdinal;
+
+  /** Number of visible elements. */
+  private final int size;
+
+  /**
+   * @param ontology The {@link Ontology} whose ordinals <code>ordinals</code> refers to.
+   * @param ordinals The backing ordinals.
+   * @param excludedOrdinal Ordinal to hide from the view, <code>-1</code> for none.
+   */
+  public OrdinalTermIdSet(Ontology ontology, OrdinalSet ordinals, int excludedOrdinal) {
+    this.ontology = ontology;
+    this.ordinals = ordinals;
+    this.excludedOrdinal = ordinals.contains(excludedOrdinal) ? excludedOrdinal : -1;
+    this.size = ordinals.size() - (this.excludedOrdinal == -1 ? 0 : 1);
+  }
+
+  /** @return The backing {@link OrdinalSet}, including the hidden ordinal (if any). */
+  OrdinalSet getOrdinals() {
+    return ordinals;
+  }
+
+  @Override
+  public boolean contains(Object o) {
+    if (!(o instanceof TermId)) {
+      return false;
+    }
+    final int ordinal = ontology.ordinalOf((TermId) o);
+    return ordinal != -1 && ordinal != excludedOrdinal && ordinals.contains(ordinal);
+  }
+
+  @Override
+  public Iterator<TermId> iterator() {
+    final PrimitiveIterator.OfInt it = ordinals.iterator();
+    return new Iterator<TermId>() {
+      private int next = advance();
+
+      private int advance() {
+        while (it.hasNext()) {
+          final int ordinal = it.nextInt();
+          if (ordinal != excludedOrdinal) {
+            return ordinal;
+          }
+        }
+        return -1;
+      }
+
+      @Override
+      public boolean hasNext() {
+        return next != -1;
+      }
+
+      @Override
+      public TermId next() {
+        if (next == -1) {
+          throw new NoSuchElementException();
+        }
+        final TermId result = ontology.termAt(next);
+        next = advance();
+        return result;
+      }
+    };
+  }
+
+  @Override
+  public int size() {
+    return size;
+  }
+}
@@ -0,0 +1,166 @@
+package org.monarchinitiative.phenol.ontology.data;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Mutable map from {@link TermId} to <code>int</code> that stores packable ids as primitive
+ * <code>long</code>s, e.g. for mapping term ids to row indices of score tables.
+ *
+ * <p>Keys with a decimal local id (see {@link PackedTermIds}) are kept in an open-addressing hash
+ * table of <code>long</code> keys and <code>int</code> values; other keys are kept in a regular
+ * {@link HashMap}. Values are not boxed.
+ */
+public final class PackedTermIdIntMap implements Serializable {
+
+  /** Serial UId for serialization. */
+  private static final long serialVersionUID = 1L;
+
+  private static final int MIN_CAPACITY = 8;
+
+  /** Value returned by {@link #get(TermId)} for absent keys. */
+  private final int missingValue;
+
+  /** Hash table of packed keys, <code>0</code> marks free slots; length is a power of two. */
+  private transient long[] keys;
+
+  /** Values, parallel to {@link #keys}. */
+  private transient int[] values;
+
+  /** Number of packed keys. */
+  private transient int packedCount;
+
+  /** Entries with keys that cannot be packed, <code>null</code> until needed. */
+  private transient Map<TermId, Integer> unpacked;
+
+  /**
+   * @param expectedSize Expected number of entries.
+   * @param missingValue Value returned by {@link #get(TermId)} for absent keys.
+   */
+  public PackedTermIdIntMap(int expectedSize, int missingValue) {
+    this.missingValue = missingValue;
+    allocate(expectedSize);
+  }
+
+  private void allocate(int expectedSize) {
+    int size = MIN_CAPACITY;
+    while (size * 3L < expectedSize * 4L) {
+      size <<= 1;
+    }
+    keys = new long[size];
+    values = new int[size];
+  }
+
+  private int slotOf(long packed) {
+    final int mask = keys.length - 1;
+    int slot = PackedTermIdSet.mix(packed) & mask;
+    while (keys[slot] != 0 && keys[slot] != packed) {
+      slot = (slot + 1) & mask;
+    }
+    return slot;
+  }
+
+  /**
+   * @param termId The key.
+   * @param value The value to associate with <code>termId</code>.
+   */
+  public void put(TermId termId, int value) {
+    final long packed = PackedTermIds.packOrZero(termId);
+    if (packed == 0) {
+      if (unpacked == null) {
+        unpacked = new HashMap<>();
+      }
+      unpacked.put(termId, value);
+      return;
+    }
+    final int slot = slotOf(packed);
+    values[slot] = value;
+    if (keys[slot] == 0) {
+      keys[slot] = packed;
+      ++packedCount;
+      if (packedCount * 4L > keys.length * 3L) {
+        rehash(keys.length << 1);
+      }
+    }
+  }
+
+  private void rehash(int newSize) {
+    final long[] oldKeys = keys;
+    final int[] oldValues = values;
+    keys = new long[newSize];
+    values = new int[newSize];
+    for (int i = 0; i < oldKeys.length; ++i) {
+      if (oldKeys[i] != 0) {
+        final int slot = slotOf(oldKeys[i]);
+        keys[slot] = oldKeys[i];
+        values[slot] = oldValues[i];
+      }
+    }
+  }
+
+  /**
+   * @param termId The key.
+   * @return The value associated with <code>termId</code>, or the missing value given on
+   *     construction.
+   */
+  public int get(TermId termId) {
+    final long packed = PackedTermIds.packOrZero(termId);
+    if (packed == 0) {
+      if (unpacked == null) {
+        return missingValue;
+      }
+      return unpacked.getOrDefault(termId, missingValue);
+    }
+    final int slot = slotOf(packed);
+    return keys[slot] == packed ? values[slot] : missingValue;
+  }
+
+  /**
+   * @param termId The key.
+   * @return Whether the map contains <code>termId</code>.
+   */
+  public boolean containsKey(TermId termId) {
+    final long packed = PackedTermIds.packOrZero(termId);
+    if (packed == 0) {
+      return unpacked != null && unpacked.containsKey(termId);
+    }
+    return keys[slotOf(packed)] == packed;
+  }
+
+  /** @return Number of entries. */
+  public int size() {
+    return packedCount + (unpacked == null ? 0 : unpacked.size());
+  }
+
+  private void writeObject(ObjectOutputStream out) throws IOException {
+    out.defaultWriteObject();
+    // packed ids are only valid within the JVM, so write the TermIds
+    out.writeInt(size());
+    for (int i = 0; i < keys.length; ++i) {
+      if (keys[i] != 0) {
+        out.writeObject(PackedTermIds.unpack(keys[i]));
+        out.writeInt(values[i]);
+      }
+    }
+    if (unpacked != null) {
+      for (Map.Entry<TermId, Integer> entry : unpacked.entrySet()) {
+        out.writeObject(entry.getKey());
+        out.writeInt(entry.getValue());
+      }
+    }
+  }
+
+  private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+    in.defaultReadObject();
+    final int size = in.readInt();
+    allocate(size);
+    for (int i = 0; i < size; ++i) {
+      final TermId termId = (TermId) in.readObject();
+      put(termId, in.readInt());
+    }
+  }
+}
@@ -0,0 +1,259 @@
+package org.monarchinitiative.phenol.ontology.data;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.ConcurrentModificationException;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * Mutable {@link Set} of {@link TermId}s that stores packable ids as primitive <code>long</code>s.
+ *
+ * <p>Ids with a decimal local id (see {@link PackedTermIds}) are kept in an open-addressing hash
+ * table of <code>long</code>s, which takes 8 to 16 bytes per id instead of the ~100 bytes of a
+ * {@link HashSet} entry plus the {@link TermId} and its {@link String}. Other ids are kept in a
+ * regular {@link HashSet}. The set does not permit <code>null</code> elements.
+ *
+ * <p>Iteration returns the packed ids in table order, followed by the other ids. {@link TermId}s
+ * are re-created from the packed ids during iteration; as they are interned, this does not allocate
+ * for ids in use elsewhere. The iterator does not support {@link Iterator#remove()}.
+ */
+public final class PackedTermIdSet extends AbstractSet<TermId> implements Serializable {
+
+  /** Serial UId for serialization. */
+  private static final long serialVersionUID = 1L;
+
+  private static final int MIN_CAPACITY = 8;
+
+  /** Hash table of packed ids, <code>0</code> marks free slots; length is a power of two. */
+  private transient long[] table;
+
+  /** Number of packed ids in {@link #table}. */
+  private transient int packedCount;
+
+  /** Ids that cannot be packed, <code>null</code> until needed. */
+  private transient Set<TermId> unpacked;
+
+  /** Counter for detecting concurrent modification during iteration. */
+  private transient int modCount;
+
+  public PackedTermIdSet() {
+    this.table = new long[MIN_CAPACITY];
+  }
+
+  /** @param termIds {@link Collection} of {@link TermId}s to initialize the set with. */
+  public PackedTermIdSet(Collection<TermId> termIds) {
+    this.table = new long[tableSizeFor(termIds.size())];
+    addAll(termIds);
+  }
+
+  private static int tableSizeFor(int expectedSize) {
+    int size = MIN_CAPACITY;
+    while (size * 3L < expectedSize * 4L) {
+      size <<= 1;
+    }
+    return size;
+  }
+
+  /** Mix the bits of a packed id for use as table index. */
+  static int mix(long packed) {
+    long h = packed * 0x9E3779B97F4A7C15L;
+    h ^= h >>> 32;
+    return (int) (h ^ (h >>> 16));
+  }
+
+  /** @return Slot of <code>packed</code> or of the free slot where it would be inserted. */
+  private int slotOf(long packed) {
+    final int mask = table.length - 1;
+    int slot = mix(packed) & mask;
+    while (table[slot] != 0 && table[slot] != packed) {
+      slot = (slot + 1) & mask;
+    }
+    return slot;
+  }
+
+  @Override
+  public boolean add(TermId termId) {
+    final long packed = PackedTermIds.packOrZero(termId);
+    if (packed == 0) {
+      if (unpacked == null) {
+        unpacked = new HashSet<>();
+      }
+      if (unpacked.add(termId)) {
+        ++modCount;
+        return true;
+      }
+      return false;
+    }
+    final int slot = slotOf(packed);
+    if (table[slot] == packed) {
+      return false;
+    }
+    table[slot] = packed;
+    ++packedCount;
+    ++modCount;
+    if (packedCount * 4L > table.length * 3L) {
+      rehash(table.length << 1);
+    }
+    return true;
+  }
+
+  private void rehash(int newSize) {
+    final long[] old = table;
+    table = new long[newSize];
+    for (long packed : old) {
+      if (packed != 0) {
+        table[slotOf(packed)] = packed;
+      }
+    }
+  }
+
+  @Override
+  public boolean contains(Object o) {
+    if (!(o instanceof TermId)) {
+      return false;
+    }
+    final long packed = PackedTermIds.packOrZero((TermId) o);
+    if (packed == 0) {
+      return unpacked != null && unpacked.contains(o);
+    }
+    return table[slotOf(packed)] == packed;
+  }
+
+  @Override
+  public boolean remove(Object o) {
+    if (!(o instanceof TermId)) {
+      return false;
+    }
+    final long packed = PackedTermIds.packOrZero((TermId) o);
+    if (packed == 0) {
+      if (unpacked != null && unpacked.remove(o)) {
+        ++modCount;
+        return true;
+      }
+      return false;
+    }
+    final int slot = slotOf(packed);
+    if (table[slot] != packed) {
+      return false;
+    }
+    removeSlot(slot);
+    return true;
+  }
+
+  /** Remove the id at <code>slot</code>, shifting back the following ids of its probe sequence. */
+  private void removeSlot(int slot) {
+    final int mask = table.length - 1;
+    int free = slot;
+    int next = (free + 1) & mask;
+    while (table[next] != 0) {
+      final int home = mix(table[next]) & mask;
+      // move table[next] into the free slot unless its home lies cyclically in (free, next]
+      if (((next - home) & mask) >= ((next - free) & mask)) {
+        table[free] = table[next];
+        free = next;
+      }
+      next = (next + 1) & mask;
+    }
+    table[free] = 0;
+    --packedCount;
+    ++modCount;
+  }
+
+  @Override
+  public boolean removeAll(Collection<?> c) {
+    boolean modified = false;
+    for (Object o : c) {
+      modified |= remove(o);
+    }
+    return modified;
+  }
+
+  @Override
+  public boolean retainAll(Collection<?> c) {
+    final List<TermId> toRemove = new ArrayList<>();
+    for (TermId termId : this) {
+      if (!c.contains(termId)) {
+        toRemove.add(termId);
+      }
+    }
+    return removeAll(toRemove);
+  }
+
+  @Override
+  public void clear() {
+    table = new long[MIN_CAPACITY];
+    packedCount = 0;
+    unpacked = null;
+    ++modCount;
+  }
+
+  @Override
+  public int size() {
+    return packedCount + (unpacked == null ? 0 : unpacked.size());
+  }
+
+  @Override
+  public Iterator<TermId> iterator() {
+    return new Iterator<TermId>() {
+      private final int expectedModCount = modCount;
+      private int slot = advance(0);
+      private final Iterator<TermId> unpackedIterator =
+        unpacked == null ? null : unpacked.iterator();
+
+      private int advance(int from) {
+        int s = from;
+        while (s < table.length && table[s] == 0) {
+          ++s;
+        }
+        return s;
+      }
+
+      @Override
+      public boolean hasNext() {
+        return slot < table.length || (unpackedIterator != null && unpackedIterator.hasNext());
+      }
+
+      @Override
+      public TermId next() {
+        if (modCount != expectedModCount) {
+          throw new ConcurrentModificationException();
+        }
+        if (slot < table.length) {
+          final TermId result = PackedTermIds.unpack(table[slot]);
+          slot = advance(slot + 1);
+          return result;
+        } else if (unpackedIterator != null) {
+          return unpackedIterator.next();
+        }
+        throw new NoSuchElementException();
+      }
+    };
+  }
+
+  private void writeObject(ObjectOutputStream out) throws IOException {
+    out.defaultWriteObject();
+    // packed ids are only valid within the JVM, so write the TermIds
+    out.writeInt(size());
+    for (TermId termId : this) {
+      out.writeObject(termId);
+    }
+  }
+
+  private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+    in.defaultReadObject();
+    final int size = in.readInt();
+    table = new long[tableSizeFor(size)];
+    for (int i = 0; i < size; ++i) {
+      add((TermId) in.readObject());
+    }
+  }
+}
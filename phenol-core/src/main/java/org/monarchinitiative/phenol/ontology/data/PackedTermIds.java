@@ -0,0 +1,200 @@
+package org.monarchinitiative.phenol.ontology.data;
+
+import org.monarchinitiative.phenol.base.PhenolRuntimeException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Compact encoding of {@link TermId}s with a decimal local id into a single <code>long</code>.
+ *
+ * <p>Most ids handled by phenol consist of a short prefix and a decimal number, e.g.
+ * <code>HP:0001250</code>, <code>GO:0008150</code>, or <code>NCBIGene:2200</code>. Such an id is
+ * packed as follows:
+ *
+ * <pre>
+ *   bits 63..48  prefix code (1..65535), see {@link #prefixCode(String)}
+ *   bits 47..44  number of digits of the local id (1..15), to keep leading zeros
+ *   bits 43..0   numeric value of the local id (&lt; 2^44)
+ * </pre>
+ *
+ * <p>A packed id is never <code>0</code>, so <code>0</code> can be used as "no id" marker. Commonly
+ * used prefixes have fixed codes; other prefixes are registered on first use and their codes are
+ * only valid within the running JVM. Packed ids therefore should not be persisted; containers built
+ * on them (e.g., {@link PackedTermIdSet}) serialize the {@link TermId}s instead.
+ */
+public final class PackedTermIds {
+
+  /** Prefixes with fixed codes, the code is the index in this array plus one. */
+  private static final String[] WELL_KNOWN_PREFIXES = {
+    "HP", "GO", "MP", "NCBIGene", "OMIM", "ORPHA", "MONDO", "DECIPHER", "UBERON", "CHEBI", "CL",
+    "PATO", "ZP", "MGI", "NCIT", "DOID", "ECTO", "MAXO", "UPHENO", "OMIMPS"
+  };
+
+  private static final int MAX_PREFIX_CODE = 0xFFFF;
+  private static final int MAX_DIGITS = 15;
+  private static final long MAX_VALUE = (1L << 44) - 1;
+
+  /** Mapping from prefix to code. */
+  private static final ConcurrentMap<String, Integer> PREFIX_TO_CODE = new ConcurrentHashMap<>();
+
+  /** Prefixes, indexed by code; index 0 is unused. Guarded by the class lock for writing. */
+  private static volatile String[] codeToPrefix;
+
+  /** Prefix of the last packed id with its code, as consecutive ids usually share the prefix. */
+  private static volatile PrefixCode lastPrefixCode;
+
+  static {
+    final List<String> prefixes = new ArrayList<>();
+    prefixes.add(null);
+    for (String prefix : WELL_KNOWN_PREFIXES) {
+      PREFIX_TO_CODE.put(prefix, prefixes.size());
+      prefixes.add(prefix);
+    }
+    codeToPrefix = prefixes.toArray(new String[0]);
+    lastPrefixCode = new PrefixCode(WELL_KNOWN_PREFIXES[0], 1);
+  }
+
+  private PackedTermIds() {
+  }
+
+  /**
+   * Return the code of <code>prefix</code>, registering it if necessary.
+   *
+   * @param prefix The prefix to return the code for.
+   * @return Code of the prefix in <code>[1, 65535]</code>.
+   * @throws PhenolRuntimeException if all codes are in use.
+   */
+  public static int prefixCode(String prefix) {
+    final Integer code = PREFIX_TO_CODE.get(prefix);
+    return code != null ? code : registerPrefix(prefix);
+  }
+
+  private static synchronized int registerPrefix(String prefix) {
+    final Integer code = PREFIX_TO_CODE.get(prefix);
+    if (code != null) {
+      return code;
+    }
+    final String[] prefixes = codeToPrefix;
+    if (prefixes.length > MAX_PREFIX_CODE) {
+      throw new PhenolRuntimeException("Cannot register prefix " + prefix + ", all prefix codes are in use");
+    }
+    final String[] extended = new String[prefixes.length + 1];
+    System.arraycopy(prefixes, 0, extended, 0, prefixes.length);
+    extended[prefixes.length] = prefix;
+    codeToPrefix = extended;
+    PREFIX_TO_CODE.put(prefix, prefixes.length);
+    return prefixes.length;
+  }
+
+  /**
+   * @param termId The {@link TermId} to check.
+   * @return Whether <code>termId</code> can be packed, i.e. has a local id of at most 15 decimal
+   *     digits with a value below <code>2^44</code>.
+   */
+  public static boolean canPack(TermId termId) {
+    final String value = termId.getValue();
+    return parseLocalId(value, value.indexOf(':') + 1) >= 0;
+  }
+
+  /**
+   * Pack a {@link TermId} into a <code>long</code>.
+   *
+   * @param termId The {@link TermId} to pack.
+   * @return The packed id, never <code>0</code>.
+   * @throws PhenolRuntimeException if the {@link TermId} cannot be packed, see {@link
+   *     #canPack(TermId)}.
+   */
+  public static long pack(TermId termId) {
+    final long packed = packOrZero(termId);
+    if (packed == 0) {
+      throw new PhenolRuntimeException("TermId " + termId + " does not have a packable numeric local id");
+    }
+    return packed;
+  }
+
+  /**
+   * Pack a {@link TermId} into a <code>long</code>, or return <code>0</code> if it cannot be packed.
+   *
+   * @param termId The {@link TermId} to pack.
+   * @return The packed id, or <code>0</code>.
+   */
+  public static long packOrZero(TermId termId) {
+    final String value = termId.getValue();
+    final int separator = value.indexOf(':');
+    final long localId = parseLocalId(value, separator + 1);
+    if (localId < 0) {
+      return 0;
+    }
+    final long digits = value.length() - separator - 1;
+    return ((long) prefixCode(value, separator) << 48) | (digits << 44) | localId;
+  }
+
+  /** @return Code of the prefix <code>value[0, separator)</code>, registering it if necessary. */
+  private static int prefixCode(String value, int separator) {
+    final PrefixCode last = lastPrefixCode;
+    if (last.prefix.length() == separator && value.startsWith(last.prefix)) {
+      return last.code;
+    }
+    final String prefix = value.substring(0, separator);
+    final int code = prefixCode(prefix);
+    lastPrefixCode = new PrefixCode(prefix, code);
+    return code;
+  }
+
+  /**
+   * Unpack an id created by {@link #pack(TermId)}.
+   *
+   * @param packed The packed id.
+   * @return The corresponding {@link TermId}.
+   * @throws PhenolRuntimeException if the prefix code is unknown.
+   */
+  public static TermId unpack(long packed) {
+    final int code = (int) (packed >>> 48);
+    final int digits = (int) ((packed >>> 44) & 0xF);
+    final long value = packed & MAX_VALUE;
+    final String[] prefixes = codeToPrefix;
+    if (code == 0 || code >= prefixes.length || digits == 0) {
+      throw new PhenolRuntimeException("Invalid packed TermId " + Long.toHexString(packed));
+    }
+    final String number = Long.toString(value);
+    final StringBuilder localId = new StringBuilder(digits);
+    for (int i = number.length(); i < digits; ++i) {
+      localId.append('0');
+    }
+    localId.append(number);
+    return TermId.of(prefixes[code], localId, 0, localId.length());
+  }
+
+  /**
+   * @return Numeric value of the local id of a {@link TermId} value starting at <code>start</code>,
+   *     or <code>-1</code> if it is not packable.
+   */
+  private static long parseLocalId(String value, int start) {
+    final int digits = value.length() - start;
+    if (digits < 1 || digits > MAX_DIGITS) {
+      return -1;
+    }
+    long result = 0;
+    for (int i = start; i < value.length(); ++i) {
+      final char c = value.charAt(i);
+      if (c < '0' || c > '9') {
+        return -1;
+      }
+      result = 10 * result + (c - '0');
+    }
+    return result <= MAX_VALUE ? result : -1;
+  }
+
+  private static final class PrefixCode {
+    private final String prefix;
+    private final int code;
+
+    PrefixCode(String prefix, int code) {
+      this.prefix = prefix;
+      this.code = code;
+    }
+  }
+}
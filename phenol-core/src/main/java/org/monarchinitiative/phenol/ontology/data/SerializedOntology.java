@@ -0,0 +1,463 @@
+package org.monarchinitiative.phenol.ontology.data;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.Externalizable;
+import java.io.IOException;
+import java.io.InvalidObjectException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSortedMap;
+import org.jgrapht.graph.DefaultDirectedGraph;
+import org.monarchinitiative.phenol.graph.IdLabeledEdge;
+import org.monarchinitiative.phenol.graph.csr.ClosureIndex;
+import org.monarchinitiative.phenol.graph.csr.OrdinalClosure;
+import org.monarchinitiative.phenol.graph.csr.OrdinalSet;
+import org.monarchinitiative.phenol.utils.PhaseRecorder;
+
+/**
+ * Serialized form of {@link ImmutableOntology}, written in its place by Java serialization.
+ *
+ * <p>The ontology is written with an explicit binary codec instead of the default field by field
+ * serialization, which would describe every {@link Term}, synonym and edge as an object of its own.
+ * Strings are interned in a table as they are written, so each term id, subset name and repeated
+ * text is stored once and referenced by index afterwards. Graph vertices refer to each other by
+ * their index, counts and indices are variable length integers. Precomputed {@link OrdinalClosure}s
+ * are written as delta encoded sorted ordinals, so reading an {@link ClosureMode#EAGER} ontology
+ * does not compute the closure again; the other closures are rebuilt on demand as usual.
+ *
+ * <p>The graph vertices and edges are written in iteration order, so the read ontology has the same
+ * ordinals and {@link org.monarchinitiative.phenol.graph.csr.CsrGraph} as the written one.
+ */
+final class SerializedOntology implements Externalizable {
+
+  /** Serial UId for serialization. */
+  private static final long serialVersionUID = 1L;
+
+  /** Version of the binary layout, checked on reading. */
+  private static final int FORMAT_VERSION = 1;
+
+  /** String reference for <code>null</code>. */
+  private static final int NULL_STRING = 0;
+
+  /** String reference for a string that follows inline and is added to the table. */
+  private static final int NEW_STRING = 1;
+
+  /** The ontology to write, or the one read. */
+  private ImmutableOntology ontology;
+
+  /** Public no-argument constructor, required by {@link Externalizable}. */
+  public SerializedOntology() {
+  }
+
+  SerializedOntology(ImmutableOntology ontology) {
+    this.ontology = ontology;
+  }
+
+  @Override
+  public void writeExternal(ObjectOutput out) throws IOException {
+    final Writer writer = new Writer(out);
+    writeVarInt(out, FORMAT_VERSION);
+
+    writeVarInt(out, ontology.getMetaInfo().size());
+    for (Map.Entry<String, String> entry : ontology.getMetaInfo().entrySet()) {
+      writer.string(entry.getKey());
+      writer.string(entry.getValue());
+    }
+    writeVarInt(out, ontology.getClosureMode().ordinal());
+    writer.string(ontology.closureCacheSpec());
+    writer.termId(ontology.getRootTermId());
+
+    // terms are shared by their id and alt ids, each one is written once
+    final Map<Term, Integer> termIndex = new IdentityHashMap<>();
+    final List<Term> terms = new ArrayList<>();
+    for (Term term : ontology.getTermMap().values()) {
+      if (termIndex.putIfAbsent(term, terms.size()) == null) {
+        terms.add(term);
+      }
+    }
+    writeVarInt(out, terms.size());
+    for (Term term : terms) {
+      writer.term(term);
+    }
+    writeVarInt(out, ontology.getTermMap().size());
+    for (Map.Entry<TermId, Term> entry : ontology.getTermMap().entrySet()) {
+      writer.termId(entry.getKey());
+      writeVarInt(out, termIndex.get(entry.getValue()));
+    }
+    writer.termIds(ontology.getNonObsoleteTermIds());
+    writer.termIds(ontology.getObsoleteTermIds());
+
+    final DefaultDirectedGraph<TermId, IdLabeledEdge> graph = ontology.getGraph();
+    final Map<TermId, Integer> vertexIndex = new HashMap<>();
+    writeVarInt(out, graph.vertexSet().size());
+    for (TermId vertex : graph.vertexSet()) {
+      vertexIndex.put(vertex, vertexIndex.size());
+      writer.termId(vertex);
+    }
+    writeVarInt(out, graph.edgeSet().size());
+    for (IdLabeledEdge edge : graph.edgeSet()) {
+      writeVarInt(out, vertexIndex.get((TermId) edge.getSource()));
+      writeVarInt(out, vertexIndex.get((TermId) edge.getTarget()));
+      out.writeInt(edge.getId());
+    }
+
+    writeVarInt(out, ontology.getRelationMap().size());
+    for (Relationship relationship : ontology.getRelationMap().values()) {
+      out.writeInt(relationship.getId());
+      writer.termId(relationship.getSource());
+      writer.termId(relationship.getTarget());
+      writer.string(relationship.getRelationshipType().getId());
+      writer.string(relationship.getRelationshipType().getLabel());
+    }
+
+    writeClosure(out, ontology.ancestorClosure());
+    writeClosure(out, ontology.computedDescendantClosure());
+  }
+
+  @Override
+  public void readExternal(ObjectInput in) throws IOException {
+    final Reader reader = new Reader(in);
+    final int version = readVarInt(in);
+    if (version != FORMAT_VERSION) {
+      throw new InvalidObjectException("Unsupported ontology format version " + version);
+    }
+
+    final ImmutableSortedMap.Builder<String, String> metaInfo = ImmutableSortedMap.naturalOrder();
+    for (int n = readVarInt(in); n > 0; --n) {
+      metaInfo.put(reader.string(), reader.string());
+    }
+    final ClosureMode closureMode = ClosureMode.values()[readVarInt(in)];
+    final String closureCacheSpec = reader.string();
+    final TermId rootTermId = reader.termId();
+
+    final Term[] terms = new Term[readVarInt(in)];
+    for (int i = 0; i < terms.length; ++i) {
+      terms[i] = reader.term();
+    }
+    final int termMapSize = readVarInt(in);
+    final ImmutableMap.Builder<TermId, Term> termMap = ImmutableMap.builderWithExpectedSize(termMapSize);
+    for (int i = 0; i < termMapSize; ++i) {
+      termMap.put(reader.termId(), terms[readVarInt(in)]);
+    }
+    final List<TermId> nonObsoleteTermIds = reader.termIds();
+    final List<TermId> obsoleteTermIds = reader.termIds();
+
+    final DefaultDirectedGraph<TermId, IdLabeledEdge> graph = new DefaultDirectedGraph<>(IdLabeledEdge.class);
+    final TermId[] vertices = new TermId[readVarInt(in)];
+    for (int i = 0; i < vertices.length; ++i) {
+      vertices[i] = reader.termId();
+      graph.addVertex(vertices[i]);
+    }
+    for (int n = readVarInt(in); n > 0; --n) {
+      final TermId source = vertices[readVarInt(in)];
+      final TermId target = vertices[readVarInt(in)];
+      graph.addEdge(source, target, new IdLabeledEdge(in.readInt()));
+    }
+
+    final int relationCount = readVarInt(in);
+    final ImmutableMap.Builder<Integer, Relationship> relationMap = ImmutableMap.builderWithExpectedSize(relationCount);
+    for (int i = 0; i < relationCount; ++i) {
+      final int id = in.readInt();
+      final TermId source = reader.termId();
+      final TermId target = reader.termId();
+      final RelationshipType type = RelationshipType.of(reader.string(), reader.string());
+      relationMap.put(id, new Relationship(source, target, id, type));
+    }
+
+    final ClosureIndex ancestorClosure = readClosure(in);
+    final ClosureIndex descendantClosure = readClosure(in);
+    ontology = new ImmutableOntology(metaInfo.build(), graph, rootTermId, nonObsoleteTermIds, obsoleteTermIds,
+      termMap.build(), relationMap.build(), closureMode, closureCacheSpec, null,
+      ancestorClosure == null ? null : (ordinals, csrGraph, relationshipTypes) -> ancestorClosure, PhaseRecorder.disabled());
+    if (descendantClosure != null) {
+      ontology.restoreDescendantClosure(descendantClosure);
+    }
+  }
+
+  /** @return The read {@link ImmutableOntology} in place of this object. */
+  private Object readResolve() {
+    return ontology;
+  }
+
+  /**
+   * Write <code>closure</code> if it is a precomputed {@link OrdinalClosure}, each set as its size
+   * followed by the gaps between its sorted ordinals, otherwise only a marker.
+   */
+  private static void writeClosure(DataOutput out, ClosureIndex closure) throws IOException {
+    if (!(closure instanceof OrdinalClosure)) {
+      out.writeBoolean(false);
+      return;
+    }
+    out.writeBoolean(true);
+    writeVarInt(out, closure.vertexCount());
+    for (int v = 0; v < closure.vertexCount(); ++v) {
+      final int[] ordinals = closure.get(v).toArray();
+      writeVarInt(out, ordinals.length);
+      int previous = -1;
+      for (int ordinal : ordinals) {
+        writeVarInt(out, ordinal - previous);
+        previous = ordinal;
+      }
+    }
+  }
+
+  /** @return Closure written by {@link #writeClosure}, <code>null</code> if it was not precomputed. */
+  private static ClosureIndex readClosure(DataInput in) throws IOException {
+    if (!in.readBoolean()) {
+      return null;
+    }
+    final OrdinalSet[] sets = new OrdinalSet[readVarInt(in)];
+    for (int v = 0; v < sets.length; ++v) {
+      final int[] ordinals = new int[readVarInt(in)];
+      int previous = -1;
+      for (int i = 0; i < ordinals.length; ++i) {
+        previous += readVarInt(in);
+        ordinals[i] = previous;
+      }
+      sets[v] = OrdinalSet.ofSorted(sets.length, ordinals);
+    }
+    return OrdinalClosure.of(sets);
+  }
+
+  /** Write the non-negative <code>value</code> in 7 bit groups, least significant first. */
+  private static void writeVarInt(DataOutput out, int value) throws IOException {
+    while ((value & ~0x7F) != 0) {
+      out.writeByte((value & 0x7F) | 0x80);
+      value >>>= 7;
+    }
+    out.writeByte(value);
+  }
+
+  /** @return Value written by {@link #writeVarInt}. */
+  private static int readVarInt(DataInput in) throws IOException {
+    int result = 0;
+    for (int shift = 0; shift < 32; shift += 7) {
+      final byte b = in.readByte();
+      result |= (b & 0x7F) << shift;
+      if (b >= 0) {
+        return result;
+      }
+    }
+    throw new InvalidObjectException("Malformed variable length integer");
+  }
+
+  /** Writes strings through the string table and the fields of terms. */
+  private static final class Writer {
+
+    private final DataOutput out;
+
+    /** Index of the strings written so far. */
+    private final Map<String, Integer> strings = new HashMap<>();
+
+    Writer(DataOutput out) {
+      this.out = out;
+    }
+
+    /** Write <code>value</code> inline on first occurrence, otherwise as reference. */
+    void string(String value) throws IOException {
+      if (value == null) {
+        writeVarInt(out, NULL_STRING);
+        return;
+      }
+      final Integer index = strings.get(value);
+      if (index != null) {
+        writeVarInt(out, index + 2);
+        return;
+      }
+      strings.put(value, strings.size());
+      // not writeUTF, which is limited to 64 KiB
+      final byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+      writeVarInt(out, NEW_STRING);
+      writeVarInt(out, bytes.length);
+      out.write(bytes);
+    }
+
+    void termId(TermId termId) throws IOException {
+      string(termId == null ? null : termId.getValue());
+    }
+
+    void termIds(Collection<TermId> termIds) throws IOException {
+      writeVarInt(out, termIds.size());
+      for (TermId termId : termIds) {
+        termId(termId);
+      }
+    }
+
+    void strings(List<String> values) throws IOException {
+      writeVarInt(out, values.size());
+      for (String value : values) {
+        string(value);
+      }
+    }
+
+    void term(Term term) throws IOException {
+      termId(term.getId());
+      string(term.getName());
+      termIds(term.getAltTermIds());
+      string(term.getDefinition());
+      string(term.getComment());
+      string(term.getCreatedBy());
+      out.writeBoolean(term.isObsolete());
+      final Date creationDate = term.getCreationDate().orElse(null);
+      out.writeBoolean(creationDate != null);
+      if (creationDate != null) {
+        out.writeLong(creationDate.getTime());
+      }
+      writeVarInt(out, term.getDatabaseXrefs().size());
+      for (SimpleXref xref : term.getDatabaseXrefs()) {
+        // the curie parses back to the same prefix and id, also for unknown prefixes
+        string(xref.getCurie());
+      }
+      strings(term.getSubsets());
+      writeVarInt(out, term.getSynonyms().size());
+      for (TermSynonym synonym : term.getSynonyms()) {
+        string(synonym.getValue());
+        writeVarInt(out, synonym.getScope() == null ? 0 : synonym.getScope().ordinal() + 1);
+        string(synonym.getSynonymTypeName());
+        writeVarInt(out, synonym.getSynonymType().ordinal());
+        if (synonym.getTermXrefs() == null) {
+          writeVarInt(out, 0);
+        } else {
+          writeVarInt(out, synonym.getTermXrefs().size() + 1);
+          for (TermXref xref : synonym.getTermXrefs()) {
+            termId(xref.getId());
+            string(xref.getDescription());
+          }
+        }
+      }
+      writeVarInt(out, term.getXrefs().size());
+      for (Dbxref xref : term.getXrefs()) {
+        string(xref.getName());
+        string(xref.getDescription());
+        if (xref.getTrailingModifiers() == null) {
+          writeVarInt(out, 0);
+        } else {
+          writeVarInt(out, xref.getTrailingModifiers().size() + 1);
+          for (Map.Entry<String, String> modifier : xref.getTrailingModifiers().entrySet()) {
+            string(modifier.getKey());
+            string(modifier.getValue());
+          }
+        }
+      }
+    }
+  }
+
+  /** Reads what {@link Writer} wrote, building the string table in the same order. */
+  private static final class Reader {
+
+    private final DataInput in;
+
+    private final List<String> strings = new ArrayList<>();
+
+    Reader(DataInput in) {
+      this.in = in;
+    }
+
+    String string() throws IOException {
+      final int reference = readVarInt(in);
+      if (reference == NULL_STRING) {
+        return null;
+      }
+      if (reference != NEW_STRING) {
+        return strings.get(reference - 2);
+      }
+      final byte[] bytes = new byte[readVarInt(in)];
+      in.readFully(bytes);
+      final String value = new String(bytes, StandardCharsets.UTF_8);
+      strings.add(value);
+      return value;
+    }
+
+    TermId termId() throws IOException {
+      final String value = string();
+      return value == null ? null : TermId.of(value);
+    }
+
+    List<TermId> termIds() throws IOException {
+      final int count = readVarInt(in);
+      final ImmutableList.Builder<TermId> result = ImmutableList.builderWithExpectedSize(count);
+      for (int i = 0; i < count; ++i) {
+        result.add(termId());
+      }
+      return result.build();
+    }
+
+    List<String> strings() throws IOException {
+      final int count = readVarInt(in);
+      final ImmutableList.Builder<String> result = ImmutableList.builderWithExpectedSize(count);
+      for (int i = 0; i < count; ++i) {
+        result.add(string());
+      }
+      return result.build();
+    }
+
+    Term term() throws IOException {
+      final Term.Builder builder = Term.builder()
+        .id(termId())
+        .name(string())
+        .altTermIds(termIds())
+        .definition(string())
+        .comment(string())
+        .createdBy(string())
+        .obsolete(in.readBoolean());
+      if (in.readBoolean()) {
+        builder.creationDate(new Date(in.readLong()));
+      }
+      final int databaseXrefCount = readVarInt(in);
+      final ImmutableList.Builder<SimpleXref> databaseXrefs = ImmutableList.builderWithExpectedSize(databaseXrefCount);
+      for (int i = 0; i < databaseXrefCount; ++i) {
+        databaseXrefs.add(new SimpleXref(string()));
+      }
+      builder.databaseXrefs(databaseXrefs.build())
+        .subsets(strings());
+      final int synonymCount = readVarInt(in);
+      final ImmutableList.Builder<TermSynonym> synonyms = ImmutableList.builderWithExpectedSize(synonymCount);
+      for (int i = 0; i < synonymCount; ++i) {
+        final String value = string();
+        final int scope = readVarInt(in);
+        final String synonymTypeName = string();
+        final SynonymType synonymType = SynonymType.values()[readVarInt(in)];
+        final int xrefCount = readVarInt(in) - 1;
+        List<TermXref> termXrefs = null;
+        if (xrefCount != -1) {
+          termXrefs = new ArrayList<>(xrefCount);
+          for (int j = 0; j < xrefCount; ++j) {
+            termXrefs.add(new TermXref(termId(), string()));
+          }
+        }
+        synonyms.add(TermSynonym.of(
+          value, scope == 0 ? null : TermSynonymScope.values()[scope - 1], synonymTypeName, termXrefs, synonymType));
+      }
+      builder.synonyms(synonyms.build());
+      final int xrefCount = readVarInt(in);
+      final ImmutableList.Builder<Dbxref> xrefs = ImmutableList.builderWithExpectedSize(xrefCount);
+      for (int i = 0; i < xrefCount; ++i) {
+        final String name = string();
+        final String description = string();
+        final int modifierCount = readVarInt(in) - 1;
+        Map<String, String> trailingModifiers = null;
+        if (modifierCount != -1) {
+          trailingModifiers = new LinkedHashMap<>();
+          for (int j = 0; j < modifierCount; ++j) {
+            trailingModifiers.put(string(), string());
+          }
+        }
+        xrefs.add(new Dbxref(name, description, trailingModifiers));
+      }
+      return builder.xrefs(xrefs.build()).build();
+    }
+  }
+}
@@ -0,0 +1,416 @@
+package org.monarchinitiative.phenol.ontology.data;
+
+import java.io.Serializable;
+import java.util.*;
+import java.util.function.Supplier;
+
+import com.google.common.base.Suppliers;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.ImmutableSortedMap;
+import com.google.common.collect.Sets;
+import org.jgrapht.graph.DefaultDirectedGraph;
+import org.monarchinitiative.phenol.graph.IdLabeledEdge;
+import org.monarchinitiative.phenol.graph.csr.CsrGraph;
+import org.monarchinitiative.phenol.graph.csr.OrdinalSet;
+import org.monarchinitiative.phenol.graph.csr.ReachabilityIndex;
+import org.monarchinitiative.phenol.graph.csr.TopologicalOrder;
+import org.monarchinitiative.phenol.graph.util.GraphUtil;
+
+/**
+ * Sub ontology of an {@link Ontology}, restricted to the descendants of a sub root, that shares the
+ * term map, ordinals and closures of its parent instead of copying them.
+ *
+ * <p>The view's terms are given by a mask, the descendant ordinals of the sub root in the parent.
+ * Ancestor queries intersect the parent's ancestors with the mask; descendant queries need no
+ * restriction. Creating a view therefore does not copy or recompute anything; the parts that need
+ * to be materialized ({@link #getGraph()}, {@link #getTermMap()}, {@link #getRelationMap()}, the
+ * term id sets and {@link #getCsrGraph()}) are built on first access and kept.
+ *
+ * <p>The view uses the ordinals of its parent, see {@link Ontology#getCsrGraph()}. Terms outside
+ * the view have no ordinal ({@link #ordinalOf(TermId)} returns <code>-1</code>) and are isolated
+ * vertices of {@link #getCsrGraph()}.
+ *
+ * <p>Views are created and cached by {@link ImmutableOntology#subOntology(TermId)} and other
+ * {@link Ontology} implementations. A view is serialized as its parent and sub root and resolves to
+ * the parent's cached view when read.
+ */
+public final class SubOntologyView implements Ontology {
+
+  /** Serial UId for serialization. */
+  private static final long serialVersionUID = 1L;
+
+  /** The ontology this view restricts. */
+  private final Ontology parent;
+
+  /** Id of the sub root term. */
+  private final TermId rootTermId;
+
+  /** Ordinal of {@link #rootTermId} in {@link #parent}. */
+  private final int rootOrdinal;
+
+  /** Ordinals of the terms in the view, i.e. the descendants of the sub root in {@link #parent}. */
+  private final OrdinalSet mask;
+
+  private final transient Supplier<ImmutableSortedMap<String, String>> metaInfo =
+    Suppliers.memoize(this::buildMetaInfo);
+
+  private final transient Supplier<ImmutableSet<TermId>> nonObsoleteTermIds =
+    Suppliers.memoize(this::buildNonObsoleteTermIds);
+
+  private final transient Supplier<ImmutableSet<TermId>> obsoleteTermIds =
+    Suppliers.memoize(this::buildObsoleteTermIds);
+
+  private final transient Supplier<ImmutableSet<TermId>> allTermIds =
+    Suppliers.memoize(() -> ImmutableSet.copyOf(Sets.union(getNonObsoleteTermIds(), getObsoleteTermIds())));
+
+  private final transient Supplier<ImmutableMap<TermId, Term>> termMap =
+    Suppliers.memoize(this::buildTermMap);
+
+  private final transient Supplier<ImmutableMap<Integer, Relationship>> relationMap =
+    Suppliers.memoize(this::buildRelationMap);
+
+  private final transient Supplier<DefaultDirectedGraph<TermId, IdLabeledEdge>> graph =
+    Suppliers.memoize(this::buildGraph);
+
+  private final transient Supplier<CsrGraph> csrGraph =
+    Suppliers.memoize(this::buildCsrGraph);
+
+  private final transient Supplier<TopologicalOrder> topologicalOrder =
+    Suppliers.memoize(() -> TopologicalOrder.of(getCsrGraph()));
+
+  /**
+   * @param parent The {@link Ontology} to restrict.
+   * @param rootTermId {@link TermId} of the sub root, must be a vertex of <code>parent</code>'s graph.
+   */
+  public SubOntologyView(Ontology parent, TermId rootTermId) {
+    this.parent = parent;
+    this.rootTermId = rootTermId;
+    this.rootOrdinal = parent.ordinalOf(rootTermId);
+    if (rootOrdinal == -1) {
+      throw new IllegalArgumentException("no such vertex in graph: " + rootTermId);
+    }
+    this.mask = parent.getDescendantOrdinals(rootOrdinal);
+  }
+
+  private ImmutableSortedMap<String, String> buildMetaInfo() {
+    // Note: natural order returns a builder whose keys are ordered by their natural ordering.
+    final ImmutableSortedMap.Builder<String, String> builder = ImmutableSortedMap.naturalOrder();
+    builder.putAll(parent.getMetaInfo());
+    builder.put(
+        "provenance",
+        String.format(
+            "Ontology created as a subset from original ontology with root %s",
+            parent.getTermLabel(parent.getRootTermId()).orElse(parent.getRootTermId().getValue())));
+    return builder.build();
+  }
+
+  private DefaultDirectedGraph<TermId, IdLabeledEdge> buildGraph() {
+    return GraphUtil.subGraph(parent.getGraph(), parent.getDescendantTermIds(rootTermId));
+  }
+
+  private ImmutableSet<TermId> buildNonObsoleteTermIds() {
+    final ImmutableSet.Builder<TermId> builder = ImmutableSet.builder();
+    final Set<TermId> parentTermIds = parent.getNonObsoleteTermIds();
+    mask.forEach(ordinal -> {
+      final TermId termId = parent.termAt(ordinal);
+      if (parentTermIds.contains(termId)) {
+        builder.add(termId);
+      }
+    });
+    return builder.build();
+  }
+
+  private ImmutableSet<TermId> buildObsoleteTermIds() {
+    final ImmutableSet.Builder<TermId> builder = ImmutableSet.builder();
+    for (TermId termId : parent.getObsoleteTermIds()) {
+      if (ordinalOf(termId) != -1) {
+        builder.add(termId);
+      }
+    }
+    return builder.build();
+  }
+
+  private ImmutableMap<TermId, Term> buildTermMap() {
+    final ImmutableMap.Builder<TermId, Term> builder = ImmutableMap.builder();
+    final Map<TermId, Term> parentTermMap = parent.getTermMap();
+    for (TermId termId : getNonObsoleteTermIds()) {
+      builder.put(termId, parentTermMap.get(termId));
+    }
+    return builder.build();
+  }
+
+  private ImmutableMap<Integer, Relationship> buildRelationMap() {
+    // Only retain relations where both source and destination are terms in the subontology
+    final ImmutableMap.Builder<Integer, Relationship> builder = ImmutableMap.builder();
+    for (Map.Entry<Integer, Relationship> entry : parent.getRelationMap().entrySet()) {
+      final Relationship relationship = entry.getValue();
+      if (containsTerm(relationship.getSource()) && containsTerm(relationship.getTarget())) {
+        builder.put(entry.getKey(), relationship);
+      }
+    }
+    return builder.build();
+  }
+
+  private CsrGraph buildCsrGraph() {
+    final CsrGraph parentGraph = parent.getCsrGraph();
+    final List<int[]> edges = new ArrayList<>();
+    mask.forEach(v -> {
+      for (int i = 0; i < parentGraph.parentCount(v); ++i) {
+        final int p = parentGraph.parent(v, i);
+        if (mask.contains(p)) {
+          edges.add(new int[]{v, p, parentGraph.parentLabel(v, i)});
+        }
+      }
+    });
+    final int[] sources = new int[edges.size()];
+    final int[] targets = new int[edges.size()];
+    final int[] labels = new int[edges.size()];
+    for (int i = 0; i < edges.size(); ++i) {
+      sources[i] = edges.get(i)[0];
+      targets[i] = edges.get(i)[1];
+      labels[i] = edges.get(i)[2];
+    }
+    return CsrGraph.of(parentGraph.vertexCount(), sources, targets, labels);
+  }
+
+  /** @return The {@link Ontology} this view restricts. */
+  Ontology getParent() {
+    return parent;
+  }
+
+  @Override
+  public Map<String, String> getMetaInfo() {
+    return metaInfo.get();
+  }
+
+  @Override
+  public DefaultDirectedGraph<TermId, IdLabeledEdge> getGraph() {
+    return graph.get();
+  }
+
+  @Override
+  public Map<TermId, Term> getTermMap() {
+    return termMap.get();
+  }
+
+  @Override
+  public Map<Integer, Relationship> getRelationMap() {
+    return relationMap.get();
+  }
+
+  @Override
+  public TermId getRootTermId() {
+    return rootTermId;
+  }
+
+  @Override
+  public Set<TermId> getAllTermIds() {
+    return allTermIds.get();
+  }
+
+  @Override
+  public Set<TermId> getNonObsoleteTermIds() {
+    return nonObsoleteTermIds.get();
+  }
+
+  @Override
+  public Set<TermId> getObsoleteTermIds() {
+    return obsoleteTermIds.get();
+  }
+
+  @Override
+  public Collection<Term> getTerms() {
+    return termMap.get().values();
+  }
+
+  @Override
+  public TermId getPrimaryTermId(TermId termId) {
+    return containsTerm(termId) ? parent.getPrimaryTermId(termId) : null;
+  }
+
+  @Override
+  public CsrGraph getCsrGraph() {
+    return csrGraph.get();
+  }
+
+  @Override
+  public List<RelationshipType> getRelationshipTypes() {
+    return parent.getRelationshipTypes();
+  }
+
+  @Override
+  public int ordinalOf(TermId termId) {
+    final int ordinal = parent.ordinalOf(termId);
+    return ordinal != -1 && mask.contains(ordinal) ? ordinal : -1;
+  }
+
+  @Override
+  public TermId termAt(int ordinal) {
+    return parent.termAt(ordinal);
+  }
+
+  @Override
+  public Set<TermId> getParentTermIds(TermId termId) {
+    final int ordinal = ordinalOf(termId);
+    if (ordinal == -1) {
+      throw new IllegalArgumentException("no such vertex in graph: " + termId);
+    }
+    final CsrGraph parentGraph = parent.getCsrGraph();
+    final Set<TermId> result = new HashSet<>();
+    for (int i = 0; i < parentGraph.parentCount(ordinal); ++i) {
+      final int p = parentGraph.parent(ordinal, i);
+      if (mask.contains(p)) {
+        result.add(parent.termAt(p));
+      }
+    }
+    return result;
+  }
+
+  @Override
+  public Set<TermId> getAncestorTermIds(TermId termId, boolean includeRoot) {
+    final int ordinal = ordinalOf(termId);
+    if (getPrimaryTermId(termId) == null || ordinal == -1) {
+      return ImmutableSet.of();
+    }
+    return new OrdinalTermIdSet(this, getAncestorOrdinals(ordinal), includeRoot ? -1 : rootOrdinal);
+  }
+
+  @Override
+  public OrdinalSet getAncestorOrdinals(int ordinal) {
+    return parent.getAncestorOrdinals(ordinal).intersection(mask);
+  }
+
+  @Override
+  public Set<TermId> getPropagatingAncestorTermIds(TermId termId) {
+    final int ordinal = ordinalOf(termId);
+    if (getPrimaryTermId(termId) == null || ordinal == -1) {
+      return ImmutableSet.of();
+    }
+    return new OrdinalTermIdSet(this, getPropagatingAncestorOrdinals(ordinal), -1);
+  }
+
+  @Override
+  public OrdinalSet getPropagatingAncestorOrdinals(int ordinal) {
+    return parent.getPropagatingAncestorOrdinals(ordinal).intersection(mask);
+  }
+
+  @Override
+  public boolean isAncestor(TermId ancestor, TermId termId) {
+    return ordinalOf(ancestor) != -1 && ordinalOf(termId) != -1 && parent.isAncestor(ancestor, termId);
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * <p>This is the parent's index: every path between two terms of the view only passes through
+   * terms of the view, as these are descendants of the sub root.
+   */
+  @Override
+  public ReachabilityIndex getReachabilityIndex() {
+    return parent.getReachabilityIndex();
+  }
+
+  /** {@inheritDoc} As for {@link #getReachabilityIndex()}, this is the parent's index. */
+  @Override
+  public ReachabilityIndex getPropagatingReachabilityIndex() {
+    return parent.getPropagatingReachabilityIndex();
+  }
+
+  @Override
+  public TopologicalOrder getTopologicalOrder() {
+    // levels and depths count from the root of the view; terms outside the view are isolated
+    return topologicalOrder.get();
+  }
+
+  @Override
+  public Set<TermId> getDescendantTermIds(TermId termId) {
+    final int ordinal = ordinalOf(termId);
+    if (ordinal == -1) {
+      return ImmutableSet.of();
+    }
+    return new OrdinalTermIdSet(this, parent.getDescendantOrdinals(ordinal), -1);
+  }
+
+  @Override
+  public OrdinalSet getDescendantOrdinals(int ordinal) {
+    // the descendants of a term in the view are in the view
+    return parent.getDescendantOrdinals(ordinal);
+  }
+
+  @Override
+  public int descendantCount(TermId termId) {
+    final int ordinal = ordinalOf(termId);
+    return ordinal == -1 ? 0 : parent.getDescendantOrdinals(ordinal).size();
+  }
+
+  @Override
+  public Set<TermId> getAllAncestorTermIds(Collection<TermId> termIds, boolean includeRoot) {
+    return new OrdinalTermIdSet(this, getAllAncestorOrdinals(termIds, includeRoot), -1);
+  }
+
+  @Override
+  public OrdinalSet getAllAncestorOrdinals(Collection<TermId> termIds, boolean includeRoot) {
+    return ImmutableOntology.ancestorUnion(this, mask.universeSize(), termIds, includeRoot ? -1 : rootOrdinal);
+  }
+
+  @Override
+  public Set<TermId> getCommonAncestors(TermId a, TermId b) {
+    final int ordinalA = ordinalOf(a);
+    final int ordinalB = ordinalOf(b);
+    if (getPrimaryTermId(a) == null || getPrimaryTermId(b) == null || ordinalA == -1 || ordinalB == -1) {
+      return ImmutableSet.of();
+    }
+    final OrdinalSet common = parent.getAncestorOrdinals(ordinalA)
+      .intersection(parent.getAncestorOrdinals(ordinalB))
+      .intersection(mask);
+    return new OrdinalTermIdSet(this, common, rootOrdinal);
+  }
+
+  @Override
+  public boolean containsTerm(TermId tid) {
+    return ordinalOf(tid) != -1 && parent.getNonObsoleteTermIds().contains(tid);
+  }
+
+  @Override
+  public Ontology subOntology(TermId subOntologyRoot) {
+    if (ordinalOf(subOntologyRoot) == -1) {
+      throw new IllegalArgumentException("no such vertex in graph: " + subOntologyRoot);
+    }
+    return parent.subOntology(subOntologyRoot);
+  }
+
+  @Override
+  public Optional<String> getTermLabel(TermId tid) {
+    return containsTerm(tid) ? parent.getTermLabel(tid) : Optional.empty();
+  }
+
+  private Object writeReplace() {
+    return new SerializedForm(parent, rootTermId);
+  }
+
+  /** Serialized form of a {@link SubOntologyView}, resolving to the parent's cached view. */
+  private static final class SerializedForm implements Serializable {
+
+    /** Serial UId for serialization. */
+    private static final long serialVersionUID = 1L;
+
+    private final Ontology parent;
+
+    private final TermId rootTermId;
+
+    SerializedForm(Ontology parent, TermId rootTermId) {
+      this.parent = parent;
+      this.rootTermId = rootTermId;
+    }
+
+    private Object readResolve() {
+      return parent.subOntology(rootTermId);
+    }
+  }
+
+  @Override
+  public String toString() {
+    return "SubOntologyView [rootTermId=" + rootTermId + ", termCount=" + mask.size() + "]";
+  }
+}
@@ -1,13 +1,27 @@
 package org.monarchinitiative.phenol.ontology.data;
 
+import com.google.common.collect.Interner;
+import com.google.common.collect.Interners;
 import org.monarchinitiative.phenol.base.PhenolRuntimeException;
 
 import java.io.Serializable;
-import java.util.Objects;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 
 /**
  * Immutable  TermId.
  *
+ * <h5>Interning</h5>
+ *
+ * <p>All factory methods return the canonical instance for a CURIE, i.e. two {@link TermId}s
+ * with the same value are the same object. This keeps the number of instances down when parsing
+ * annotation files that mention the same few thousand ids millions of times, and makes {@link
+ * #equals(Object)} an identity check in the common case. The hash code is computed once on
+ * construction. Canonical instances are held weakly and may be collected once no longer used.
+ *
+ * <p>{@link #of(CharSequence, int, int)} and {@link #of(String, CharSequence, int, int)} look up
+ * an id from a slice of a line without creating an intermediate {@link String} if the id has been
+ * seen recently.
+ *
  * @author <a href="mailto:manuel.holtgrewe@bihealth.de">Manuel Holtgrewe</a>
  * @author <a href="mailto:peter.robinson@jax.org">Peter Robinson</a>
  */
@@ -16,9 +30,28 @@ public final class TermId implements Comparable<TermId>, Serializable {
   /** Serial UId for serialization. */
   private static final long serialVersionUID = 2L;
 
+  /**
+   * The canonical instances, held weakly so that term ids no longer referenced elsewhere can be
+   * garbage collected in long-running processes.
+   */
+  private static final Interner<TermId> CANONICAL = Interners.newWeakInterner();
+
+  /** Number of slots of {@link #RECENT}, a power of two. */
+  private static final int RECENT_SIZE = 1 << 14;
+
+  /**
+   * Recently interned instances by hash code, so that slices of text can be looked up via a {@link
+   * Slice} without creating a string first. Each slot keeps the latest instance with its hash, so the
+   * lookaside holds at most {@link #RECENT_SIZE} instances.
+   */
+  private static final AtomicReferenceArray<TermId> RECENT = new AtomicReferenceArray<>(RECENT_SIZE);
+
   private final int separatorPos;
   private final String value;
 
+  /** Cached hash code; recomputed by {@link #readResolve()} after deserialization. */
+  private final transient int hash;
+
   /**
    * Construct from term ID including prefix. e.g. HP:1234567
    *
@@ -29,15 +62,71 @@ public final class TermId implements Comparable<TermId>, Serializable {
   public static TermId of(String termId) {
     requireNonNullOrEmpty(termId, "termId cannot be null or empty");
     int pos = findPrefixSeparatorPosition(':', termId);
-    return new TermId(pos, termId);
+    return intern(new TermId(pos, termId));
   }
 
   public static TermId of(String termPrefix, String id) {
     requireNonNullOrEmpty(termPrefix, "termPrefix cannot be null or empty");
     requireNonNullOrEmpty(id, "term id cannot be null or empty");
-    int pos = termPrefix.length();
-    String termId = String.join(":", termPrefix, id);
-    return new TermId(pos, termId);
+    return of(termPrefix, id, 0, id.length());
+  }
+
+  /**
+   * Construct from a slice of a {@link CharSequence} holding a term ID including prefix, e.g. from
+   * <code>"OMIM:100100	HP:0001250"</code> with <code>start = 12</code> and <code>end = 22</code>.
+   *
+   * @param chars {@link CharSequence} containing the term id.
+   * @param start Start index of the term id (inclusive).
+   * @param end End index of the term id (exclusive).
+   * @return Resulting {@link TermId}.
+   * @throws PhenolRuntimeException if the slice is empty or does not have a prefix
+   */
+  public static TermId of(CharSequence chars, int start, int end) {
+    if (start >= end) {
+      throw new PhenolRuntimeException("termId cannot be null or empty");
+    }
+    final TermId existing = recent(new Slice(null, chars, start, end));
+    if (existing != null) {
+      return existing;
+    }
+    return of(chars.subSequence(start, end).toString());
+  }
+
+  /**
+   * Construct from prefix and a slice of a {@link CharSequence} holding the local id, e.g. from
+   * <code>"NCBIGene"</code> and <code>"9606	2200	FBN1"</code> with <code>start = 5</code> and
+   * <code>end = 9</code>.
+   *
+   * @param termPrefix The prefix, without separator.
+   * @param chars {@link CharSequence} containing the local id.
+   * @param start Start index of the local id (inclusive).
+   * @param end End index of the local id (exclusive).
+   * @return Resulting {@link TermId}.
+   * @throws PhenolRuntimeException if the prefix or the slice is empty
+   */
+  public static TermId of(String termPrefix, CharSequence chars, int start, int end) {
+    requireNonNullOrEmpty(termPrefix, "termPrefix cannot be null or empty");
+    if (start >= end) {
+      throw new PhenolRuntimeException("term id cannot be null or empty");
+    }
+    final TermId existing = recent(new Slice(termPrefix, chars, start, end));
+    if (existing != null) {
+      return existing;
+    }
+    final String termId = termPrefix + ':' + chars.subSequence(start, end);
+    return intern(new TermId(termPrefix.length(), termId));
+  }
+
+  private static TermId intern(TermId termId) {
+    final TermId result = CANONICAL.intern(termId);
+    RECENT.set(result.hash & (RECENT_SIZE - 1), result);
+    return result;
+  }
+
+  /** @return The recently interned {@link TermId} equal to <code>slice</code>, or <code>null</code>. */
+  private static TermId recent(Slice slice) {
+    final TermId candidate = RECENT.get(slice.hash & (RECENT_SIZE - 1));
+    return candidate != null && slice.equals(candidate) ? candidate : null;
   }
 
   private static void requireNonNullOrEmpty(String input, String message) {
@@ -58,6 +147,13 @@ public final class TermId implements Comparable<TermId>, Serializable {
   private TermId(int separatorPos, String termId) {
     this.separatorPos = separatorPos;
     this.value = termId;
+    this.hash = hashOf(termId.hashCode());
+  }
+
+  /** @return The hash code of a {@link TermId} with a value of the given string hash code. */
+  private static int hashOf(int stringHash) {
+    // same as Objects.hash(value), which earlier versions used
+    return 31 + stringHash;
   }
 
   public String getPrefix() {
@@ -80,18 +176,83 @@ public final class TermId implements Comparable<TermId>, Serializable {
   @Override
   public boolean equals(Object o) {
     if (this == o) return true;
-    if (o == null || getClass() != o.getClass()) return false;
+    if (!(o instanceof TermId)) return false;
     TermId termId1 = (TermId) o;
-    return Objects.equals(value, termId1.value);
+    return hash == termId1.hash && value.equals(termId1.value);
   }
 
   @Override
   public int hashCode() {
-    return Objects.hash(value);
+    return hash;
+  }
+
+  /** Replace deserialized instances by the canonical one. */
+  private Object readResolve() {
+    return of(value);
   }
 
   @Override
   public String toString() {
     return value;
   }
+
+  /**
+   * Lookup key for {@link #RECENT} over an optional prefix and a slice of a {@link
+   * CharSequence}, equal to the {@link TermId} with value <code>prefix + ":" + slice</code> (or just
+   * <code>slice</code> without prefix).
+   */
+  private static final class Slice {
+    private final String prefix;
+    private final CharSequence chars;
+    private final int start;
+    private final int end;
+    private final int hash;
+
+    Slice(String prefix, CharSequence chars, int start, int end) {
+      this.prefix = prefix;
+      this.chars = chars;
+      this.start = start;
+      this.end = end;
+      int h = 0;
+      if (prefix != null) {
+        h = prefix.hashCode();
+        h = 31 * h + ':';
+      }
+      for (int i = start; i < end; ++i) {
+        h = 31 * h + chars.charAt(i);
+      }
+      this.hash = hashOf(h);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (!(o instanceof TermId)) {
+        return false;
+      }
+      final TermId termId = (TermId) o;
+      final String value = termId.value;
+      final int sliceLength = end - start;
+      int offset = 0;
+      if (prefix != null) {
+        if (termId.separatorPos != prefix.length() || !value.startsWith(prefix)) {
+          return false;
+        }
+        offset = prefix.length() + 1;
+      }
+      if (value.length() != offset + sliceLength) {
+        return false;
+      }
+      for (int i = 0; i < sliceLength; ++i) {
+        if (value.charAt(offset + i) != chars.charAt(start + i)) {
+          return false;
+        }
+      }
+      return true;
+    }
+
+    @Override
+    public int hashCode() {
+      return hash;
+    }
+  }
 }
@@ -1,6 +1,7 @@
 package org.monarchinitiative.phenol.ontology.data;
 
 import java.util.List;
+import java.util.Objects;
 
 /**
  * Immutable implementation.
@@ -45,6 +46,22 @@ public final class TermSynonym {
     this.synonymType = SynonymType.fromString(synType);
   }
 
+  /**
+   * Create a synonym with an already resolved {@link SynonymType}, e.g. when reading a stored term.
+   *
+   * @param value Synonym value.
+   * @param scope Synonym scope.
+   * @param synonymTypeName Optional synonym type name, <code>null</code> if missing.
+   * @param termXrefs Optional dbxref list, <code>null</code> if missing.
+   * @param synonymType The kind of synonym.
+   * @return The new {@link TermSynonym}.
+   */
+  public static TermSynonym of(String value, TermSynonymScope scope, String synonymTypeName, List<TermXref> termXrefs, SynonymType synonymType) {
+    final TermSynonym result = new TermSynonym(value, scope, synonymTypeName, termXrefs, null);
+    result.synonymType = synonymType;
+    return result;
+  }
+
   public String getValue() {
     return value;
   }
@@ -61,6 +78,26 @@ public final class TermSynonym {
     return termXrefs;
   }
 
+  public SynonymType getSynonymType() {
+    return synonymType;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) return true;
+    if (o == null || getClass() != o.getClass()) return false;
+    TermSynonym that = (TermSynonym) o;
+    return scope == that.scope &&
+      Objects.equals(value, that.value) &&
+      Objects.equals(synonymTypeName, that.synonymTypeName) &&
+      Objects.equals(termXrefs, that.termXrefs);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(scope, value, synonymTypeName, termXrefs);
+  }
+
   @Override
   public String toString() {
     String synString = synonymTypeName;
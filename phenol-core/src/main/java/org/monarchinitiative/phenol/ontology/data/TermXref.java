@@ -1,5 +1,7 @@
 package org.monarchinitiative.phenol.ontology.data;
 
+import java.util.Objects;
+
 /**
  * Immutable implementation of {@link TermXref}.
  *
@@ -35,6 +37,20 @@ public class TermXref {
     return description;
   }
 
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) return true;
+    if (o == null || getClass() != o.getClass()) return false;
+    TermXref that = (TermXref) o;
+    return Objects.equals(id, that.id) &&
+      Objects.equals(description, that.description);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(id, description);
+  }
+
   @Override
   public String toString() {
     return "ImmutableTermXref [id=" + id + ", description=" + description + "]";
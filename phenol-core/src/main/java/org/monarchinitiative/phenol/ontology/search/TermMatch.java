@@ -0,0 +1,129 @@
+package org.monarchinitiative.phenol.ontology.search;
+
+import java.util.Comparator;
+import java.util.Objects;
+
+import org.monarchinitiative.phenol.ontology.data.TermId;
+import org.monarchinitiative.phenol.ontology.data.TermSynonymScope;
+
+/**
+ * A term found by a {@link TermSearchIndex} query, with the text that matched.
+ */
+public final class TermMatch {
+
+  /** How the query matched the text, from best to worst. */
+  public enum MatchType {
+    /** The text equals the query, ignoring case and repeated whitespace. */
+    EXACT,
+    /** The text starts with the query. */
+    PREFIX,
+    /** The text is within the query's edit distance bound. */
+    FUZZY
+  }
+
+  /** The part of a term that matched, from best to worst. */
+  public enum Field {
+    /** The term's primary or an alternative id. */
+    ID,
+    /** The term's name. */
+    LABEL,
+    /** One of the term's synonyms, see {@link TermMatch#getScope()}. */
+    SYNONYM,
+    /** The name of one of the term's xrefs. */
+    XREF
+  }
+
+  /**
+   * Order of the ranking: by match type, edit distance, field, synonym scope (exact synonyms
+   * first), length of the matched text and finally term id.
+   */
+  static final Comparator<TermMatch> RANKING = Comparator.comparing(TermMatch::getMatchType)
+    .thenComparingInt(TermMatch::getDistance)
+    .thenComparing(TermMatch::getField)
+    .thenComparingInt(match -> match.scope == null ? -1 : match.scope.ordinal())
+    .thenComparingInt(match -> match.text.length())
+    .thenComparing(TermMatch::getTermId);
+
+  private final TermId termId;
+
+  private final String text;
+
+  private final Field field;
+
+  private final TermSynonymScope scope;
+
+  private final MatchType matchType;
+
+  private final int distance;
+
+  TermMatch(TermId termId, String text, Field field, TermSynonymScope scope, MatchType matchType, int distance) {
+    this.termId = termId;
+    this.text = text;
+    this.field = field;
+    this.scope = scope;
+    this.matchType = matchType;
+    this.distance = distance;
+  }
+
+  /** @return {@link TermId} of the matching term. */
+  public TermId getTermId() {
+    return termId;
+  }
+
+  /** @return The text that matched, as given in the term. */
+  public String getText() {
+    return text;
+  }
+
+  /** @return The {@link Field} the text comes from. */
+  public Field getField() {
+    return field;
+  }
+
+  /** @return The scope of the synonym for {@link Field#SYNONYM}, <code>null</code> otherwise. */
+  public TermSynonymScope getScope() {
+    return scope;
+  }
+
+  /** @return How the query matched. */
+  public MatchType getMatchType() {
+    return matchType;
+  }
+
+  /**
+   * @return Edit distance between the query and the text for {@link MatchType#FUZZY}, <code>0
+   *     </code> otherwise.
+   */
+  public int getDistance() {
+    return distance;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) return true;
+    if (!(o instanceof TermMatch)) return false;
+    TermMatch that = (TermMatch) o;
+    return distance == that.distance
+      && termId.equals(that.termId)
+      && text.equals(that.text)
+      && field == that.field
+      && scope == that.scope
+      && matchType == that.matchType;
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(termId, text, field, scope, matchType, distance);
+  }
+
+  @Override
+  public String toString() {
+    return "TermMatch [termId=" + termId
+      + ", text=" + text
+      + ", field=" + field
+      + ", scope=" + scope
+      + ", matchType=" + matchType
+      + ", distance=" + distance
+      + "]";
+  }
+}
@@ -0,0 +1,378 @@
+package org.monarchinitiative.phenol.ontology.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.monarchinitiative.phenol.ontology.data.Dbxref;
+import org.monarchinitiative.phenol.ontology.data.Ontology;
+import org.monarchinitiative.phenol.ontology.data.Term;
+import org.monarchinitiative.phenol.ontology.data.TermId;
+import org.monarchinitiative.phenol.ontology.data.TermSynonym;
+import org.monarchinitiative.phenol.ontology.data.TermSynonymScope;
+import org.monarchinitiative.phenol.ontology.search.TermMatch.Field;
+import org.monarchinitiative.phenol.ontology.search.TermMatch.MatchType;
+
+/**
+ * Index for looking up the terms of an {@link Ontology} by id, label, synonym or xref, e.g. for
+ * autocompletion.
+ *
+ * <p>All texts are normalized by lower-casing them and collapsing whitespace. The distinct
+ * normalized texts are kept in one sorted array, with the entries (term, field, synonym scope and
+ * original text) of each in a contiguous slice of parallel arrays. Exact and prefix queries are
+ * binary searches followed by a scan over the matching range. Bounded edit distance queries walk
+ * the sorted array as an implicit trie: the rows of the edit distance matrix are shared between
+ * texts with a common prefix, and as soon as all cells of a row exceed the bound, all texts with
+ * that prefix are skipped by another binary search.
+ *
+ * <p>Each query returns at most <code>k</code> {@link TermMatch}es, one per term, with the best
+ * match of each term ranked by {@link MatchType}, edit distance, {@link Field}, synonym scope, text
+ * length and term id. Obsolete terms are not indexed.
+ *
+ * <p>The entries of the terms are collected in parallel and sorted with {@link
+ * Arrays#parallelSort(Object[], Comparator)} on construction. The index is immutable and may be
+ * queried from several threads.
+ */
+public final class TermSearchIndex {
+
+  /** Distinct normalized texts, sorted. */
+  private final String[] keys;
+
+  /** Start of the entries of each key, length <code>keys.length + 1</code>. */
+  private final int[] keyOffsets;
+
+  /** Term of each entry. */
+  private final TermId[] entryTermIds;
+
+  /** Original text of each entry. */
+  private final String[] entryTexts;
+
+  /** {@link Field} of each entry. */
+  private final Field[] entryFields;
+
+  /** Synonym scope of each entry, <code>null</code> for other fields. */
+  private final TermSynonymScope[] entryScopes;
+
+  /** Length of the longest key. */
+  private final int maxKeyLength;
+
+  /**
+   * Build the index.
+   *
+   * @param ontology {@link Ontology} whose terms to index.
+   */
+  public TermSearchIndex(Ontology ontology) {
+    final List<Term> terms = ontology.getTermMap().entrySet().stream()
+      .filter(entry -> entry.getKey().equals(entry.getValue().getId()) && !entry.getValue().isObsolete())
+      .map(Map.Entry::getValue)
+      .collect(Collectors.toList());
+    final Entry[] entries = IntStream.range(0, terms.size())
+      .parallel()
+      .mapToObj(i -> entriesOf(terms.get(i)))
+      .flatMap(List::stream)
+      .toArray(Entry[]::new);
+    Arrays.parallelSort(entries, Comparator.comparing((Entry entry) -> entry.key));
+
+    entryTermIds = new TermId[entries.length];
+    entryTexts = new String[entries.length];
+    entryFields = new Field[entries.length];
+    entryScopes = new TermSynonymScope[entries.length];
+    final List<String> distinctKeys = new ArrayList<>();
+    final int[] offsets = new int[entries.length + 1];
+    int maxLength = 0;
+    for (int i = 0; i < entries.length; ++i) {
+      final Entry entry = entries[i];
+      if (i == 0 || !entry.key.equals(entries[i - 1].key)) {
+        offsets[distinctKeys.size()] = i;
+        distinctKeys.add(entry.key);
+        maxLength = Math.max(maxLength, entry.key.length());
+      }
+      entryTermIds[i] = entry.termId;
+      entryTexts[i] = entry.text;
+      entryFields[i] = entry.field;
+      entryScopes[i] = entry.scope;
+    }
+    keys = distinctKeys.toArray(new String[0]);
+    offsets[keys.length] = entries.length;
+    keyOffsets = Arrays.copyOf(offsets, keys.length + 1);
+    maxKeyLength = maxLength;
+  }
+
+  /** An indexed text of a term, only used during construction. */
+  private static final class Entry {
+    private final String key;
+    private final String text;
+    private final TermId termId;
+    private final Field field;
+    private final TermSynonymScope scope;
+
+    Entry(String text, TermId termId, Field field, TermSynonymScope scope) {
+      this.key = normalize(text);
+      this.text = text;
+      this.termId = termId;
+      this.field = field;
+      this.scope = scope;
+    }
+  }
+
+  private static List<Entry> entriesOf(Term term) {
+    final List<Entry> result = new ArrayList<>();
+    final TermId termId = term.getId();
+    result.add(new Entry(termId.getValue(), termId, Field.ID, null));
+    for (TermId altTermId : term.getAltTermIds()) {
+      result.add(new Entry(altTermId.getValue(), termId, Field.ID, null));
+    }
+    if (term.getName() != null && !term.getName().isEmpty()) {
+      result.add(new Entry(term.getName(), termId, Field.LABEL, null));
+    }
+    for (TermSynonym synonym : term.getSynonyms()) {
+      if (synonym.getValue() != null && !synonym.getValue().isEmpty()) {
+        result.add(new Entry(synonym.getValue(), termId, Field.SYNONYM, synonym.getScope()));
+      }
+    }
+    for (Dbxref xref : term.getXrefs()) {
+      if (xref.getName() != null && !xref.getName().isEmpty()) {
+        result.add(new Entry(xref.getName(), termId, Field.XREF, null));
+      }
+    }
+    return result;
+  }
+
+  /**
+   * @param text The text to normalize.
+   * @return <code>text</code> in lower case, without leading and trailing whitespace and with
+   *     each run of inner whitespace replaced by a single space.
+   */
+  static String normalize(String text) {
+    final StringBuilder builder = new StringBuilder(text.length());
+    boolean pendingSpace = false;
+    for (int i = 0; i < text.length(); ++i) {
+      final char c = text.charAt(i);
+      if (Character.isWhitespace(c)) {
+        pendingSpace = builder.length() > 0;
+      } else {
+        if (pendingSpace) {
+          builder.append(' ');
+          pendingSpace = false;
+        }
+        builder.append(Character.toLowerCase(c));
+      }
+    }
+    return builder.toString();
+  }
+
+  /**
+   * Find the terms with an id, label, synonym or xref equal to <code>query</code>.
+   *
+   * @param query The query text.
+   * @param k Maximal number of results.
+   * @return Up to <code>k</code> {@link TermMatch}es, best first.
+   */
+  public List<TermMatch> exact(String query, int k) {
+    final Matches matches = new Matches(k);
+    final String key = normalize(query);
+    final int i = Arrays.binarySearch(keys, key);
+    if (i >= 0) {
+      matches.addAll(i, MatchType.EXACT, 0);
+    }
+    return matches.top();
+  }
+
+  /**
+   * Find the terms with an id, label, synonym or xref starting with <code>query</code>.
+   *
+   * @param query The query text.
+   * @param k Maximal number of results.
+   * @return Up to <code>k</code> {@link TermMatch}es, best first; exact matches rank first.
+   */
+  public List<TermMatch> prefix(String query, int k) {
+    final Matches matches = new Matches(k);
+    collectPrefix(normalize(query), matches);
+    return matches.top();
+  }
+
+  /**
+   * Find the terms with an id, label, synonym or xref within edit distance <code>maxDistance
+   * </code> of <code>query</code>.
+   *
+   * @param query The query text.
+   * @param maxDistance Maximal number of inserted, deleted or substituted characters.
+   * @param k Maximal number of results.
+   * @return Up to <code>k</code> {@link TermMatch}es, best first; exact matches rank first.
+   */
+  public List<TermMatch> fuzzy(String query, int maxDistance, int k) {
+    final Matches matches = new Matches(k);
+    collectFuzzy(normalize(query), maxDistance, matches);
+    return matches.top();
+  }
+
+  /**
+   * Combination of {@link #prefix(String, int)} and {@link #fuzzy(String, int, int)}, e.g. for
+   * autocompletion that tolerates typos: exact matches rank before prefix matches, which rank
+   * before fuzzy matches.
+   *
+   * @param query The query text.
+   * @param maxDistance Maximal edit distance of fuzzy matches.
+   * @param k Maximal number of results.
+   * @return Up to <code>k</code> {@link TermMatch}es, best first.
+   */
+  public List<TermMatch> search(String query, int maxDistance, int k) {
+    final Matches matches = new Matches(k);
+    final String key = normalize(query);
+    collectPrefix(key, matches);
+    collectFuzzy(key, maxDistance, matches);
+    return matches.top();
+  }
+
+  private void collectPrefix(String key, Matches matches) {
+    int i = lowerBound(key);
+    while (i < keys.length && keys[i].startsWith(key)) {
+      matches.addAll(i, keys[i].length() == key.length() ? MatchType.EXACT : MatchType.PREFIX, 0);
+      ++i;
+    }
+  }
+
+  /** @return Index of the first key that is not less than <code>key</code>. */
+  private int lowerBound(String key) {
+    int low = 0;
+    int high = keys.length;
+    while (low < high) {
+      final int mid = (low + high) >>> 1;
+      if (keys[mid].compareTo(key) < 0) {
+        low = mid + 1;
+      } else {
+        high = mid;
+      }
+    }
+    return low;
+  }
+
+  private void collectFuzzy(String query, int maxDistance, Matches matches) {
+    if (maxDistance < 0) {
+      throw new IllegalArgumentException("maxDistance must not be negative: " + maxDistance);
+    }
+    final int m = query.length();
+    // rows[d] holds the edit distances between the first d characters of the current key and
+    // all prefixes of the query
+    final int[][] rows = new int[maxKeyLength + 1][m + 1];
+    for (int j = 0; j <= m; ++j) {
+      rows[0][j] = j;
+    }
+    String previous = "";
+    int validDepth = 0;
+    int i = 0;
+    while (i < keys.length) {
+      final String key = keys[i];
+      int depth = Math.min(validDepth, commonPrefixLength(previous, key));
+      boolean pruned = false;
+      while (depth < key.length()) {
+        final char c = key.charAt(depth);
+        final int[] above = rows[depth];
+        final int[] row = rows[depth + 1];
+        row[0] = depth + 1;
+        int min = row[0];
+        for (int j = 1; j <= m; ++j) {
+          final int substitution = above[j - 1] + (query.charAt(j - 1) == c ? 0 : 1);
+          row[j] = Math.min(substitution, Math.min(above[j], row[j - 1]) + 1);
+          min = Math.min(min, row[j]);
+        }
+        ++depth;
+        if (min > maxDistance) {
+          pruned = true;
+          break;
+        }
+      }
+      previous = key;
+      validDepth = depth;
+      if (pruned) {
+        // no key starting with the first depth characters of this one can be within the bound
+        i = endOfPrefix(key, depth, i);
+      } else {
+        final int distance = rows[key.length()][m];
+        if (distance <= maxDistance) {
+          matches.addAll(i, distance == 0 ? MatchType.EXACT : MatchType.FUZZY, distance);
+        }
+        ++i;
+      }
+    }
+  }
+
+  /**
+   * @return Index of the first key after <code>from</code> that does not start with the first
+   *     <code>length</code> characters of <code>key</code>.
+   */
+  private int endOfPrefix(String key, int length, int from) {
+    int low = from + 1;
+    int high = keys.length;
+    while (low < high) {
+      final int mid = (low + high) >>> 1;
+      if (keys[mid].length() >= length && keys[mid].regionMatches(0, key, 0, length)) {
+        low = mid + 1;
+      } else {
+        high = mid;
+      }
+    }
+    return low;
+  }
+
+  private static int commonPrefixLength(String a, String b) {
+    final int length = Math.min(a.length(), b.length());
+    int i = 0;
+    while (i < length && a.charAt(i) == b.charAt(i)) {
+      ++i;
+    }
+    return i;
+  }
+
+  /** @return Number of distinct normalized texts. */
+  public int keyCount() {
+    return keys.length;
+  }
+
+  /** @return Number of indexed texts. */
+  public int entryCount() {
+    return entryTermIds.length;
+  }
+
+  @Override
+  public String toString() {
+    return "TermSearchIndex [keyCount=" + keyCount() + ", entryCount=" + entryCount() + "]";
+  }
+
+  /** The best match of each term found by one query. */
+  private final class Matches {
+
+    private final int k;
+
+    private final Map<TermId, TermMatch> best = new HashMap<>();
+
+    Matches(int k) {
+      if (k < 0) {
+        throw new IllegalArgumentException("k must not be negative: " + k);
+      }
+      this.k = k;
+    }
+
+    /** Add the entries of the key with index <code>keyIndex</code>. */
+    void addAll(int keyIndex, MatchType matchType, int distance) {
+      for (int e = keyOffsets[keyIndex]; e < keyOffsets[keyIndex + 1]; ++e) {
+        final TermMatch match = new TermMatch(
+          entryTermIds[e], entryTexts[e], entryFields[e], entryScopes[e], matchType, distance);
+        best.merge(match.getTermId(), match,
+          (a, b) -> TermMatch.RANKING.compare(a, b) <= 0 ? a : b);
+      }
+    }
+
+    List<TermMatch> top() {
+      return best.values().stream()
+        .sorted(TermMatch.RANKING)
+        .limit(k)
+        .collect(Collectors.toList());
+    }
+  }
+}
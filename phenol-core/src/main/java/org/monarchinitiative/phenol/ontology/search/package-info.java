@@ -0,0 +1,5 @@
+/**
+ * Lookup of ontology terms by id, label, synonym or xref, including prefix and bounded edit
+ * distance queries.
+ */
+package org.monarchinitiative.phenol.ontology.search;
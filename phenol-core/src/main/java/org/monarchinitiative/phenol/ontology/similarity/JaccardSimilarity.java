@@ -1,11 +1,10 @@
 package org.monarchinitiative.phenol.ontology.similarity;
 
+import org.monarchinitiative.phenol.graph.csr.OrdinalSet;
 import org.monarchinitiative.phenol.ontology.data.Ontology;
 import org.monarchinitiative.phenol.ontology.data.TermId;
-import com.google.common.collect.Sets;
 
 import java.util.Collection;
-import java.util.Set;
 
 /**
  * Implementation of Jaccard similarity computation.
@@ -64,12 +63,21 @@ public final class JaccardSimilarity implements Similarity {
 
   @Override
   public double computeScore(Collection<TermId> query, Collection<TermId> target) {
-    final Set<TermId> termIdsQuery = ontology.getAllAncestorTermIds(query, false);
-    final Set<TermId> termIdsTarget = ontology.getAllAncestorTermIds(target, false);
+    return computeScore(ontology.getAllAncestorOrdinals(query, false), ontology.getAllAncestorOrdinals(target, false));
+  }
 
-    double intersectionSize = Sets.intersection(termIdsQuery, termIdsTarget).size();
+  /**
+   * Compute the score from precomputed ancestor sets, e.g. from {@link
+   * Ontology#getAllAncestorOrdinals(java.util.Map, boolean)}.
+   *
+   * @param query Ordinals of the query terms and their ancestors, without the root.
+   * @param target Ordinals of the target terms and their ancestors, without the root.
+   * @return Similarity score.
+   */
+  public double computeScore(OrdinalSet query, OrdinalSet target) {
+    double intersectionSize = query.intersectionSize(target);
     if (normalized) {
-      return intersectionSize / Sets.union(termIdsQuery, termIdsTarget).size();
+      return intersectionSize / query.unionSize(target);
     } else {
       return intersectionSize;
     }
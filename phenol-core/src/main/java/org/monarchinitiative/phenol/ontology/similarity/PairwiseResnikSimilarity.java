@@ -1,8 +1,8 @@
 package org.monarchinitiative.phenol.ontology.similarity;
 
 import java.util.Map;
-import java.util.Set;
 
+import org.monarchinitiative.phenol.ontology.algo.MicaIndex;
 import org.monarchinitiative.phenol.ontology.data.Ontology;
 import org.monarchinitiative.phenol.ontology.data.TermId;
 
@@ -20,27 +20,31 @@ import org.monarchinitiative.phenol.ontology.data.TermId;
 public final class PairwiseResnikSimilarity
     implements PairwiseSimilarity {
 
-  /** {@link Ontology} to base computations on. */
-  private final Ontology ontology;
-
-  /** {@link Map} from {@link TermId} to its information content. */
-  private final Map<TermId, Double> termToIc;
+  /** {@link MicaIndex} for looking up the most informative common ancestors. */
+  private final MicaIndex micaIndex;
 
   /** Required default constructor for serialization. */
   protected PairwiseResnikSimilarity() {
-    this.ontology = null;
-    this.termToIc = null;
+    this.micaIndex = null;
   }
 
   /**
-   * Construct new {@link PairwiseResnikSimilarity}.
+   * Construct new {@link PairwiseResnikSimilarity}, building a {@link MicaIndex}.
    *
    * @param ontology {@link Ontology} to base computations on.
    * @param termToIc {@link Map} from{@link TermId} to its information content.
    */
   public PairwiseResnikSimilarity(Ontology ontology, Map<TermId, Double> termToIc) {
-    this.ontology = ontology;
-    this.termToIc = termToIc;
+    this(new MicaIndex(ontology, termToIc));
+  }
+
+  /**
+   * Construct new {@link PairwiseResnikSimilarity} from an existing {@link MicaIndex}.
+   *
+   * @param micaIndex {@link MicaIndex} to base computations on.
+   */
+  public PairwiseResnikSimilarity(MicaIndex micaIndex) {
+    this.micaIndex = micaIndex;
   }
 
   /**
@@ -49,24 +53,16 @@ public final class PairwiseResnikSimilarity
    *
    * <h5>Performance Note</h5>
    *
-   * <p>This method is a performance hotspot and already well optimized. Further speedup can be
-   * gained through {@link PrecomputingPairwiseResnikSimilarity}.
+   * <p>This method is a performance hotspot. It is a lookup in the {@link MicaIndex} that stops at
+   * the first common ancestor in order of information content; further speedup can be gained
+   * through {@link PrecomputingPairwiseResnikSimilarity}.
    *
    * @param query Query {@link TermId}.
    * @param target Target {@link TermId}.
    * @return Precomputed pairwise Resnik similarity score.
    */
   private double computeScoreImpl(TermId query, TermId target) {
-    final Set<TermId> queryTerms = getOntology().getAncestorTermIds(query, true);
-    final Set<TermId> targetTerms = getOntology().getAncestorTermIds(target, true);
-
-    double maxValue = 0.0;
-    for (TermId termId : queryTerms) {
-      if (targetTerms.contains(termId)) {
-        maxValue = Double.max(maxValue, getTermToIc().get(termId));
-      }
-    }
-    return maxValue;
+    return Double.max(0.0, micaIndex.micaInformationContent(query, target));
   }
 
   @Override
@@ -76,11 +72,16 @@ public final class PairwiseResnikSimilarity
 
   /** @return Underlying {@link Ontology}. */
   public Ontology getOntology() {
-    return ontology;
+    return micaIndex.getOntology();
   }
 
   /** @return {@link Map} from {@link TermId} to information content. */
   public Map<TermId, Double> getTermToIc() {
-    return termToIc;
+    return micaIndex.getTermToIc();
+  }
+
+  /** @return Underlying {@link MicaIndex}. */
+  public MicaIndex getMicaIndex() {
+    return micaIndex;
   }
 }
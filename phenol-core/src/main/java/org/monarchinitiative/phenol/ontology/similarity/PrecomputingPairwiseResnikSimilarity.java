@@ -1,6 +1,7 @@
 package org.monarchinitiative.phenol.ontology.similarity;
 
 import org.monarchinitiative.phenol.ontology.data.Ontology;
+import org.monarchinitiative.phenol.ontology.data.PackedTermIdIntMap;
 import org.monarchinitiative.phenol.ontology.data.TermId;
 import org.monarchinitiative.phenol.utils.ProgressReporter;
 import com.google.common.collect.ImmutableSortedSet;
@@ -156,10 +157,11 @@ public final class PrecomputingPairwiseResnikSimilarity
    */
   private static final class PrecomputedScores implements Serializable {
 
-    private static final long serialVersionUID = -6390653194662991513L;
+    /** Serial UID for serialization, changed when {@link #termIdToIdx} became a {@link PackedTermIdIntMap}. */
+    private static final long serialVersionUID = 2L;
 
-    /** Mapping from term ID to term index. */
-    private final HashMap<TermId, Integer> termIdToIdx;
+    /** Mapping from term ID to term index, <code>-1</code> for unknown terms. */
+    private final PackedTermIdIntMap termIdToIdx;
 
     /** Internal storage of the similarity scores as matrix of floats. */
     private final float[][] data;
@@ -167,7 +169,7 @@ public final class PrecomputingPairwiseResnikSimilarity
     PrecomputedScores(Collection<TermId> termIds) {
       int termIdCount = termIds.size();
       data = new float[termIdCount][termIdCount];
-      termIdToIdx = new HashMap<>(termIdCount);
+      termIdToIdx = new PackedTermIdIntMap(termIdCount, -1);
 
       int i = 0;
       for (TermId termId : ImmutableSortedSet.copyOf(termIds)) {
@@ -190,9 +192,9 @@ public final class PrecomputingPairwiseResnikSimilarity
 
     /** Get score. */
     public float get(TermId lhs, TermId rhs) {
-      final Integer idxLhs = termIdToIdx.get(lhs);
-      final Integer idxRhs = termIdToIdx.get(rhs);
-      if (idxLhs == null || idxRhs == null) {
+      final int idxLhs = termIdToIdx.get(lhs);
+      final int idxRhs = termIdToIdx.get(rhs);
+      if (idxLhs == -1 || idxRhs == -1) {
         return 0.0f;
       } else {
         return data[idxLhs][idxRhs];
@@ -0,0 +1,308 @@
+package org.monarchinitiative.phenol.utils;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+
+/**
+ * Records the phases of loading an ontology or annotation file: wall time, bytes allocated by the
+ * thread running the phase and element counts.
+ *
+ * <p>Loaders take a recorder and record their phases with the standard names below, e.g. {@link
+ * #PARSE} and {@link #CLOSURE_PRECOMPUTE}. The phases are available as {@link PhaseReport} after
+ * loading:
+ *
+ * <pre>
+ * PhaseRecorder recorder = PhaseRecorder.create();
+ * Ontology ontology = OntologyLoader.loadOntology(file, recorder, curieUtil);
+ * recorder.getReport().log(LOGGER);
+ * </pre>
+ *
+ * <p>Phases can be nested, e.g. the time spent in {@link #READ} and {@link #CURIE_MAPPING} is
+ * accumulated over the calls made during the enclosing parse and conversion phases. The allocated
+ * bytes are those of the thread that started the phase, where the JVM supports measuring them; work
+ * that a phase hands to other threads, such as chunks converted or closures computed in parallel, is
+ * included in the wall time but not in the allocated bytes.
+ *
+ * <p>{@link #disabled()} is the recorder used by default; it records nothing and its phases do not
+ * read any clock.
+ */
+public final class PhaseRecorder {
+
+  /** Reading the bytes of the input, accumulated over the read calls. */
+  public static final String READ = "read";
+
+  /** Parsing the input, including reading it if it is streamed. */
+  public static final String PARSE = "parse";
+
+  /** Mapping IRIs and OBO ids to CURIEs, accumulated over the lookups. */
+  public static final String CURIE_MAPPING = "curie mapping";
+
+  /** Building the terms. */
+  public static final String TERM_CONSTRUCTION = "term construction";
+
+  /** Building the relationships. */
+  public static final String RELATIONSHIP_CONSTRUCTION = "relationship construction";
+
+  /** Building the graph of the ontology from its terms and relationships. */
+  public static final String GRAPH_BUILD = "graph build";
+
+  /** Checking the graph with {@link org.monarchinitiative.phenol.graph.util.CompatibilityChecker}. */
+  public static final String COMPATIBILITY_CHECK = "compatibility check";
+
+  /** Building the ordinal and CSR indices of the graph. */
+  public static final String INDEX_BUILD = "index build";
+
+  /** Precomputing the ancestor closure. */
+  public static final String CLOSURE_PRECOMPUTE = "closure precompute";
+
+  /** Value of {@link PhaseRecord#getAllocatedBytes()} if the allocations could not be measured. */
+  public static final long UNKNOWN = -1;
+
+  private static final PhaseRecorder DISABLED = new PhaseRecorder(false);
+
+  private static final Phase DISABLED_PHASE = new Phase(DISABLED, null);
+
+  /** Thread allocation counters, <code>null</code> if not supported or disabled. */
+  private static final com.sun.management.ThreadMXBean ALLOCATION_BEAN = allocationBean();
+
+  private final boolean enabled;
+
+  private final List<PhaseRecord> records = Collections.synchronizedList(new ArrayList<>());
+
+  private PhaseRecorder(boolean enabled) {
+    this.enabled = enabled;
+  }
+
+  /** @return New {@link PhaseRecorder}. */
+  public static PhaseRecorder create() {
+    return new PhaseRecorder(true);
+  }
+
+  /** @return {@link PhaseRecorder} that records nothing. */
+  public static PhaseRecorder disabled() {
+    return DISABLED;
+  }
+
+  private static com.sun.management.ThreadMXBean allocationBean() {
+    try {
+      final ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+      if (bean instanceof com.sun.management.ThreadMXBean) {
+        final com.sun.management.ThreadMXBean allocationBean = (com.sun.management.ThreadMXBean) bean;
+        if (allocationBean.isThreadAllocatedMemorySupported() && allocationBean.isThreadAllocatedMemoryEnabled()) {
+          return allocationBean;
+        }
+      }
+    } catch (LinkageError | SecurityException e) {
+      // not a HotSpot based JVM
+    }
+    return null;
+  }
+
+  /** @return Whether phases are recorded, callers can skip measuring accumulated phases otherwise. */
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  /**
+   * Start a phase on the calling thread, recorded when it is closed:
+   *
+   * <pre>
+   * try (PhaseRecorder.Phase phase = recorder.start(PhaseRecorder.GRAPH_BUILD)) {
+   *   ...
+   *   phase.count("edges", edgeCount);
+   * }
+   * </pre>
+   *
+   * @param name Name of the phase.
+   * @return The started {@link Phase}.
+   */
+  public Phase start(String name) {
+    return enabled ? new Phase(this, name) : DISABLED_PHASE;
+  }
+
+  /**
+   * Record a phase measured by the caller, e.g. time accumulated over many calls.
+   *
+   * @param name Name of the phase.
+   * @param wallNanos Time spent in the phase.
+   * @param counts Element counts, by their name.
+   */
+  public void record(String name, long wallNanos, Map<String, Long> counts) {
+    if (enabled) {
+      records.add(new PhaseRecord(name, wallNanos, UNKNOWN, counts));
+    }
+  }
+
+  /** @return {@link PhaseReport} of the phases recorded so far. */
+  public PhaseReport getReport() {
+    synchronized (records) {
+      return new PhaseReport(new ArrayList<>(records));
+    }
+  }
+
+  private static long allocatedBytes() {
+    return ALLOCATION_BEAN == null ? UNKNOWN : ALLOCATION_BEAN.getThreadAllocatedBytes(Thread.currentThread().getId());
+  }
+
+  /** A running phase, recorded on {@link #close()}. */
+  public static final class Phase implements AutoCloseable {
+
+    private final PhaseRecorder recorder;
+
+    private final String name;
+
+    private final long startNanos;
+
+    private final long startAllocatedBytes;
+
+    private final Thread thread;
+
+    private final Map<String, Long> counts = new LinkedHashMap<>();
+
+    private boolean closed;
+
+    private Phase(PhaseRecorder recorder, String name) {
+      this.recorder = recorder;
+      this.name = name;
+      final boolean enabled = recorder.enabled;
+      this.thread = enabled ? Thread.currentThread() : null;
+      this.startAllocatedBytes = enabled ? allocatedBytes() : UNKNOWN;
+      this.startNanos = enabled ? System.nanoTime() : 0;
+    }
+
+    /**
+     * Set the count of an element processed by the phase.
+     *
+     * @param element Name of the element, e.g. <code>terms</code>.
+     * @param count Number of elements.
+     * @return This phase.
+     */
+    public Phase count(String element, long count) {
+      if (recorder.enabled) {
+        counts.put(element, count);
+      }
+      return this;
+    }
+
+    @Override
+    public void close() {
+      if (!recorder.enabled || closed) {
+        return;
+      }
+      closed = true;
+      final long wallNanos = System.nanoTime() - startNanos;
+      long allocated = UNKNOWN;
+      if (startAllocatedBytes != UNKNOWN && Thread.currentThread() == thread) {
+        allocated = allocatedBytes() - startAllocatedBytes;
+      }
+      recorder.records.add(new PhaseRecord(name, wallNanos, allocated, counts));
+    }
+  }
+
+  /** Measurements of a completed phase. */
+  public static final class PhaseRecord {
+
+    private final String name;
+
+    private final long wallNanos;
+
+    private final long allocatedBytes;
+
+    private final Map<String, Long> counts;
+
+    PhaseRecord(String name, long wallNanos, long allocatedBytes, Map<String, Long> counts) {
+      this.name = name;
+      this.wallNanos = wallNanos;
+      this.allocatedBytes = allocatedBytes;
+      this.counts = Collections.unmodifiableMap(new LinkedHashMap<>(counts));
+    }
+
+    public String getName() {
+      return name;
+    }
+
+    /**
+     * @param unit Unit of the result.
+     * @return Time spent in the phase.
+     */
+    public long getWallTime(TimeUnit unit) {
+      return unit.convert(wallNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * @return Bytes allocated by the thread running the phase, {@link #UNKNOWN} if not measured.
+     */
+    public long getAllocatedBytes() {
+      return allocatedBytes;
+    }
+
+    /** @return Element counts of the phase, by their name, in order of recording. */
+    public Map<String, Long> getCounts() {
+      return counts;
+    }
+
+    /** @return The phase on one line, e.g. <code>phase=parse wallMs=12 allocatedBytes=3456 terms=100</code>. */
+    @Override
+    public String toString() {
+      final StringBuilder result = new StringBuilder("phase=").append(name.replace(' ', '_'))
+        .append(" wallMs=").append(getWallTime(TimeUnit.MILLISECONDS));
+      if (allocatedBytes != UNKNOWN) {
+        result.append(" allocatedBytes=").append(allocatedBytes);
+      }
+      for (Map.Entry<String, Long> count : counts.entrySet()) {
+        result.append(' ').append(count.getKey().replace(' ', '_')).append('=').append(count.getValue());
+      }
+      return result.toString();
+    }
+  }
+
+  /** The phases recorded by a {@link PhaseRecorder}, in order of completion. */
+  public static final class PhaseReport {
+
+    private final List<PhaseRecord> phases;
+
+    PhaseReport(List<PhaseRecord> phases) {
+      this.phases = Collections.unmodifiableList(phases);
+    }
+
+    /** @return The recorded phases, in order of completion. */
+    public List<PhaseRecord> getPhases() {
+      return phases;
+    }
+
+    /**
+     * @param name Name of the phase.
+     * @return The first recorded phase with the given name.
+     */
+    public Optional<PhaseRecord> getPhase(String name) {
+      return phases.stream().filter(phase -> phase.getName().equals(name)).findFirst();
+    }
+
+    /**
+     * Log the phases at info level, one line per phase.
+     *
+     * @param logger {@link Logger} to log to.
+     */
+    public void log(Logger logger) {
+      if (logger.isInfoEnabled()) {
+        for (PhaseRecord phase : phases) {
+          logger.info("{}", phase);
+        }
+      }
+    }
+
+    @Override
+    public String toString() {
+      return "PhaseReport " + phases;
+    }
+  }
+}
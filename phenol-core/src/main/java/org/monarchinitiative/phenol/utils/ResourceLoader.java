@@ -0,0 +1,367 @@
+package org.monarchinitiative.phenol.utils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import org.monarchinitiative.phenol.base.PhenolRuntimeException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Loads independent resources, e.g. ontologies and annotation files, concurrently.
+ *
+ * <p>Each load is submitted with a name and returns a {@link CompletableFuture} of the loaded
+ * resource. Loads that need other resources declare them as dependencies and start as soon as these
+ * are loaded, so the time to load everything is that of the longest chain of dependent loads
+ * instead of the sum of all loads:
+ *
+ * <pre>
+ * ResourceLoader loader = ResourceLoader.create();
+ * CompletableFuture&lt;Ontology&gt; hpo = loader.submit("hp.obo", () -&gt; OntologyLoader.loadOntology(hpFile));
+ * CompletableFuture&lt;Ontology&gt; mp = loader.submit("mp.obo", () -&gt; OntologyLoader.loadOntology(mpFile));
+ * CompletableFuture&lt;HpoAssociationParser&gt; genes = loader.submit("gene associations", hpo,
+ *   ontology -&gt; new HpoAssociationParser(geneInfoFile, mim2geneFile, hpoaFile, ontology));
+ * loader.await().throwIfFailed();
+ * </pre>
+ *
+ * <p>{@link #await()} waits for all submitted loads and returns a {@link LoadReport} with the
+ * outcome and timing of each load. A failed load fails the futures of the loads depending on it,
+ * these are reported as {@link Status#SKIPPED} without having run.
+ */
+public final class ResourceLoader {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(ResourceLoader.class);
+
+  /** Outcome of a load. */
+  public enum Status {
+    /** The resource was loaded. */
+    SUCCEEDED,
+    /** Loading the resource threw an exception. */
+    FAILED,
+    /** The load did not run, as a dependency failed. */
+    SKIPPED
+  }
+
+  private final Executor executor;
+
+  /** Time of creation, the loads' start times are relative to it. */
+  private final long startNanos = System.nanoTime();
+
+  /** The submitted loads, in order of submission. */
+  private final List<Load> loads = Collections.synchronizedList(new ArrayList<>());
+
+  private ResourceLoader(Executor executor) {
+    this.executor = executor;
+  }
+
+  /** @return {@link ResourceLoader} running the loads on the common {@link ForkJoinPool}. */
+  public static ResourceLoader create() {
+    return create(ForkJoinPool.commonPool());
+  }
+
+  /**
+   * @param executor {@link Executor} running the loads.
+   * @return {@link ResourceLoader} running the loads on <code>executor</code>.
+   */
+  public static ResourceLoader create(Executor executor) {
+    return new ResourceLoader(executor);
+  }
+
+  /**
+   * Load a resource without dependencies.
+   *
+   * @param name Name of the resource in logs and the {@link LoadReport}.
+   * @param loader Loads the resource.
+   * @return Future of the loaded resource.
+   */
+  public <T> CompletableFuture<T> submit(String name, Supplier<? extends T> loader) {
+    return submitAfter(name, loader);
+  }
+
+  /**
+   * Load a resource once the resource it depends on has been loaded.
+   *
+   * @param name Name of the resource in logs and the {@link LoadReport}.
+   * @param dependency Future of the resource needed for loading.
+   * @param loader Loads the resource from the loaded dependency.
+   * @return Future of the loaded resource.
+   */
+  public <A, T> CompletableFuture<T> submit(
+      String name, CompletableFuture<A> dependency, Function<? super A, ? extends T> loader) {
+    return submitAfter(name, () -> loader.apply(dependency.join()), dependency);
+  }
+
+  /**
+   * Load a resource once all <code>dependencies</code> have been loaded, e.g. for loads that need
+   * more than one other resource. The loader may {@link CompletableFuture#join()} the dependencies.
+   *
+   * @param name Name of the resource in logs and the {@link LoadReport}.
+   * @param loader Loads the resource.
+   * @param dependencies Futures of the resources needed for loading.
+   * @return Future of the loaded resource.
+   */
+  public <T> CompletableFuture<T> submitAfter(
+      String name, Supplier<? extends T> loader, CompletableFuture<?>... dependencies) {
+    final Load load = new Load(name);
+    final CompletableFuture<T> result = CompletableFuture.allOf(dependencies)
+      .thenApplyAsync(ignored -> load.<T>run(loader), executor)
+      // the future returned to the caller completes after the load has been recorded
+      .whenComplete((value, failure) -> load.complete(failure));
+    load.future = result;
+    loads.add(load);
+    return result;
+  }
+
+  /**
+   * Wait for all loads submitted so far, whether they succeed or not.
+   *
+   * @return {@link LoadReport} of the loads.
+   */
+  public LoadReport await() {
+    final List<Load> submitted;
+    synchronized (loads) {
+      submitted = new ArrayList<>(loads);
+    }
+    for (Load load : submitted) {
+      try {
+        load.future.join();
+      } catch (CompletionException e) {
+        // reported by the load
+      }
+    }
+    final long wallNanos = System.nanoTime() - startNanos;
+    return new LoadReport(
+      submitted.stream().map(Load::toResult).collect(Collectors.toList()), wallNanos);
+  }
+
+  /**
+   * Wait for <code>future</code> and return its value, rethrowing the exception of a failed load
+   * unwrapped from the {@link CompletionException}.
+   *
+   * @param future Future returned by one of the <code>submit</code> methods.
+   * @return The loaded resource.
+   * @throws PhenolRuntimeException wrapping a checked exception of the load.
+   */
+  public static <T> T join(CompletableFuture<T> future) {
+    try {
+      return future.join();
+    } catch (CompletionException e) {
+      final Throwable cause = e.getCause();
+      if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      }
+      if (cause instanceof Error) {
+        throw (Error) cause;
+      }
+      throw new PhenolRuntimeException("Could not load resource", cause);
+    }
+  }
+
+  /** @return <code>failure</code> without the {@link CompletionException} wrapping it. */
+  private static Throwable unwrap(Throwable failure) {
+    return failure instanceof CompletionException && failure.getCause() != null ? failure.getCause() : failure;
+  }
+
+  /** A submitted load and its timing, updated by the thread running it. */
+  private final class Load {
+
+    private final String name;
+
+    private CompletableFuture<?> future;
+
+    private volatile long startedNanos = -1;
+
+    private volatile long finishedNanos = -1;
+
+    private volatile Status status;
+
+    private volatile Throwable failure;
+
+    Load(String name) {
+      this.name = name;
+    }
+
+    <T> T run(Supplier<? extends T> loader) {
+      startedNanos = System.nanoTime();
+      try {
+        return loader.get();
+      } finally {
+        finishedNanos = System.nanoTime();
+      }
+    }
+
+    void complete(Throwable failure) {
+      if (failure == null) {
+        status = Status.SUCCEEDED;
+        LOGGER.debug("Loaded {} in {} ms", name, TimeUnit.NANOSECONDS.toMillis(finishedNanos - startedNanos));
+      } else if (startedNanos == -1) {
+        status = Status.SKIPPED;
+        this.failure = unwrap(failure);
+        LOGGER.warn("Did not load {} as a dependency failed", name);
+      } else {
+        status = Status.FAILED;
+        this.failure = unwrap(failure);
+        LOGGER.warn("Loading {} failed after {} ms", name, TimeUnit.NANOSECONDS.toMillis(finishedNanos - startedNanos),
+          this.failure);
+      }
+    }
+
+    LoadResult toResult() {
+      final boolean started = startedNanos != -1;
+      return new LoadResult(name, status,
+        started ? startedNanos - startNanos : -1,
+        started ? finishedNanos - startedNanos : 0,
+        failure);
+    }
+  }
+
+  /** Outcome and timing of a load. */
+  public static final class LoadResult {
+
+    private final String name;
+
+    private final Status status;
+
+    private final long startNanos;
+
+    private final long durationNanos;
+
+    private final Throwable failure;
+
+    LoadResult(String name, Status status, long startNanos, long durationNanos, Throwable failure) {
+      this.name = name;
+      this.status = status;
+      this.startNanos = startNanos;
+      this.durationNanos = durationNanos;
+      this.failure = failure;
+    }
+
+    /** @return The name the load was submitted with. */
+    public String getName() {
+      return name;
+    }
+
+    public Status getStatus() {
+      return status;
+    }
+
+    /**
+     * @param unit Unit of the result.
+     * @return Time from the creation of the {@link ResourceLoader} to the start of the load,
+     *     <code>-1</code> if it was {@link Status#SKIPPED}.
+     */
+    public long getStartTime(TimeUnit unit) {
+      return startNanos == -1 ? -1 : unit.convert(startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * @param unit Unit of the result.
+     * @return Time spent loading, <code>0</code> if the load was {@link Status#SKIPPED}.
+     */
+    public long getDuration(TimeUnit unit) {
+      return unit.convert(durationNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * @return The exception of a {@link Status#FAILED} load, or that of the failed dependency of a
+     *     {@link Status#SKIPPED} one.
+     */
+    public Optional<Throwable> getFailure() {
+      return Optional.ofNullable(failure);
+    }
+
+    @Override
+    public String toString() {
+      return "LoadResult [name=" + name
+        + ", status=" + status
+        + ", startMs=" + getStartTime(TimeUnit.MILLISECONDS)
+        + ", durationMs=" + getDuration(TimeUnit.MILLISECONDS)
+        + (failure == null ? "" : ", failure=" + failure)
+        + "]";
+    }
+  }
+
+  /** Outcome and timing of all loads of a {@link ResourceLoader}. */
+  public static final class LoadReport {
+
+    private final List<LoadResult> results;
+
+    private final long wallNanos;
+
+    LoadReport(List<LoadResult> results, long wallNanos) {
+      this.results = Collections.unmodifiableList(results);
+      this.wallNanos = wallNanos;
+    }
+
+    /** @return The results of the loads, in order of submission. */
+    public List<LoadResult> getResults() {
+      return results;
+    }
+
+    /** @return The results of the loads that did not succeed. */
+    public List<LoadResult> getFailures() {
+      return results.stream()
+        .filter(result -> result.getStatus() != Status.SUCCEEDED)
+        .collect(Collectors.toList());
+    }
+
+    /** @return Whether all loads succeeded. */
+    public boolean isSuccessful() {
+      return getFailures().isEmpty();
+    }
+
+    /**
+     * @param unit Unit of the result.
+     * @return Time from the creation of the {@link ResourceLoader} until all loads completed.
+     */
+    public long getWallTime(TimeUnit unit) {
+      return unit.convert(wallNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * @param unit Unit of the result.
+     * @return Sum of the durations of the loads, i.e. the time loading one after another would take.
+     */
+    public long getTotalLoadTime(TimeUnit unit) {
+      return unit.convert(results.stream().mapToLong(result -> result.durationNanos).sum(), TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * @throws PhenolRuntimeException with the exception of the first failed load as cause and those
+     *     of the others suppressed, if any load did not succeed.
+     */
+    public void throwIfFailed() {
+      final List<LoadResult> failures = getFailures();
+      if (failures.isEmpty()) {
+        return;
+      }
+      final PhenolRuntimeException exception = new PhenolRuntimeException(
+        "Could not load " + failures.stream().map(LoadResult::getName).collect(Collectors.joining(", ")),
+        failures.get(0).failure);
+      for (LoadResult failure : failures.subList(1, failures.size())) {
+        if (failure.status == Status.FAILED) {
+          exception.addSuppressed(failure.failure);
+        }
+      }
+      throw exception;
+    }
+
+    @Override
+    public String toString() {
+      return "LoadReport [wallTimeMs=" + getWallTime(TimeUnit.MILLISECONDS)
+        + ", totalLoadTimeMs=" + getTotalLoadTime(TimeUnit.MILLISECONDS)
+        + ", results=" + results
+        + "]";
+    }
+  }
+}
@@ -1,11 +1,13 @@
 package org.monarchinitiative.phenol.graph.algo;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
 import java.util.ArrayList;
 import java.util.List;
 import org.junit.jupiter.api.Test;
 import org.monarchinitiative.phenol.graph.IdLabeledEdge;
+import org.monarchinitiative.phenol.graph.util.GraphUtil;
 import org.jgrapht.graph.DefaultDirectedGraph;
 
 public class TopologicalSortingFirstSearchTest extends GraphAlgoTestBase {
@@ -81,4 +83,29 @@ public class TopologicalSortingFirstSearchTest extends GraphAlgoTestBase {
 
     assertEquals("[1, 2, 3, 4, 5]", visited.toString());
   }
+
+  @Test
+  public void testLongLineDoesNotOverflowStack() {
+    DefaultDirectedGraph<Integer, IdLabeledEdge> longLine = new DefaultDirectedGraph<>(IdLabeledEdge.class);
+    final int length = 100_000;
+    for (int i = 1; i < length; ++i) {
+      GraphUtil.addEdgeToGraph(longLine, i, i + 1, i);
+    }
+    List<Integer> visited = new ArrayList<>();
+    new TopologicalSorting<Integer, IdLabeledEdge, DefaultDirectedGraph<Integer, IdLabeledEdge>>()
+        .startForward(longLine, (g, v) -> visited.add(v));
+
+    assertEquals(length, visited.size());
+    assertEquals(length, (int) visited.get(0));
+    assertEquals(1, (int) visited.get(length - 1));
+  }
+
+  @Test
+  public void testCycleIsRejected() {
+    GraphUtil.addEdgeToGraph(simpleLine, 5, 3, 5);
+    assertThrows(
+        GraphNotDagException.class,
+        () -> new TopologicalSorting<Integer, IdLabeledEdge, DefaultDirectedGraph<Integer, IdLabeledEdge>>()
+            .startForward(simpleLine, (g, v) -> true));
+  }
 }
@@ -0,0 +1,83 @@
+package org.monarchinitiative.phenol.graph.csr;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CsrGraphTest {
+
+  /** Diamond: 3 -> 1, 3 -> 2, 1 -> 0, 2 -> 0 (child -> parent). */
+  private final CsrGraph diamond = CsrGraph.of(4, new int[]{3, 2, 1, 3}, new int[]{2, 0, 0, 1});
+
+  @Test
+  void testCounts() {
+    assertEquals(4, diamond.vertexCount());
+    assertEquals(4, diamond.edgeCount());
+  }
+
+  @Test
+  void testParents() {
+    assertArrayEquals(new int[0], diamond.parentsOf(0));
+    assertArrayEquals(new int[]{0}, diamond.parentsOf(1));
+    assertArrayEquals(new int[]{0}, diamond.parentsOf(2));
+    assertArrayEquals(new int[]{1, 2}, diamond.parentsOf(3));
+    assertEquals(2, diamond.parentCount(3));
+    assertEquals(2, diamond.parent(3, 1));
+  }
+
+  @Test
+  void testChildren() {
+    assertArrayEquals(new int[]{1, 2}, diamond.childrenOf(0));
+    assertArrayEquals(new int[]{3}, diamond.childrenOf(1));
+    assertArrayEquals(new int[]{3}, diamond.childrenOf(2));
+    assertArrayEquals(new int[0], diamond.childrenOf(3));
+    assertEquals(0, diamond.childCount(3));
+    assertEquals(1, diamond.child(0, 0));
+  }
+
+  @Test
+  void testReturnedArraysAreCopies() {
+    diamond.parentsOf(3)[0] = 42;
+    assertArrayEquals(new int[]{1, 2}, diamond.parentsOf(3));
+  }
+
+  @Test
+  void testReversed() {
+    CsrGraph reversed = diamond.reversed();
+    assertEquals(4, reversed.edgeCount());
+    assertArrayEquals(new int[]{1, 2}, reversed.parentsOf(0));
+    assertArrayEquals(new int[0], reversed.parentsOf(3));
+    assertArrayEquals(new int[]{1, 2}, reversed.childrenOf(3));
+    assertArrayEquals(diamond.parentsOf(3), reversed.reversed().parentsOf(3));
+  }
+
+  @Test
+  void testLabels() {
+    CsrGraph labelled = CsrGraph.of(4, new int[]{3, 2, 1, 3}, new int[]{2, 0, 0, 1}, new int[]{7, 8, 9, 6});
+    assertEquals(6, labelled.parentLabel(3, 0));
+    assertEquals(7, labelled.parentLabel(3, 1));
+    assertEquals(8, labelled.childLabel(0, 1));
+    assertEquals(9, labelled.childLabel(0, 0));
+    assertEquals(6, labelled.reversed().childLabel(3, 0));
+    assertEquals(0, diamond.parentLabel(3, 0));
+  }
+
+  @Test
+  void testFilterEdges() {
+    CsrGraph labelled = CsrGraph.of(4, new int[]{3, 2, 1, 3}, new int[]{2, 0, 0, 1}, new int[]{1, 0, 0, 0});
+    assertSame(labelled, labelled.filterEdges(label -> label < 2));
+    CsrGraph filtered = labelled.filterEdges(label -> label == 0);
+    assertEquals(3, filtered.edgeCount());
+    assertArrayEquals(new int[]{1}, filtered.parentsOf(3));
+    assertArrayEquals(new int[]{3}, filtered.childrenOf(1));
+    assertArrayEquals(new int[0], filtered.childrenOf(2));
+    assertEquals(0, diamond.filterEdges(label -> false).edgeCount());
+  }
+
+  @Test
+  void testInvalidInput() {
+    assertThrows(IllegalArgumentException.class, () -> CsrGraph.of(2, new int[]{0}, new int[]{1}, new int[0]));
+    assertThrows(IllegalArgumentException.class, () -> CsrGraph.of(2, new int[]{0}, new int[0]));
+    assertThrows(IllegalArgumentException.class, () -> CsrGraph.of(2, new int[]{0}, new int[]{2}));
+  }
+}
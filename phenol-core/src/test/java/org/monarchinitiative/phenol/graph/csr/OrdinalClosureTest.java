@@ -0,0 +1,175 @@
+package org.monarchinitiative.phenol.graph.csr;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OrdinalClosureTest {
+
+  /** Diamond: 3 -> 1, 3 -> 2, 1 -> 0, 2 -> 0 (child -> parent), plus 4 -> 3. */
+  private final CsrGraph graph = CsrGraph.of(5, new int[]{3, 2, 1, 3, 4}, new int[]{2, 0, 0, 1, 3});
+
+  @Test
+  void testAncestors() {
+    OrdinalClosure closure = OrdinalClosure.ancestorsOf(graph);
+    assertEquals(5, closure.vertexCount());
+    assertArrayEquals(new int[]{0}, closure.get(0).toArray());
+    assertArrayEquals(new int[]{0, 1}, closure.get(1).toArray());
+    assertArrayEquals(new int[]{0, 2}, closure.get(2).toArray());
+    assertArrayEquals(new int[]{0, 1, 2, 3}, closure.get(3).toArray());
+    assertArrayEquals(new int[]{0, 1, 2, 3, 4}, closure.get(4).toArray());
+  }
+
+  @Test
+  void testDescendants() {
+    OrdinalClosure closure = OrdinalClosure.descendantsOf(graph);
+    assertEquals(5, closure.vertexCount());
+    assertArrayEquals(new int[]{0, 1, 2, 3, 4}, closure.get(0).toArray());
+    assertArrayEquals(new int[]{1, 3, 4}, closure.get(1).toArray());
+    assertArrayEquals(new int[]{2, 3, 4}, closure.get(2).toArray());
+    assertArrayEquals(new int[]{3, 4}, closure.get(3).toArray());
+    assertArrayEquals(new int[]{4}, closure.get(4).toArray());
+    assertEquals(closure.get(1), new OnDemandClosure(graph.reversed()).get(1));
+  }
+
+  @Test
+  void testCycleFallsBackToBreadthFirstSearch() {
+    // 0 <- 1 <- 2 <- 1 (cycle between 1 and 2), 3 -> 2
+    CsrGraph cyclic = CsrGraph.of(4, new int[]{1, 2, 1, 3}, new int[]{0, 1, 2, 2});
+    OrdinalClosure closure = OrdinalClosure.ancestorsOf(cyclic);
+    assertArrayEquals(new int[]{0}, closure.get(0).toArray());
+    assertArrayEquals(new int[]{0, 1, 2}, closure.get(1).toArray());
+    assertArrayEquals(new int[]{0, 1, 2}, closure.get(2).toArray());
+    assertArrayEquals(new int[]{0, 1, 2, 3}, closure.get(3).toArray());
+  }
+
+  /** The layered computation must agree with a plain search, no matter which executor runs the chunks. */
+  @Test
+  void testParallelMatchesSequential() {
+    // random DAG with wide layers: each vertex has up to three parents with smaller ordinals
+    Random random = new Random(42);
+    int vertexCount = 5000;
+    List<Integer> sources = new ArrayList<>();
+    List<Integer> targets = new ArrayList<>();
+    for (int v = 1; v < vertexCount; ++v) {
+      int parentCount = 1 + random.nextInt(3);
+      Set<Integer> parents = new HashSet<>();
+      for (int i = 0; i < parentCount; ++i) {
+        parents.add(random.nextInt(v));
+      }
+      for (int p : parents) {
+        sources.add(v);
+        targets.add(p);
+      }
+    }
+    CsrGraph dag = CsrGraph.of(
+      vertexCount,
+      sources.stream().mapToInt(Integer::intValue).toArray(),
+      targets.stream().mapToInt(Integer::intValue).toArray());
+
+    OrdinalClosure sequential = OrdinalClosure.ancestorsOf(dag);
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    try {
+      OrdinalClosure parallel = OrdinalClosure.ancestorsOf(dag, executor);
+      OrdinalClosure descendants = OrdinalClosure.descendantsOf(dag, executor);
+      for (int v = 0; v < vertexCount; ++v) {
+        assertEquals(sequential.get(v), parallel.get(v));
+        assertEquals(reachable(dag, v), sequential.get(v));
+        assertEquals(reachable(dag.reversed(), v), descendants.get(v));
+      }
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  private static OrdinalSet reachable(CsrGraph graph, int start) {
+    Set<Integer> seen = new HashSet<>();
+    Deque<Integer> stack = new ArrayDeque<>();
+    stack.push(start);
+    while (!stack.isEmpty()) {
+      int v = stack.pop();
+      if (seen.add(v)) {
+        for (int p : graph.parentsOf(v)) {
+          stack.push(p);
+        }
+      }
+    }
+    return OrdinalSet.of(graph.vertexCount(), seen.stream().mapToInt(Integer::intValue).toArray());
+  }
+
+  @Test
+  void testUpdateRecomputesAffectedVertices() {
+    // the diamond with a new vertex 1 below 0, which becomes the parent of the former vertex 2 (now 3)
+    int[] previousOrdinals = {0, -1, 1, 2, 3, 4};
+    CsrGraph current = CsrGraph.of(6, new int[]{4, 3, 2, 4, 5, 1}, new int[]{3, 1, 0, 2, 4, 0});
+
+    OrdinalSet affected = OrdinalClosure.affectedBy(graph, current, previousOrdinals);
+    assertArrayEquals(new int[]{1, 3, 4, 5}, affected.toArray());
+    OrdinalClosure previous = OrdinalClosure.ancestorsOf(graph);
+    OrdinalClosure updated = OrdinalClosure.update(previous, current, previousOrdinals, affected, Runnable::run);
+    OrdinalClosure expected = OrdinalClosure.ancestorsOf(current);
+    for (int v = 0; v < current.vertexCount(); ++v) {
+      assertEquals(expected.get(v), updated.get(v));
+    }
+    assertArrayEquals(new int[]{0, 1, 2, 3, 4}, updated.get(4).toArray());
+
+    // the descendants change for the ancestors of the changed vertices
+    OrdinalSet descendantsAffected = OrdinalClosure.affectedBy(graph.reversed(), current.reversed(), previousOrdinals);
+    assertArrayEquals(new int[]{0, 1}, descendantsAffected.toArray());
+    OrdinalClosure descendants = OrdinalClosure.update(OrdinalClosure.descendantsOf(graph), current.reversed(),
+      previousOrdinals, descendantsAffected, Runnable::run);
+    for (int v = 0; v < current.vertexCount(); ++v) {
+      assertEquals(reachable(current.reversed(), v), descendants.get(v));
+    }
+  }
+
+  @Test
+  void testUpdateMatchesFullComputation() {
+    Random random = new Random(7);
+    int vertexCount = 2000;
+    List<int[]> edges = new ArrayList<>();
+    for (int v = 1; v < vertexCount; ++v) {
+      edges.add(new int[]{v, random.nextInt(v)});
+    }
+    CsrGraph previous = graphOf(vertexCount, edges);
+    // move a few edges, the vertices keep their ordinals
+    for (int i = 0; i < 20; ++i) {
+      int[] edge = edges.get(random.nextInt(edges.size()));
+      edge[1] = random.nextInt(edge[0]);
+    }
+    CsrGraph current = graphOf(vertexCount, edges);
+    int[] previousOrdinals = new int[vertexCount];
+    Arrays.setAll(previousOrdinals, v -> v);
+
+    OrdinalSet affected = OrdinalClosure.affectedBy(previous, current, previousOrdinals);
+    OrdinalClosure previousClosure = OrdinalClosure.ancestorsOf(previous);
+    OrdinalClosure updated = OrdinalClosure.update(previousClosure, current, previousOrdinals, affected, Runnable::run);
+    assertTrue(affected.size() < vertexCount);
+    for (int v = 0; v < vertexCount; ++v) {
+      assertEquals(reachable(current, v), updated.get(v));
+      if (!affected.contains(v)) {
+        // unaffected sets are shared with the previous closure
+        assertSame(previousClosure.get(v), updated.get(v));
+      }
+    }
+  }
+
+  private static CsrGraph graphOf(int vertexCount, List<int[]> edges) {
+    return CsrGraph.of(vertexCount,
+      edges.stream().mapToInt(edge -> edge[0]).toArray(),
+      edges.stream().mapToInt(edge -> edge[1]).toArray());
+  }
+
+  @Test
+  void testContains() {
+    OrdinalClosure closure = OrdinalClosure.ancestorsOf(graph);
+    assertTrue(closure.contains(4, 0));
+    assertTrue(closure.contains(4, 4));
+    assertFalse(closure.contains(0, 4));
+    assertFalse(closure.contains(1, 2));
+  }
+}
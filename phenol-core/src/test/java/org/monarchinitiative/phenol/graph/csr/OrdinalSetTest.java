@@ -0,0 +1,147 @@
+package org.monarchinitiative.phenol.graph.csr;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.PrimitiveIterator;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OrdinalSetTest {
+
+  /** Sparse set, stored as sorted array. */
+  private final OrdinalSet sparse = OrdinalSet.of(1000, 999, 3, 64, 3, 500);
+
+  /** Dense set, stored as bitset: all multiples of 3. */
+  private final OrdinalSet dense = OrdinalSet.ofSorted(1000, multiplesOf(3, 1000));
+
+  /** Another dense set: all even numbers. */
+  private final OrdinalSet evens = OrdinalSet.ofSorted(1000, multiplesOf(2, 1000));
+
+  private static int[] multiplesOf(int k, int universeSize) {
+    final int[] result = new int[(universeSize + k - 1) / k];
+    for (int i = 0; i < result.length; ++i) {
+      result[i] = i * k;
+    }
+    return result;
+  }
+
+  @Test
+  void testOfSortsAndRemovesDuplicates() {
+    assertEquals(4, sparse.size());
+    assertArrayEquals(new int[]{3, 64, 500, 999}, sparse.toArray());
+  }
+
+  @Test
+  void testContains() {
+    assertTrue(sparse.contains(3));
+    assertTrue(sparse.contains(999));
+    assertFalse(sparse.contains(4));
+    assertFalse(sparse.contains(-1));
+    assertFalse(sparse.contains(1000));
+
+    assertTrue(dense.contains(0));
+    assertTrue(dense.contains(999));
+    assertFalse(dense.contains(998));
+    assertFalse(dense.contains(1000));
+  }
+
+  @Test
+  void testEmpty() {
+    OrdinalSet empty = OrdinalSet.empty(10);
+    assertTrue(empty.isEmpty());
+    assertFalse(empty.contains(0));
+    assertFalse(empty.intersects(dense));
+    assertEquals(0, empty.toArray().length);
+  }
+
+  @Test
+  void testIntersects() {
+    assertTrue(sparse.intersects(dense));
+    assertTrue(dense.intersects(sparse));
+    assertTrue(dense.intersects(evens));
+    assertFalse(OrdinalSet.of(1000, 1, 5).intersects(OrdinalSet.of(1000, 2, 4, 6)));
+    assertTrue(OrdinalSet.of(1000, 1, 5).intersects(OrdinalSet.of(1000, 2, 5)));
+  }
+
+  @Test
+  void testIntersectionSize() {
+    // 3 and 999 are multiples of 3
+    assertEquals(2, sparse.intersectionSize(dense));
+    assertEquals(2, dense.intersectionSize(sparse));
+    // multiples of 6 in [0, 1000)
+    assertEquals(167, dense.intersectionSize(evens));
+    assertEquals(2, sparse.intersectionSize(OrdinalSet.of(1000, 64, 500, 501)));
+  }
+
+  @Test
+  void testFirstCommon() {
+    assertEquals(3, sparse.firstCommon(dense));
+    assertEquals(3, dense.firstCommon(sparse));
+    assertEquals(0, dense.firstCommon(evens));
+    assertEquals(64, sparse.firstCommon(OrdinalSet.of(1000, 1, 64, 500)));
+    assertEquals(-1, sparse.firstCommon(OrdinalSet.of(1000, 1, 2)));
+    assertEquals(-1, dense.firstCommon(OrdinalSet.ofSorted(1000, new int[]{1, 2, 4, 5})));
+  }
+
+  @Test
+  void testUnionSize() {
+    assertEquals(334 + 2, sparse.unionSize(dense));
+    // multiples of 2 or 3 in [0, 1000)
+    assertEquals(500 + 334 - 167, dense.unionSize(evens));
+    assertEquals(4, sparse.unionSize(sparse));
+  }
+
+  @Test
+  void testOrInto() {
+    final long[] words = new long[16];
+    sparse.orInto(words);
+    evens.orInto(words);
+    final OrdinalSet union = OrdinalSet.ofBits(1000, words);
+    assertEquals(sparse.unionSize(evens), union.size());
+    assertTrue(union.contains(3));
+    assertTrue(union.contains(998));
+    assertFalse(union.contains(5));
+  }
+
+  @Test
+  void testIntersection() {
+    assertArrayEquals(new int[]{3, 999}, sparse.intersection(dense).toArray());
+    assertArrayEquals(new int[]{3, 999}, dense.intersection(sparse).toArray());
+    OrdinalSet sixes = dense.intersection(evens);
+    assertEquals(OrdinalSet.ofSorted(1000, multiplesOf(6, 1000)), sixes);
+  }
+
+  @Test
+  void testOfBitsRoundTrip() {
+    long[] words = new long[OrdinalSet.wordCount(1000)];
+    words[0] = 1L << 3;
+    words[15] = 1L << (999 - 15 * 64);
+    OrdinalSet set = OrdinalSet.ofBits(1000, words);
+    assertArrayEquals(new int[]{3, 999}, set.toArray());
+    assertEquals(OrdinalSet.of(1000, 999, 3), set);
+  }
+
+  @Test
+  void testIteration() {
+    List<Integer> fromIterator = new ArrayList<>();
+    PrimitiveIterator.OfInt it = dense.iterator();
+    while (it.hasNext()) {
+      fromIterator.add(it.nextInt());
+    }
+    List<Integer> fromForEach = new ArrayList<>();
+    dense.forEach(fromForEach::add);
+    assertEquals(334, fromIterator.size());
+    assertEquals(fromIterator, fromForEach);
+    assertEquals(999, (int) fromIterator.get(333));
+  }
+
+  @Test
+  void testCompactRepresentation() {
+    // a bitset over 1000 ordinals needs 16 words, the sparse array only 4 ints
+    assertTrue(sparse.estimatedSizeInBytes() < dense.estimatedSizeInBytes());
+    // the dense set as sorted array would need 334 ints
+    assertTrue(dense.estimatedSizeInBytes() < 4 * 334);
+  }
+}
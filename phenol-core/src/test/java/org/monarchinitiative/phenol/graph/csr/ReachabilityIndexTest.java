@@ -0,0 +1,76 @@
+package org.monarchinitiative.phenol.graph.csr;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReachabilityIndexTest {
+
+  /** Diamond: 3 -> 1, 3 -> 2, 1 -> 0, 2 -> 0 (child -> parent), plus 4 -> 3. */
+  private final CsrGraph graph = CsrGraph.of(5, new int[]{3, 2, 1, 3, 4}, new int[]{2, 0, 0, 1, 3});
+
+  @Test
+  void testDiamond() {
+    ReachabilityIndex index = ReachabilityIndex.of(graph);
+    assertEquals(5, index.vertexCount());
+    assertTrue(index.reaches(4, 0));
+    assertTrue(index.reaches(4, 1));
+    assertTrue(index.reaches(4, 2));
+    assertTrue(index.reaches(3, 3));
+    assertFalse(index.reaches(0, 4));
+    assertFalse(index.reaches(1, 2));
+    assertFalse(index.reaches(2, 1));
+  }
+
+  @Test
+  void testCycle() {
+    // 0 <- 1 <- 2 <- 1 (cycle between 1 and 2), 3 -> 2
+    CsrGraph cyclic = CsrGraph.of(4, new int[]{1, 2, 1, 3}, new int[]{0, 1, 2, 2});
+    assertAgreesWithClosure(cyclic);
+  }
+
+  /** Random DAGs with many non-tree edges, so that vertices get several ranges. */
+  @Test
+  void testRandomDagsAgreeWithClosure() {
+    Random random = new Random(42);
+    for (int round = 0; round < 5; ++round) {
+      int vertexCount = 500;
+      List<Integer> sources = new ArrayList<>();
+      List<Integer> targets = new ArrayList<>();
+      for (int v = 1; v < vertexCount; ++v) {
+        Set<Integer> parents = new HashSet<>();
+        int parentCount = 1 + random.nextInt(4);
+        for (int i = 0; i < parentCount; ++i) {
+          parents.add(random.nextInt(v));
+        }
+        for (int p : parents) {
+          sources.add(v);
+          targets.add(p);
+        }
+      }
+      assertAgreesWithClosure(CsrGraph.of(
+        vertexCount,
+        sources.stream().mapToInt(Integer::intValue).toArray(),
+        targets.stream().mapToInt(Integer::intValue).toArray()));
+    }
+  }
+
+  private static void assertAgreesWithClosure(CsrGraph graph) {
+    ReachabilityIndex index = ReachabilityIndex.of(graph);
+    OrdinalClosure closure = OrdinalClosure.ancestorsOf(graph);
+    for (int u = 0; u < graph.vertexCount(); ++u) {
+      for (int v = 0; v < graph.vertexCount(); ++v) {
+        assertEquals(closure.contains(u, v), index.reaches(u, v), "reaches(" + u + ", " + v + ")");
+      }
+    }
+  }
+
+  @Test
+  void testTreeHasOneRangePerVertex() {
+    // 0 <- 1, 0 <- 2, 1 <- 3, 1 <- 4
+    CsrGraph tree = CsrGraph.of(5, new int[]{1, 2, 3, 4}, new int[]{0, 0, 1, 1});
+    assertEquals(5, ReachabilityIndex.of(tree).rangeCount());
+  }
+}
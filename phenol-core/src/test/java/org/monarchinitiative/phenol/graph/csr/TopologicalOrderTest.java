@@ -0,0 +1,81 @@
+package org.monarchinitiative.phenol.graph.csr;
+
+import org.junit.jupiter.api.Test;
+import org.monarchinitiative.phenol.graph.algo.GraphNotDagException;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TopologicalOrderTest {
+
+  /** 4 -> 3 -> 1 -> 0, 4 -> 2 -> 0 and 3 -> 2 (child -> parent). */
+  private final CsrGraph graph = CsrGraph.of(5, new int[]{4, 3, 1, 4, 2, 3}, new int[]{3, 1, 0, 2, 0, 2});
+
+  private final TopologicalOrder order = TopologicalOrder.of(graph);
+
+  @Test
+  void testParentsComeFirst() {
+    for (int v = 0; v < graph.vertexCount(); ++v) {
+      assertEquals(v, order.vertexAt(order.positionOf(v)));
+    }
+    for (int v = 0; v < graph.vertexCount(); ++v) {
+      for (int parent : graph.parentsOf(v)) {
+        assertTrue(order.positionOf(parent) < order.positionOf(v));
+      }
+    }
+    assertArrayEquals(new int[]{0, 1, 2, 3, 4}, order.toArray());
+  }
+
+  @Test
+  void testLevelsAndDepths() {
+    assertArrayEquals(new int[]{0, 1, 1, 2, 3}, new int[]{
+      order.level(0), order.level(1), order.level(2), order.level(3), order.level(4)});
+    assertArrayEquals(new int[]{0, 1, 1, 2, 2}, new int[]{
+      order.depth(0), order.depth(1), order.depth(2), order.depth(3), order.depth(4)});
+    assertEquals(4, order.levelCount());
+  }
+
+  @Test
+  void testTraversal() {
+    List<Integer> topDown = new ArrayList<>();
+    order.forEachTopDown(topDown::add);
+    List<Integer> bottomUp = new ArrayList<>();
+    order.forEachBottomUp(bottomUp::add);
+    assertEquals(5, topDown.size());
+    for (int i = 0; i < topDown.size(); ++i) {
+      assertEquals(topDown.get(i), bottomUp.get(bottomUp.size() - 1 - i));
+    }
+
+    // number of paths to the root, as a single sweep
+    final int[] paths = new int[graph.vertexCount()];
+    order.forEachTopDown(v -> {
+      paths[v] = graph.parentCount(v) == 0 ? 1 : 0;
+      for (int i = 0; i < graph.parentCount(v); ++i) {
+        paths[v] += paths[graph.parent(v, i)];
+      }
+    });
+    assertArrayEquals(new int[]{1, 1, 1, 2, 3}, paths);
+  }
+
+  @Test
+  void testLongChain() {
+    final int length = 200_000;
+    final int[] sources = new int[length - 1];
+    final int[] targets = new int[length - 1];
+    for (int i = 0; i < length - 1; ++i) {
+      sources[i] = i + 1;
+      targets[i] = i;
+    }
+    TopologicalOrder chain = TopologicalOrder.of(CsrGraph.of(length, sources, targets));
+    assertEquals(length - 1, chain.level(length - 1));
+    assertEquals(length, chain.levelCount());
+  }
+
+  @Test
+  void testCycle() {
+    CsrGraph cyclic = CsrGraph.of(3, new int[]{1, 2, 1}, new int[]{0, 1, 2});
+    assertThrows(GraphNotDagException.class, () -> TopologicalOrder.of(cyclic));
+  }
+}
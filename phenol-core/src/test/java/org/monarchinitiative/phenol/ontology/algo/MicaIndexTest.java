@@ -0,0 +1,102 @@
+package org.monarchinitiative.phenol.ontology.algo;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Collection;
+import java.util.Map;
+
+import com.google.common.collect.ImmutableMap;
+import org.junit.jupiter.api.Test;
+
+import org.monarchinitiative.phenol.ontology.data.ClosureMode;
+import org.monarchinitiative.phenol.ontology.data.ImmutableOntology;
+import org.monarchinitiative.phenol.ontology.data.Ontology;
+import org.monarchinitiative.phenol.ontology.data.TermAnnotations;
+import org.monarchinitiative.phenol.ontology.data.TermId;
+import org.monarchinitiative.phenol.ontology.testdata.vegetables.VegetableOntologyTestBase;
+
+class MicaIndexTest extends VegetableOntologyTestBase {
+
+  private final Map<TermId, Double> informationContent = computeInformationContent();
+
+  private final MicaIndex index = new MicaIndex(ontology, informationContent);
+
+  private static Map<TermId, Double> computeInformationContent() {
+    Map<TermId, Collection<TermId>> termLabels =
+      TermAnnotations.constructTermAnnotationToLabelsMap(ontology, recipeAnnotations);
+    return new InformationContentComputation(ontology).computeInformationContent(termLabels);
+  }
+
+  @Test
+  void testMica() {
+    // root vegetable and vegetable both have an information content of 0, the former is more specific
+    assertEquals(idRootVegetable, index.mica(idCarrot, idBeet));
+    assertEquals(idCarrot, index.mica(idBlueCarrot, idCarrot));
+    assertEquals(idCarrot, index.mica(idCarrot, idBlueCarrot));
+    assertEquals(idLeafVegetable, index.mica(idBeet, idLeafVegetable));
+    assertEquals(idVegetable, index.mica(idPumpkin, idLeafVegetable));
+    assertEquals(idBlueCarrot, index.mica(idBlueCarrot, idBlueCarrot));
+  }
+
+  @Test
+  void testMicaInformationContent() {
+    assertEquals(0.405, index.micaInformationContent(idBlueCarrot, idCarrot), 0.001);
+    assertEquals(0.0, index.micaInformationContent(idPumpkin, idLeafVegetable), 0.001);
+    assertEquals(1.099, index.informationContent(idBlueCarrot), 0.01);
+  }
+
+  @Test
+  void testAgreesWithCommonAncestors() {
+    for (TermId a : ontology.getNonObsoleteTermIds()) {
+      for (TermId b : ontology.getNonObsoleteTermIds()) {
+        double expected = 0.0;
+        for (TermId ancestor : ontology.getAncestorTermIds(a)) {
+          if (ontology.getAncestorTermIds(b).contains(ancestor)) {
+            expected = Math.max(expected, informationContent.get(ancestor));
+          }
+        }
+        assertEquals(expected, index.micaInformationContent(a, b), 1e-9);
+        assertEquals(
+          InformationContentComputation.mostInformativeCommonAncestor(a, b, ontology, informationContent),
+          index.mica(a, b));
+        assertEquals(
+          index.micaOrdinal(ontology.ordinalOf(a), ontology.ordinalOf(b)),
+          ontology.ordinalOf(index.mica(a, b)));
+      }
+    }
+  }
+
+  @Test
+  void testClosureModes() {
+    for (ClosureMode closureMode : new ClosureMode[]{ClosureMode.LAZY, ClosureMode.NONE}) {
+      Ontology other = ImmutableOntology.builder()
+        .terms(ontology.getTermMap().values())
+        .relationships(ontology.getRelationMap().values())
+        .closureMode(closureMode)
+        .build();
+      MicaIndex otherIndex = new MicaIndex(other, informationContent);
+      for (TermId a : ontology.getNonObsoleteTermIds()) {
+        for (TermId b : ontology.getNonObsoleteTermIds()) {
+          assertEquals(index.mica(a, b), otherIndex.mica(a, b));
+        }
+      }
+    }
+  }
+
+  @Test
+  void testUnknownTerms() {
+    TermId unknown = TermId.of("VO:9999999");
+    assertNull(index.mica(unknown, idCarrot));
+    assertEquals(0.0, index.micaInformationContent(idCarrot, unknown), 0.0);
+    assertEquals(0.0, index.informationContent(unknown), 0.0);
+  }
+
+  @Test
+  void testMissingInformationContent() {
+    MicaIndex partial = new MicaIndex(ontology, ImmutableMap.of(idCarrot, 2.0));
+    assertEquals(idCarrot, partial.mica(idBlueCarrot, idCarrot));
+    assertEquals(2.0, partial.micaInformationContent(idBlueCarrot, idCarrot), 0.0);
+    assertEquals(idRootVegetable, partial.mica(idBlueCarrot, idBeet));
+    assertEquals(0.0, partial.informationContent(idBeet), 0.0);
+  }
+}
@@ -1,6 +1,7 @@
 package org.monarchinitiative.phenol.ontology.algo;
 
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.ImmutableSortedMap;
 
 import org.junit.jupiter.api.Test;
@@ -8,6 +9,7 @@ import org.monarchinitiative.phenol.ontology.data.*;
 
 import java.util.List;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
@@ -108,4 +110,45 @@ public class OntologyAlgorithmRelationshipTest {
     assertFalse(OntologyAlgorithm.termsAreUnrelated(ontology, t1_1_1, t1_2));
     assertTrue(OntologyAlgorithm.termsAreUnrelated(ontology, t1_1_2, t3));
   }
+
+  /**
+   * t2_1 and t3_1 only share t1 via a non-propagating relationship. Both are subclasses of t1, as
+   * subclass checks follow all relationships, but the two are unrelated.
+   */
+  @Test
+  public void testNonPropagatingCommonAncestor() {
+    Ontology withRegulates = withRegulates();
+
+    assertTrue(OntologyAlgorithm.existsPath(withRegulates, t2_1, t1));
+    assertTrue(OntologyAlgorithm.isSubclass(withRegulates, t2_1, t1));
+    assertFalse(OntologyAlgorithm.termsAreRelated(withRegulates, t2_1, t3_1));
+    assertTrue(OntologyAlgorithm.termsAreRelated(withRegulates, t2_1, t2_2));
+  }
+
+  /**
+   * The ancestors of t2_1 include t1 only via a non-propagating relationship, so it is not one of
+   * its ancestor terms, also within the sub ontology below the root.
+   */
+  @Test
+  public void testAncestorTermsSkipNonPropagatingRelationships() {
+    Ontology withRegulates = withRegulates();
+
+    assertEquals(ImmutableSet.of(t2, root), OntologyAlgorithm.getAncestorTerms(withRegulates, t2_1, false));
+    assertEquals(ImmutableSet.of(t2_1, t2, t3_1, t3, root),
+      OntologyAlgorithm.getAncestorTerms(withRegulates, ImmutableSet.of(t2_1, t3_1), true));
+    assertEquals(ImmutableSet.of(t2_1, t2, root), OntologyAlgorithm.getAncestorTerms(withRegulates, root, t2_1, true));
+  }
+
+  /** @return The test ontology with additional regulates relationships from t2_1 and t3_1 to t1. */
+  private static Ontology withRegulates() {
+    RelationshipType regulates = RelationshipType.of("http://purl.obolibrary.org/obo/RO_0002211", "regulates");
+    return ImmutableOntology.builder()
+      .terms(ontology.getTermMap().values())
+      .relationships(ImmutableList.<Relationship>builder()
+        .addAll(ontology.getRelationMap().values())
+        .add(new Relationship(t2_1, t1, 12, regulates))
+        .add(new Relationship(t3_1, t1, 13, regulates))
+        .build())
+      .build();
+  }
 }
@@ -91,6 +91,23 @@ public class OntologyAlgorithmTest {
     assertFalse(existsPath(ontology, id5, id5));
   }
 
+  @Test
+  public void testIsSubclass() {
+    assertTrue(isSubclass(ontology, id1, id5));
+    assertTrue(isSubclass(ontology, id1, id1));
+    assertFalse(isSubclass(ontology, id5, id1));
+    assertFalse(isSubclass(ontology, id2, id3));
+  }
+
+  @Test
+  public void testTermsAreRelated() {
+    // id1 and id2 only share the root id5, the parents of id1 share id5 only as well
+    assertFalse(termsAreRelated(ontology, id1, id2));
+    assertFalse(termsAreRelated(ontology, id2, id3));
+    assertTrue(termsAreRelated(ontology, id1, id1));
+    assertTrue(termsAreUnrelated(ontology, id2, id3));
+  }
+
   /** Test the default function, which includes the term itself in the set of returned terms */
   @Test
   public void testGetTermChildrenId4andId1() {
@@ -137,6 +154,8 @@ public class OntologyAlgorithmTest {
   public void testGetDescendents() {
     Set<TermId> expected = ImmutableSet.of(id1, id2, id3, id4, id5);
     assertEquals(expected, getDescendents(ontology, id5));
+    assertEquals(ImmutableSet.of(id1, id3), getDescendents(ontology, id3));
+    assertThrows(IllegalArgumentException.class, () -> getDescendents(ontology, TermId.of("HP:0000006")));
   }
 
   @Test
@@ -214,4 +233,23 @@ public class OntologyAlgorithmTest {
     expected = new HashSet<>();
     assertEquals(expected, getParentTerms(ontology, id5, false));
   }
+
+  /** Parent and ancestor terms follow only relationships that propagate annotations. */
+  @Test
+  public void testNonPropagatingRelationshipsAreSkipped() {
+    RelationshipType regulates = RelationshipType.of("http://purl.obolibrary.org/obo/RO_0002211", "regulates");
+    Ontology regulated = ImmutableOntology.builder()
+      .terms(ImmutableSet.copyOf(ontology.getTerms()))
+      .relationships(ImmutableList.of(
+        new Relationship(id1, id2, 1, RelationshipType.IS_A),
+        new Relationship(id1, id3, 2, regulates),
+        new Relationship(id1, id4, 3, RelationshipType.PART_OF),
+        new Relationship(id2, id5, 4, RelationshipType.IS_A),
+        new Relationship(id3, id5, 5, RelationshipType.IS_A),
+        new Relationship(id4, id5, 6, RelationshipType.IS_A)))
+      .build();
+    assertEquals(ImmutableSet.of(id2, id4), getParentTerms(regulated, id1, false));
+    assertEquals(ImmutableSet.of(id1, id2, id4, id5), getAncestorTerms(regulated, id1, true));
+    assertEquals(ImmutableSet.of(id3, id5), getAncestorTerms(regulated, id3, true));
+  }
 }
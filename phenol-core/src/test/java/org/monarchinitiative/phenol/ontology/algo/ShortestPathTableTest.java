@@ -4,6 +4,7 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 
 import org.junit.jupiter.api.Test;
 
+import org.monarchinitiative.phenol.ontology.data.TermId;
 import org.monarchinitiative.phenol.ontology.testdata.vegetables.VegetableOntologyTestBase;
 
 class ShortestPathTableTest extends VegetableOntologyTestBase {
@@ -45,4 +46,28 @@ class ShortestPathTableTest extends VegetableOntologyTestBase {
     assertEquals(1, table.getDistanceSymmetric(idPumpkin, idRootVegetable));
     assertEquals(1, table.getDistanceSymmetric(idRootVegetable, idPumpkin));
   }
+
+  @Test
+  void testGetDistanceViaCommonAncestor() {
+    assertEquals(0, table.getDistanceViaCommonAncestor(idCarrot, idCarrot));
+    assertEquals(1, table.getDistanceViaCommonAncestor(idCarrot, idRootVegetable));
+    assertEquals(2, table.getDistanceViaCommonAncestor(idCarrot, idBeet));
+    assertEquals(3, table.getDistanceViaCommonAncestor(idBlueCarrot, idBeet));
+    assertEquals(3, table.getDistanceViaCommonAncestor(idPumpkin, idLeafVegetable));
+    assertEquals(-1, table.getDistanceViaCommonAncestor(idPumpkin, TermId.of("VO:9999999")));
+  }
+
+  @Test
+  void testSparseStorage() {
+    // one entry per term and ancestor (including itself)
+    int expected = 0;
+    for (TermId termId : ontology.getNonObsoleteTermIds()) {
+      expected += ontology.getAncestorTermIds(termId).size();
+    }
+    assertEquals(expected, table.entryCount());
+    assertEquals(-1, table.getDistance(idBeet, TermId.of("VO:9999999")));
+    assertEquals(
+      table.getDistance(idBeet, idVegetable),
+      table.getDistance(ontology.ordinalOf(idBeet), ontology.ordinalOf(idVegetable)));
+  }
 }
@@ -7,8 +7,11 @@ import org.jgrapht.graph.DefaultDirectedGraph;
 import org.junit.jupiter.api.Test;
 import org.monarchinitiative.phenol.base.PhenolRuntimeException;
 import org.monarchinitiative.phenol.graph.IdLabeledEdge;
+import org.monarchinitiative.phenol.graph.csr.OrdinalSet;
+import org.monarchinitiative.phenol.graph.csr.TopologicalOrder;
 import org.monarchinitiative.phenol.ontology.TestOntology;
 
+import java.util.Map;
 import java.util.Set;
 import java.util.stream.Collectors;
 
@@ -94,6 +97,243 @@ class ImmutableOntologyTest {
       ontology.getParentTermIds(TestOntology.TERM_ID_1));
   }
 
+  @Test
+  void testOrdinals() {
+    // ordinals are assigned in TermId order
+    for (int i = 0; i < 5; ++i) {
+      TermId termId = TermId.of(String.format("HP:000000%d", i + 1));
+      assertEquals(i, ontology.ordinalOf(termId));
+      assertEquals(termId, ontology.termAt(i));
+    }
+    assertEquals(-1, ontology.ordinalOf(TermId.of("HP:0000006")));
+    assertEquals(5, ontology.getCsrGraph().vertexCount());
+    assertEquals(6, ontology.getCsrGraph().edgeCount());
+  }
+
+  @Test
+  void testParentsAndChildrenOfOrdinal() {
+    int ordinal1 = ontology.ordinalOf(TestOntology.TERM_ID_1);
+    int ordinal5 = ontology.ordinalOf(TestOntology.TERM_ID_5);
+
+    assertArrayEquals(
+      new int[]{
+        ontology.ordinalOf(TestOntology.TERM_ID_2),
+        ontology.ordinalOf(TestOntology.TERM_ID_3),
+        ontology.ordinalOf(TestOntology.TERM_ID_4)},
+      ontology.parentsOf(ordinal1));
+    assertArrayEquals(new int[0], ontology.childrenOf(ordinal1));
+
+    assertArrayEquals(new int[0], ontology.parentsOf(ordinal5));
+    assertArrayEquals(
+      new int[]{
+        ontology.ordinalOf(TestOntology.TERM_ID_2),
+        ontology.ordinalOf(TestOntology.TERM_ID_3),
+        ontology.ordinalOf(TestOntology.TERM_ID_4)},
+      ontology.childrenOf(ordinal5));
+  }
+
+  @Test
+  void testIsAncestor() {
+    assertTrue(ontology.isAncestor(TestOntology.TERM_ID_5, TestOntology.TERM_ID_1));
+    assertTrue(ontology.isAncestor(TestOntology.TERM_ID_2, TestOntology.TERM_ID_1));
+    assertTrue(ontology.isAncestor(TestOntology.TERM_ID_1, TestOntology.TERM_ID_1));
+    assertFalse(ontology.isAncestor(TestOntology.TERM_ID_1, TestOntology.TERM_ID_5));
+    assertFalse(ontology.isAncestor(TestOntology.TERM_ID_2, TestOntology.TERM_ID_3));
+    assertFalse(ontology.isAncestor(TermId.of("HP:0000006"), TestOntology.TERM_ID_1));
+    assertFalse(ontology.isAncestor(TestOntology.TERM_ID_5, TermId.of("HP:0000006")));
+  }
+
+  @Test
+  void testAncestorOrdinals() {
+    int ordinal2 = ontology.ordinalOf(TestOntology.TERM_ID_2);
+    assertArrayEquals(
+      new int[]{ordinal2, ontology.ordinalOf(TestOntology.TERM_ID_5)},
+      ontology.getAncestorOrdinals(ordinal2).toArray());
+  }
+
+  @Test
+  void testDescendants() {
+    assertEquals(
+      ImmutableSet.of(TestOntology.TERM_ID_1, TestOntology.TERM_ID_2),
+      ontology.getDescendantTermIds(TestOntology.TERM_ID_2));
+    assertEquals(5, ontology.descendantCount(TestOntology.TERM_ID_5));
+    assertEquals(1, ontology.descendantCount(TestOntology.TERM_ID_1));
+    assertEquals(0, ontology.descendantCount(TermId.of("HP:0000006")));
+    assertTrue(ontology.getDescendantTermIds(TermId.of("HP:0000006")).isEmpty());
+
+    int ordinal5 = ontology.ordinalOf(TestOntology.TERM_ID_5);
+    assertEquals(5, ontology.getDescendantOrdinals(ordinal5).size());
+    for (TermId termId : ontology.getNonObsoleteTermIds()) {
+      for (TermId descendant : ontology.getDescendantTermIds(termId)) {
+        assertTrue(ontology.isAncestor(termId, descendant));
+      }
+    }
+  }
+
+  private ImmutableOntology rebuild(ClosureMode closureMode) {
+    return ImmutableOntology.builder()
+      .terms(ImmutableSet.copyOf(ontology.getTerms()))
+      .relationships(ontology.getRelationMap().values())
+      .closureMode(closureMode)
+      .closureCacheSpec("maximumSize=2")
+      .build();
+  }
+
+  @Test
+  void testClosureModesAgree() {
+    for (ClosureMode closureMode : ClosureMode.values()) {
+      ImmutableOntology rebuilt = rebuild(closureMode);
+      assertEquals(closureMode, rebuilt.getClosureMode());
+      for (TermId termId : ontology.getNonObsoleteTermIds()) {
+        assertEquals(ontology.getAncestorTermIds(termId), rebuilt.getAncestorTermIds(termId));
+        assertEquals(ontology.getAncestorTermIds(termId, false), rebuilt.getAncestorTermIds(termId, false));
+      }
+      for (TermId termId : ontology.getNonObsoleteTermIds()) {
+        assertEquals(ontology.getDescendantTermIds(termId), rebuilt.getDescendantTermIds(termId));
+      }
+      assertTrue(rebuilt.isAncestor(TestOntology.TERM_ID_5, TestOntology.TERM_ID_1));
+      assertFalse(rebuilt.isAncestor(TestOntology.TERM_ID_1, TestOntology.TERM_ID_5));
+    }
+  }
+
+  /**
+   * Ontology with a non-propagating relationship: 1 is_a 2 is_a 4, 1 regulates 3 and 3 is_a 4.
+   */
+  private ImmutableOntology withRegulates() {
+    return ImmutableOntology.builder()
+      .terms(ImmutableSet.of(
+        Term.of(TestOntology.TERM_ID_1, "term1"),
+        Term.of(TestOntology.TERM_ID_2, "term2"),
+        Term.of(TestOntology.TERM_ID_3, "term3"),
+        Term.of(TestOntology.TERM_ID_4, "term4")))
+      .relationships(ImmutableList.of(
+        new Relationship(TestOntology.TERM_ID_1, TestOntology.TERM_ID_2, 1, RelationshipType.IS_A),
+        new Relationship(TestOntology.TERM_ID_1, TestOntology.TERM_ID_3, 2, REGULATES),
+        new Relationship(TestOntology.TERM_ID_2, TestOntology.TERM_ID_4, 3, RelationshipType.IS_A),
+        new Relationship(TestOntology.TERM_ID_3, TestOntology.TERM_ID_4, 4, RelationshipType.IS_A)))
+      .build();
+  }
+
+  private static final RelationshipType REGULATES =
+    RelationshipType.of("http://purl.obolibrary.org/obo/RO_0002211", "regulates");
+
+  @Test
+  void testRelationshipTypes() {
+    ImmutableOntology regulated = withRegulates();
+    assertEquals(ImmutableSet.of(RelationshipType.IS_A, REGULATES), ImmutableSet.copyOf(regulated.getRelationshipTypes()));
+    int ordinal = regulated.ordinalOf(TestOntology.TERM_ID_1);
+    assertArrayEquals(new int[]{regulated.ordinalOf(TestOntology.TERM_ID_2)}, regulated.parentsOf(ordinal, RelationshipType.IS_A));
+    assertArrayEquals(new int[]{regulated.ordinalOf(TestOntology.TERM_ID_3)}, regulated.parentsOf(ordinal, REGULATES));
+    assertArrayEquals(new int[0], regulated.parentsOf(ordinal, RelationshipType.PART_OF));
+    assertArrayEquals(
+      new int[]{ordinal},
+      regulated.childrenOf(regulated.ordinalOf(TestOntology.TERM_ID_3), REGULATES));
+    assertEquals(ImmutableList.of(RelationshipType.IS_A), ontology.getRelationshipTypes());
+  }
+
+  @Test
+  void testPropagatingAncestors() {
+    for (ClosureMode closureMode : ClosureMode.values()) {
+      ImmutableOntology regulated = ImmutableOntology.builder()
+        .terms(ImmutableSet.copyOf(withRegulates().getTerms()))
+        .relationships(withRegulates().getRelationMap().values())
+        .closureMode(closureMode)
+        .build();
+      assertEquals(
+        ImmutableSet.of(TestOntology.TERM_ID_1, TestOntology.TERM_ID_2, TestOntology.TERM_ID_3, TestOntology.TERM_ID_4),
+        regulated.getAncestorTermIds(TestOntology.TERM_ID_1));
+      assertEquals(
+        ImmutableSet.of(TestOntology.TERM_ID_1, TestOntology.TERM_ID_2, TestOntology.TERM_ID_4),
+        regulated.getPropagatingAncestorTermIds(TestOntology.TERM_ID_1));
+      assertEquals(
+        ImmutableSet.of(TestOntology.TERM_ID_3, TestOntology.TERM_ID_4),
+        regulated.getPropagatingAncestorTermIds(TestOntology.TERM_ID_3));
+    }
+    // all edges propagate, so the closures coincide
+    for (TermId termId : ontology.getNonObsoleteTermIds()) {
+      assertEquals(ontology.getAncestorTermIds(termId), ontology.getPropagatingAncestorTermIds(termId));
+    }
+  }
+
+  @Test
+  void testTopologicalOrder() {
+    TopologicalOrder order = ontology.getTopologicalOrder();
+    assertSame(order, ontology.getTopologicalOrder());
+    int root = ontology.ordinalOf(TestOntology.TERM_ID_5);
+    int leaf = ontology.ordinalOf(TestOntology.TERM_ID_1);
+    assertEquals(root, order.vertexAt(0));
+    assertEquals(leaf, order.vertexAt(4));
+    assertEquals(0, order.level(root));
+    assertEquals(1, order.level(ontology.ordinalOf(TestOntology.TERM_ID_3)));
+    assertEquals(2, order.depth(leaf));
+    assertEquals(3, order.levelCount());
+
+    TopologicalOrder subOrder = ontology.subOntology(TestOntology.TERM_ID_2).getTopologicalOrder();
+    assertEquals(0, subOrder.level(ontology.ordinalOf(TestOntology.TERM_ID_2)));
+    assertEquals(1, subOrder.level(leaf));
+  }
+
+  @Test
+  void testAllAncestorOrdinals() {
+    ImmutableList<TermId> termIds = ImmutableList.of(TestOntology.TERM_ID_2, TestOntology.TERM_ID_3);
+    OrdinalSet union = ontology.getAllAncestorOrdinals(termIds, true);
+    assertEquals(3, union.size());
+    assertTrue(union.contains(ontology.ordinalOf(TestOntology.TERM_ID_5)));
+    assertFalse(ontology.getAllAncestorOrdinals(termIds, false).contains(ontology.ordinalOf(TestOntology.TERM_ID_5)));
+    assertEquals(
+      ImmutableSet.of(TestOntology.TERM_ID_2, TestOntology.TERM_ID_3),
+      ontology.getAllAncestorTermIds(termIds, false));
+    assertTrue(ontology.getAllAncestorOrdinals(ImmutableList.of(TermId.of("HP:0000006")), true).isEmpty());
+
+    ImmutableMap<String, ImmutableList<TermId>> collections = ImmutableMap.of(
+      "a", termIds,
+      "b", ImmutableList.of(TestOntology.TERM_ID_1),
+      "c", ImmutableList.of());
+    Map<String, OrdinalSet> unions = ontology.getAllAncestorOrdinals(collections, false);
+    assertEquals(ImmutableList.of("a", "b", "c"), ImmutableList.copyOf(unions.keySet()));
+    for (String key : collections.keySet()) {
+      assertEquals(ontology.getAllAncestorOrdinals(collections.get(key), false), unions.get(key));
+    }
+    assertEquals(4, unions.get("b").size());
+    assertTrue(unions.get("c").isEmpty());
+  }
+
+  @Test
+  void testLazyClosureCacheStats() {
+    ImmutableOntology lazy = rebuild(ClosureMode.LAZY);
+    assertEquals(0L, lazy.getClosureCacheStats().get().requestCount());
+
+    lazy.getAncestorTermIds(TestOntology.TERM_ID_1);
+    lazy.getAncestorTermIds(TestOntology.TERM_ID_1);
+    lazy.getAncestorTermIds(TestOntology.TERM_ID_2);
+    lazy.getAncestorTermIds(TestOntology.TERM_ID_3);
+
+    assertEquals(1L, lazy.getClosureCacheStats().get().hitCount());
+    assertEquals(3L, lazy.getClosureCacheStats().get().missCount());
+    // maximumSize=2 in the spec
+    assertTrue(lazy.getClosureCacheStats().get().evictionCount() >= 1L);
+
+    assertFalse(rebuild(ClosureMode.EAGER).getClosureCacheStats().isPresent());
+    assertFalse(rebuild(ClosureMode.NONE).getClosureCacheStats().isPresent());
+  }
+
+  @Test
+  void testAncestorViews() {
+    Set<TermId> ancestors = ontology.getAncestorTermIds(TestOntology.TERM_ID_1, false);
+    assertEquals(4, ancestors.size());
+    assertTrue(ancestors.contains(TestOntology.TERM_ID_3));
+    assertFalse(ancestors.contains(TestOntology.TERM_ID_5));
+    assertFalse(ancestors.contains("HP:0000003"));
+    assertEquals(
+      ImmutableSet.of(TestOntology.TERM_ID_1, TestOntology.TERM_ID_2, TestOntology.TERM_ID_3, TestOntology.TERM_ID_4),
+      ImmutableSet.copyOf(ancestors));
+    assertThrows(UnsupportedOperationException.class, () -> ancestors.add(TestOntology.TERM_ID_5));
+
+    assertEquals(
+      ImmutableSet.of(TestOntology.TERM_ID_3),
+      ontology.getCommonAncestors(TestOntology.TERM_ID_1, TestOntology.TERM_ID_3));
+  }
+
   /**
    * The subontology defined by TermI with id4 should consist of only the terms id4 and id1. The
    * termmap should thus contain only two terms. The subontology does not contain the original root
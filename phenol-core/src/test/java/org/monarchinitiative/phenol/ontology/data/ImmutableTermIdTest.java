@@ -8,6 +8,12 @@ import static org.junit.jupiter.api.Assertions.*;
 import org.junit.jupiter.api.Test;
 import org.monarchinitiative.phenol.base.PhenolRuntimeException;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.Objects;
+
 
 class ImmutableTermIdTest {
 
@@ -64,4 +70,52 @@ class ImmutableTermIdTest {
   void testToString() {
     assertEquals("HP:0000001", termId.toString());
   }
+
+  @Test
+  void testInterning() {
+    assertSame(termId, TermId.of("HP:0000001"));
+    assertSame(termId, TermId.of("HP", "0000001"));
+    assertSame(termId, TermId.of(new StringBuilder("HP:0000001"), 0, 10));
+  }
+
+  @Test
+  void testHashCodeUnchanged() {
+    assertEquals(Objects.hash("HP:0000001"), termId.hashCode());
+  }
+
+  @Test
+  void testOfSlice() {
+    String line = "OMIM:100100\tHP:0000001 ;HP:0009999";
+    assertSame(termId, TermId.of(line, 12, 22));
+    TermId fresh = TermId.of(line, 24, line.length());
+    assertEquals("HP:0009999", fresh.getValue());
+    assertEquals("HP", fresh.getPrefix());
+    assertSame(fresh, TermId.of(line, 24, line.length()));
+    assertThrows(PhenolRuntimeException.class, () -> TermId.of(line, 12, 12));
+    assertThrows(PhenolRuntimeException.class, () -> TermId.of(line, 5, 11));
+  }
+
+  @Test
+  void testOfPrefixAndSlice() {
+    String line = "9606\t0000001\tFBN1";
+    assertSame(termId, TermId.of("HP", line, 5, 12));
+    TermId gene = TermId.of("NCBIGene", line, 5, 12);
+    assertEquals("NCBIGene:0000001", gene.getValue());
+    assertEquals("NCBIGene", gene.getPrefix());
+    assertEquals("0000001", gene.getId());
+    assertThrows(PhenolRuntimeException.class, () -> TermId.of("NCBIGene", line, 5, 5));
+  }
+
+  @Test
+  void testDeserializationReturnsCanonicalInstance() throws Exception {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (ObjectOutputStream oos = new ObjectOutputStream(bytes)) {
+      oos.writeObject(termId);
+    }
+    try (ObjectInputStream ois = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+      TermId read = (TermId) ois.readObject();
+      assertSame(termId, read);
+      assertEquals(termId.hashCode(), read.hashCode());
+    }
+  }
 }
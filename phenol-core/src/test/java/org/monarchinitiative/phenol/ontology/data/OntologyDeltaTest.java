@@ -0,0 +1,209 @@
+package org.monarchinitiative.phenol.ontology.data;
+
+import com.google.common.collect.HashMultiset;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Multiset;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OntologyDeltaTest {
+
+  private static final TermId ROOT = TermId.of("HP:0000001");
+  private static final TermId T2 = TermId.of("HP:0000002");
+  private static final TermId T3 = TermId.of("HP:0000003");
+  private static final TermId T4 = TermId.of("HP:0000004");
+  private static final TermId T5 = TermId.of("HP:0000005");
+  private static final TermId T6 = TermId.of("HP:0000006");
+  private static final TermId T7 = TermId.of("HP:0000007");
+
+  /** 2 and 3 below the root, 4 below 2, 5 below 4 and 6 below 3. */
+  private static ImmutableOntology previous() {
+    return ImmutableOntology.builder()
+      .metaInfo(ImmutableMap.of("data-version", "2020-01-01"))
+      .terms(Arrays.asList(term(ROOT, "root"), term(T2, "term2"), term(T3, "term3"), term(T4, "term4"),
+        term(T5, "term5"), term(T6, "term6")))
+      .relationships(Arrays.asList(isA(1, T2, ROOT), isA(2, T3, ROOT), isA(3, T4, T2), isA(4, T5, T4), isA(5, T6, T3)))
+      .build();
+  }
+
+  /** 4 moved below 3, 5 obsoleted, 6 renamed and 7 added below 3. */
+  private static ImmutableOntology current() {
+    return ImmutableOntology.builder()
+      .metaInfo(ImmutableMap.of("data-version", "2020-02-01"))
+      .terms(Arrays.asList(term(ROOT, "root"), term(T2, "term2"), term(T3, "term3"), term(T4, "term4"),
+        Term.builder().id(T5).name("term5").obsolete(true).build(), term(T6, "term six"), term(T7, "term7")))
+      .relationships(Arrays.asList(isA(1, T2, ROOT), isA(2, T3, ROOT), isA(3, T7, T3), isA(4, T4, T3), isA(5, T6, T3)))
+      .build();
+  }
+
+  private static Term term(TermId termId, String name) {
+    return Term.builder()
+      .id(termId)
+      .name(name)
+      .synonyms(Collections.singletonList(new TermSynonym(name + " synonym", TermSynonymScope.EXACT, null,
+        Collections.singletonList(new TermXref(TermId.of("PMID:1"), null)), null)))
+      .xrefs(Collections.singletonList(new Dbxref("UMLS:C1", null, null)))
+      .databaseXrefs(Collections.singletonList(new SimpleXref("PMID:2")))
+      .build();
+  }
+
+  private static Relationship isA(int id, TermId source, TermId target) {
+    return new Relationship(source, target, id, RelationshipType.IS_A);
+  }
+
+  @Test
+  void equalOntologiesHaveEmptyDelta() {
+    // the terms are built again, so they are equal but not the same objects
+    OntologyDelta delta = OntologyDelta.between(previous(), previous());
+
+    assertTrue(delta.isEmpty());
+    assertTrue(delta.getChangedTermIds().isEmpty());
+  }
+
+  @Test
+  void between() {
+    OntologyDelta delta = OntologyDelta.between(previous(), current());
+
+    assertFalse(delta.isEmpty());
+    assertEquals(Collections.singletonList(T7), ids(delta.getAddedTerms()));
+    assertEquals(Collections.singletonList(T6), ids(delta.getChangedTerms()));
+    assertEquals(ImmutableSet.of(T5), delta.getObsoletedTermIds());
+    assertTrue(delta.getRemovedTermIds().isEmpty());
+    assertEquals(Arrays.asList(Arrays.asList(T7, T3), Arrays.asList(T4, T3)), edges(delta.getAddedRelationships()));
+    assertEquals(Arrays.asList(Arrays.asList(T4, T2), Arrays.asList(T5, T4)), edges(delta.getRemovedRelationships()));
+    assertEquals("2020-02-01", delta.getMetaInfo().get("data-version"));
+    assertEquals(ImmutableSet.of(T5, T6, T7), delta.getChangedTermIds());
+  }
+
+  @Test
+  void applyToPreviousYieldsCurrent() {
+    ImmutableOntology previous = previous();
+    // computed before the update, so the descendant closure is updated, too
+    assertEquals(ImmutableSet.of(T2, T4, T5), previous.getDescendantTermIds(T2));
+    ImmutableOntology current = current();
+
+    OntologyUpdate update = OntologyDelta.between(previous, current).applyTo(previous);
+    ImmutableOntology result = update.getOntology();
+
+    assertEquals(current.getMetaInfo(), result.getMetaInfo());
+    assertEquals(current.getRootTermId(), result.getRootTermId());
+    assertEquals(current.getTermMap(), result.getTermMap());
+    assertEquals(current.getNonObsoleteTermIds(), result.getNonObsoleteTermIds());
+    assertEquals(current.getObsoleteTermIds(), result.getObsoleteTermIds());
+    assertEquals(current.getGraph().vertexSet(), result.getGraph().vertexSet());
+    assertEquals(edgeMultiset(current), edgeMultiset(result));
+    for (TermId termId : current.getGraph().vertexSet()) {
+      assertEquals(current.getAncestorTermIds(termId, true), result.getAncestorTermIds(termId, true));
+      assertEquals(current.getDescendantTermIds(termId), result.getDescendantTermIds(termId));
+    }
+    // the previous ontology is unchanged
+    assertEquals(ImmutableSet.of(ROOT, T2, T4), previous.getAncestorTermIds(T4, true));
+  }
+
+  @Test
+  void affectedTerms() {
+    ImmutableOntology previous = previous();
+    OntologyUpdate update = OntologyDelta.between(previous, current()).applyTo(previous);
+
+    // 4 got a new parent and 7 is new; none of them has descendants
+    assertEquals(ImmutableSet.of(T4, T7), ImmutableSet.copyOf(update.getTermIdsWithChangedAncestors()));
+    // 2 and 4 lost children, 3 gained some, and the root is above all of them
+    assertEquals(ImmutableSet.of(ROOT, T2, T3, T4, T7), ImmutableSet.copyOf(update.getTermIdsWithChangedDescendants()));
+    // the renamed 6 and obsoleted 5 are affected, too
+    assertEquals(ImmutableSet.of(ROOT, T2, T3, T4, T5, T6, T7), update.getAffectedTermIds());
+  }
+
+  @Test
+  void changedRelationshipTypeAffectsTerms() {
+    ImmutableOntology previous = previous();
+    RelationshipType regulates = RelationshipType.of("http://purl.obolibrary.org/obo/RO_0002211", "regulates");
+    ImmutableOntology current = ImmutableOntology.builder()
+      .terms(previous.getTermMap().values())
+      .relationships(Arrays.asList(isA(1, T2, ROOT), isA(2, T3, ROOT), new Relationship(T4, T2, 3, regulates),
+        isA(4, T5, T4), isA(5, T6, T3)))
+      .build();
+
+    OntologyDelta delta = OntologyDelta.between(previous, current);
+    OntologyUpdate update = delta.applyTo(previous);
+
+    assertEquals(Collections.singletonList(Arrays.asList(T4, T2)), edges(delta.getAddedRelationships()));
+    assertEquals(Collections.singletonList(Arrays.asList(T4, T2)), edges(delta.getRemovedRelationships()));
+    // 4 and 5 no longer inherit annotations from 2, nor does 2 from them
+    assertEquals(ImmutableSet.of(T4, T5), ImmutableSet.copyOf(update.getTermIdsWithChangedAncestors()));
+    assertEquals(ImmutableSet.of(ROOT, T2), ImmutableSet.copyOf(update.getTermIdsWithChangedDescendants()));
+    assertEquals(ImmutableSet.of(ROOT, T2, T4, T5), update.getAffectedTermIds());
+  }
+
+  @Test
+  void relationshipIdsAreKeptOrAppended() {
+    ImmutableOntology previous = previous();
+    ImmutableOntology result = OntologyDelta.between(previous, current()).applyTo(previous).getOntology();
+
+    assertEquals(isA(1, T2, ROOT), result.getRelationMap().get(1));
+    assertEquals(isA(5, T6, T3), result.getRelationMap().get(5));
+    assertEquals(ImmutableSet.of(1, 2, 5, 6, 7), result.getRelationMap().keySet());
+  }
+
+  @Test
+  void lazyClosureIsNotPrecomputed() {
+    ImmutableOntology previous = ImmutableOntology.builder()
+      .terms(previous().getTermMap().values())
+      .relationships(previous().getRelationMap().values())
+      .closureMode(ClosureMode.LAZY)
+      .build();
+
+    ImmutableOntology result = OntologyDelta.between(previous, current()).applyTo(previous).getOntology();
+
+    assertEquals(ClosureMode.LAZY, result.getClosureMode());
+    assertEquals(ImmutableSet.of(ROOT, T3, T4), result.getAncestorTermIds(T4, true));
+  }
+
+  private static List<TermId> ids(List<Term> terms) {
+    return terms.stream().map(Term::getId).collect(Collectors.toList());
+  }
+
+  private static List<List<TermId>> edges(List<Relationship> relationships) {
+    List<List<TermId>> result = new ArrayList<>();
+    for (Relationship relationship : relationships) {
+      result.add(Arrays.asList(relationship.getSource(), relationship.getTarget()));
+    }
+    return result;
+  }
+
+  private static Multiset<List<Object>> edgeMultiset(Ontology ontology) {
+    Multiset<List<Object>> result = HashMultiset.create();
+    for (Relationship relationship : ontology.getRelationMap().values()) {
+      result.add(Arrays.asList(relationship.getSource(), relationship.getTarget(), relationship.getRelationshipType()));
+    }
+    return result;
+  }
+
+  @Test
+  void removedTerms() {
+    ImmutableOntology previous = previous();
+    ImmutableOntology current = ImmutableOntology.builder()
+      .terms(Arrays.asList(term(ROOT, "root"), term(T2, "term2"), term(T3, "term3"), term(T6, "term6")))
+      .relationships(Arrays.asList(isA(1, T2, ROOT), isA(2, T3, ROOT), isA(5, T6, T3)))
+      .build();
+
+    OntologyDelta delta = OntologyDelta.between(previous, current);
+    OntologyUpdate update = delta.applyTo(previous);
+
+    assertEquals(ImmutableSet.of(T4, T5), delta.getRemovedTermIds());
+    assertFalse(update.getOntology().containsTerm(T4));
+    assertEquals(ImmutableSet.of(T2), update.getOntology().getDescendantTermIds(T2));
+    assertTrue(update.getTermIdsWithChangedAncestors().isEmpty());
+    assertTrue(update.getAffectedTermIds().containsAll(Arrays.asList(ROOT, T2, T4, T5)));
+    Set<TermId> unaffected = ImmutableSet.of(T3, T6);
+    assertTrue(Collections.disjoint(unaffected, update.getAffectedTermIds()));
+  }
+}
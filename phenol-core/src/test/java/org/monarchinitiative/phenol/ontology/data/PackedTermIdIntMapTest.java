@@ -0,0 +1,50 @@
+package org.monarchinitiative.phenol.ontology.data;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PackedTermIdIntMapTest {
+
+  @Test
+  void testPutAndGet() {
+    PackedTermIdIntMap map = new PackedTermIdIntMap(4, -1);
+    for (int i = 0; i < 1000; ++i) {
+      map.put(TermId.of("HP", String.format("%07d", i)), i);
+    }
+    map.put(TermId.of("owl:Thing"), 1000);
+    map.put(TermId.of("HP:0000005"), 42);
+
+    assertEquals(1001, map.size());
+    assertEquals(42, map.get(TermId.of("HP:0000005")));
+    assertEquals(999, map.get(TermId.of("HP:0000999")));
+    assertEquals(1000, map.get(TermId.of("owl:Thing")));
+    assertEquals(-1, map.get(TermId.of("HP:0001000")));
+    assertEquals(-1, map.get(TermId.of("owl:Nothing")));
+    assertTrue(map.containsKey(TermId.of("owl:Thing")));
+    assertFalse(map.containsKey(TermId.of("GO:0000001")));
+  }
+
+  @Test
+  void testSerialization() throws Exception {
+    PackedTermIdIntMap map = new PackedTermIdIntMap(4, -1);
+    map.put(TermId.of("HP:0000001"), 1);
+    map.put(TermId.of("owl:Thing"), 2);
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (ObjectOutputStream oos = new ObjectOutputStream(bytes)) {
+      oos.writeObject(map);
+    }
+    try (ObjectInputStream ois = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+      PackedTermIdIntMap read = (PackedTermIdIntMap) ois.readObject();
+      assertEquals(2, read.size());
+      assertEquals(1, read.get(TermId.of("HP:0000001")));
+      assertEquals(2, read.get(TermId.of("owl:Thing")));
+      assertEquals(-1, read.get(TermId.of("HP:0000002")));
+    }
+  }
+}
@@ -0,0 +1,81 @@
+package org.monarchinitiative.phenol.ontology.data;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PackedTermIdSetTest {
+
+  private static Set<TermId> genes(int count) {
+    Set<TermId> result = new HashSet<>();
+    for (int i = 1; i <= count; ++i) {
+      result.add(TermId.of("NCBIGene", Integer.toString(i * 7)));
+    }
+    return result;
+  }
+
+  @Test
+  void testBehavesLikeHashSet() {
+    Set<TermId> expected = genes(1000);
+    expected.add(TermId.of("owl:Thing"));
+    PackedTermIdSet set = new PackedTermIdSet();
+    for (TermId termId : expected) {
+      assertTrue(set.add(termId));
+      assertFalse(set.add(termId));
+    }
+    assertEquals(expected.size(), set.size());
+    assertEquals(expected, set);
+    assertEquals(set, expected);
+    assertEquals(expected.hashCode(), set.hashCode());
+    assertTrue(set.contains(TermId.of("NCBIGene:7")));
+    assertFalse(set.contains(TermId.of("NCBIGene:8")));
+    assertFalse(set.contains("NCBIGene:7"));
+  }
+
+  @Test
+  void testRemove() {
+    Set<TermId> expected = genes(500);
+    PackedTermIdSet set = new PackedTermIdSet(expected);
+    int i = 0;
+    for (TermId termId : genes(500)) {
+      if (i++ % 3 == 0) {
+        assertTrue(set.remove(termId));
+        assertFalse(set.remove(termId));
+        expected.remove(termId);
+      }
+    }
+    assertEquals(expected, set);
+    for (TermId termId : expected) {
+      assertTrue(set.contains(termId));
+    }
+  }
+
+  @Test
+  void testRetainAll() {
+    PackedTermIdSet set = new PackedTermIdSet(genes(10));
+    set.add(TermId.of("owl:Thing"));
+    set.retainAll(Arrays.asList(TermId.of("NCBIGene:7"), TermId.of("owl:Thing"), TermId.of("HP:0000001")));
+    assertEquals(new HashSet<>(Arrays.asList(TermId.of("NCBIGene:7"), TermId.of("owl:Thing"))), set);
+  }
+
+  @Test
+  void testSerialization() throws Exception {
+    PackedTermIdSet set = new PackedTermIdSet(genes(100));
+    set.add(TermId.of("owl:Thing"));
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (ObjectOutputStream oos = new ObjectOutputStream(bytes)) {
+      oos.writeObject(set);
+    }
+    try (ObjectInputStream ois = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+      assertEquals(set, ois.readObject());
+    }
+  }
+}
@@ -0,0 +1,52 @@
+package org.monarchinitiative.phenol.ontology.data;
+
+import org.junit.jupiter.api.Test;
+import org.monarchinitiative.phenol.base.PhenolRuntimeException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PackedTermIdsTest {
+
+  @Test
+  void testRoundTrip() {
+    for (String value : new String[]{"HP:0001250", "GO:0008150", "NCBIGene:2200", "OMIM:100100", "MP:0000001",
+      "HP:0", "FOO:000000000000042", "NCBIGene:17592186044415"}) {
+      TermId termId = TermId.of(value);
+      assertTrue(PackedTermIds.canPack(termId), value);
+      long packed = PackedTermIds.pack(termId);
+      assertNotEquals(0L, packed);
+      assertSame(termId, PackedTermIds.unpack(packed), value);
+    }
+  }
+
+  @Test
+  void testLeadingZerosAreKept() {
+    assertNotEquals(
+      PackedTermIds.pack(TermId.of("HP:0001250")),
+      PackedTermIds.pack(TermId.of("HP:1250")));
+  }
+
+  @Test
+  void testWellKnownPrefixCodes() {
+    assertEquals(1, PackedTermIds.prefixCode("HP"));
+    assertEquals(2, PackedTermIds.prefixCode("GO"));
+    assertEquals(1L, PackedTermIds.pack(TermId.of("HP:0001250")) >>> 48);
+  }
+
+  @Test
+  void testNonPackableIds() {
+    for (String value : new String[]{"owl:Thing", "HP:00012a0", "ENSEMBL:ENSG00000166147",
+      "FOO:1234567890123456", "NCBIGene:17592186044416"}) {
+      TermId termId = TermId.of(value);
+      assertFalse(PackedTermIds.canPack(termId), value);
+      assertEquals(0L, PackedTermIds.packOrZero(termId));
+      assertThrows(PhenolRuntimeException.class, () -> PackedTermIds.pack(termId));
+    }
+  }
+
+  @Test
+  void testUnpackInvalid() {
+    assertThrows(PhenolRuntimeException.class, () -> PackedTermIds.unpack(0L));
+    assertThrows(PhenolRuntimeException.class, () -> PackedTermIds.unpack(0xFFFF_0000_0000_0000L));
+  }
+}
@@ -0,0 +1,164 @@
+package org.monarchinitiative.phenol.ontology.data;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.monarchinitiative.phenol.graph.IdLabeledEdge;
+import org.monarchinitiative.phenol.graph.csr.CachingClosure;
+import org.monarchinitiative.phenol.graph.csr.OrdinalClosure;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SerializedOntologyTest {
+
+  private static final TermId ROOT = TermId.of("HP:0000001");
+  private static final TermId ABNORMALITY = TermId.of("HP:0000118");
+  private static final TermId EAR = TermId.of("HP:0000598");
+  private static final TermId EYE = TermId.of("HP:0000478");
+  private static final TermId LOBE = TermId.of("HP:0000356");
+  private static final TermId OBSOLETE = TermId.of("HP:0000002");
+
+  private static ImmutableOntology ontology(ClosureMode closureMode) {
+    List<Term> terms = ImmutableList.of(
+      Term.of(ROOT, "All"),
+      Term.builder()
+        .id(ABNORMALITY)
+        .name("Phenotypic abnormality")
+        .definition("A phenotypic abnormality.")
+        .databaseXrefs(ImmutableList.of(new SimpleXref("PMID:123"), new SimpleXref("UNKNOWN:x")))
+        .creationDate(new Date(1234567890123L))
+        .createdBy("someone")
+        .build(),
+      Term.builder()
+        .id(EAR)
+        .name("Abnormality of the ear")
+        .altTermIds(ImmutableList.of(TermId.of("HP:0000599"), TermId.of("HP:0000600")))
+        .comment("A comment with non-ASCII characters: äß→")
+        .subsets(ImmutableList.of("hposlim_core", "hposlim_core"))
+        .synonyms(ImmutableList.of(
+          TermSynonym.of("Ear anomaly", TermSynonymScope.EXACT, "layperson",
+            ImmutableList.of(new TermXref(TermId.of("ORCID:0000"), "orcid"), new TermXref(null, null)),
+            SynonymType.LAYPERSON_TERM),
+          TermSynonym.of("Ear anomalies", null, null, null, SynonymType.PLURAL_FORM)))
+        .xrefs(ImmutableList.of(
+          new Dbxref("UMLS:C0000", "umls", ImmutableMap.of("source", "x")),
+          new Dbxref("MSH:D0000", null, null)))
+        .build(),
+      Term.of(EYE, "Abnormality of the eye"),
+      Term.of(LOBE, "Abnormality of the outer ear"),
+      Term.builder().id(OBSOLETE).name("obsolete term").obsolete(true).build());
+    List<Relationship> relationships = ImmutableList.of(
+      new Relationship(ABNORMALITY, ROOT, 1, RelationshipType.IS_A),
+      new Relationship(EAR, ABNORMALITY, 2, RelationshipType.IS_A),
+      new Relationship(EYE, ABNORMALITY, 3, RelationshipType.IS_A),
+      new Relationship(LOBE, EAR, 4, RelationshipType.PART_OF),
+      new Relationship(LOBE, EYE, 5, RelationshipType.of("RO:0000001", "some relation")));
+    return ImmutableOntology.builder()
+      .metaInfo(ImmutableMap.of("data-version", "hp/releases/2021-01-01", "format-version", "1.2"))
+      .terms(terms)
+      .relationships(relationships)
+      .closureMode(closureMode)
+      .build();
+  }
+
+  private static ImmutableOntology roundTrip(Ontology ontology) throws IOException, ClassNotFoundException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+      out.writeObject(ontology);
+    }
+    try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+      return (ImmutableOntology) in.readObject();
+    }
+  }
+
+  @ParameterizedTest
+  @EnumSource(ClosureMode.class)
+  void roundTripKeepsContent(ClosureMode closureMode) throws Exception {
+    ImmutableOntology ontology = ontology(closureMode);
+    ImmutableOntology result = roundTrip(ontology);
+
+    assertEquals(ontology.getMetaInfo(), result.getMetaInfo());
+    assertEquals(ontology.getRootTermId(), result.getRootTermId());
+    assertEquals(closureMode, result.getClosureMode());
+    assertEquals(ontology.getNonObsoleteTermIds(), result.getNonObsoleteTermIds());
+    assertEquals(ontology.getObsoleteTermIds(), result.getObsoleteTermIds());
+    assertEquals(ontology.getTermMap().keySet(), result.getTermMap().keySet());
+    // Dbxref and SimpleXref have no value equality, compare the string forms
+    for (Map.Entry<TermId, Term> entry : ontology.getTermMap().entrySet()) {
+      Term term = entry.getValue();
+      Term read = result.getTermMap().get(entry.getKey());
+      assertEquals(term.toString(), read.toString());
+      assertEquals(term.getDatabaseXrefs().toString(), read.getDatabaseXrefs().toString());
+      assertEquals(term.getXrefs().toString(), read.getXrefs().toString());
+      assertEquals(term.getCreationDate(), read.getCreationDate());
+    }
+    // terms are shared between their id and alt ids as before
+    assertSame(result.getTermMap().get(EAR), result.getTermMap().get(TermId.of("HP:0000600")));
+    assertEquals(ontology.getRelationMap(), result.getRelationMap());
+    assertEquals(ontology.getRelationshipTypes(), result.getRelationshipTypes());
+    assertEquals(ontology.getGraph().vertexSet(), result.getGraph().vertexSet());
+    assertEquals(edges(ontology), edges(result));
+    for (int i = 0; i < ontology.getCsrGraph().vertexCount(); ++i) {
+      assertEquals(ontology.termAt(i), result.termAt(i));
+      assertEquals(ontology.getAncestorOrdinals(i), result.getAncestorOrdinals(i));
+      assertEquals(ontology.getDescendantOrdinals(i), result.getDescendantOrdinals(i));
+      assertEquals(ontology.getPropagatingAncestorOrdinals(i), result.getPropagatingAncestorOrdinals(i));
+    }
+  }
+
+  private static List<String> edges(Ontology ontology) {
+    return ontology.getGraph().edgeSet().stream()
+      .map(edge -> edge.getSource() + ">" + edge.getTarget() + "#" + edge.getId())
+      .collect(Collectors.toList());
+  }
+
+  @Test
+  void precomputedClosuresAreRead() throws Exception {
+    ImmutableOntology ontology = ontology(ClosureMode.EAGER);
+    // computes the descendant closure, which is written from then on
+    assertEquals(5, ontology.descendantCount(ROOT));
+    ImmutableOntology result = roundTrip(ontology);
+
+    assertTrue(result.ancestorClosure() instanceof OrdinalClosure);
+    assertTrue(result.computedDescendantClosure() instanceof OrdinalClosure);
+    assertEquals(5, result.descendantCount(ROOT));
+  }
+
+  @Test
+  void lazyClosureKeepsCacheSpec() throws Exception {
+    ImmutableOntology ontology = ImmutableOntology.builder()
+      .terms(ImmutableList.of(Term.of(ROOT, "All"), Term.of(EAR, "ear")))
+      .relationships(ImmutableList.of(new Relationship(EAR, ROOT, 1, RelationshipType.IS_A)))
+      .closureMode(ClosureMode.LAZY)
+      .closureCacheSpec("maximumSize=5")
+      .build();
+    ImmutableOntology result = roundTrip(ontology);
+
+    assertTrue(result.ancestorClosure() instanceof CachingClosure);
+    assertEquals("maximumSize=5", ((CachingClosure) result.ancestorClosure()).getSpec());
+    assertNull(result.computedDescendantClosure());
+    assertTrue(result.isAncestor(ROOT, EAR));
+  }
+
+  @Test
+  void edgeIdsAreKept() throws Exception {
+    ImmutableOntology result = roundTrip(ontology(ClosureMode.EAGER));
+    for (IdLabeledEdge edge : result.getGraph().edgeSet()) {
+      Relationship relationship = result.getRelationMap().get(edge.getId());
+      assertEquals(relationship.getSource(), edge.getSource());
+      assertEquals(relationship.getTarget(), edge.getTarget());
+    }
+  }
+}
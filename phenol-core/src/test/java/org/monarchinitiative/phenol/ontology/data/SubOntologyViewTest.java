@@ -0,0 +1,77 @@
+package org.monarchinitiative.phenol.ontology.data;
+
+import com.google.common.collect.ImmutableSet;
+import org.junit.jupiter.api.Test;
+import org.monarchinitiative.phenol.ontology.TestOntology;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SubOntologyViewTest {
+
+  private final Ontology ontology = TestOntology.ontology();
+
+  /** Sub ontology rooted at term 2, consisting of terms 2 and 1. */
+  private final Ontology subontology = ontology.subOntology(TestOntology.TERM_ID_2);
+
+  @Test
+  void testViewsAreCached() {
+    assertSame(subontology, ontology.subOntology(TestOntology.TERM_ID_2));
+    assertNotSame(subontology, ontology.subOntology(TestOntology.TERM_ID_3));
+    assertSame(
+      ontology.subOntology(TestOntology.TERM_ID_1),
+      subontology.subOntology(TestOntology.TERM_ID_1));
+  }
+
+  @Test
+  void testUnknownRoot() {
+    assertThrows(IllegalArgumentException.class, () -> ontology.subOntology(TermId.of("HP:0000006")));
+    assertThrows(IllegalArgumentException.class, () -> subontology.subOntology(TestOntology.TERM_ID_3));
+  }
+
+  @Test
+  void testTerms() {
+    assertEquals(TestOntology.TERM_ID_2, subontology.getRootTermId());
+    assertEquals(ImmutableSet.of(TestOntology.TERM_ID_1, TestOntology.TERM_ID_2), subontology.getNonObsoleteTermIds());
+    assertEquals(ImmutableSet.of(TestOntology.TERM_ID_1, TestOntology.TERM_ID_2), subontology.getTermMap().keySet());
+    assertTrue(subontology.containsTerm(TestOntology.TERM_ID_1));
+    assertFalse(subontology.containsTerm(TestOntology.TERM_ID_3));
+    assertEquals(-1, subontology.ordinalOf(TestOntology.TERM_ID_5));
+    assertEquals(ontology.ordinalOf(TestOntology.TERM_ID_1), subontology.ordinalOf(TestOntology.TERM_ID_1));
+    assertFalse(subontology.getTermLabel(TestOntology.TERM_ID_5).isPresent());
+    assertTrue(subontology.getMetaInfo().containsKey("provenance"));
+  }
+
+  @Test
+  void testAncestorsAreRestricted() {
+    assertEquals(
+      ImmutableSet.of(TestOntology.TERM_ID_1, TestOntology.TERM_ID_2),
+      subontology.getAncestorTermIds(TestOntology.TERM_ID_1));
+    assertEquals(
+      ImmutableSet.of(TestOntology.TERM_ID_1),
+      subontology.getAncestorTermIds(TestOntology.TERM_ID_1, false));
+    assertTrue(subontology.getAncestorTermIds(TestOntology.TERM_ID_3).isEmpty());
+    assertTrue(subontology.isAncestor(TestOntology.TERM_ID_2, TestOntology.TERM_ID_1));
+    assertFalse(subontology.isAncestor(TestOntology.TERM_ID_5, TestOntology.TERM_ID_1));
+    assertTrue(subontology.getCommonAncestors(TestOntology.TERM_ID_1, TestOntology.TERM_ID_2).isEmpty());
+    assertEquals(ImmutableSet.of(TestOntology.TERM_ID_2), subontology.getParentTermIds(TestOntology.TERM_ID_1));
+  }
+
+  @Test
+  void testDescendants() {
+    assertEquals(2, subontology.descendantCount(TestOntology.TERM_ID_2));
+    assertEquals(0, subontology.descendantCount(TestOntology.TERM_ID_5));
+    assertEquals(
+      ImmutableSet.of(TestOntology.TERM_ID_1, TestOntology.TERM_ID_2),
+      subontology.getDescendantTermIds(TestOntology.TERM_ID_2));
+  }
+
+  @Test
+  void testGraphs() {
+    assertEquals(1, subontology.getGraph().edgeSet().size());
+    assertEquals(1, subontology.getRelationMap().size());
+    assertEquals(1, subontology.getCsrGraph().edgeCount());
+    assertArrayEquals(
+      new int[]{ontology.ordinalOf(TestOntology.TERM_ID_2)},
+      subontology.parentsOf(ontology.ordinalOf(TestOntology.TERM_ID_1)));
+  }
+}
@@ -0,0 +1,199 @@
+package org.monarchinitiative.phenol.ontology.search;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSortedMap;
+import org.junit.jupiter.api.Test;
+
+import org.monarchinitiative.phenol.ontology.data.Dbxref;
+import org.monarchinitiative.phenol.ontology.data.ImmutableOntology;
+import org.monarchinitiative.phenol.ontology.data.Ontology;
+import org.monarchinitiative.phenol.ontology.data.Relationship;
+import org.monarchinitiative.phenol.ontology.data.RelationshipType;
+import org.monarchinitiative.phenol.ontology.data.Term;
+import org.monarchinitiative.phenol.ontology.data.TermId;
+import org.monarchinitiative.phenol.ontology.data.TermSynonym;
+import org.monarchinitiative.phenol.ontology.data.TermSynonymScope;
+import org.monarchinitiative.phenol.ontology.search.TermMatch.Field;
+import org.monarchinitiative.phenol.ontology.search.TermMatch.MatchType;
+
+class TermSearchIndexTest {
+
+  private static final TermId idVegetable = TermId.of("VO:0000001");
+  private static final TermId idRootVegetable = TermId.of("VO:0000002");
+  private static final TermId idCarrot = TermId.of("VO:0000004");
+  private static final TermId idBlueCarrot = TermId.of("VO:0000007");
+  private static final TermId idPumpkin = TermId.of("VO:0000006");
+  private static final TermId idBlueCarrotAlt = TermId.of("VO:0000099");
+
+  private static final Ontology ontology = ImmutableOntology.builder()
+    .metaInfo(ImmutableSortedMap.of())
+    .terms(ImmutableList.of(
+      Term.of(idVegetable, "vegetable"),
+      Term.of(idRootVegetable, "root vegetable"),
+      Term.builder()
+        .id(idCarrot)
+        .name("carrot")
+        .synonyms(ImmutableList.of(
+          new TermSynonym("Daucus  carota", TermSynonymScope.EXACT, null, null, null),
+          new TermSynonym("carotte", TermSynonymScope.RELATED, null, null, null)))
+        .build(),
+      Term.builder()
+        .id(idBlueCarrot)
+        .name("Blue Carrot")
+        .altTermIds(ImmutableList.of(idBlueCarrotAlt))
+        .synonyms(ImmutableList.of(new TermSynonym("purple carrot", TermSynonymScope.BROAD, null, null, null)))
+        .build(),
+      Term.builder()
+        .id(idPumpkin)
+        .name("pumpkin")
+        .xrefs(ImmutableList.of(new Dbxref("Wikipedia:Pumpkin", null, null)))
+        .build()))
+    .relationships(ImmutableList.of(
+      new Relationship(idRootVegetable, idVegetable, 1, RelationshipType.IS_A),
+      new Relationship(idCarrot, idRootVegetable, 2, RelationshipType.IS_A),
+      new Relationship(idBlueCarrot, idCarrot, 3, RelationshipType.IS_A),
+      new Relationship(idPumpkin, idRootVegetable, 4, RelationshipType.IS_A)))
+    .build();
+
+  private final TermSearchIndex index = new TermSearchIndex(ontology);
+
+  private static List<TermId> termIds(List<TermMatch> matches) {
+    return matches.stream().map(TermMatch::getTermId).collect(Collectors.toList());
+  }
+
+  @Test
+  void testNormalize() {
+    assertEquals("daucus carota", TermSearchIndex.normalize("  Daucus \t CAROTA "));
+    assertEquals("", TermSearchIndex.normalize(" "));
+  }
+
+  @Test
+  void testCounts() {
+    // 5 ids, 1 alt id, 5 labels, 3 synonyms, 1 xref
+    assertEquals(15, index.entryCount());
+    assertEquals(15, index.keyCount());
+  }
+
+  @Test
+  void testExact() {
+    List<TermMatch> matches = index.exact("daucus carota", 10);
+    assertEquals(1, matches.size());
+    TermMatch match = matches.get(0);
+    assertEquals(idCarrot, match.getTermId());
+    assertEquals("Daucus  carota", match.getText());
+    assertEquals(Field.SYNONYM, match.getField());
+    assertEquals(TermSynonymScope.EXACT, match.getScope());
+    assertEquals(MatchType.EXACT, match.getMatchType());
+
+    assertEquals(ImmutableList.of(idBlueCarrot), termIds(index.exact("vo:0000099", 10)));
+    assertEquals(ImmutableList.of(idPumpkin), termIds(index.exact("wikipedia:pumpkin", 10)));
+    assertTrue(index.exact("carro", 10).isEmpty());
+  }
+
+  @Test
+  void testPrefix() {
+    List<TermMatch> matches = index.prefix("Car", 10);
+    assertEquals(ImmutableList.of(idCarrot), termIds(matches));
+    assertEquals(Field.LABEL, matches.get(0).getField());
+    assertEquals(MatchType.PREFIX, matches.get(0).getMatchType());
+
+    // the exact label match ranks before the prefix matches
+    matches = index.prefix("carrot", 10);
+    assertEquals(ImmutableList.of(idCarrot), termIds(matches));
+    assertEquals(MatchType.EXACT, matches.get(0).getMatchType());
+
+    assertEquals(5, index.prefix("VO:", 10).size());
+    assertEquals(2, index.prefix("VO:", 2).size());
+    assertEquals(ImmutableList.of(idVegetable, idRootVegetable), termIds(index.prefix("VO:", 2)));
+  }
+
+  @Test
+  void testFuzzy() {
+    List<TermMatch> matches = index.fuzzy("pumkin", 1, 10);
+    assertEquals(ImmutableList.of(idPumpkin), termIds(matches));
+    assertEquals(MatchType.FUZZY, matches.get(0).getMatchType());
+    assertEquals(1, matches.get(0).getDistance());
+
+    assertTrue(index.fuzzy("pumkn", 1, 10).isEmpty());
+    assertEquals(ImmutableList.of(idPumpkin), termIds(index.fuzzy("pumkn", 2, 10)));
+
+    // "carrot" is an exact match, "carotte" is two edits away
+    matches = index.fuzzy("carrot", 2, 10);
+    assertEquals(ImmutableList.of(idCarrot), termIds(matches));
+    assertEquals(MatchType.EXACT, matches.get(0).getMatchType());
+
+    matches = index.fuzzy("blue carot", 1, 10);
+    assertEquals(ImmutableList.of(idBlueCarrot), termIds(matches));
+    assertEquals("Blue Carrot", matches.get(0).getText());
+  }
+
+  @Test
+  void testFuzzyAgreesWithBruteForce() {
+    String[] queries = {"carot", "vegtable", "root vegetabl", "vo:000000", "purple", "x", ""};
+    for (String query : queries) {
+      for (int maxDistance = 0; maxDistance <= 3; ++maxDistance) {
+        List<TermMatch> matches = index.fuzzy(query, maxDistance, 100);
+        for (Term term : ontology.getTerms()) {
+          int best = Integer.MAX_VALUE;
+          best = Math.min(best, levenshtein(query, term.getId().getValue().toLowerCase()));
+          best = Math.min(best, levenshtein(query, TermSearchIndex.normalize(term.getName())));
+          for (TermId altTermId : term.getAltTermIds()) {
+            best = Math.min(best, levenshtein(query, altTermId.getValue().toLowerCase()));
+          }
+          for (TermSynonym synonym : term.getSynonyms()) {
+            best = Math.min(best, levenshtein(query, TermSearchIndex.normalize(synonym.getValue())));
+          }
+          for (Dbxref xref : term.getXrefs()) {
+            best = Math.min(best, levenshtein(query, TermSearchIndex.normalize(xref.getName())));
+          }
+          final int expected = best;
+          boolean found = matches.stream().anyMatch(m -> m.getTermId().equals(term.getId()));
+          assertEquals(expected <= maxDistance, found, query + " " + maxDistance + " " + term.getId());
+          matches.stream()
+            .filter(m -> m.getTermId().equals(term.getId()))
+            .forEach(m -> assertEquals(expected, m.getDistance()));
+        }
+      }
+    }
+  }
+
+  private static int levenshtein(String a, String b) {
+    int[] previous = new int[b.length() + 1];
+    int[] current = new int[b.length() + 1];
+    for (int j = 0; j <= b.length(); ++j) {
+      previous[j] = j;
+    }
+    for (int i = 1; i <= a.length(); ++i) {
+      current[0] = i;
+      for (int j = 1; j <= b.length(); ++j) {
+        int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+        current[j] = Math.min(previous[j - 1] + cost, Math.min(previous[j], current[j - 1]) + 1);
+      }
+      int[] tmp = previous;
+      previous = current;
+      current = tmp;
+    }
+    return previous[b.length()];
+  }
+
+  @Test
+  void testSearch() {
+    // the prefix match on "carrot" ranks before the fuzzy match on "carotte"
+    List<TermMatch> matches = index.search("carr", 2, 10);
+    assertEquals(idCarrot, matches.get(0).getTermId());
+    assertEquals(MatchType.PREFIX, matches.get(0).getMatchType());
+    assertEquals("carrot", matches.get(0).getText());
+    assertTrue(termIds(matches).contains(idCarrot));
+  }
+
+  @Test
+  void testInvalidArguments() {
+    assertThrows(IllegalArgumentException.class, () -> index.exact("carrot", -1));
+    assertThrows(IllegalArgumentException.class, () -> index.fuzzy("carrot", -1, 10));
+  }
+}
@@ -4,10 +4,17 @@ import static org.junit.jupiter.api.Assertions.*;
 
 import org.monarchinitiative.phenol.ontology.testdata.vegetables.VegetableOntologyTestBase;
 
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Lists;
 
+import org.monarchinitiative.phenol.graph.csr.OrdinalSet;
+import org.monarchinitiative.phenol.ontology.data.TermId;
+
 import org.junit.jupiter.api.Test;
 
+import java.util.Map;
+
 class JaccardSimilarityTest extends VegetableOntologyTestBase {
 
   private final JaccardSimilarity similarity = new JaccardSimilarity(ontology);
@@ -38,4 +45,22 @@ class JaccardSimilarityTest extends VegetableOntologyTestBase {
         similarity.computeScore(Lists.newArrayList(idLeafVegetable), Lists.newArrayList(idCarrot)),
         0.01);
   }
+
+  @Test
+  void testComputeSimilaritiesFromOrdinals() {
+    Map<TermId, OrdinalSet> ancestors = ontology.getAllAncestorOrdinals(
+      ImmutableMap.of(
+        idBeet, ImmutableList.of(idBeet),
+        idCarrot, ImmutableList.of(idCarrot),
+        idBlueCarrot, ImmutableList.of(idBlueCarrot)),
+      false);
+    assertEquals(0.25, similarity.computeScore(ancestors.get(idBeet), ancestors.get(idCarrot)), 0.01);
+    assertEquals(0.66, similarity.computeScore(ancestors.get(idBlueCarrot), ancestors.get(idCarrot)), 0.01);
+    assertEquals(
+      similarity.computeScore(Lists.newArrayList(idBeet, idBlueCarrot), Lists.newArrayList(idCarrot)),
+      similarity.computeScore(
+        ontology.getAllAncestorOrdinals(ImmutableList.of(idBeet, idBlueCarrot), false),
+        ancestors.get(idCarrot)),
+      1e-9);
+  }
 }
@@ -0,0 +1,100 @@
+package org.monarchinitiative.phenol.utils;
+
+import org.junit.jupiter.api.Test;
+import org.monarchinitiative.phenol.ontology.data.ImmutableOntology;
+import org.monarchinitiative.phenol.ontology.data.Relationship;
+import org.monarchinitiative.phenol.ontology.data.RelationshipType;
+import org.monarchinitiative.phenol.ontology.data.Term;
+import org.monarchinitiative.phenol.ontology.data.TermId;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PhaseRecorderTest {
+
+  @Test
+  void phasesAreRecordedInOrderOfCompletion() throws Exception {
+    PhaseRecorder recorder = PhaseRecorder.create();
+    try (PhaseRecorder.Phase parse = recorder.start(PhaseRecorder.PARSE)) {
+      try (PhaseRecorder.Phase read = recorder.start(PhaseRecorder.READ)) {
+        Thread.sleep(5);
+        read.count("bytes", 1234);
+      }
+      parse.count("lines", 10).count("terms", 3);
+    }
+
+    PhaseRecorder.PhaseReport report = recorder.getReport();
+    assertEquals(Arrays.asList(PhaseRecorder.READ, PhaseRecorder.PARSE),
+      report.getPhases().stream().map(PhaseRecorder.PhaseRecord::getName).collect(Collectors.toList()));
+    PhaseRecorder.PhaseRecord read = report.getPhase(PhaseRecorder.READ).get();
+    PhaseRecorder.PhaseRecord parse = report.getPhase(PhaseRecorder.PARSE).get();
+    assertTrue(read.getWallTime(TimeUnit.MILLISECONDS) >= 5);
+    assertTrue(parse.getWallTime(TimeUnit.NANOSECONDS) >= read.getWallTime(TimeUnit.NANOSECONDS));
+    assertEquals(1234L, (long) read.getCounts().get("bytes"));
+    assertEquals(Arrays.asList("lines", "terms"), new ArrayList<>(parse.getCounts().keySet()));
+    assertFalse(report.getPhase(PhaseRecorder.GRAPH_BUILD).isPresent());
+  }
+
+  @Test
+  void allocationsAreMeasuredWhereSupported() {
+    PhaseRecorder recorder = PhaseRecorder.create();
+    List<int[]> allocated = new ArrayList<>();
+    try (PhaseRecorder.Phase phase = recorder.start(PhaseRecorder.TERM_CONSTRUCTION)) {
+      for (int i = 0; i < 16; i++) {
+        allocated.add(new int[1 << 16]);
+      }
+      phase.count("arrays", allocated.size());
+    }
+
+    long bytes = recorder.getReport().getPhases().get(0).getAllocatedBytes();
+    assertEquals(16, allocated.size());
+    assertTrue(bytes == PhaseRecorder.UNKNOWN || bytes >= 16L * (1 << 16) * 4, "allocated " + bytes);
+  }
+
+  @Test
+  void recordedPhaseAndLine() {
+    PhaseRecorder recorder = PhaseRecorder.create();
+    recorder.record(PhaseRecorder.CURIE_MAPPING, TimeUnit.MILLISECONDS.toNanos(7), Collections.singletonMap("lookups", 42L));
+
+    PhaseRecorder.PhaseRecord record = recorder.getReport().getPhases().get(0);
+    assertEquals(PhaseRecorder.UNKNOWN, record.getAllocatedBytes());
+    assertEquals("phase=curie_mapping wallMs=7 lookups=42", record.toString());
+  }
+
+  @Test
+  void disabledRecorderRecordsNothing() {
+    PhaseRecorder recorder = PhaseRecorder.disabled();
+    try (PhaseRecorder.Phase phase = recorder.start(PhaseRecorder.PARSE)) {
+      phase.count("lines", 1);
+    }
+    recorder.record(PhaseRecorder.READ, 1, Collections.emptyMap());
+
+    assertFalse(recorder.isEnabled());
+    assertTrue(recorder.getReport().getPhases().isEmpty());
+  }
+
+  @Test
+  void ontologyBuildPhases() {
+    TermId root = TermId.of("HP:0000001");
+    TermId child = TermId.of("HP:0000002");
+    PhaseRecorder recorder = PhaseRecorder.create();
+    ImmutableOntology.builder()
+      .terms(Arrays.asList(Term.of(root, "root"), Term.of(child, "child")))
+      .relationships(Collections.singletonList(new Relationship(child, root, 1, RelationshipType.IS_A)))
+      .phaseRecorder(recorder)
+      .build();
+
+    PhaseRecorder.PhaseReport report = recorder.getReport();
+    assertEquals(Arrays.asList(PhaseRecorder.GRAPH_BUILD, PhaseRecorder.COMPATIBILITY_CHECK, PhaseRecorder.INDEX_BUILD,
+      PhaseRecorder.CLOSURE_PRECOMPUTE),
+      report.getPhases().stream().map(PhaseRecorder.PhaseRecord::getName).collect(Collectors.toList()));
+    assertEquals(1L, (long) report.getPhase(PhaseRecorder.INDEX_BUILD).get().getCounts().get("edges"));
+    assertEquals(2L, (long) report.getPhase(PhaseRecorder.INDEX_BUILD).get().getCounts().get("vertices"));
+  }
+}
@@ -0,0 +1,118 @@
+package org.monarchinitiative.phenol.utils;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.monarchinitiative.phenol.base.PhenolRuntimeException;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ResourceLoaderTest {
+
+  private ExecutorService executor;
+
+  @BeforeEach
+  void setUp() {
+    executor = Executors.newFixedThreadPool(4);
+  }
+
+  @AfterEach
+  void tearDown() {
+    executor.shutdownNow();
+  }
+
+  @Test
+  void independentLoadsRunConcurrently() {
+    ResourceLoader loader = ResourceLoader.create(executor);
+    // each load waits for the other one to start, so they can only complete when run concurrently
+    CountDownLatch started = new CountDownLatch(2);
+    CompletableFuture<String> hp = loader.submit("hp", () -> awaitOthers(started, "hp"));
+    CompletableFuture<String> mp = loader.submit("mp", () -> awaitOthers(started, "mp"));
+
+    ResourceLoader.LoadReport report = loader.await();
+
+    assertTrue(report.isSuccessful());
+    assertEquals("hp", hp.join());
+    assertEquals("mp", mp.join());
+    assertEquals(2, report.getResults().size());
+    assertEquals("hp", report.getResults().get(0).getName());
+    assertEquals(ResourceLoader.Status.SUCCEEDED, report.getResults().get(0).getStatus());
+  }
+
+  private static String awaitOthers(CountDownLatch started, String value) {
+    started.countDown();
+    try {
+      assertTrue(started.await(10, TimeUnit.SECONDS));
+    } catch (InterruptedException e) {
+      throw new IllegalStateException(e);
+    }
+    return value;
+  }
+
+  @Test
+  void dependentLoadGetsDependency() {
+    ResourceLoader loader = ResourceLoader.create(executor);
+    CompletableFuture<String> ontology = loader.submit("ontology", () -> sleepAndReturn(20, "HP"));
+    CompletableFuture<Integer> annotations = loader.submit("annotations", ontology, String::length);
+    CompletableFuture<String> both = loader.submitAfter("both",
+      () -> ontology.join() + annotations.join(), ontology, annotations);
+
+    ResourceLoader.LoadReport report = loader.await();
+
+    assertTrue(report.isSuccessful());
+    assertEquals("HP2", both.join());
+    ResourceLoader.LoadResult ontologyResult = report.getResults().get(0);
+    ResourceLoader.LoadResult annotationsResult = report.getResults().get(1);
+    assertTrue(ontologyResult.getDuration(TimeUnit.MILLISECONDS) >= 20);
+    assertTrue(annotationsResult.getStartTime(TimeUnit.NANOSECONDS)
+      >= ontologyResult.getStartTime(TimeUnit.NANOSECONDS) + ontologyResult.getDuration(TimeUnit.NANOSECONDS));
+    assertTrue(report.getWallTime(TimeUnit.MILLISECONDS) >= report.getTotalLoadTime(TimeUnit.MILLISECONDS) - 1);
+  }
+
+  private static <T> T sleepAndReturn(long millis, T value) {
+    try {
+      Thread.sleep(millis);
+    } catch (InterruptedException e) {
+      throw new IllegalStateException(e);
+    }
+    return value;
+  }
+
+  @Test
+  void failuresAreReported() {
+    ResourceLoader loader = ResourceLoader.create(executor);
+    UncheckedIOException failure = new UncheckedIOException(new IOException("no such file"));
+    CompletableFuture<String> ontology = loader.submit("ontology", () -> {
+      throw failure;
+    });
+    CompletableFuture<Integer> annotations = loader.submit("annotations", ontology, String::length);
+    CompletableFuture<String> other = loader.submit("other", () -> "other");
+
+    ResourceLoader.LoadReport report = loader.await();
+
+    assertFalse(report.isSuccessful());
+    assertEquals("other", other.join());
+    assertEquals(2, report.getFailures().size());
+    ResourceLoader.LoadResult ontologyResult = report.getResults().get(0);
+    assertEquals(ResourceLoader.Status.FAILED, ontologyResult.getStatus());
+    assertSame(failure, ontologyResult.getFailure().get());
+    ResourceLoader.LoadResult annotationsResult = report.getResults().get(1);
+    assertEquals(ResourceLoader.Status.SKIPPED, annotationsResult.getStatus());
+    assertEquals(-1, annotationsResult.getStartTime(TimeUnit.MILLISECONDS));
+    assertSame(failure, annotationsResult.getFailure().get());
+
+    // join rethrows the exception of the load itself
+    assertSame(failure, assertThrows(UncheckedIOException.class, () -> ResourceLoader.join(annotations)));
+    PhenolRuntimeException e = assertThrows(PhenolRuntimeException.class, report::throwIfFailed);
+    assertEquals("Could not load ontology, annotations", e.getMessage());
+    assertSame(failure, e.getCause());
+  }
+}
@@ -3,15 +3,23 @@ package org.monarchinitiative.phenol.io;
 import com.google.common.collect.ImmutableSet;
 import org.geneontology.obographs.model.GraphDocument;
 import org.monarchinitiative.phenol.base.PhenolRuntimeException;
+import org.monarchinitiative.phenol.io.obo.OboParser;
 import org.monarchinitiative.phenol.io.obographs.OboGraphDocumentAdaptor;
 import org.monarchinitiative.phenol.io.obographs.OboGraphDocumentLoader;
+import org.monarchinitiative.phenol.io.snapshot.OntologyCache;
 import org.monarchinitiative.phenol.io.utils.CurieUtilBuilder;
 import org.monarchinitiative.phenol.ontology.data.Ontology;
+import org.monarchinitiative.phenol.utils.PhaseRecorder;
 import org.prefixcommons.CurieUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Pattern;
 
 /**
  * Entry class for loading an ontology from a File or InputStream. Files can be in OWL, OBO or JSON format and will be
@@ -21,6 +29,21 @@ import java.io.*;
  * one namespace e.g. HPO it is safe to load the ontology without supplying any termId prefixes. For the GO, which
  * contains a mixture of GO, RO and BFO terms it is advisable to supply the 'GO' termId prefix otherwise there may be
  * relationships with RelationshipType.UNKNOWN. It is left to the user how best to specify what is loaded.
+ * <p>
+ * OBO files (recognised by the <code>.obo</code> extension, or for streams by starting with an OBO header tag or
+ * stanza) are read with the native {@link OboParser} which produces the same terms and relationships as the
+ * OWLAPI-based path without building an OWL ontology and an obographs document first. To load an OBO file through
+ * OWLAPI, pass the result of {@link OboGraphDocumentLoader#loadObo(InputStream)} to
+ * {@link #loadOntology(GraphDocument, CurieUtil, String...)}. JSON input is converted while it is read by
+ * {@link OboGraphDocumentAdaptor.Builder#buildFromJson(InputStream)}, without building the {@link GraphDocument}.
+ * <p>
+ * Applications loading the same ontology file repeatedly can opt in to an {@link OntologyCache} directory with
+ * {@link #loadOntology(File, OntologyCache, CurieUtil, String...)}.
+ * <p>
+ * The time, allocations and element counts of the loading phases (reading, parsing, CURIE mapping, term construction,
+ * graph build, compatibility check, index build and closure precompute) are recorded by passing a {@link PhaseRecorder}
+ * to {@link #loadOntology(File, PhaseRecorder, CurieUtil, String...)}, its report is available from the recorder after
+ * loading.
  *
  * @author Jules Jacobsen <j.jacobsen@qmul.ac.uk>
  */
@@ -28,6 +51,8 @@ public class OntologyLoader {
 
   private static final Logger logger = LoggerFactory.getLogger(OntologyLoader.class);
 
+  private static final Pattern OBO_START = Pattern.compile("\\A\\uFEFF?\\s*(\\[(Term|Typedef|Instance)]|[a-z][a-z0-9_-]*:)");
+
   private OntologyLoader() {
   }
 
@@ -40,8 +65,40 @@ public class OntologyLoader {
   }
 
   public static Ontology loadOntology(File file, CurieUtil curieUtil, String... termIdPrefixes) {
-    GraphDocument graphDocument = loadGraphDocument(file);
-    return loadOntology(graphDocument, curieUtil, termIdPrefixes);
+    return loadOntology(file, PhaseRecorder.disabled(), curieUtil, termIdPrefixes);
+  }
+
+  /**
+   * Load the ontology from <code>file</code>, recording the loading phases in <code>phaseRecorder</code>.
+   *
+   * @param phaseRecorder {@link PhaseRecorder} the phases are recorded in, e.g. {@link PhaseRecorder#create()}.
+   */
+  public static Ontology loadOntology(File file, PhaseRecorder phaseRecorder, CurieUtil curieUtil, String... termIdPrefixes) {
+    try (InputStream inputStream = new FileInputStream(file)) {
+      if (file.getName().toLowerCase(Locale.ROOT).endsWith(".obo")) {
+        ReadRecordingInputStream recorded = new ReadRecordingInputStream(inputStream);
+        try {
+          return loadOboOntology(recorded, phaseRecorder, curieUtil, termIdPrefixes);
+        } finally {
+          recorded.record(phaseRecorder);
+        }
+      }
+      return loadOntology(inputStream, phaseRecorder, curieUtil, termIdPrefixes);
+    } catch (IOException e) {
+      throw new PhenolRuntimeException("Unable to load ontology", e);
+    }
+  }
+
+  /**
+   * Load the ontology from <code>file</code> through <code>cache</code>, which keeps a snapshot of the loaded ontology
+   * and opens that instead of parsing the file again the next time, see {@link OntologyCache}.
+   */
+  public static Ontology loadOntology(File file, OntologyCache cache, String... termIdPrefixes) {
+    return cache.loadOntology(file, termIdPrefixes);
+  }
+
+  public static Ontology loadOntology(File file, OntologyCache cache, CurieUtil curieUtil, String... termIdPrefixes) {
+    return cache.loadOntology(file, curieUtil, termIdPrefixes);
   }
 
   public static Ontology loadOntology(InputStream inputStream) {
@@ -53,69 +110,170 @@ public class OntologyLoader {
   }
 
   public static Ontology loadOntology(InputStream inputStream, CurieUtil curieUtil, String... termIdPrefixes) {
-    GraphDocument graphDocument = loadGraphDocument(inputStream);
-    return loadOntology(graphDocument, curieUtil, termIdPrefixes);
+    return loadOntology(inputStream, PhaseRecorder.disabled(), curieUtil, termIdPrefixes);
   }
 
-  public static Ontology loadOntology(GraphDocument graphDocument, CurieUtil curieUtil, String... termIdPrefixes) {
-    logger.debug("Finished loading ontology");
-    logger.debug("Creating phenol ontology");
-    OboGraphDocumentAdaptor graphDocumentAdaptor = OboGraphDocumentAdaptor.builder()
-      .curieUtil(curieUtil)
-      .wantedTermIdPrefixes(ImmutableSet.copyOf(termIdPrefixes))
-      .build(graphDocument);
-
-    Ontology ontology = graphDocumentAdaptor.buildOntology();
-    logger.debug("Parsed a total of {} terms", ontology.countAllTerms());
-    return ontology;
-  }
-
-  private static GraphDocument loadGraphDocument(File file) {
+  /**
+   * Load the ontology from <code>inputStream</code>, recording the loading phases in <code>phaseRecorder</code>.
+   *
+   * @param phaseRecorder {@link PhaseRecorder} the phases are recorded in, e.g. {@link PhaseRecorder#create()}.
+   */
+  public static Ontology loadOntology(InputStream inputStream, PhaseRecorder phaseRecorder, CurieUtil curieUtil, String... termIdPrefixes) {
+    ReadRecordingInputStream recorded = new ReadRecordingInputStream(inputStream);
     try {
-      return loadGraphDocument(new FileInputStream(file));
-    } catch (IOException e) {
-      throw new PhenolRuntimeException("Unable to load ontology", e);
+      return loadOntologyFromStream(recorded, phaseRecorder, curieUtil, termIdPrefixes);
+    } finally {
+      recorded.record(phaseRecorder);
     }
   }
 
-  private static GraphDocument loadGraphDocument(InputStream inputStream) {
-    // The input file might be json or obo/owl. Try to make an educated guess.
+  private static Ontology loadOntologyFromStream(InputStream inputStream, PhaseRecorder phaseRecorder, CurieUtil curieUtil, String... termIdPrefixes) {
+    // The input might be json, obo or owl. Try to make an educated guess.
     try (InputStream bufferedStream = new BufferedInputStream(inputStream)) {
-      int readlimit = 16;
+      int readlimit = 32;
       bufferedStream.mark(readlimit);
       String firstBytes = readBytes(bufferedStream, readlimit);
       logger.debug("Read first bytes: " + firstBytes);
+      bufferedStream.reset();
+      if (isObo(firstBytes)) {
+        logger.debug("Looks like an OBO file...");
+        return loadOboOntology(bufferedStream, phaseRecorder, curieUtil, termIdPrefixes);
+      }
       if (isJsonGraphDoc(firstBytes)) {
         logger.debug("Looks like a JSON file...");
-        try {
-          bufferedStream.reset();
-          return OboGraphDocumentLoader.loadJson(bufferedStream);
-        } catch (Exception e) {
-          throw new PhenolRuntimeException("Error loading JSON", e);
-        }
+        return loadJsonOntology(bufferedStream, phaseRecorder, curieUtil, termIdPrefixes);
       }
-
-      logger.debug("Looks like a OBO/OWL file...");
-      try {
-        bufferedStream.reset();
-        return OboGraphDocumentLoader.loadObo(bufferedStream);
-      } catch (Exception e) {
-        throw new PhenolRuntimeException("Error loading OBO/OWL", e);
+      GraphDocument graphDocument;
+      try (PhaseRecorder.Phase phase = phaseRecorder.start(PhaseRecorder.PARSE)) {
+        graphDocument = loadOwlGraphDocument(bufferedStream);
+        phase.count("graphs", graphDocument.getGraphs() == null ? 0 : graphDocument.getGraphs().size());
       }
+      return loadOntology(graphDocument, phaseRecorder, curieUtil, termIdPrefixes);
     } catch (IOException e) {
       throw new PhenolRuntimeException("Unable to load ontology", e);
     }
   }
 
+  private static Ontology loadOboOntology(InputStream inputStream, PhaseRecorder phaseRecorder, CurieUtil curieUtil, String... termIdPrefixes) throws IOException {
+    logger.debug("Creating phenol ontology from OBO");
+    OboParser oboParser = OboParser.builder()
+      .curieUtil(curieUtil)
+      .wantedTermIdPrefixes(ImmutableSet.copyOf(termIdPrefixes))
+      .phaseRecorder(phaseRecorder)
+      .build(inputStream);
+
+    Ontology ontology = oboParser.buildOntology();
+    logger.debug("Parsed a total of {} terms", ontology.countAllTerms());
+    return ontology;
+  }
+
+  private static Ontology loadJsonOntology(InputStream inputStream, PhaseRecorder phaseRecorder, CurieUtil curieUtil, String... termIdPrefixes) {
+    logger.debug("Creating phenol ontology from JSON");
+    OboGraphDocumentAdaptor graphDocumentAdaptor;
+    try {
+      graphDocumentAdaptor = OboGraphDocumentAdaptor.builder()
+        .curieUtil(curieUtil)
+        .wantedTermIdPrefixes(ImmutableSet.copyOf(termIdPrefixes))
+        .phaseRecorder(phaseRecorder)
+        .buildFromJson(inputStream);
+    } catch (IOException e) {
+      throw new PhenolRuntimeException("Error loading JSON", e);
+    }
+
+    Ontology ontology = graphDocumentAdaptor.buildOntology();
+    logger.debug("Parsed a total of {} terms", ontology.countAllTerms());
+    return ontology;
+  }
+
+  public static Ontology loadOntology(GraphDocument graphDocument, CurieUtil curieUtil, String... termIdPrefixes) {
+    return loadOntology(graphDocument, PhaseRecorder.disabled(), curieUtil, termIdPrefixes);
+  }
+
+  public static Ontology loadOntology(GraphDocument graphDocument, PhaseRecorder phaseRecorder, CurieUtil curieUtil, String... termIdPrefixes) {
+    logger.debug("Finished loading ontology");
+    logger.debug("Creating phenol ontology");
+    OboGraphDocumentAdaptor graphDocumentAdaptor = OboGraphDocumentAdaptor.builder()
+      .curieUtil(curieUtil)
+      .wantedTermIdPrefixes(ImmutableSet.copyOf(termIdPrefixes))
+      .phaseRecorder(phaseRecorder)
+      .build(graphDocument);
+
+    Ontology ontology = graphDocumentAdaptor.buildOntology();
+    logger.debug("Parsed a total of {} terms", ontology.countAllTerms());
+    return ontology;
+  }
+
+  private static GraphDocument loadOwlGraphDocument(InputStream bufferedStream) {
+    logger.debug("Looks like a OBO/OWL file...");
+    try {
+      return OboGraphDocumentLoader.loadObo(bufferedStream);
+    } catch (Exception e) {
+      throw new PhenolRuntimeException("Error loading OBO/OWL", e);
+    }
+  }
+
   private static String readBytes(InputStream bufferedStream, int readlimit) throws IOException {
     byte[] firstFewBytes = new byte[readlimit];
-    if (bufferedStream.read(firstFewBytes) == readlimit) {
-      return new String(firstFewBytes);
+    int length = 0;
+    int read;
+    while (length < readlimit && (read = bufferedStream.read(firstFewBytes, length, readlimit - length)) != -1) {
+      length += read;
     }
-    return null;
+    return length == 0 ? null : new String(firstFewBytes, 0, length, StandardCharsets.UTF_8);
+  }
+
+  /**
+   * OBO documents start with a header tag such as <code>format-version:</code> or directly with a stanza. OWL
+   * serializations start with <code>&lt;</code>, <code>@prefix</code>, <code>Prefix(</code> or capitalised keywords.
+   */
+  private static boolean isObo(String firstBytes) {
+    return firstBytes != null && OBO_START.matcher(firstBytes).lookingAt();
   }
 
   private static boolean isJsonGraphDoc(String firstBytes) {
     return firstBytes != null && firstBytes.replace("\\W+", "").startsWith("{");
   }
+
+  /**
+   * Accumulates the time spent in and the bytes returned by the read calls of the wrapped stream, recorded as the
+   * {@link PhaseRecorder#READ} phase. The reads happen during parsing, so their time is part of the parse phase, too.
+   */
+  private static final class ReadRecordingInputStream extends FilterInputStream {
+
+    private long readNanos;
+
+    private long bytes;
+
+    private ReadRecordingInputStream(InputStream in) {
+      super(in);
+    }
+
+    @Override
+    public int read() throws IOException {
+      long start = System.nanoTime();
+      int result = in.read();
+      readNanos += System.nanoTime() - start;
+      if (result != -1) {
+        ++bytes;
+      }
+      return result;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+      long start = System.nanoTime();
+      int result = in.read(b, off, len);
+      readNanos += System.nanoTime() - start;
+      if (result > 0) {
+        bytes += result;
+      }
+      return result;
+    }
+
+    void record(PhaseRecorder phaseRecorder) {
+      Map<String, Long> counts = new LinkedHashMap<>();
+      counts.put("bytes", bytes);
+      phaseRecorder.record(PhaseRecorder.READ, readNanos, counts);
+    }
+  }
 }
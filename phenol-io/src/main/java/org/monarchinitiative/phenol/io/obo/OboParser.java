@@ -0,0 +1,883 @@
+package org.monarchinitiative.phenol.io.obo;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSortedMap;
+import org.monarchinitiative.phenol.base.PhenolRuntimeException;
+import org.monarchinitiative.phenol.io.utils.CurieUtilBuilder;
+import org.monarchinitiative.phenol.ontology.data.*;
+import org.monarchinitiative.phenol.utils.PhaseRecorder;
+import org.prefixcommons.CurieUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Single-pass parser for OBO 1.4 files that creates phenol's {@link Term}s and {@link Relationship}s
+ * directly while reading the stanzas, without building an OWLAPI ontology and an obographs
+ * {@link org.geneontology.obographs.model.GraphDocument} first.
+ * <p>
+ * The output is the same as loading the file through {@link
+ * org.monarchinitiative.phenol.io.obographs.OboGraphDocumentLoader#loadObo(InputStream)} and
+ * {@link org.monarchinitiative.phenol.io.obographs.OboGraphDocumentAdaptor}, i.e. ids are expanded to
+ * IRIs following the OBO to OWL mapping and contracted again with the {@link CurieUtil}, every
+ * <code>alt_id</code> becomes an obsolete term without name, subsets and synonym types are given
+ * as IRIs and only <code>is_a</code> and <code>relationship</code> tags of terms (and <code>is_a
+ * </code> tags of typedefs) become relationships. Logical definitions, instances and tags without a
+ * counterpart in {@link Term} are skipped, as are <code>alt_id</code>s without prefix. Of the
+ * <code>owl-axioms</code> header, literal annotations (synonyms, xrefs, comments, labels and
+ * alternative ids) of terms and subclass axioms are applied, other axioms are skipped. The order of
+ * the relationships, and hence their ids, follows the file.
+ */
+public class OboParser {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(OboParser.class);
+
+  private static final String OBO_PURL = "http://purl.obolibrary.org/obo/";
+
+  /** Ontology id used by the OBO to OWL mapping for files without an <code>ontology</code> header tag. */
+  private static final String DEFAULT_ONTOLOGY_ID = "TEMP";
+
+  private static final String IS_A = "is_a";
+
+  private static final String SUBPROPERTY_OF = "subPropertyOf";
+
+  private static final String OBO_IN_OWL = "http://www.geneontology.org/formats/oboInOwl#";
+
+  private static final String RDFS = "http://www.w3.org/2000/01/rdf-schema#";
+
+  /** An annotation of a named entity with a literal in the OWL functional syntax of the <code>owl-axioms</code> header. */
+  private static final Pattern OWL_ANNOTATION_ASSERTION = Pattern.compile(
+    "AnnotationAssertion\\((?:Annotation\\([^)]*\\)\\s*)*(<[^>]*>|rdfs:\\w+)\\s+<([^>]*)>\\s+\"((?:[^\"\\\\]|\\\\.)*)\"");
+
+  /** A subclass axiom between named classes or with an existential restriction in the <code>owl-axioms</code> header. */
+  private static final Pattern OWL_SUBCLASS_OF = Pattern.compile(
+    "SubClassOf\\((?:Annotation\\([^)]*\\)\\s*)*<([^>]*)>\\s+(?:<([^>]*)>|ObjectSomeValuesFrom\\(<([^>]*)>\\s+<([^>]*)>\\))\\s*\\)");
+
+  private final Map<String, String> metaInfo;
+  private final List<Term> terms;
+  private final List<Relationship> relationships;
+  private final PhaseRecorder phaseRecorder;
+
+  private OboParser(Map<String, String> metaInfo, List<Term> terms, List<Relationship> relationships,
+                    PhaseRecorder phaseRecorder) {
+    this.metaInfo = metaInfo;
+    this.terms = terms;
+    this.relationships = relationships;
+    this.phaseRecorder = phaseRecorder;
+  }
+
+  public Map<String, String> getMetaInfo() {
+    return metaInfo;
+  }
+
+  public List<Term> getTerms() {
+    return terms;
+  }
+
+  public List<Relationship> getRelationships() {
+    return relationships;
+  }
+
+  public Ontology buildOntology() {
+    return ImmutableOntology.builder()
+      .metaInfo(metaInfo)
+      .terms(terms)
+      .relationships(relationships)
+      .phaseRecorder(phaseRecorder)
+      .build();
+  }
+
+  public static Builder builder() {
+    return new Builder();
+  }
+
+  public static class Builder {
+    private CurieUtil curieUtil = CurieUtilBuilder.defaultCurieUtil();
+    private Set<String> wantedTermIdPrefixes = Collections.emptySet();
+    private PhaseRecorder phaseRecorder = PhaseRecorder.disabled();
+
+    public Builder curieUtil(CurieUtil curieUtil) {
+      Objects.requireNonNull(curieUtil);
+      this.curieUtil = curieUtil;
+      return this;
+    }
+
+    public Builder wantedTermIdPrefixes(Set<String> wantedTermIdPrefixes) {
+      Objects.requireNonNull(wantedTermIdPrefixes);
+      this.wantedTermIdPrefixes = wantedTermIdPrefixes;
+      return this;
+    }
+
+    /**
+     * Set the {@link PhaseRecorder} for the parse, CURIE mapping and term construction phases, and
+     * those of {@link OboParser#buildOntology()}.
+     */
+    public Builder phaseRecorder(PhaseRecorder phaseRecorder) {
+      Objects.requireNonNull(phaseRecorder);
+      this.phaseRecorder = phaseRecorder;
+      return this;
+    }
+
+    public OboParser build(Path path) throws IOException {
+      try (InputStream inputStream = Files.newInputStream(path)) {
+        return build(inputStream);
+      }
+    }
+
+    /**
+     * Parse an OBO document. The stream is read up to its end but not closed.
+     *
+     * @param inputStream UTF-8 encoded OBO document.
+     * @return The parsed terms and relationships.
+     * @throws IOException on problems reading the stream.
+     * @throws PhenolRuntimeException if the document is malformed.
+     */
+    public OboParser build(InputStream inputStream) throws IOException {
+      List<String> unmappedIdPrefixes = new ArrayList<>();
+      for (String prefix : wantedTermIdPrefixes) {
+        if (!curieUtil.getCurieMap().containsKey(prefix)) {
+          unmappedIdPrefixes.add(prefix);
+        }
+      }
+      if (!unmappedIdPrefixes.isEmpty()) {
+        String message = String.format("Unable to filter terms for prefix(s) %s as these not mapped. Add the mapping to CurieUtil.", unmappedIdPrefixes);
+        throw new PhenolRuntimeException(message);
+      }
+      BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8), 1 << 16);
+      return new StanzaParser(curieUtil, wantedTermIdPrefixes, phaseRecorder).parse(reader);
+    }
+  }
+
+  /** The kinds of frames of an OBO document. */
+  private enum FrameType {
+    HEADER, TERM, TYPEDEF, OTHER
+  }
+
+  /** An <code>is_a</code> or <code>relationship</code> line whose relation is resolved at the end of the document. */
+  private static final class RawEdge {
+    private final TermId subject;
+    /** OBO id of the relation, {@link #IS_A} or {@link #SUBPROPERTY_OF}. */
+    private final String relation;
+    private final TermId object;
+
+    RawEdge(TermId subject, String relation, TermId object) {
+      this.subject = subject;
+      this.relation = relation;
+      this.object = object;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) return true;
+      if (!(o instanceof RawEdge)) return false;
+      RawEdge that = (RawEdge) o;
+      return subject.equals(that.subject) && relation.equals(that.relation) && object.equals(that.object);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(subject, relation, object);
+    }
+  }
+
+  /** The tags of a <code>[Typedef]</code> stanza that are needed for resolving relations. */
+  private static final class Typedef {
+    private String name;
+    private final List<String> xrefs = new ArrayList<>();
+    private final List<String> parents = new ArrayList<>();
+    private boolean annotationOnly;
+  }
+
+  /** Parse state of one document. */
+  private static final class StanzaParser {
+
+    private final CurieUtil curieUtil;
+    private final Set<String> wantedTermIdPrefixes;
+    private final PhaseRecorder phaseRecorder;
+    /** Time spent in {@link #iriTermId(String)}, only measured if the phases are recorded. */
+    private long curieMappingNanos;
+    private int curieMappings;
+
+    /** Cache of OBO ids to their {@link TermId}, empty if the id is not mapped or not wanted. */
+    private final Map<String, Optional<TermId>> termIdCache = new HashMap<>();
+
+    private String ontologyId = DEFAULT_ONTOLOGY_ID;
+    private String dataVersion;
+    private final Map<String, String> idSpaces = new HashMap<>();
+    /** Property IRI and literal of the annotations in the <code>owl-axioms</code> header, by subject IRI. */
+    private final Map<String, List<String[]>> owlAnnotations = new HashMap<>();
+
+    private final List<Term> terms = new ArrayList<>();
+    private final Set<TermId> declaredTermIds = new HashSet<>();
+    private final Set<String> altIds = new LinkedHashSet<>();
+    private final Set<RawEdge> edges = new LinkedHashSet<>();
+    private final Map<String, Typedef> typedefs = new LinkedHashMap<>();
+
+    private int lineNumber;
+
+    // the current frame
+    private FrameType frameType = FrameType.HEADER;
+    private String id;
+    private Term.Builder termBuilder;
+    private List<TermId> termAltIds;
+    private List<SimpleXref> definitionXrefs;
+    private List<String> comments;
+    private List<String> subsets;
+    private List<TermSynonym> synonyms;
+    private List<Dbxref> xrefs;
+    private List<String[]> relations;
+    private Typedef typedef;
+
+    StanzaParser(CurieUtil curieUtil, Set<String> wantedTermIdPrefixes, PhaseRecorder phaseRecorder) {
+      this.curieUtil = curieUtil;
+      this.wantedTermIdPrefixes = wantedTermIdPrefixes;
+      this.phaseRecorder = phaseRecorder;
+    }
+
+    OboParser parse(BufferedReader reader) throws IOException {
+      try (PhaseRecorder.Phase phase = phaseRecorder.start(PhaseRecorder.PARSE)) {
+        parseLines(reader);
+        phase.count("lines", lineNumber)
+          .count("terms", terms.size())
+          .count("edges", edges.size());
+      }
+      List<Term> builtTerms;
+      try (PhaseRecorder.Phase phase = phaseRecorder.start(PhaseRecorder.TERM_CONSTRUCTION)) {
+        builtTerms = buildTerms();
+        phase.count("terms", builtTerms.size());
+      }
+      List<Relationship> builtRelationships;
+      try (PhaseRecorder.Phase phase = phaseRecorder.start(PhaseRecorder.RELATIONSHIP_CONSTRUCTION)) {
+        builtRelationships = buildRelationships();
+        phase.count("relationships", builtRelationships.size());
+      }
+      phaseRecorder.record(PhaseRecorder.CURIE_MAPPING, curieMappingNanos,
+        Collections.singletonMap("lookups", (long) curieMappings));
+      return new OboParser(metaInfo(), builtTerms, builtRelationships, phaseRecorder);
+    }
+
+    private void parseLines(BufferedReader reader) throws IOException {
+      String line;
+      while ((line = reader.readLine()) != null) {
+        ++lineNumber;
+        int start = lineNumber == 1 && line.startsWith("\uFEFF") ? 1 : 0;
+        while (start < line.length() && Character.isWhitespace(line.charAt(start))) {
+          ++start;
+        }
+        if (start == line.length() || line.charAt(start) == '!') {
+          continue;
+        }
+        if (line.charAt(start) == '[') {
+          endFrame();
+          int end = line.indexOf(']', start);
+          if (end < 0) {
+            throw error("unterminated stanza name", line);
+          }
+          startFrame(line.substring(start + 1, end).trim());
+          continue;
+        }
+        int colon = line.indexOf(':', start);
+        if (colon < 0) {
+          throw error("expected a tag-value pair", line);
+        }
+        String tag = line.substring(start, colon).trim();
+        String value = line.substring(colon + 1).trim();
+        switch (frameType) {
+          case HEADER:
+            headerTag(tag, value);
+            break;
+          case TERM:
+            termTag(tag, value, line);
+            break;
+          case TYPEDEF:
+            typedefTag(tag, value);
+            break;
+          default:
+            break;
+        }
+      }
+      endFrame();
+    }
+
+    private PhenolRuntimeException error(String message, String line) {
+      return new PhenolRuntimeException("OBO parse error in line " + lineNumber + ", " + message + ": " + line);
+    }
+
+    private void headerTag(String tag, String value) {
+      switch (tag) {
+        case "ontology":
+          ontologyId = unquoted(value);
+          break;
+        case "data-version":
+          dataVersion = unquoted(value);
+          break;
+        case "owl-axioms":
+          owlAxioms(value);
+          break;
+        case "idspace":
+          String[] tokens = unquoted(value).split("\\s+");
+          if (tokens.length >= 2) {
+            idSpaces.put(tokens[0], tokens[1]);
+          }
+          break;
+        default:
+          break;
+      }
+    }
+
+    private void owlAxioms(String value) {
+      StringBuilder builder = new StringBuilder(value.length());
+      for (int i = 0; i < value.length(); ++i) {
+        char c = value.charAt(i);
+        builder.append(c == '\\' && i + 1 < value.length() ? unescape(value.charAt(++i)) : c);
+      }
+      for (String axiom : builder.toString().split("\n")) {
+        Matcher annotation = OWL_ANNOTATION_ASSERTION.matcher(axiom);
+        if (annotation.lookingAt()) {
+          String property = annotation.group(1).startsWith("rdfs:")
+            ? RDFS + annotation.group(1).substring(5)
+            : annotation.group(1).substring(1, annotation.group(1).length() - 1);
+          String literal = annotation.group(3).replaceAll("\\\\(.)", "$1");
+          owlAnnotations.computeIfAbsent(annotation.group(2), iri -> new ArrayList<>()).add(new String[]{property, literal});
+          continue;
+        }
+        Matcher subClassOf = OWL_SUBCLASS_OF.matcher(axiom);
+        if (subClassOf.lookingAt()) {
+          TermId subject = iriTermId(subClassOf.group(1));
+          TermId object = iriTermId(subClassOf.group(2) != null ? subClassOf.group(2) : subClassOf.group(4));
+          if (subject != null && object != null) {
+            edges.add(new RawEdge(subject, subClassOf.group(2) != null ? IS_A : subClassOf.group(3), object));
+          }
+        }
+      }
+    }
+
+    private void applyOwlAnnotations(List<String[]> annotations) {
+      for (String[] annotation : annotations) {
+        String literal = annotation[1];
+        switch (annotation[0]) {
+          case OBO_IN_OWL + "hasExactSynonym":
+            synonyms.add(new TermSynonym(literal, TermSynonymScope.EXACT, "", ImmutableList.of(), null));
+            break;
+          case OBO_IN_OWL + "hasBroadSynonym":
+            synonyms.add(new TermSynonym(literal, TermSynonymScope.BROAD, "", ImmutableList.of(), null));
+            break;
+          case OBO_IN_OWL + "hasNarrowSynonym":
+            synonyms.add(new TermSynonym(literal, TermSynonymScope.NARROW, "", ImmutableList.of(), null));
+            break;
+          case OBO_IN_OWL + "hasRelatedSynonym":
+            synonyms.add(new TermSynonym(literal, TermSynonymScope.RELATED, "", ImmutableList.of(), null));
+            break;
+          case OBO_IN_OWL + "hasDbXref":
+            xrefs.add(new Dbxref(literal, null, null));
+            break;
+          case OBO_IN_OWL + "hasAlternativeId":
+            if (literal.indexOf(':') > 0) {
+              termAltIds.add(TermId.of(literal));
+            }
+            break;
+          case RDFS + "comment":
+            comments.add(literal);
+            break;
+          case RDFS + "label":
+            termBuilder.name(literal);
+            break;
+          default:
+            break;
+        }
+      }
+    }
+
+    private void startFrame(String name) {
+      id = null;
+      switch (name) {
+        case "Term":
+          frameType = FrameType.TERM;
+          termBuilder = Term.builder();
+          termAltIds = new ArrayList<>();
+          definitionXrefs = new ArrayList<>();
+          comments = new ArrayList<>();
+          subsets = new ArrayList<>();
+          synonyms = new ArrayList<>();
+          xrefs = new ArrayList<>();
+          relations = new ArrayList<>();
+          termBuilder.name("");
+          break;
+        case "Typedef":
+          frameType = FrameType.TYPEDEF;
+          typedef = new Typedef();
+          break;
+        default:
+          frameType = FrameType.OTHER;
+          break;
+      }
+    }
+
+    private void termTag(String tag, String value, String line) {
+      switch (tag) {
+        case "id":
+          id = unquoted(value);
+          break;
+        case "name":
+          termBuilder.name(unquoted(value));
+          break;
+        case "def":
+          int[] position = new int[1];
+          termBuilder.definition(quoted(value, position, line));
+          for (String xref : xrefList(value, position[0], line)) {
+            SimpleXref simpleXref = new SimpleXref(xref);
+            if (simpleXref.isValid()) {
+              definitionXrefs.add(simpleXref);
+            }
+          }
+          break;
+        case "comment":
+          comments.add(unquoted(value));
+          break;
+        case "subset":
+          subsets.add(oboIdToIri(unquoted(value)));
+          break;
+        case "synonym":
+          synonyms.add(synonym(value, null, line));
+          break;
+        case "exact_synonym":
+          synonyms.add(synonym(value, TermSynonymScope.EXACT, line));
+          break;
+        case "narrow_synonym":
+          synonyms.add(synonym(value, TermSynonymScope.NARROW, line));
+          break;
+        case "broad_synonym":
+          synonyms.add(synonym(value, TermSynonymScope.BROAD, line));
+          break;
+        case "related_synonym":
+          synonyms.add(synonym(value, TermSynonymScope.RELATED, line));
+          break;
+        case "xref":
+          String xref = firstToken(value);
+          if (!xref.isEmpty()) {
+            xrefs.add(new Dbxref(xref, null, null));
+          }
+          break;
+        case "alt_id":
+          String altId = unquoted(value);
+          if (altId.indexOf(':') <= 0) {
+            LOGGER.warn("Skipping alt_id without prefix in line {}: {}", lineNumber, line);
+            break;
+          }
+          termAltIds.add(TermId.of(altId));
+          altIds.add(altId);
+          break;
+        case "is_obsolete":
+          termBuilder.obsolete("true".equals(unquoted(value)));
+          break;
+        case "is_a":
+          relations.add(new String[]{IS_A, firstToken(value)});
+          break;
+        case "relationship":
+          String[] tokens = unquoted(value).split("\\s+");
+          if (tokens.length < 2) {
+            throw error("expected relation and target", line);
+          }
+          relations.add(new String[]{tokens[0], tokens[1]});
+          break;
+        default:
+          break;
+      }
+    }
+
+    private void typedefTag(String tag, String value) {
+      switch (tag) {
+        case "id":
+          id = unquoted(value);
+          break;
+        case "name":
+          typedef.name = unquoted(value);
+          break;
+        case "xref":
+          typedef.xrefs.add(firstToken(value));
+          break;
+        case "is_a":
+          typedef.parents.add(firstToken(value));
+          break;
+        case "is_metadata_tag":
+        case "is_class_level":
+          typedef.annotationOnly |= "true".equals(unquoted(value));
+          break;
+        default:
+          break;
+      }
+    }
+
+    private void endFrame() {
+      if (frameType == FrameType.TERM) {
+        endTerm();
+      } else if (frameType == FrameType.TYPEDEF && id != null) {
+        typedefs.put(id, typedef);
+      }
+      frameType = FrameType.OTHER;
+    }
+
+    private void endTerm() {
+      if (id == null) {
+        LOGGER.warn("Skipping [Term] stanza without id before line {}", lineNumber);
+        return;
+      }
+      TermId termId = classTermId(id);
+      if (termId == null) {
+        return;
+      }
+      if (!owlAnnotations.isEmpty()) {
+        List<String[]> annotations = owlAnnotations.get(oboIdToIri(id));
+        if (annotations != null) {
+          applyOwlAnnotations(annotations);
+        }
+      }
+      termBuilder.id(termId)
+        .altTermIds(termAltIds)
+        .databaseXrefs(definitionXrefs)
+        .subsets(subsets)
+        .synonyms(synonyms)
+        .xrefs(xrefs);
+      if (!comments.isEmpty()) {
+        termBuilder.comment(String.join(", ", comments));
+      }
+      terms.add(termBuilder.build());
+      declaredTermIds.add(termId);
+      for (String[] relation : relations) {
+        TermId object = classTermId(relation[1]);
+        if (object != null) {
+          edges.add(new RawEdge(termId, relation[0], object));
+        }
+      }
+    }
+
+    private List<Term> buildTerms() {
+      // the OBO to OWL mapping declares every alt_id as an obsolete class without label
+      Set<TermId> obsoleteAltTermIds = new LinkedHashSet<>();
+      for (String altId : altIds) {
+        TermId altTermId = classTermId(altId);
+        if (altTermId != null && !declaredTermIds.contains(altTermId)) {
+          obsoleteAltTermIds.add(altTermId);
+        }
+      }
+      ImmutableList.Builder<Term> result = ImmutableList.builder();
+      result.addAll(terms);
+      for (TermId altTermId : obsoleteAltTermIds) {
+        result.add(Term.builder().id(altTermId).name("").obsolete(true).build());
+      }
+      return result.build();
+    }
+
+    private List<Relationship> buildRelationships() {
+      Map<String, String> propertyLabels = new HashMap<>();
+      for (Map.Entry<String, Typedef> entry : typedefs.entrySet()) {
+        String iri = relationIri(entry.getKey());
+        if (entry.getValue().name != null) {
+          propertyLabels.put(iri, entry.getValue().name);
+        }
+        TermId subProperty = iriTermId(iri);
+        if (subProperty != null) {
+          for (String parent : entry.getValue().parents) {
+            TermId superProperty = iriTermId(relationIri(parent));
+            if (superProperty != null) {
+              edges.add(new RawEdge(subProperty, SUBPROPERTY_OF, superProperty));
+            }
+          }
+        }
+      }
+
+      ImmutableList.Builder<Relationship> result = ImmutableList.builder();
+      int edgeId = 1;
+      for (RawEdge edge : edges) {
+        String predicate;
+        if (edge.relation.equals(IS_A) || edge.relation.equals(SUBPROPERTY_OF)) {
+          predicate = edge.relation;
+        } else {
+          Typedef relation = typedefs.get(edge.relation);
+          if (relation != null && relation.annotationOnly) {
+            continue;
+          }
+          predicate = relationIri(edge.relation);
+        }
+        RelationshipType relationshipType = RelationshipType.of(predicate, propertyLabels.getOrDefault(predicate, "unknown"));
+        result.add(new Relationship(edge.subject, edge.object, edgeId++, relationshipType));
+      }
+      return result.build();
+    }
+
+    private Map<String, String> metaInfo() {
+      String version = "";
+      if (dataVersion != null) {
+        version = OBO_PURL + ontologyId + "/" + dataVersion + "/" + ontologyId + ".owl";
+      }
+      return ImmutableSortedMap.of("data-version", version);
+    }
+
+    private TermId classTermId(String oboId) {
+      Optional<TermId> cached = termIdCache.get(oboId);
+      if (cached == null) {
+        cached = Optional.ofNullable(iriTermId(oboIdToIri(oboId)));
+        termIdCache.put(oboId, cached);
+      }
+      return cached.orElse(null);
+    }
+
+    private TermId iriTermId(String iri) {
+      if (!phaseRecorder.isEnabled()) {
+        return contractIri(iri);
+      }
+      long start = System.nanoTime();
+      try {
+        return contractIri(iri);
+      } finally {
+        curieMappingNanos += System.nanoTime() - start;
+        ++curieMappings;
+      }
+    }
+
+    private TermId contractIri(String iri) {
+      Optional<String> curie = curieUtil.getCurie(iri);
+      if (!curie.isPresent()) {
+        LOGGER.warn("No matching curie found for id: {}", iri);
+        return null;
+      }
+      TermId result = TermId.of(curie.get());
+      // Note that GO has some Terms/Relations with RO and BFO that we want to skip
+      if (wantedTermIdPrefixes.isEmpty() || wantedTermIdPrefixes.contains(result.getPrefix())) {
+        return result;
+      }
+      return null;
+    }
+
+    /** Expand an OBO id to the IRI given to it by the OBO to OWL mapping. */
+    private String oboIdToIri(String oboId) {
+      if (oboId.startsWith("http:") || oboId.startsWith("https:") || oboId.startsWith("ftp:") || oboId.startsWith("urn:")) {
+        return oboId;
+      }
+      int colon = oboId.indexOf(':');
+      if (colon < 0) {
+        return OBO_PURL + ontologyId + "#" + oboId;
+      }
+      String prefix = oboId.substring(0, colon);
+      String idSpace = idSpaces.get(prefix);
+      if (idSpace != null) {
+        return idSpace + oboId.substring(colon + 1);
+      }
+      return OBO_PURL + prefix + "_" + oboId.substring(colon + 1);
+    }
+
+    /**
+     * @return IRI of a relation; a relation without prefix is replaced by the xref of its typedef,
+     *     with xrefs to RO and BFO taking precedence.
+     */
+    private String relationIri(String relation) {
+      String expanded = relation;
+      Typedef relationTypedef = relation.indexOf(':') < 0 ? typedefs.get(relation) : null;
+      if (relationTypedef != null) {
+        String match = null;
+        for (String xref : relationTypedef.xrefs) {
+          if (xref.equals(relation)) {
+            continue;
+          }
+          if (match == null || xref.startsWith("RO") || xref.startsWith("BFO")) {
+            match = xref;
+          }
+        }
+        if (match != null) {
+          expanded = match;
+        }
+      }
+      return oboIdToIri(expanded);
+    }
+
+    private TermSynonym synonym(String value, TermSynonymScope legacyScope, String line) {
+      int[] position = new int[1];
+      String text = quoted(value, position, line);
+      int bracket = indexOfUnescaped(value, '[', position[0]);
+      String[] tokens = unquoted(value.substring(position[0], bracket < 0 ? value.length() : bracket)).trim().split("\\s+");
+      int next = 0;
+      TermSynonymScope scope = legacyScope;
+      if (scope == null) {
+        scope = TermSynonymScope.RELATED;
+        if (tokens.length > 0 && !tokens[0].isEmpty()) {
+          switch (tokens[0]) {
+            case "EXACT":
+              scope = TermSynonymScope.EXACT;
+              ++next;
+              break;
+            case "BROAD":
+              scope = TermSynonymScope.BROAD;
+              ++next;
+              break;
+            case "NARROW":
+              scope = TermSynonymScope.NARROW;
+              ++next;
+              break;
+            case "RELATED":
+              ++next;
+              break;
+            default:
+              break;
+          }
+        }
+      }
+      String synonymType = null;
+      if (next < tokens.length && !tokens[next].isEmpty()) {
+        synonymType = oboIdToIri(tokens[next]);
+      }
+      ImmutableList.Builder<TermXref> termXrefs = ImmutableList.builder();
+      for (String xref : xrefList(value, position[0], line)) {
+        try {
+          termXrefs.add(new TermXref(TermId.of(xref), ""));
+        } catch (Exception e) {
+          // ignore cross-references that are no CURIEs
+        }
+      }
+      return new TermSynonym(text, scope, "", termXrefs.build(), synonymType);
+    }
+  }
+
+  /**
+   * Read the quoted string at the start of <code>value</code>.
+   *
+   * @param position Receives the index after the closing quote.
+   */
+  private static String quoted(String value, int[] position, String line) {
+    if (value.isEmpty() || value.charAt(0) != '"') {
+      throw new PhenolRuntimeException("OBO parse error, expected quoted string: " + line);
+    }
+    StringBuilder builder = new StringBuilder(value.length());
+    for (int i = 1; i < value.length(); ++i) {
+      char c = value.charAt(i);
+      if (c == '\\' && i + 1 < value.length()) {
+        builder.append(unescape(value.charAt(++i)));
+      } else if (c == '"') {
+        position[0] = i + 1;
+        return builder.toString();
+      } else {
+        builder.append(c);
+      }
+    }
+    throw new PhenolRuntimeException("OBO parse error, unterminated quoted string: " + line);
+  }
+
+  /** @return The ids of the bracketed, comma separated xref list after <code>from</code>. */
+  private static List<String> xrefList(String value, int from, String line) {
+    int open = indexOfUnescaped(value, '[', from);
+    if (open < 0) {
+      return Collections.emptyList();
+    }
+    List<String> result = new ArrayList<>();
+    StringBuilder xref = new StringBuilder();
+    boolean inId = true;
+    boolean inQuotes = false;
+    for (int i = open + 1; i < value.length(); ++i) {
+      char c = value.charAt(i);
+      if (c == '\\' && i + 1 < value.length()) {
+        char escaped = value.charAt(++i);
+        if (inId && !inQuotes) {
+          xref.append(unescape(escaped));
+        }
+      } else if (inQuotes) {
+        inQuotes = c != '"';
+      } else if (c == '"') {
+        inQuotes = true;
+        inId = false;
+      } else if (c == ',' || c == ']') {
+        String id = xref.toString().trim();
+        if (!id.isEmpty()) {
+          result.add(id);
+        }
+        if (c == ']') {
+          return result;
+        }
+        xref.setLength(0);
+        inId = true;
+      } else if (inId) {
+        if (Character.isWhitespace(c) && xref.toString().trim().length() > 0) {
+          inId = false;
+        } else {
+          xref.append(c);
+        }
+      }
+    }
+    throw new PhenolRuntimeException("OBO parse error, unterminated xref list: " + line);
+  }
+
+  /**
+   * @return The unescaped value without trailing qualifier block and comment.
+   */
+  private static String unquoted(String value) {
+    StringBuilder builder = new StringBuilder(value.length());
+    for (int i = 0; i < value.length(); ++i) {
+      char c = value.charAt(i);
+      if (c == '\\' && i + 1 < value.length()) {
+        builder.append(unescape(value.charAt(++i)));
+      } else if (c == '!') {
+        break;
+      } else if (c == '{' && isQualifierBlock(value, i)) {
+        break;
+      } else {
+        builder.append(c);
+      }
+    }
+    return builder.toString().trim();
+  }
+
+  /** @return Whether the <code>{</code> at <code>start</code> opens a qualifier block ending the value. */
+  private static boolean isQualifierBlock(String value, int start) {
+    if (start > 0 && !Character.isWhitespace(value.charAt(start - 1))) {
+      return false;
+    }
+    int close = value.indexOf('}', start);
+    if (close < 0) {
+      return false;
+    }
+    String rest = value.substring(close + 1).trim();
+    return rest.isEmpty() || rest.charAt(0) == '!';
+  }
+
+  private static String firstToken(String value) {
+    String unquoted = unquoted(value);
+    int end = 0;
+    while (end < unquoted.length() && !Character.isWhitespace(unquoted.charAt(end)) && unquoted.charAt(end) != '"') {
+      ++end;
+    }
+    return unquoted.substring(0, end);
+  }
+
+  private static int indexOfUnescaped(String value, char c, int from) {
+    for (int i = from; i < value.length(); ++i) {
+      char current = value.charAt(i);
+      if (current == '\\') {
+        ++i;
+      } else if (current == c) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  private static char unescape(char c) {
+    switch (c) {
+      case 'n':
+        return '\n';
+      case 't':
+        return '\t';
+      case 'W':
+        return ' ';
+      default:
+        return c;
+    }
+  }
+}
@@ -0,0 +1,4 @@
+/**
+ * Native parser for ontologies in the OBO 1.4 flat file format.
+ */
+package org.monarchinitiative.phenol.io.obo;
@@ -0,0 +1,82 @@
+package org.monarchinitiative.phenol.io.obographs;
+
+import org.prefixcommons.CurieUtil;
+
+import java.util.HashSet;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Thread-safe cache of the {@link CurieUtil} prefix lookups, keyed by the namespace of the IRI, i.e. the IRI up to and
+ * including its last <code>/</code>, <code>#</code>, <code>_</code> or <code>:</code>. The ontologies contain many IRIs
+ * per namespace, so after the first IRI of a namespace has been matched against the prefix trie the CURIE of the others
+ * only needs a hash lookup and a string concatenation.
+ * <p>
+ * The result is the same as {@link CurieUtil#getCurie(String)}. Namespaces which are the start of a longer expansion,
+ * e.g. <code>http://example.org/</code> for the expansion <code>http://example.org/HP</code>, can match differently
+ * depending on the local part of the IRI and are always passed to the {@link CurieUtil}.
+ */
+final class CurieCache {
+
+  private final CurieUtil curieUtil;
+
+  /** Namespaces for which the matching expansion depends on the local part of the IRI. */
+  private final Set<String> ambiguousNamespaces = new HashSet<>();
+
+  /**
+   * Namespace to the start of the CURIEs of its IRIs, i.e. the CURIE prefix, the colon and anything following the
+   * expansion in the namespace, or {@link #NO_MATCH} if there is no matching expansion.
+   */
+  private final ConcurrentMap<String, String> curieStarts = new ConcurrentHashMap<>();
+
+  private static final String NO_MATCH = "";
+
+  CurieCache(CurieUtil curieUtil) {
+    this.curieUtil = curieUtil;
+    for (String expansion : curieUtil.getCurieMap().values()) {
+      int end = namespaceEnd(expansion);
+      if (end < expansion.length()) {
+        ambiguousNamespaces.add(expansion.substring(0, end));
+      }
+    }
+  }
+
+  /**
+   * @param iri the IRI to compact.
+   * @return The CURIE of the IRI, as {@link CurieUtil#getCurie(String)}.
+   */
+  Optional<String> getCurie(String iri) {
+    int end = namespaceEnd(iri);
+    if (end == 0) {
+      return curieUtil.getCurie(iri);
+    }
+    String namespace = iri.substring(0, end);
+    if (ambiguousNamespaces.contains(namespace)) {
+      return curieUtil.getCurie(iri);
+    }
+    String curieStart = curieStarts.get(namespace);
+    if (curieStart == null) {
+      // no expansion ends after the namespace, so the CURIE is the start for the namespace followed by the local part
+      Optional<String> curie = curieUtil.getCurie(iri);
+      curieStart = curie.map(value -> value.substring(0, value.length() - (iri.length() - end))).orElse(NO_MATCH);
+      curieStarts.putIfAbsent(namespace, curieStart);
+      return curie;
+    }
+    if (curieStart.isEmpty()) {
+      return Optional.empty();
+    }
+    return Optional.of(curieStart + iri.substring(end));
+  }
+
+  private static int namespaceEnd(String iri) {
+    for (int i = iri.length() - 1; i >= 0; i--) {
+      char c = iri.charAt(i);
+      if (c == '/' || c == '#' || c == '_' || c == ':') {
+        return i + 1;
+      }
+    }
+    return 0;
+  }
+}
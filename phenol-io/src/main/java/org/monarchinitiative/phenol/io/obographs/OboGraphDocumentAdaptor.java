@@ -1,5 +1,8 @@
 package org.monarchinitiative.phenol.io.obographs;
 
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSortedMap;
@@ -8,11 +11,19 @@ import org.geneontology.obographs.model.meta.BasicPropertyValue;
 import org.monarchinitiative.phenol.base.PhenolRuntimeException;
 import org.monarchinitiative.phenol.io.utils.CurieUtilBuilder;
 import org.monarchinitiative.phenol.ontology.data.*;
+import org.monarchinitiative.phenol.utils.PhaseRecorder;
 import org.prefixcommons.CurieUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 import static java.util.stream.Collectors.toMap;
 
@@ -30,11 +41,13 @@ public class OboGraphDocumentAdaptor {
   private final Map<String, String> metaInfo;
   private final List<Term> terms;
   private final List<Relationship> relationships;
+  private final PhaseRecorder phaseRecorder;
 
   private OboGraphDocumentAdaptor(Builder builder) {
     this.metaInfo = builder.metaInfo;
     this.terms = builder.terms;
     this.relationships = builder.relationships;
+    this.phaseRecorder = builder.phaseRecorder;
   }
 
   public Map<String, String> getMetaInfo() {
@@ -54,6 +67,7 @@ public class OboGraphDocumentAdaptor {
       .metaInfo(metaInfo)
       .terms(terms)
       .relationships(relationships)
+      .phaseRecorder(phaseRecorder)
       .build();
   }
 
@@ -62,10 +76,18 @@ public class OboGraphDocumentAdaptor {
   }
 
   public static class Builder {
+    // Number of nodes or edges converted by one task, smaller lists are converted on the calling thread.
+    private static final int CHUNK_SIZE = 2048;
+
     // Factory object that adds OBO-typical data to each term.
     private OboGraphTermFactory factory = new OboGraphTermFactory();
     private CurieUtil curieUtil = CurieUtilBuilder.defaultCurieUtil();
     private Set<String> wantedTermIdPrefixes = Collections.emptySet();
+    private CurieCache curieCache;
+    private PhaseRecorder phaseRecorder = PhaseRecorder.disabled();
+    // Time spent in and number of calls to getTermIdOrNull, only measured if the phases are recorded.
+    private final LongAdder curieMappingNanos = new LongAdder();
+    private final LongAdder curieMappings = new LongAdder();
 
     private Map<String, String> metaInfo;
     private List<Term> terms;
@@ -83,16 +105,21 @@ public class OboGraphDocumentAdaptor {
       return this;
     }
 
+    /**
+     * Set the {@link PhaseRecorder} for the parse, CURIE mapping, term and relationship construction
+     * phases, and those of {@link OboGraphDocumentAdaptor#buildOntology()}.
+     */
+    public Builder phaseRecorder(PhaseRecorder phaseRecorder) {
+      Objects.requireNonNull(phaseRecorder);
+      this.phaseRecorder = phaseRecorder;
+      return this;
+    }
+
     public OboGraphDocumentAdaptor build(GraphDocument graphDocument) {
-      // check the curieUtil contains a mapping for the requested prefixes otherwise
-      // they will not be included in the output and users will not get the graph they asked for
-      List<String> unMappedIdPrefixes = getWantedButUnmappedIdPrefixes();
-      if (!unMappedIdPrefixes.isEmpty()) {
-        String message = String.format("Unable to filter terms for prefix(s) %s as these not mapped. Add the mapping to CurieUtil.", unMappedIdPrefixes);
-        throw new PhenolRuntimeException(message);
-      }
+      checkWantedIdPrefixesAreMapped();
 
       Graph oboGraph = getFirstGraph(graphDocument);
+      this.curieCache = new CurieCache(curieUtil);
 
       LOGGER.debug("Converting graph document...");
       LOGGER.debug("Converting metadata...");
@@ -102,11 +129,199 @@ public class OboGraphDocumentAdaptor {
       this.terms = convertNodesToTerms(oboGraph.getNodes());
       LOGGER.debug("Converting edges to relationships...");
       // Mapping edges in obographs to termIds in phenol
-      this.relationships = convertEdgesToRelationships(oboGraph.getEdges(), oboGraph.getNodes());
+      this.relationships = convertEdgesToRelationships(oboGraph.getEdges(), getPropertyIdLabels(oboGraph.getNodes()));
+      recordCurieMapping();
 
       return new OboGraphDocumentAdaptor(this);
     }
 
+    /**
+     * Convert an obographs JSON document while reading it with Jackson's streaming parser, without materializing the
+     * {@link GraphDocument}. Only the {@link Meta} of each wanted node is bound to an object, nodes with unwanted or
+     * unmapped ids are skipped token by token. The result is the same as converting the document loaded by {@link
+     * OboGraphDocumentLoader#loadJson(InputStream)} with {@link #build(GraphDocument)}.
+     *
+     * @param inputStream obographs JSON document, not closed by this method.
+     * @return The converted document.
+     * @throws IOException on problems reading or parsing the JSON.
+     */
+    public OboGraphDocumentAdaptor buildFromJson(InputStream inputStream) throws IOException {
+      checkWantedIdPrefixesAreMapped();
+      this.curieCache = new CurieCache(curieUtil);
+      ObjectMapper objectMapper = new ObjectMapper();
+      try (JsonParser parser = objectMapper.getFactory().createParser(inputStream)) {
+        parser.disable(JsonParser.Feature.AUTO_CLOSE_SOURCE);
+        expect(parser, parser.nextToken(), JsonToken.START_OBJECT);
+        boolean graphFound = false;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+          JsonToken token = parser.nextToken();
+          if ("graphs".equals(parser.getCurrentName()) && token == JsonToken.START_ARRAY) {
+            while (parser.nextToken() == JsonToken.START_OBJECT) {
+              if (graphFound) {
+                parser.skipChildren();
+              } else {
+                // We assume there is only one graph instance in the graph document instance.
+                readGraph(parser, objectMapper);
+                graphFound = true;
+              }
+            }
+          } else {
+            parser.skipChildren();
+          }
+        }
+        if (!graphFound) {
+          throw new PhenolRuntimeException("GraphDocument is empty");
+        }
+      }
+      recordCurieMapping();
+      return new OboGraphDocumentAdaptor(this);
+    }
+
+    private void readGraph(JsonParser parser, ObjectMapper objectMapper) throws IOException {
+      LOGGER.debug("Converting graph document...");
+      this.metaInfo = convertMetaData(null);
+      List<Node> classNodes = null;
+      List<Edge> edges = null;
+      Map<String, String> propertyIdLabels = new HashMap<>();
+      try (PhaseRecorder.Phase phase = phaseRecorder.start(PhaseRecorder.PARSE)) {
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+          String field = parser.getCurrentName();
+          JsonToken token = parser.nextToken();
+          if ("meta".equals(field) && token == JsonToken.START_OBJECT) {
+            LOGGER.debug("Converting metadata...");
+            this.metaInfo = convertMetaData(objectMapper.readValue(parser, Meta.class));
+          } else if ("nodes".equals(field) && token == JsonToken.START_ARRAY) {
+            classNodes = new ArrayList<>();
+            while (parser.nextToken() == JsonToken.START_OBJECT) {
+              Node node = readNode(parser, objectMapper, propertyIdLabels);
+              if (node != null) {
+                classNodes.add(node);
+              }
+            }
+          } else if ("edges".equals(field) && token == JsonToken.START_ARRAY) {
+            edges = new ArrayList<>();
+            while (parser.nextToken() == JsonToken.START_OBJECT) {
+              edges.add(readEdge(parser));
+            }
+          } else {
+            parser.skipChildren();
+          }
+        }
+        phase.count("nodes", classNodes == null ? 0 : classNodes.size())
+          .count("edges", edges == null ? 0 : edges.size());
+      }
+      LOGGER.debug("Converting nodes to terms...");
+      this.terms = convertNodesToTerms(classNodes);
+      LOGGER.debug("Converting edges to relationships...");
+      this.relationships = convertEdgesToRelationships(edges, propertyIdLabels);
+    }
+
+    /**
+     * Read one node; the labels of property nodes are kept for naming the relationship types.
+     *
+     * @return The node if it is a class with a wanted id, otherwise <code>null</code>.
+     */
+    private Node readNode(JsonParser parser, ObjectMapper objectMapper, Map<String, String> propertyIdLabels)
+      throws IOException {
+      String id = null;
+      TermId termId = null;
+      String label = null;
+      Node.RDFTYPES type = null;
+      Meta meta = null;
+      while (parser.nextToken() == JsonToken.FIELD_NAME) {
+        String field = parser.getCurrentName();
+        JsonToken token = parser.nextToken();
+        switch (field) {
+          case "id":
+            id = parser.getValueAsString();
+            break;
+          case "lbl":
+            label = parser.getValueAsString();
+            break;
+          case "type":
+            type = rdfType(parser.getValueAsString());
+            break;
+          case "meta":
+            // the meta data is only needed for wanted classes, skip it as soon as it is known to be unneeded
+            boolean unwanted = type != null && type != Node.RDFTYPES.CLASS;
+            if (!unwanted && id != null && termId == null) {
+              termId = getTermIdOrNull(id);
+              unwanted = termId == null;
+            }
+            if (unwanted || token != JsonToken.START_OBJECT) {
+              parser.skipChildren();
+            } else {
+              meta = objectMapper.readValue(parser, Meta.class);
+            }
+            break;
+          default:
+            parser.skipChildren();
+            break;
+        }
+      }
+      if (id == null) {
+        return null;
+      }
+      if (type == Node.RDFTYPES.CLASS && (termId != null || getTermIdOrNull(id) != null)) {
+        return new Node.Builder().id(id).label(label).type(type).meta(meta).build();
+      }
+      if (type == Node.RDFTYPES.PROPERTY && label != null) {
+        propertyIdLabels.put(id, label);
+      }
+      return null;
+    }
+
+    /** @return The edge with its subject, predicate and object. */
+    private Edge readEdge(JsonParser parser) throws IOException {
+      Edge.Builder edge = new Edge.Builder();
+      while (parser.nextToken() == JsonToken.FIELD_NAME) {
+        String field = parser.getCurrentName();
+        parser.nextToken();
+        switch (field) {
+          case "sub":
+            edge.sub(parser.getValueAsString());
+            break;
+          case "pred":
+            edge.pred(parser.getValueAsString());
+            break;
+          case "obj":
+            edge.obj(parser.getValueAsString());
+            break;
+          default:
+            parser.skipChildren();
+            break;
+        }
+      }
+      return edge.build();
+    }
+
+    private static Node.RDFTYPES rdfType(String type) {
+      if (type == null) {
+        return null;
+      }
+      try {
+        return Node.RDFTYPES.valueOf(type);
+      } catch (IllegalArgumentException e) {
+        return null;
+      }
+    }
+
+    private static void expect(JsonParser parser, JsonToken actual, JsonToken expected) {
+      if (actual != expected) {
+        throw new PhenolRuntimeException("Expected " + expected + " but found " + actual + " at " + parser.getCurrentLocation());
+      }
+    }
+
+    private void checkWantedIdPrefixesAreMapped() {
+      // check the curieUtil contains a mapping for the requested prefixes otherwise
+      // they will not be included in the output and users will not get the graph they asked for
+      List<String> unMappedIdPrefixes = getWantedButUnmappedIdPrefixes();
+      if (!unMappedIdPrefixes.isEmpty()) {
+        String message = String.format("Unable to filter terms for prefix(s) %s as these not mapped. Add the mapping to CurieUtil.", unMappedIdPrefixes);
+        throw new PhenolRuntimeException(message);
+      }
+    }
+
     private Graph getFirstGraph(GraphDocument graphDocument) {
       Objects.requireNonNull(graphDocument);
       List<Graph> graphs = graphDocument.getGraphs();
@@ -148,53 +363,124 @@ public class OboGraphDocumentAdaptor {
     }
 
     private List<Term> convertNodesToTerms(List<Node> nodes) {
-      ImmutableList.Builder<Term> termsList = new ImmutableList.Builder<>();
       if (nodes == null) {
         LOGGER.warn("No nodes found in loaded ontology.");
         throw new PhenolRuntimeException("PhenolException: No nodes found in loaded ontology.");
       }
-      // Mapping nodes in obographs to termIds in phenol
+      long start = System.nanoTime();
+      List<Term> terms;
+      try (PhaseRecorder.Phase phase = phaseRecorder.start(PhaseRecorder.TERM_CONSTRUCTION)) {
+        // Mapping nodes in obographs to termIds in phenol
+        terms = ImmutableList.copyOf(convertInChunks(nodes, this::convertNodeChunk));
+        phase.count("nodes", nodes.size()).count("terms", terms.size());
+      }
+      LOGGER.debug("Converted {} nodes to {} terms in {} ms", nodes.size(), terms.size(), elapsedMillis(start));
+      return terms;
+    }
+
+    private List<Term> convertNodeChunk(List<Node> nodes) {
+      List<Term> terms = new ArrayList<>(nodes.size());
       for (Node node : nodes) {
-//        LOGGER.info("{} {} {}", node.getType(), node.getId(), node.getLabel());
         // only take classes, otherwise we may get some OIO and IAO entities
         if (node.getType() != null && node.getType() == Node.RDFTYPES.CLASS) {
           TermId termId = getTermIdOrNull(node.getId());
           if (termId != null) {
-            Term term = factory.constructTerm(node, termId);
-            termsList.add(term);
+            terms.add(factory.constructTerm(node, termId));
           }
         }
       }
-      return termsList.build();
+      return terms;
     }
 
-    private List<Relationship> convertEdgesToRelationships(List<Edge> edges, List<Node> nodes) {
-      Map<String, String> propertyIdLabels = nodes.stream()
+    private static Map<String, String> getPropertyIdLabels(List<Node> nodes) {
+      if (nodes == null) {
+        return Collections.emptyMap();
+      }
+      return nodes.stream()
         .filter(node -> node.getType() == Node.RDFTYPES.PROPERTY)
         .filter(node -> node.getId() != null && node.getLabel() != null)
         .collect(toMap(Node::getId, Node::getLabel));
+    }
 
-      ImmutableList.Builder<Relationship> relationshipsList = new ImmutableList.Builder<>();
+    private List<Relationship> convertEdgesToRelationships(List<Edge> edges, Map<String, String> propertyIdLabels) {
       if (edges == null) {
         LOGGER.warn("No edges found in loaded ontology.");
         throw new PhenolRuntimeException("No edges found in loaded ontology.");
       }
+      long start = System.nanoTime();
+      ImmutableList.Builder<Relationship> relationshipsList = new ImmutableList.Builder<>();
       int edgeId = 1;
+      try (PhaseRecorder.Phase phase = phaseRecorder.start(PhaseRecorder.RELATIONSHIP_CONSTRUCTION)) {
+        // The ids are assigned afterwards in the order of the edges, so they do not depend on the scheduling of the chunks.
+        List<Relationship> unnumbered = convertInChunks(edges, chunk -> convertEdgeChunk(chunk, propertyIdLabels));
+        for (Relationship relationship : unnumbered) {
+          relationshipsList.add(new Relationship(relationship.getSource(), relationship.getTarget(), edgeId++, relationship.getRelationshipType()));
+        }
+        phase.count("edges", edges.size()).count("relationships", edgeId - 1);
+      }
+      LOGGER.debug("Converted {} edges to {} relationships in {} ms", edges.size(), edgeId - 1, elapsedMillis(start));
+      return relationshipsList.build();
+    }
+
+    /** @return The relationships of the edges between wanted terms, with id 0. */
+    private List<Relationship> convertEdgeChunk(List<Edge> edges, Map<String, String> propertyIdLabels) {
+      List<Relationship> relationships = new ArrayList<>(edges.size());
       for (Edge edge : edges) {
         TermId subjectTermId = getTermIdOrNull(edge.getSub());
         TermId objectTermId = getTermIdOrNull(edge.getObj());
 
         if (subjectTermId != null && objectTermId != null) {
           RelationshipType relType = RelationshipType.of(edge.getPred(), propertyIdLabels.getOrDefault(edge.getPred(), "unknown"));
-          Relationship relationship = new Relationship(subjectTermId, objectTermId, edgeId++, relType);
-          relationshipsList.add(relationship);
+          relationships.add(new Relationship(subjectTermId, objectTermId, 0, relType));
         }
       }
-      return relationshipsList.build();
+      return relationships;
+    }
+
+    /**
+     * Apply the converter to consecutive chunks of the items on the common fork join pool.
+     *
+     * @return The concatenated results, in the order of the items.
+     */
+    private static <T, R> List<R> convertInChunks(List<T> items, Function<List<T>, List<R>> converter) {
+      if (items.size() <= CHUNK_SIZE) {
+        return converter.apply(items);
+      }
+      int chunks = (items.size() + CHUNK_SIZE - 1) / CHUNK_SIZE;
+      List<List<R>> converted = IntStream.range(0, chunks)
+        .parallel()
+        .mapToObj(chunk -> converter.apply(items.subList(chunk * CHUNK_SIZE, Math.min(items.size(), (chunk + 1) * CHUNK_SIZE))))
+        .collect(Collectors.toList());
+      List<R> result = new ArrayList<>(items.size());
+      converted.forEach(result::addAll);
+      return result;
+    }
+
+    private static long elapsedMillis(long startNanos) {
+      return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+    }
+
+    /** Record the time spent mapping ids to CURIEs so far, summed over the converting threads. */
+    private void recordCurieMapping() {
+      phaseRecorder.record(PhaseRecorder.CURIE_MAPPING, curieMappingNanos.sumThenReset(),
+        Collections.singletonMap("lookups", curieMappings.sumThenReset()));
     }
 
     private TermId getTermIdOrNull(String id) {
-      Optional<String> curie = curieUtil.getCurie(id);
+      if (!phaseRecorder.isEnabled()) {
+        return contractId(id);
+      }
+      long start = System.nanoTime();
+      try {
+        return contractId(id);
+      } finally {
+        curieMappingNanos.add(System.nanoTime() - start);
+        curieMappings.increment();
+      }
+    }
+
+    private TermId contractId(String id) {
+      Optional<String> curie = curieCache.getCurie(id);
       if (!curie.isPresent()) {
         LOGGER.warn("No matching curie found for id: {}", id);
         return null;
@@ -25,6 +25,8 @@ public class OboGraphTermFactory {
 
   private static final Logger LOGGER = LoggerFactory.getLogger(OboGraphTermFactory.class);
 
+  private static final Field DEPRECATED_FIELD = getDeprecatedField();
+
   public Term constructTerm(Node node, TermId termId) {
     Term.Builder termBuilder = Term.builder();
     termBuilder.id(termId);
@@ -176,11 +178,23 @@ public class OboGraphTermFactory {
   }
 
 
-  private boolean isObsolete(Meta meta) {
+  private static Field getDeprecatedField() {
     try {
       Field f = Meta.class.getDeclaredField("deprecated");
       f.setAccessible(true);
-      Boolean deprecated = (Boolean) f.get(meta);
+      return f;
+    } catch (Exception e) {
+      LOGGER.error(e.getMessage());
+      return null;
+    }
+  }
+
+  private boolean isObsolete(Meta meta) {
+    if (DEPRECATED_FIELD == null) {
+      return false;
+    }
+    try {
+      Boolean deprecated = (Boolean) DEPRECATED_FIELD.get(meta);
       if (deprecated == null) {
         return false;
       } else {
@@ -0,0 +1,155 @@
+package org.monarchinitiative.phenol.io.ser;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Output stream compressing blocks of its input in parallel, each into a gzip member of its own.
+ *
+ * <p>The members are written in order, so the result is a valid multi-member gzip file that {@link
+ * java.util.zip.GZIPInputStream} and other gzip readers decompress to the concatenated blocks. The
+ * blocks are compressed independently, which costs a little compression ratio for the ability to
+ * use several cores. At most a fixed number of blocks are in flight, so the memory use does not
+ * grow with the size of the payload.
+ */
+final class BlockGzipOutputStream extends OutputStream {
+
+  /** Size of the uncompressed blocks. */
+  static final int BLOCK_SIZE = 1 << 20;
+
+  private final OutputStream out;
+
+  /** Deflater level of the blocks. */
+  private final int level;
+
+  private final Executor executor;
+
+  /** Maximal number of blocks being compressed while the input is filling the next one. */
+  private final int maxPending;
+
+  /** Blocks being compressed, in order. */
+  private final Deque<CompletableFuture<byte[]>> pending = new ArrayDeque<>();
+
+  private byte[] block = new byte[BLOCK_SIZE];
+
+  /** Number of bytes in {@link #block}. */
+  private int count;
+
+  /** Whether a block has been submitted, as an empty payload still needs one gzip member. */
+  private boolean submitted;
+
+  private boolean closed;
+
+  /**
+   * @param out Stream to write the gzip members to, closed by {@link #close()}.
+   * @param level Deflater compression level, see {@link java.util.zip.Deflater#setLevel(int)}.
+   * @param executor {@link Executor} compressing the blocks.
+   * @param maxPending Maximal number of blocks being compressed at the same time.
+   */
+  BlockGzipOutputStream(OutputStream out, int level, Executor executor, int maxPending) {
+    this.out = out;
+    this.level = level;
+    this.executor = executor;
+    this.maxPending = maxPending;
+  }
+
+  @Override
+  public void write(int b) throws IOException {
+    if (count == block.length) {
+      submitBlock();
+    }
+    block[count++] = (byte) b;
+  }
+
+  @Override
+  public void write(byte[] b, int off, int len) throws IOException {
+    while (len > 0) {
+      if (count == block.length) {
+        submitBlock();
+      }
+      final int n = Math.min(len, block.length - count);
+      System.arraycopy(b, off, block, count, n);
+      count += n;
+      off += n;
+      len -= n;
+    }
+  }
+
+  /** Compress the buffered input as a (short) block of its own and write all pending blocks. */
+  @Override
+  public void flush() throws IOException {
+    if (count > 0) {
+      submitBlock();
+    }
+    while (!pending.isEmpty()) {
+      writeFirstBlock();
+    }
+    out.flush();
+  }
+
+  @Override
+  public void close() throws IOException {
+    if (closed) {
+      return;
+    }
+    closed = true;
+    try {
+      if (!submitted) {
+        submitBlock();
+      }
+      flush();
+    } finally {
+      out.close();
+    }
+  }
+
+  private void submitBlock() throws IOException {
+    final byte[] data = block;
+    final int length = count;
+    pending.add(CompletableFuture.supplyAsync(() -> compress(data, length), executor));
+    submitted = true;
+    block = new byte[BLOCK_SIZE];
+    count = 0;
+    while (pending.size() > maxPending) {
+      writeFirstBlock();
+    }
+  }
+
+  private void writeFirstBlock() throws IOException {
+    final byte[] member;
+    try {
+      member = pending.remove().join();
+    } catch (CompletionException e) {
+      throw new IOException("Could not compress block", e.getCause());
+    }
+    out.write(member);
+  }
+
+  /** @return The first <code>length</code> bytes of <code>data</code> as gzip member. */
+  private byte[] compress(byte[] data, int length) {
+    final ByteArrayOutputStream result = new ByteArrayOutputStream(length / 2 + 64);
+    try (GZIPOutputStream gzipOutputStream = new LeveledGzipOutputStream(result, level)) {
+      gzipOutputStream.write(data, 0, length);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    return result.toByteArray();
+  }
+
+  /** {@link GZIPOutputStream} with configurable compression level. */
+  private static final class LeveledGzipOutputStream extends GZIPOutputStream {
+
+    LeveledGzipOutputStream(OutputStream out, int level) throws IOException {
+      super(out, 8192);
+      def.setLevel(level);
+    }
+  }
+}
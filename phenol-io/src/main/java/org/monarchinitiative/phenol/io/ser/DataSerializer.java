@@ -1,14 +1,19 @@
 package org.monarchinitiative.phenol.io.ser;
 
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
+import java.io.OutputStream;
 import java.util.Arrays;
 import java.util.Properties;
+import java.util.concurrent.ForkJoinPool;
+import java.util.zip.Deflater;
 import java.util.zip.GZIPInputStream;
-import java.util.zip.GZIPOutputStream;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -16,10 +21,30 @@ import org.slf4j.LoggerFactory;
 /**
  * Manager for serializing and deserializing objects.
  *
+ * <p>The data is written after the magic bytes as Java serialization stream, compressed as
+ * selected by {@link Compression}. Large payloads are compressed in blocks of 1 MiB in parallel,
+ * each block as gzip member of its own, so the file stays a plain gzip stream after the magic bytes.
+ * Loading detects whether the stream is compressed, so files written with any {@link Compression},
+ * also by earlier versions, can be read. Objects with a compact serialized form, such as {@link
+ * org.monarchinitiative.phenol.ontology.data.ImmutableOntology}, are written in that form.
+ *
  * @author <a href="mailto:manuel.holtgrewe@charite.de">Manuel Holtgrewe</a>
  */
 public final class DataSerializer {
 
+  /** Compression of the serialized data. */
+  public enum Compression {
+    /** No compression, the fastest choice for local storage. */
+    NONE,
+    /** gzip with the fastest compression level. */
+    FAST,
+    /** gzip with the default compression level. */
+    GZIP
+  }
+
+  /** The two bytes starting a gzip member. */
+  private static final int GZIP_MAGIC = 0x1f8b;
+
   /** Logger object to use */
   private final Logger LOGGER = LoggerFactory.getLogger(this.getClass());
 
@@ -32,6 +57,9 @@ public final class DataSerializer {
   /** Minimal supported version of Jannovar in this version */
   private final String minVersion;
 
+  /** Compression used by {@link #save(Object)} */
+  private final Compression compression;
+
   /** @return Version string loaded from {@code /project.properties}. */
   public static String getVersion() {
     final Properties properties = new Properties();
@@ -52,9 +80,22 @@ public final class DataSerializer {
    * @param minVersion String with minimal
    */
   public DataSerializer(byte[] magicBytes, String minVersion, String filename) {
+    this(magicBytes, minVersion, filename, Compression.GZIP);
+  }
+
+  /**
+   * Initialize the (de)serializer with the path to the file to load/save.
+   *
+   * @param filename path to the file to deserialize from or serialize to
+   * @param magicBytes magic bytes to expect at beginning of file
+   * @param minVersion String with minimal
+   * @param compression {@link Compression} for saving
+   */
+  public DataSerializer(byte[] magicBytes, String minVersion, String filename, Compression compression) {
     this.magicBytes = magicBytes;
     this.minVersion = minVersion;
     this.filename = filename;
+    this.compression = compression;
   }
 
   /**
@@ -71,8 +112,8 @@ public final class DataSerializer {
       // write magic bytes at top of file (before compression)
       fos.write(magicBytes);
       fos.flush();
-      try (GZIPOutputStream gzos = new GZIPOutputStream(fos);
-          ObjectOutputStream oos = new ObjectOutputStream(gzos)) {
+      try (OutputStream os = compressingStream(fos);
+          ObjectOutputStream oos = new ObjectOutputStream(os)) {
         // Write version
         final String version = getVersion();
         oos.writeObject(version);
@@ -80,8 +121,6 @@ public final class DataSerializer {
         oos.writeObject(data);
         // Make sure everything is written out.
         oos.flush();
-        gzos.flush();
-        fos.flush();
       }
     } catch (Exception e) {
       throw new SerializationException("Could not serialize data file.", e);
@@ -92,6 +131,21 @@ public final class DataSerializer {
         new Object[] {(System.nanoTime() - startTime) / 1_000_000_000.0});
   }
 
+  /** @return Stream compressing into <code>out</code> as selected by {@link #compression}. */
+  private OutputStream compressingStream(OutputStream out) {
+    // at most two blocks per core wait for compression, bounding the memory use
+    final int maxPending = 2 * ForkJoinPool.getCommonPoolParallelism();
+    switch (compression) {
+      case NONE:
+        return new BufferedOutputStream(out, 1 << 16);
+      case FAST:
+        return new BlockGzipOutputStream(out, Deflater.BEST_SPEED, ForkJoinPool.commonPool(), maxPending);
+      case GZIP:
+      default:
+        return new BlockGzipOutputStream(out, Deflater.DEFAULT_COMPRESSION, ForkJoinPool.commonPool(), maxPending);
+    }
+  }
+
   /**
    * Deserialize a data object from a file.
    *
@@ -111,8 +165,8 @@ public final class DataSerializer {
         throw new SerializationException(
             filename + " does not look like a data file, magic number incorrect!");
       }
-      try (GZIPInputStream gzIn = new GZIPInputStream(fileIn);
-          ObjectInputStream in = new ObjectInputStream(gzIn)) {
+      try (InputStream dataIn = decompressingStream(fileIn);
+          ObjectInputStream in = new ObjectInputStream(dataIn)) {
         final String dbVersion = (String) in.readObject();
         final VersionComparator comp = new VersionComparator();
         if (comp.compare(dbVersion, minVersion) < 0) {
@@ -130,4 +184,13 @@ public final class DataSerializer {
         new Object[] {(System.nanoTime() - startTime) / 1_000_000_000.0});
     return result;
   }
+
+  /** @return Stream of the data in <code>in</code>, decompressed if it starts with a gzip member. */
+  private static InputStream decompressingStream(InputStream in) throws IOException {
+    final BufferedInputStream bufferedIn = new BufferedInputStream(in, 1 << 16);
+    bufferedIn.mark(2);
+    final int header = (bufferedIn.read() << 8) | bufferedIn.read();
+    bufferedIn.reset();
+    return header == GZIP_MAGIC ? new GZIPInputStream(bufferedIn, 1 << 16) : bufferedIn;
+  }
 }
@@ -3,7 +3,8 @@
  *
  * <p>Includes code for comparing versions, so data can be checked for compatibility on loading. To
  * be usable, the versions should be written into a file {@code /project.properties} in the JAR file
- * as a property called {@code version}.
+ * as a property called {@code version}. The data can be stored uncompressed or gzip compressed in
+ * parallel blocks, see {@link org.monarchinitiative.phenol.io.ser.DataSerializer.Compression}.
  *
  * @author <a href="mailto:manuel.holtgrewe@bihealth.de">Manuel Holtgrewe</a>
  * @author <a href="mailto:sebastian.koehler@charite.de">Sebastian Koehler</a>
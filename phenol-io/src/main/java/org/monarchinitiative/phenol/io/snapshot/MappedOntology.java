@@ -0,0 +1,754 @@
+package org.monarchinitiative.phenol.io.snapshot;
+
+import java.io.InvalidObjectException;
+import java.io.ObjectStreamException;
+import java.io.Serializable;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+
+import com.google.common.base.Suppliers;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.ImmutableSortedMap;
+import com.google.common.collect.Iterators;
+import com.google.common.collect.Sets;
+import org.jgrapht.graph.DefaultDirectedGraph;
+import org.monarchinitiative.phenol.graph.IdLabeledEdge;
+import org.monarchinitiative.phenol.graph.csr.CsrGraph;
+import org.monarchinitiative.phenol.graph.csr.OrdinalSet;
+import org.monarchinitiative.phenol.graph.csr.ReachabilityIndex;
+import org.monarchinitiative.phenol.graph.csr.TopologicalOrder;
+import org.monarchinitiative.phenol.io.ser.SerializationException;
+import org.monarchinitiative.phenol.io.snapshot.OntologySnapshot.Section;
+import org.monarchinitiative.phenol.ontology.data.Dbxref;
+import org.monarchinitiative.phenol.ontology.data.Ontology;
+import org.monarchinitiative.phenol.ontology.data.OrdinalTermIdSet;
+import org.monarchinitiative.phenol.ontology.data.Relationship;
+import org.monarchinitiative.phenol.ontology.data.RelationshipType;
+import org.monarchinitiative.phenol.ontology.data.SimpleXref;
+import org.monarchinitiative.phenol.ontology.data.SubOntologyView;
+import org.monarchinitiative.phenol.ontology.data.SynonymType;
+import org.monarchinitiative.phenol.ontology.data.Term;
+import org.monarchinitiative.phenol.ontology.data.TermId;
+import org.monarchinitiative.phenol.ontology.data.TermSynonym;
+import org.monarchinitiative.phenol.ontology.data.TermSynonymScope;
+import org.monarchinitiative.phenol.ontology.data.TermXref;
+
+/**
+ * Read-only {@link Ontology} backed by a memory mapped snapshot, see {@link OntologySnapshot}.
+ *
+ * <p>Ancestor, descendant and subsumption queries read the closures directly from the mapped
+ * buffer, so the closures are never copied to the heap. The term id table and the index from
+ * {@link TermId} to ordinal are decoded on first use; the remaining parts ({@link #getGraph()},
+ * {@link #getCsrGraph()}, {@link #getRelationMap()}, the term id sets, the reachability indexes
+ * and topological order) are built on first access and kept.
+ *
+ * <p>{@link #getTermMap()} is a view that creates a {@link Term} from the snapshot's string pool
+ * when it is looked up; created terms are softly cached, so repeated lookups usually return the same
+ * instance while the heap is not under pressure. {@link #getTermLabel(TermId)} reads the name
+ * without creating a term.
+ *
+ * <p>The buffer is either a mapped snapshot file ({@link OntologySnapshot#open(Path)}) or off-heap
+ * memory ({@link OntologySnapshot#toOffHeap(Ontology)}). An instance is serialized as the path of
+ * its snapshot file, which is opened again when read, or as the contents of its off-heap buffer.
+ */
+public final class MappedOntology implements Ontology {
+
+  /** Serial UId for serialization. */
+  private static final long serialVersionUID = 1L;
+
+  /** Path of the snapshot file, <code>null</code> for off-heap snapshots. */
+  private final transient Path path;
+
+  /** The whole snapshot. */
+  private final transient ByteBuffer buffer;
+
+  private final transient IntBuffer stringOffsets;
+
+  private final transient ByteBuffer stringBytes;
+
+  private final transient IntBuffer metaInfoStrings;
+
+  private final transient IntBuffer vertexStrings;
+
+  private final transient IntBuffer relationshipTypeStrings;
+
+  private final transient IntBuffer parentOffsets;
+
+  private final transient IntBuffer parents;
+
+  private final transient IntBuffer edgeLabels;
+
+  private final transient IntBuffer edgeIds;
+
+  private final transient IntBuffer ancestorOffsets;
+
+  private final transient IntBuffer ancestors;
+
+  private final transient IntBuffer propagatingAncestorOffsets;
+
+  private final transient IntBuffer propagatingAncestors;
+
+  private final transient IntBuffer descendantOffsets;
+
+  private final transient IntBuffer descendants;
+
+  private final transient IntBuffer termRecords;
+
+  private final transient IntBuffer altTermIdStrings;
+
+  private final transient IntBuffer termTextOffsets;
+
+  private final transient IntBuffer termText;
+
+  private final transient IntBuffer nonObsoleteTermIdStrings;
+
+  private final transient IntBuffer obsoleteTermIdStrings;
+
+  /** Number of vertices. */
+  private final transient int vertexCount;
+
+  /** Id of the root term. */
+  private final transient TermId rootTermId;
+
+  private final transient Supplier<TermId[]> ordinalToTermId =
+    Suppliers.memoize(this::buildOrdinalToTermId);
+
+  private final transient Supplier<ImmutableMap<TermId, Integer>> termIdToOrdinal =
+    Suppliers.memoize(this::buildTermIdToOrdinal);
+
+  /** Index of the record in {@link #termRecords} by primary and alternative term id. */
+  private final transient Supplier<ImmutableMap<TermId, Integer>> termIndex =
+    Suppliers.memoize(this::buildTermIndex);
+
+  private final transient Supplier<ImmutableList<RelationshipType>> relationshipTypes =
+    Suppliers.memoize(this::buildRelationshipTypes);
+
+  private final transient Supplier<ImmutableSortedMap<String, String>> metaInfo =
+    Suppliers.memoize(this::buildMetaInfo);
+
+  private final transient Supplier<ImmutableSet<TermId>> nonObsoleteTermIds =
+    Suppliers.memoize(this::buildNonObsoleteTermIds);
+
+  private final transient Supplier<ImmutableSet<TermId>> obsoleteTermIds =
+    Suppliers.memoize(this::buildObsoleteTermIds);
+
+  private final transient Supplier<ImmutableSet<TermId>> allTermIds =
+    Suppliers.memoize(() -> ImmutableSet.copyOf(Sets.union(getNonObsoleteTermIds(), getObsoleteTermIds())));
+
+  /** {@link Term}s created by {@link #term(int)}, by index of their record. */
+  private final transient LoadingCache<Integer, Term> termCache =
+    CacheBuilder.newBuilder().softValues().build(CacheLoader.from(this::term));
+
+  private final transient Map<TermId, Term> termMap = new TermMap();
+
+  private final transient Supplier<ImmutableMap<Integer, Relationship>> relationMap =
+    Suppliers.memoize(this::buildRelationMap);
+
+  private final transient Supplier<DefaultDirectedGraph<TermId, IdLabeledEdge>> graph =
+    Suppliers.memoize(this::buildGraph);
+
+  private final transient Supplier<CsrGraph> csrGraph =
+    Suppliers.memoize(this::buildCsrGraph);
+
+  private final transient Supplier<ReachabilityIndex> reachabilityIndex =
+    Suppliers.memoize(() -> ReachabilityIndex.of(getCsrGraph()));
+
+  private final transient Supplier<ReachabilityIndex> propagatingReachabilityIndex =
+    Suppliers.memoize(this::buildPropagatingReachabilityIndex);
+
+  private final transient Supplier<TopologicalOrder> topologicalOrder =
+    Suppliers.memoize(() -> TopologicalOrder.of(getCsrGraph()));
+
+  /** Sub ontology views by root. */
+  private final transient ConcurrentMap<TermId, Ontology> subOntologyViews = new ConcurrentHashMap<>();
+
+  /**
+   * @param path {@link Path} of the snapshot file, <code>null</code> for off-heap snapshots.
+   * @param buffer {@link ByteBuffer} with the whole snapshot.
+   * @param sections Little endian buffers with the contents of each {@link Section}.
+   */
+  MappedOntology(Path path, ByteBuffer buffer, ByteBuffer[] sections) {
+    this.path = path;
+    this.buffer = buffer;
+    this.stringOffsets = ints(sections, Section.STRING_OFFSETS);
+    this.stringBytes = sections[Section.STRING_BYTES.ordinal()];
+    this.metaInfoStrings = ints(sections, Section.META_INFO);
+    this.vertexStrings = ints(sections, Section.VERTICES);
+    this.relationshipTypeStrings = ints(sections, Section.RELATIONSHIP_TYPES);
+    this.parentOffsets = ints(sections, Section.PARENT_OFFSETS);
+    this.parents = ints(sections, Section.PARENTS);
+    this.edgeLabels = ints(sections, Section.EDGE_LABELS);
+    this.edgeIds = ints(sections, Section.EDGE_IDS);
+    this.ancestorOffsets = ints(sections, Section.ANCESTOR_OFFSETS);
+    this.ancestors = ints(sections, Section.ANCESTORS);
+    this.propagatingAncestorOffsets = ints(sections, Section.PROPAGATING_ANCESTOR_OFFSETS);
+    this.propagatingAncestors = ints(sections, Section.PROPAGATING_ANCESTORS);
+    this.descendantOffsets = ints(sections, Section.DESCENDANT_OFFSETS);
+    this.descendants = ints(sections, Section.DESCENDANTS);
+    this.termRecords = ints(sections, Section.TERMS);
+    this.altTermIdStrings = ints(sections, Section.ALT_TERM_IDS);
+    this.termTextOffsets = ints(sections, Section.TERM_TEXT_OFFSETS);
+    this.termText = ints(sections, Section.TERM_TEXT);
+    this.nonObsoleteTermIdStrings = ints(sections, Section.NON_OBSOLETE_TERM_IDS);
+    this.obsoleteTermIdStrings = ints(sections, Section.OBSOLETE_TERM_IDS);
+    this.vertexCount = vertexStrings.limit();
+    this.rootTermId = TermId.of(string(ints(sections, Section.SUMMARY).get(0)));
+  }
+
+  private static IntBuffer ints(ByteBuffer[] sections, Section section) {
+    return sections[section.ordinal()].asIntBuffer();
+  }
+
+  /** @return The string with the given index in the pool, <code>null</code> for <code>-1</code>. */
+  private String string(int index) {
+    if (index == -1) {
+      return null;
+    }
+    final int start = stringOffsets.get(index);
+    final byte[] bytes = new byte[stringOffsets.get(index + 1) - start];
+    for (int i = 0; i < bytes.length; ++i) {
+      bytes[i] = stringBytes.get(start + i);
+    }
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+
+  private TermId termIdString(int index) {
+    return TermId.of(string(index));
+  }
+
+  private TermId[] buildOrdinalToTermId() {
+    final TermId[] result = new TermId[vertexCount];
+    for (int ordinal = 0; ordinal < vertexCount; ++ordinal) {
+      result[ordinal] = termIdString(vertexStrings.get(ordinal));
+    }
+    return result;
+  }
+
+  private ImmutableMap<TermId, Integer> buildTermIdToOrdinal() {
+    final TermId[] termIds = ordinalToTermId.get();
+    final ImmutableMap.Builder<TermId, Integer> builder = ImmutableMap.builderWithExpectedSize(termIds.length);
+    for (int ordinal = 0; ordinal < termIds.length; ++ordinal) {
+      builder.put(termIds[ordinal], ordinal);
+    }
+    return builder.build();
+  }
+
+  private ImmutableMap<TermId, Integer> buildTermIndex() {
+    final int termCount = termRecords.limit() / OntologySnapshot.TERM_RECORD_LENGTH;
+    final ImmutableMap.Builder<TermId, Integer> builder = ImmutableMap.builderWithExpectedSize(termCount);
+    for (int i = 0; i < termCount; ++i) {
+      final int record = OntologySnapshot.TERM_RECORD_LENGTH * i;
+      builder.put(termIdString(termRecords.get(record)), i);
+      for (int j = termRecords.get(record + 2); j < termRecords.get(record + 3); ++j) {
+        builder.put(termIdString(altTermIdStrings.get(j)), i);
+      }
+    }
+    return builder.build();
+  }
+
+  private ImmutableList<RelationshipType> buildRelationshipTypes() {
+    final ImmutableList.Builder<RelationshipType> builder = ImmutableList.builder();
+    for (int i = 0; i < relationshipTypeStrings.limit(); i += 2) {
+      builder.add(RelationshipType.of(string(relationshipTypeStrings.get(i)), string(relationshipTypeStrings.get(i + 1))));
+    }
+    return builder.build();
+  }
+
+  private ImmutableSortedMap<String, String> buildMetaInfo() {
+    final ImmutableSortedMap.Builder<String, String> builder = ImmutableSortedMap.naturalOrder();
+    for (int i = 0; i < metaInfoStrings.limit(); i += 2) {
+      builder.put(string(metaInfoStrings.get(i)), string(metaInfoStrings.get(i + 1)));
+    }
+    return builder.build();
+  }
+
+  private ImmutableSet<TermId> buildNonObsoleteTermIds() {
+    return termIdSet(nonObsoleteTermIdStrings);
+  }
+
+  private ImmutableSet<TermId> buildObsoleteTermIds() {
+    return termIdSet(obsoleteTermIdStrings);
+  }
+
+  private ImmutableSet<TermId> termIdSet(IntBuffer strings) {
+    final ImmutableSet.Builder<TermId> builder = ImmutableSet.builder();
+    for (int i = 0; i < strings.limit(); ++i) {
+      builder.add(termIdString(strings.get(i)));
+    }
+    return builder.build();
+  }
+
+  /** @return The {@link Term} of the record with index <code>i</code> in {@link #termRecords}. */
+  private Term term(int i) {
+    final int record = OntologySnapshot.TERM_RECORD_LENGTH * i;
+    final ImmutableList.Builder<TermId> altTermIds = ImmutableList.builder();
+    for (int j = termRecords.get(record + 2); j < termRecords.get(record + 3); ++j) {
+      altTermIds.add(termIdString(altTermIdStrings.get(j)));
+    }
+    final Term.Builder builder = Term.builder()
+      .id(termIdString(termRecords.get(record)))
+      .name(string(termRecords.get(record + 1)))
+      .altTermIds(altTermIds.build());
+
+    // see OntologySnapshot.encodeText for the layout
+    int pos = termTextOffsets.get(i);
+    builder.definition(string(termText.get(pos++)))
+      .comment(string(termText.get(pos++)))
+      .createdBy(string(termText.get(pos++)))
+      .obsolete(termText.get(pos++) == 1);
+    if (termText.get(pos++) == 1) {
+      builder.creationDate(new Date(((long) termText.get(pos++) << 32) | (termText.get(pos++) & 0xFFFFFFFFL)));
+    }
+    final ImmutableList.Builder<SimpleXref> databaseXrefs = ImmutableList.builder();
+    for (int n = termText.get(pos++); n > 0; --n) {
+      databaseXrefs.add(new SimpleXref(string(termText.get(pos++))));
+    }
+    final ImmutableList.Builder<String> subsets = ImmutableList.builder();
+    for (int n = termText.get(pos++); n > 0; --n) {
+      subsets.add(string(termText.get(pos++)));
+    }
+    final ImmutableList.Builder<TermSynonym> synonyms = ImmutableList.builder();
+    for (int n = termText.get(pos++); n > 0; --n) {
+      final String value = string(termText.get(pos++));
+      final int scope = termText.get(pos++);
+      final String synonymTypeName = string(termText.get(pos++));
+      final SynonymType synonymType = SynonymType.values()[termText.get(pos++)];
+      final int xrefCount = termText.get(pos++);
+      List<TermXref> termXrefs = null;
+      if (xrefCount != -1) {
+        termXrefs = new ArrayList<>(xrefCount);
+        for (int m = 0; m < xrefCount; ++m) {
+          final int id = termText.get(pos++);
+          termXrefs.add(new TermXref(id == -1 ? null : termIdString(id), string(termText.get(pos++))));
+        }
+      }
+      synonyms.add(TermSynonym.of(
+        value, scope == -1 ? null : TermSynonymScope.values()[scope], synonymTypeName, termXrefs, synonymType));
+    }
+    final ImmutableList.Builder<Dbxref> xrefs = ImmutableList.builder();
+    for (int n = termText.get(pos++); n > 0; --n) {
+      final String name = string(termText.get(pos++));
+      final String description = string(termText.get(pos++));
+      final int modifierCount = termText.get(pos++);
+      Map<String, String> trailingModifiers = null;
+      if (modifierCount != -1) {
+        trailingModifiers = new LinkedHashMap<>();
+        for (int m = 0; m < modifierCount; ++m) {
+          trailingModifiers.put(string(termText.get(pos++)), string(termText.get(pos++)));
+        }
+      }
+      xrefs.add(new Dbxref(name, description, trailingModifiers));
+    }
+    return builder.databaseXrefs(databaseXrefs.build())
+      .subsets(subsets.build())
+      .synonyms(synonyms.build())
+      .xrefs(xrefs.build())
+      .build();
+  }
+
+  /**
+   * {@link Map} view of the terms by primary and alternative id, creating {@link Term}s on lookup.
+   */
+  private final class TermMap extends AbstractMap<TermId, Term> {
+
+    @Override
+    public Term get(Object key) {
+      final Integer i = termIndex.get().get(key);
+      return i == null ? null : termCache.getUnchecked(i);
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+      return termIndex.get().containsKey(key);
+    }
+
+    @Override
+    public int size() {
+      return termIndex.get().size();
+    }
+
+    @Override
+    public Set<Entry<TermId, Term>> entrySet() {
+      return new AbstractSet<Entry<TermId, Term>>() {
+        @Override
+        public Iterator<Entry<TermId, Term>> iterator() {
+          return Iterators.transform(
+            termIndex.get().entrySet().iterator(),
+            entry -> new SimpleImmutableEntry<>(entry.getKey(), termCache.getUnchecked(entry.getValue())));
+        }
+
+        @Override
+        public int size() {
+          return termIndex.get().size();
+        }
+      };
+    }
+  }
+
+  private ImmutableMap<Integer, Relationship> buildRelationMap() {
+    final List<RelationshipType> types = getRelationshipTypes();
+    final ImmutableMap.Builder<Integer, Relationship> builder = ImmutableMap.builder();
+    for (int v = 0; v < vertexCount; ++v) {
+      for (int e = parentOffsets.get(v); e < parentOffsets.get(v + 1); ++e) {
+        final int label = edgeLabels.get(e);
+        if (label != -1) {
+          builder.put(edgeIds.get(e), new Relationship(termAt(v), termAt(parents.get(e)), edgeIds.get(e), types.get(label)));
+        }
+      }
+    }
+    return builder.build();
+  }
+
+  private DefaultDirectedGraph<TermId, IdLabeledEdge> buildGraph() {
+    final DefaultDirectedGraph<TermId, IdLabeledEdge> result = new DefaultDirectedGraph<>(IdLabeledEdge.class);
+    for (int v = 0; v < vertexCount; ++v) {
+      result.addVertex(termAt(v));
+    }
+    for (int v = 0; v < vertexCount; ++v) {
+      for (int e = parentOffsets.get(v); e < parentOffsets.get(v + 1); ++e) {
+        result.addEdge(termAt(v), termAt(parents.get(e)), new IdLabeledEdge(edgeIds.get(e)));
+      }
+    }
+    return result;
+  }
+
+  private CsrGraph buildCsrGraph() {
+    final int edgeCount = parents.limit();
+    final int[] sources = new int[edgeCount];
+    final int[] targets = new int[edgeCount];
+    final int[] labels = new int[edgeCount];
+    for (int v = 0; v < vertexCount; ++v) {
+      for (int e = parentOffsets.get(v); e < parentOffsets.get(v + 1); ++e) {
+        sources[e] = v;
+        targets[e] = parents.get(e);
+        labels[e] = edgeLabels.get(e);
+      }
+    }
+    return CsrGraph.of(vertexCount, sources, targets, labels);
+  }
+
+  /** @return {@link OrdinalSet} with the slice of <code>values</code> for <code>ordinal</code>. */
+  private OrdinalSet closureOf(IntBuffer offsets, IntBuffer values, int ordinal) {
+    final int start = offsets.get(ordinal);
+    final int[] result = new int[offsets.get(ordinal + 1) - start];
+    for (int i = 0; i < result.length; ++i) {
+      result[i] = values.get(start + i);
+    }
+    return OrdinalSet.ofSorted(vertexCount, result);
+  }
+
+  /** @return The ordinal of the root term, <code>-1</code> if it is not a vertex. */
+  private int rootOrdinal() {
+    return ordinalOf(rootTermId);
+  }
+
+  /** @return The path of the mapped snapshot file, empty for off-heap snapshots. */
+  public Optional<Path> getPath() {
+    return Optional.ofNullable(path);
+  }
+
+  @Override
+  public Map<String, String> getMetaInfo() {
+    return metaInfo.get();
+  }
+
+  @Override
+  public DefaultDirectedGraph<TermId, IdLabeledEdge> getGraph() {
+    return graph.get();
+  }
+
+  @Override
+  public Map<TermId, Term> getTermMap() {
+    return termMap;
+  }
+
+  @Override
+  public Map<Integer, Relationship> getRelationMap() {
+    return relationMap.get();
+  }
+
+  @Override
+  public TermId getRootTermId() {
+    return rootTermId;
+  }
+
+  @Override
+  public Set<TermId> getAllTermIds() {
+    return allTermIds.get();
+  }
+
+  @Override
+  public Set<TermId> getNonObsoleteTermIds() {
+    return nonObsoleteTermIds.get();
+  }
+
+  @Override
+  public Set<TermId> getObsoleteTermIds() {
+    return obsoleteTermIds.get();
+  }
+
+  @Override
+  public Collection<Term> getTerms() {
+    return getTermMap().values();
+  }
+
+  @Override
+  public CsrGraph getCsrGraph() {
+    return csrGraph.get();
+  }
+
+  @Override
+  public List<RelationshipType> getRelationshipTypes() {
+    return relationshipTypes.get();
+  }
+
+  @Override
+  public int ordinalOf(TermId termId) {
+    final Integer ordinal = termIdToOrdinal.get().get(termId);
+    return ordinal == null ? -1 : ordinal;
+  }
+
+  @Override
+  public TermId termAt(int ordinal) {
+    return ordinalToTermId.get()[ordinal];
+  }
+
+  @Override
+  public Set<TermId> getAncestorTermIds(TermId termId, boolean includeRoot) {
+    final int ordinal = ordinalOf(termId);
+    if (ordinal == -1) {
+      return ImmutableSet.of();
+    }
+    return new OrdinalTermIdSet(this, getAncestorOrdinals(ordinal), includeRoot ? -1 : rootOrdinal());
+  }
+
+  @Override
+  public OrdinalSet getAncestorOrdinals(int ordinal) {
+    return closureOf(ancestorOffsets, ancestors, ordinal);
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * <p>Implemented by binary search in the mapped ancestors of <code>termId</code>.
+   */
+  @Override
+  public boolean isAncestor(TermId ancestor, TermId termId) {
+    final int ordinal = ordinalOf(termId);
+    final int ancestorOrdinal = ordinalOf(ancestor);
+    if (ordinal == -1 || ancestorOrdinal == -1) {
+      return false;
+    }
+    int low = ancestorOffsets.get(ordinal);
+    int high = ancestorOffsets.get(ordinal + 1) - 1;
+    while (low <= high) {
+      final int mid = (low + high) >>> 1;
+      final int value = ancestors.get(mid);
+      if (value < ancestorOrdinal) {
+        low = mid + 1;
+      } else if (value > ancestorOrdinal) {
+        high = mid - 1;
+      } else {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  @Override
+  public ReachabilityIndex getReachabilityIndex() {
+    return reachabilityIndex.get();
+  }
+
+  @Override
+  public ReachabilityIndex getPropagatingReachabilityIndex() {
+    return propagatingReachabilityIndex.get();
+  }
+
+  private ReachabilityIndex buildPropagatingReachabilityIndex() {
+    final List<RelationshipType> types = getRelationshipTypes();
+    final CsrGraph propagatingGraph = getCsrGraph().filterEdges(label -> label != -1 && types.get(label).propagates());
+    return propagatingGraph == getCsrGraph() ? getReachabilityIndex() : ReachabilityIndex.of(propagatingGraph);
+  }
+
+  @Override
+  public TopologicalOrder getTopologicalOrder() {
+    return topologicalOrder.get();
+  }
+
+  @Override
+  public Set<TermId> getPropagatingAncestorTermIds(TermId termId) {
+    final int ordinal = ordinalOf(termId);
+    if (ordinal == -1) {
+      return ImmutableSet.of();
+    }
+    return new OrdinalTermIdSet(this, getPropagatingAncestorOrdinals(ordinal), -1);
+  }
+
+  @Override
+  public OrdinalSet getPropagatingAncestorOrdinals(int ordinal) {
+    return closureOf(propagatingAncestorOffsets, propagatingAncestors, ordinal);
+  }
+
+  @Override
+  public Set<TermId> getDescendantTermIds(TermId termId) {
+    final int ordinal = ordinalOf(termId);
+    if (ordinal == -1) {
+      return ImmutableSet.of();
+    }
+    return new OrdinalTermIdSet(this, getDescendantOrdinals(ordinal), -1);
+  }
+
+  @Override
+  public OrdinalSet getDescendantOrdinals(int ordinal) {
+    return closureOf(descendantOffsets, descendants, ordinal);
+  }
+
+  @Override
+  public int descendantCount(TermId termId) {
+    final int ordinal = ordinalOf(termId);
+    return ordinal == -1 ? 0 : descendantOffsets.get(ordinal + 1) - descendantOffsets.get(ordinal);
+  }
+
+  @Override
+  public Set<TermId> getAllAncestorTermIds(Collection<TermId> termIds, boolean includeRoot) {
+    return new OrdinalTermIdSet(this, getAllAncestorOrdinals(termIds, includeRoot), -1);
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * <p>The union is built by setting the bits of the mapped ancestors of each term, without
+   * creating an {@link OrdinalSet} per term.
+   */
+  @Override
+  public OrdinalSet getAllAncestorOrdinals(Collection<TermId> termIds, boolean includeRoot) {
+    final long[] words = new long[(vertexCount + 63) >>> 6];
+    for (TermId termId : termIds) {
+      final int ordinal = ordinalOf(termId);
+      if (ordinal != -1) {
+        for (int i = ancestorOffsets.get(ordinal); i < ancestorOffsets.get(ordinal + 1); ++i) {
+          final int ancestor = ancestors.get(i);
+          words[ancestor >>> 6] |= 1L << ancestor;
+        }
+      }
+    }
+    final int rootOrdinal = rootOrdinal();
+    if (!includeRoot && rootOrdinal != -1) {
+      words[rootOrdinal >>> 6] &= ~(1L << rootOrdinal);
+    }
+    return OrdinalSet.ofBits(vertexCount, words);
+  }
+
+  @Override
+  public Set<TermId> getCommonAncestors(TermId a, TermId b) {
+    final int ordinalA = ordinalOf(a);
+    final int ordinalB = ordinalOf(b);
+    if (ordinalA == -1 || ordinalB == -1) {
+      return ImmutableSet.of();
+    }
+    final OrdinalSet common = getAncestorOrdinals(ordinalA).intersection(getAncestorOrdinals(ordinalB));
+    return new OrdinalTermIdSet(this, common, rootOrdinal());
+  }
+
+  @Override
+  public boolean containsTerm(TermId tid) {
+    return termIndex.get().containsKey(tid);
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * <p>The sub ontology is a view sharing this ontology's mapped closures. Views are cached, so
+   * repeated calls with the same root return the same instance.
+   *
+   * @throws IllegalArgumentException if {@code subOntologyRoot} is not a vertex of the graph.
+   */
+  @Override
+  public Ontology subOntology(TermId subOntologyRoot) {
+    if (ordinalOf(subOntologyRoot) == -1) {
+      throw new IllegalArgumentException("no such vertex in graph: " + subOntologyRoot);
+    }
+    return subOntologyViews.computeIfAbsent(subOntologyRoot, root -> new SubOntologyView(this, root));
+  }
+
+  @Override
+  public Optional<String> getTermLabel(TermId tid) {
+    final Integer i = termIndex.get().get(tid);
+    if (i == null) {
+      return Optional.empty();
+    }
+    return Optional.ofNullable(string(termRecords.get(OntologySnapshot.TERM_RECORD_LENGTH * i + 1)));
+  }
+
+  @Override
+  public String toString() {
+    return "MappedOntology [path=" + (path == null ? "off-heap" : path) + ", vertexCount=" + vertexCount + ", rootTermId=" + rootTermId + "]";
+  }
+
+  private Object writeReplace() {
+    if (path != null) {
+      return new SerializedForm(path.toAbsolutePath().toString(), null);
+    }
+    final byte[] contents = new byte[buffer.capacity()];
+    buffer.duplicate().get(contents);
+    return new SerializedForm(null, contents);
+  }
+
+  /**
+   * Serialized form of a {@link MappedOntology}: the path of its snapshot file or the contents of
+   * its off-heap snapshot.
+   */
+  private static final class SerializedForm implements Serializable {
+
+    private static final long serialVersionUID = 2L;
+
+    private final String path;
+
+    private final byte[] contents;
+
+    SerializedForm(String path, byte[] contents) {
+      this.path = path;
+      this.contents = contents;
+    }
+
+    private Object readResolve() throws ObjectStreamException {
+      try {
+        if (path != null) {
+          return OntologySnapshot.open(Paths.get(path));
+        }
+        final ByteBuffer buffer = ByteBuffer.allocateDirect(contents.length);
+        ((Buffer) buffer.put(contents)).clear();
+        return OntologySnapshot.read(buffer, null, "serialized off-heap snapshot");
+      } catch (SerializationException e) {
+        final InvalidObjectException result =
+          new InvalidObjectException("Could not reopen " + (path == null ? "off-heap snapshot" : path));
+        result.initCause(e);
+        throw result;
+      }
+    }
+  }
+}
@@ -0,0 +1,210 @@
+package org.monarchinitiative.phenol.io.snapshot;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.google.common.hash.Funnels;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import com.google.common.io.ByteStreams;
+import org.monarchinitiative.phenol.base.PhenolRuntimeException;
+import org.monarchinitiative.phenol.io.OntologyLoader;
+import org.monarchinitiative.phenol.io.ser.SerializationException;
+import org.monarchinitiative.phenol.io.utils.CurieUtilBuilder;
+import org.monarchinitiative.phenol.ontology.data.Ontology;
+import org.prefixcommons.CurieUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Directory of {@link OntologySnapshot}s of loaded ontologies, keyed by the content of the ontology
+ * file and the loading options.
+ *
+ * <p>{@link #loadOntology(File, CurieUtil, String...)} hashes the file together with the CURIE
+ * mappings, the wanted term id prefixes and the snapshot format version. If the directory holds a
+ * snapshot for the hash, it is opened by memory mapping instead of parsing the file again,
+ * otherwise the file is loaded with {@link OntologyLoader} and the snapshot is written for the next
+ * time. As the key depends on the content only, a new release of an ontology at the same path is
+ * never served from a stale snapshot. Several processes may share a directory; snapshots that
+ * cannot be read are replaced, and a failure to write one only costs the next load its speed.
+ *
+ * <p>The cache never removes snapshots, old releases have to be deleted from the directory by the
+ * user. Hit and miss counts and the time spent loading are available for monitoring, e.g. {@link
+ * #getHitCount()} and {@link #getLoadTime(TimeUnit)}.
+ */
+public final class OntologyCache {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(OntologyCache.class);
+
+  /** File name extension of the snapshots in the cache directory. */
+  static final String EXTENSION = ".snapshot";
+
+  private final Path directory;
+
+  private final LongAdder hitCount = new LongAdder();
+
+  private final LongAdder missCount = new LongAdder();
+
+  private final LongAdder hitNanos = new LongAdder();
+
+  private final LongAdder missNanos = new LongAdder();
+
+  private OntologyCache(Path directory) {
+    this.directory = directory;
+  }
+
+  /**
+   * @param directory Directory holding the snapshots, created if it does not exist.
+   * @return {@link OntologyCache} using <code>directory</code>.
+   * @throws PhenolRuntimeException if the directory cannot be created.
+   */
+  public static OntologyCache of(Path directory) {
+    try {
+      Files.createDirectories(directory);
+    } catch (IOException e) {
+      throw new PhenolRuntimeException("Could not create ontology cache directory " + directory, e);
+    }
+    return new OntologyCache(directory);
+  }
+
+  /** @return The directory holding the snapshots. */
+  public Path getDirectory() {
+    return directory;
+  }
+
+  /**
+   * Load the ontology with the default {@link CurieUtil}, see {@link #loadOntology(File, CurieUtil,
+   * String...)}.
+   */
+  public Ontology loadOntology(File file, String... termIdPrefixes) {
+    return loadOntology(file, CurieUtilBuilder.defaultCurieUtil(), termIdPrefixes);
+  }
+
+  /**
+   * Load the ontology from its snapshot in the cache, or from <code>file</code> as {@link
+   * OntologyLoader#loadOntology(File, CurieUtil, String...)} does, writing the snapshot.
+   *
+   * @param file The ontology file in any format supported by {@link OntologyLoader}.
+   * @param curieUtil {@link CurieUtil} for mapping the IRIs of the ontology to term ids.
+   * @param termIdPrefixes Prefixes of the term ids to load, all if none are given.
+   * @return The loaded {@link Ontology}, a {@link MappedOntology} on a cache hit.
+   * @throws PhenolRuntimeException if the file cannot be read or parsed.
+   */
+  public Ontology loadOntology(File file, CurieUtil curieUtil, String... termIdPrefixes) {
+    final long startTime = System.nanoTime();
+    final Path snapshot = directory.resolve(key(file, curieUtil, termIdPrefixes) + EXTENSION);
+    if (Files.isRegularFile(snapshot)) {
+      try {
+        final MappedOntology ontology = OntologySnapshot.open(snapshot);
+        final long nanos = System.nanoTime() - startTime;
+        hitCount.increment();
+        hitNanos.add(nanos);
+        LOGGER.info("Loaded {} from cached snapshot {} in {} ms", file, snapshot, TimeUnit.NANOSECONDS.toMillis(nanos));
+        return ontology;
+      } catch (SerializationException e) {
+        LOGGER.warn("Replacing unreadable cached snapshot {}", snapshot, e);
+      }
+    }
+
+    final Ontology ontology = OntologyLoader.loadOntology(file, curieUtil, termIdPrefixes);
+    try {
+      OntologySnapshot.write(ontology, snapshot);
+    } catch (SerializationException e) {
+      LOGGER.warn("Could not cache {}", file, e);
+    }
+    final long nanos = System.nanoTime() - startTime;
+    missCount.increment();
+    missNanos.add(nanos);
+    LOGGER.info("Loaded {} and cached it as {} in {} ms", file, snapshot, TimeUnit.NANOSECONDS.toMillis(nanos));
+    return ontology;
+  }
+
+  /**
+   * @return Hex encoded SHA-256 hash of the snapshot format version, the CURIE mappings, the sorted
+   *     term id prefixes and the content of the file.
+   */
+  static String key(File file, CurieUtil curieUtil, String... termIdPrefixes) {
+    final Hasher hasher = Hashing.sha256().newHasher();
+    hasher.putInt(OntologySnapshot.FORMAT_VERSION);
+    final Map<String, String> curieMap = new TreeMap<>(curieUtil.getCurieMap());
+    hasher.putInt(curieMap.size());
+    for (Map.Entry<String, String> entry : curieMap.entrySet()) {
+      putString(hasher, entry.getKey());
+      putString(hasher, entry.getValue());
+    }
+    final String[] prefixes = Arrays.stream(termIdPrefixes).distinct().sorted().toArray(String[]::new);
+    hasher.putInt(prefixes.length);
+    for (String prefix : prefixes) {
+      putString(hasher, prefix);
+    }
+    try (InputStream inputStream = Files.newInputStream(file.toPath());
+         OutputStream outputStream = Funnels.asOutputStream(hasher)) {
+      ByteStreams.copy(inputStream, outputStream);
+    } catch (IOException e) {
+      throw new PhenolRuntimeException("Unable to load ontology", e);
+    }
+    return hasher.hash().toString();
+  }
+
+  private static void putString(Hasher hasher, String value) {
+    // length prefixed, so the concatenation of the strings is unambiguous
+    final byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+    hasher.putInt(bytes.length);
+    hasher.putBytes(bytes);
+  }
+
+  /** @return The number of ontologies opened from a cached snapshot. */
+  public long getHitCount() {
+    return hitCount.sum();
+  }
+
+  /** @return The number of ontologies that had to be loaded from their file. */
+  public long getMissCount() {
+    return missCount.sum();
+  }
+
+  /**
+   * @param unit Unit of the result.
+   * @return The total time spent opening cached snapshots, including hashing the files.
+   */
+  public long getHitLoadTime(TimeUnit unit) {
+    return unit.convert(hitNanos.sum(), TimeUnit.NANOSECONDS);
+  }
+
+  /**
+   * @param unit Unit of the result.
+   * @return The total time spent loading ontologies from their file, including hashing the files
+   *     and writing the snapshots.
+   */
+  public long getMissLoadTime(TimeUnit unit) {
+    return unit.convert(missNanos.sum(), TimeUnit.NANOSECONDS);
+  }
+
+  /**
+   * @param unit Unit of the result.
+   * @return The total time spent in {@link #loadOntology(File, CurieUtil, String...)}.
+   */
+  public long getLoadTime(TimeUnit unit) {
+    return unit.convert(hitNanos.sum() + missNanos.sum(), TimeUnit.NANOSECONDS);
+  }
+
+  @Override
+  public String toString() {
+    return "OntologyCache [directory=" + directory
+      + ", hits=" + getHitCount()
+      + ", misses=" + getMissCount()
+      + ", hitLoadTimeMs=" + getHitLoadTime(TimeUnit.MILLISECONDS)
+      + ", missLoadTimeMs=" + getMissLoadTime(TimeUnit.MILLISECONDS)
+      + "]";
+  }
+}
@@ -0,0 +1,618 @@
+package org.monarchinitiative.phenol.io.snapshot;
+
+import java.io.IOException;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.jgrapht.graph.DefaultDirectedGraph;
+import org.monarchinitiative.phenol.graph.IdLabeledEdge;
+import org.monarchinitiative.phenol.graph.csr.OrdinalSet;
+import org.monarchinitiative.phenol.io.ser.SerializationException;
+import org.monarchinitiative.phenol.io.ser.SerializationRuntimeException;
+import org.monarchinitiative.phenol.ontology.data.Dbxref;
+import org.monarchinitiative.phenol.ontology.data.Ontology;
+import org.monarchinitiative.phenol.ontology.data.Relationship;
+import org.monarchinitiative.phenol.ontology.data.RelationshipType;
+import org.monarchinitiative.phenol.ontology.data.SimpleXref;
+import org.monarchinitiative.phenol.ontology.data.Term;
+import org.monarchinitiative.phenol.ontology.data.TermId;
+import org.monarchinitiative.phenol.ontology.data.TermSynonym;
+import org.monarchinitiative.phenol.ontology.data.TermXref;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Versioned binary snapshot of a built {@link Ontology}, opened by memory mapping.
+ *
+ * <p>{@link #write(Ontology, Path)} stores the term id table, the graph in CSR layout, the ancestor,
+ * propagating ancestor and descendant closures and a string pool with the term ids, labels and meta
+ * information. All text fields of the terms are kept in the string pool, each distinct string
+ * once. {@link #open(Path)} maps the file read-only and returns a {@link MappedOntology}
+ * serving queries from the mapped buffer; opening only checks the header, so it takes milliseconds
+ * regardless of the ontology's size. As the closures live in the page cache instead of on the heap,
+ * several JVMs on one host opening the same snapshot share a single copy.
+ *
+ * <p>The file starts with the magic bytes {@link #MAGIC_BYTES}, the format version {@link
+ * #FORMAT_VERSION}, the number of sections, the file length and a table with the offset and length
+ * in bytes of each {@link Section}. The sections follow, each aligned to 8 bytes. All numbers are
+ * little endian <code>int</code>s, except for the table entries and the file length, which are
+ * <code>long</code>s. Closures are stored as sorted ordinal lists in CSR layout and turned into
+ * {@link OrdinalSet}s on access.
+ *
+ * <p>Snapshots are written to a unique temporary file that is moved over <code>path</code> when
+ * complete, so processes that have mapped an older snapshot at the same path keep seeing consistent
+ * data and processes writing the same snapshot concurrently do not interfere.
+ */
+public final class OntologySnapshot {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(OntologySnapshot.class);
+
+  /** Magic bytes at the start of each snapshot. */
+  public static final byte[] MAGIC_BYTES = {'P', 'H', 'E', 'N', 'O', 'L', 'S', 'N'};
+
+  /** Version of the file layout, increased on each incompatible change. */
+  public static final int FORMAT_VERSION = 2;
+
+  /** Length of the header in bytes, without the section table. */
+  private static final int HEADER_LENGTH = MAGIC_BYTES.length + 4 + 4 + 8;
+
+  /** Sections of a snapshot, in file order. */
+  enum Section {
+    /** Term id string of the root. */
+    SUMMARY,
+    /** Offsets of the strings into {@link #STRING_BYTES}, length <code>stringCount + 1</code>. */
+    STRING_OFFSETS,
+    /** UTF-8 encoded strings, concatenated. */
+    STRING_BYTES,
+    /** Key and value string of each meta information entry. */
+    META_INFO,
+    /** Term id string of each vertex, by ordinal. */
+    VERTICES,
+    /** Id and label string of each relationship type, by edge label. */
+    RELATIONSHIP_TYPES,
+    /** Offsets into {@link #PARENTS}, length <code>vertexCount + 1</code>. */
+    PARENT_OFFSETS,
+    /** Parent ordinals of all vertices, concatenated. */
+    PARENTS,
+    /** Label of each edge in {@link #PARENTS}, <code>-1</code> for edges without relationship. */
+    EDGE_LABELS,
+    /** Id of each edge in {@link #PARENTS}. */
+    EDGE_IDS,
+    /** Offsets into {@link #ANCESTORS}, length <code>vertexCount + 1</code>. */
+    ANCESTOR_OFFSETS,
+    /** Sorted ancestor ordinals (including the vertex itself) of all vertices, concatenated. */
+    ANCESTORS,
+    /** Offsets into {@link #PROPAGATING_ANCESTORS}, length <code>vertexCount + 1</code>. */
+    PROPAGATING_ANCESTOR_OFFSETS,
+    /** Sorted ancestor ordinals via propagating relationships of all vertices, concatenated. */
+    PROPAGATING_ANCESTORS,
+    /** Offsets into {@link #DESCENDANTS}, length <code>vertexCount + 1</code>. */
+    DESCENDANT_OFFSETS,
+    /** Sorted descendant ordinals (including the vertex itself) of all vertices, concatenated. */
+    DESCENDANTS,
+    /** Id string, name string and start and end in {@link #ALT_TERM_IDS} of each term. */
+    TERMS,
+    /** Alternative term id strings of all terms, concatenated. */
+    ALT_TERM_IDS,
+    /** Offsets into {@link #TERM_TEXT}, length <code>termCount + 1</code>. */
+    TERM_TEXT_OFFSETS,
+    /**
+     * Remaining fields of each term, concatenated: definition, comment and created by string,
+     * obsolete flag, creation date (flag and two halves of the epoch milliseconds), database
+     * xrefs, subsets, synonyms and xrefs, each list prefixed by its length.
+     */
+    TERM_TEXT,
+    /** Term id strings of the non-obsolete terms. */
+    NON_OBSOLETE_TERM_IDS,
+    /** Term id strings of the obsolete terms. */
+    OBSOLETE_TERM_IDS
+  }
+
+  /** Number of <code>int</code>s per entry of {@link Section#TERMS}. */
+  static final int TERM_RECORD_LENGTH = 4;
+
+  private OntologySnapshot() {
+  }
+
+  /**
+   * Write a snapshot of <code>ontology</code> to <code>path</code>, replacing any existing file.
+   *
+   * <p>The vertices are numbered by sorted term id, as in {@link
+   * org.monarchinitiative.phenol.ontology.data.ImmutableOntology}; closures are taken from
+   * <code>ontology</code> and translated if its ordinals differ.
+   *
+   * @param ontology The {@link Ontology} to write.
+   * @param path {@link Path} of the snapshot file.
+   * @throws SerializationException on problems with writing the file.
+   */
+  public static void write(Ontology ontology, Path path) throws SerializationException {
+    LOGGER.info("Writing ontology snapshot to {}", path);
+    final long startTime = System.nanoTime();
+
+    final ByteBuffer[] sections = encode(ontology);
+    final ByteBuffer header = header(sections);
+    Path tmpPath = null;
+    try {
+      // a unique temporary file, several processes may write the same snapshot at the same time
+      final Path directory = path.toAbsolutePath().getParent();
+      tmpPath = Files.createTempFile(directory, path.getFileName().toString(), ".tmp");
+      try (FileChannel channel = FileChannel.open(tmpPath, StandardOpenOption.WRITE)) {
+        writeFully(channel, header);
+        for (ByteBuffer section : sections) {
+          writeFully(channel, ByteBuffer.allocate((int) (align(channel.position()) - channel.position())));
+          writeFully(channel, section);
+        }
+        channel.force(true);
+      }
+      try {
+        Files.move(tmpPath, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+      } catch (AtomicMoveNotSupportedException e) {
+        Files.move(tmpPath, path, StandardCopyOption.REPLACE_EXISTING);
+      }
+    } catch (IOException e) {
+      deleteQuietly(tmpPath);
+      throw new SerializationException("Could not write ontology snapshot to " + path, e);
+    }
+
+    LOGGER.info("Writing snapshot took {} sec.", (System.nanoTime() - startTime) / 1_000_000_000.0);
+  }
+
+  private static void deleteQuietly(Path path) {
+    if (path == null) {
+      return;
+    }
+    try {
+      Files.deleteIfExists(path);
+    } catch (IOException e) {
+      LOGGER.warn("Could not delete {}", path, e);
+    }
+  }
+
+  /**
+   * Copy <code>ontology</code> into a snapshot in off-heap memory.
+   *
+   * <p>The result keeps the closures and all term text (definitions, comments, synonyms, xrefs,
+   * subsets, ...) outside the Java heap, with each distinct string stored once, and creates {@link
+   * org.monarchinitiative.phenol.ontology.data.Term} objects only on lookup. Once the source
+   * ontology is no longer referenced, this substantially reduces the heap usage of large
+   * ontologies like MONDO or NCIT, at the cost of slower term lookups.
+   *
+   * @param ontology The {@link Ontology} to copy.
+   * @return {@link MappedOntology} backed by a direct {@link ByteBuffer}.
+   */
+  public static MappedOntology toOffHeap(Ontology ontology) {
+    final ByteBuffer[] sections = encode(ontology);
+    final ByteBuffer header = header(sections);
+    final ByteBuffer buffer =
+      ByteBuffer.allocateDirect((int) header.getLong(MAGIC_BYTES.length + 8)).order(ByteOrder.LITTLE_ENDIAN);
+    buffer.put(header);
+    for (ByteBuffer section : sections) {
+      ((Buffer) buffer).position((int) align(buffer.position()));
+      buffer.put(section);
+    }
+    ((Buffer) buffer).clear();
+    try {
+      return read(buffer, null, "off-heap snapshot");
+    } catch (SerializationException e) {
+      // cannot happen, the buffer was just written
+      throw new SerializationRuntimeException("Could not read off-heap snapshot", e);
+    }
+  }
+
+  /**
+   * Open a snapshot written by {@link #write(Ontology, Path)}.
+   *
+   * <p>The file is mapped read-only and must not be modified while the returned ontology is in use.
+   *
+   * @param path {@link Path} of the snapshot file.
+   * @return {@link MappedOntology} backed by the mapped file.
+   * @throws SerializationException if the file cannot be read, is not a snapshot, was written with
+   *     another format version or is truncated.
+   */
+  public static MappedOntology open(Path path) throws SerializationException {
+    final MappedByteBuffer buffer;
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+      if (channel.size() > Integer.MAX_VALUE) {
+        throw new SerializationException(path + " is too large for an ontology snapshot");
+      }
+      // the mapping stays valid after the channel is closed
+      buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+    } catch (IOException e) {
+      throw new SerializationException("Could not open ontology snapshot " + path, e);
+    }
+    return read(buffer, path, path.toString());
+  }
+
+  /**
+   * @param buffer {@link ByteBuffer} holding the whole snapshot.
+   * @param path {@link Path} of the snapshot file, <code>null</code> if not backed by a file.
+   * @param source Description of the snapshot for error messages.
+   * @return {@link MappedOntology} backed by <code>buffer</code>.
+   * @throws SerializationException if <code>buffer</code> does not hold a valid snapshot.
+   */
+  static MappedOntology read(ByteBuffer buffer, Path path, String source) throws SerializationException {
+    buffer.order(ByteOrder.LITTLE_ENDIAN);
+    final byte[] magic = new byte[MAGIC_BYTES.length];
+    if (buffer.remaining() < HEADER_LENGTH) {
+      throw new SerializationException(source + " does not look like an ontology snapshot, file too short!");
+    }
+    buffer.get(magic);
+    if (!Arrays.equals(magic, MAGIC_BYTES)) {
+      throw new SerializationException(source + " does not look like an ontology snapshot, magic number incorrect!");
+    }
+    final int formatVersion = buffer.getInt();
+    if (formatVersion != FORMAT_VERSION) {
+      throw new SerializationException(
+        source + " has snapshot format version " + formatVersion + " but we need " + FORMAT_VERSION);
+    }
+    final int sectionCount = buffer.getInt();
+    final long fileLength = buffer.getLong();
+    if (sectionCount != Section.values().length
+      || fileLength != buffer.capacity()
+      || fileLength < HEADER_LENGTH + 16L * sectionCount) {
+      throw new SerializationException(source + " is truncated or corrupt");
+    }
+
+    final ByteBuffer[] sections = new ByteBuffer[sectionCount];
+    try {
+      for (int i = 0; i < sectionCount; ++i) {
+        final long offset = buffer.getLong();
+        final long length = buffer.getLong();
+        if (offset < 0 || length < 0 || offset + length > fileLength) {
+          throw new SerializationException(source + " is truncated or corrupt");
+        }
+        final ByteBuffer section = buffer.duplicate();
+        // Buffer's methods, not the covariant ByteBuffer overloads of Java 9+, so that this runs on Java 8
+        ((Buffer) section).limit((int) (offset + length)).position((int) offset);
+        sections[i] = section.slice().order(ByteOrder.LITTLE_ENDIAN);
+      }
+      ((Buffer) buffer).clear();
+      return new MappedOntology(path, buffer, sections);
+    } catch (IndexOutOfBoundsException e) {
+      throw new SerializationException(source + " is truncated or corrupt", e);
+    }
+  }
+
+  /** @return Header with the section table for <code>sections</code>, ready for reading. */
+  private static ByteBuffer header(ByteBuffer[] sections) {
+    final ByteBuffer header =
+      ByteBuffer.allocate(HEADER_LENGTH + 16 * sections.length).order(ByteOrder.LITTLE_ENDIAN);
+    header.put(MAGIC_BYTES).putInt(FORMAT_VERSION).putInt(sections.length).putLong(0L);
+    long offset = header.capacity();
+    for (ByteBuffer section : sections) {
+      offset = align(offset);
+      header.putLong(offset).putLong(section.remaining());
+      offset += section.remaining();
+    }
+    header.putLong(MAGIC_BYTES.length + 8, offset);
+    ((Buffer) header).flip();
+    return header;
+  }
+
+  /** @return Sections of the snapshot of <code>ontology</code>, in the order of {@link Section}. */
+  private static ByteBuffer[] encode(Ontology ontology) {
+    final StringPool strings = new StringPool();
+    final DefaultDirectedGraph<TermId, IdLabeledEdge> graph = ontology.getGraph();
+    final TermId[] vertices = graph.vertexSet().stream().sorted().toArray(TermId[]::new);
+    final int vertexCount = vertices.length;
+
+    // translation from the ordinals of the ontology to the ordinals of the snapshot
+    final int[] ordinals = new int[ontology.getCsrGraph().vertexCount()];
+    Arrays.fill(ordinals, -1);
+    final Map<TermId, Integer> vertexOrdinals = new HashMap<>(2 * vertexCount);
+    final int[] vertexStrings = new int[vertexCount];
+    for (int v = 0; v < vertexCount; ++v) {
+      ordinals[ontology.ordinalOf(vertices[v])] = v;
+      vertexOrdinals.put(vertices[v], v);
+      vertexStrings[v] = strings.indexOf(vertices[v].getValue());
+    }
+
+    final List<RelationshipType> types = ontology.getRelationshipTypes();
+    final Map<RelationshipType, Integer> typeLabels = new HashMap<>();
+    final int[] typeStrings = new int[2 * types.size()];
+    for (int i = 0; i < types.size(); ++i) {
+      typeLabels.put(types.get(i), i);
+      typeStrings[2 * i] = strings.indexOf(types.get(i).getId());
+      typeStrings[2 * i + 1] = strings.indexOf(types.get(i).getLabel());
+    }
+
+    // parent edges, sorted by parent ordinal
+    final Map<Integer, Relationship> relationMap = ontology.getRelationMap();
+    final int[] parentOffsets = new int[vertexCount + 1];
+    final int edgeCount = graph.edgeSet().size();
+    final int[] parents = new int[edgeCount];
+    final int[] edgeLabels = new int[edgeCount];
+    final int[] edgeIds = new int[edgeCount];
+    for (int v = 0; v < vertexCount; ++v) {
+      final Set<IdLabeledEdge> edges = graph.outgoingEdgesOf(vertices[v]);
+      final long[] packed = new long[edges.size()];
+      int i = 0;
+      for (IdLabeledEdge edge : edges) {
+        packed[i++] = ((long) vertexOrdinals.get((TermId) edge.getTarget()) << 32) | (edge.getId() & 0xFFFFFFFFL);
+      }
+      Arrays.sort(packed);
+      parentOffsets[v + 1] = parentOffsets[v] + packed.length;
+      for (i = 0; i < packed.length; ++i) {
+        final int e = parentOffsets[v] + i;
+        parents[e] = (int) (packed[i] >>> 32);
+        edgeIds[e] = (int) packed[i];
+        final Relationship relationship = relationMap.get(edgeIds[e]);
+        edgeLabels[e] = relationship == null ? -1 : typeLabels.get(relationship.getRelationshipType());
+      }
+    }
+
+    final int[][] ancestors = closure(vertices, ordinals, ontology, Closure.ANCESTORS);
+    final int[][] propagatingAncestors = closure(vertices, ordinals, ontology, Closure.PROPAGATING_ANCESTORS);
+    final int[][] descendants = closure(vertices, ordinals, ontology, Closure.DESCENDANTS);
+
+    // each distinct term once, alternative ids refer to their primary term
+    final List<Term> terms = new ArrayList<>();
+    for (Map.Entry<TermId, Term> entry : ontology.getTermMap().entrySet()) {
+      if (entry.getKey().equals(entry.getValue().getId())) {
+        terms.add(entry.getValue());
+      }
+    }
+    final int[] termRecords = new int[TERM_RECORD_LENGTH * terms.size()];
+    final IntList altTermIds = new IntList();
+    final int[] termTextOffsets = new int[terms.size() + 1];
+    final IntList termText = new IntList();
+    for (int i = 0; i < terms.size(); ++i) {
+      final Term term = terms.get(i);
+      termRecords[TERM_RECORD_LENGTH * i] = strings.indexOf(term.getId().getValue());
+      termRecords[TERM_RECORD_LENGTH * i + 1] = strings.indexOf(term.getName());
+      termRecords[TERM_RECORD_LENGTH * i + 2] = altTermIds.size();
+      for (TermId altTermId : term.getAltTermIds()) {
+        altTermIds.add(strings.indexOf(altTermId.getValue()));
+      }
+      termRecords[TERM_RECORD_LENGTH * i + 3] = altTermIds.size();
+      encodeText(term, strings, termText);
+      termTextOffsets[i + 1] = termText.size();
+    }
+
+    final int[] metaInfo = new int[2 * ontology.getMetaInfo().size()];
+    int i = 0;
+    for (Map.Entry<String, String> entry : ontology.getMetaInfo().entrySet()) {
+      metaInfo[i++] = strings.indexOf(entry.getKey());
+      metaInfo[i++] = strings.indexOf(entry.getValue());
+    }
+
+    final int[] summary = {strings.indexOf(ontology.getRootTermId().getValue())};
+    final int[] nonObsoleteTermIds = termIdStrings(ontology.getNonObsoleteTermIds(), strings);
+    final int[] obsoleteTermIds = termIdStrings(ontology.getObsoleteTermIds(), strings);
+
+    final ByteBuffer[] sections = new ByteBuffer[Section.values().length];
+    sections[Section.SUMMARY.ordinal()] = ints(summary);
+    sections[Section.META_INFO.ordinal()] = ints(metaInfo);
+    sections[Section.VERTICES.ordinal()] = ints(vertexStrings);
+    sections[Section.RELATIONSHIP_TYPES.ordinal()] = ints(typeStrings);
+    sections[Section.PARENT_OFFSETS.ordinal()] = ints(parentOffsets);
+    sections[Section.PARENTS.ordinal()] = ints(parents);
+    sections[Section.EDGE_LABELS.ordinal()] = ints(edgeLabels);
+    sections[Section.EDGE_IDS.ordinal()] = ints(edgeIds);
+    sections[Section.ANCESTOR_OFFSETS.ordinal()] = ints(offsetsOf(ancestors));
+    sections[Section.ANCESTORS.ordinal()] = ints(concat(ancestors));
+    sections[Section.PROPAGATING_ANCESTOR_OFFSETS.ordinal()] = ints(offsetsOf(propagatingAncestors));
+    sections[Section.PROPAGATING_ANCESTORS.ordinal()] = ints(concat(propagatingAncestors));
+    sections[Section.DESCENDANT_OFFSETS.ordinal()] = ints(offsetsOf(descendants));
+    sections[Section.DESCENDANTS.ordinal()] = ints(concat(descendants));
+    sections[Section.TERMS.ordinal()] = ints(termRecords);
+    sections[Section.ALT_TERM_IDS.ordinal()] = ints(altTermIds.toArray());
+    sections[Section.TERM_TEXT_OFFSETS.ordinal()] = ints(termTextOffsets);
+    sections[Section.TERM_TEXT.ordinal()] = ints(termText.toArray());
+    sections[Section.NON_OBSOLETE_TERM_IDS.ordinal()] = ints(nonObsoleteTermIds);
+    sections[Section.OBSOLETE_TERM_IDS.ordinal()] = ints(obsoleteTermIds);
+    // last, as the other sections add to the pool
+    sections[Section.STRING_OFFSETS.ordinal()] = ints(strings.offsets());
+    sections[Section.STRING_BYTES.ordinal()] = ByteBuffer.wrap(strings.bytes());
+    return sections;
+  }
+
+  /** Append the fields of <code>term</code> for {@link Section#TERM_TEXT} to <code>out</code>. */
+  private static void encodeText(Term term, StringPool strings, IntList out) {
+    out.add(strings.indexOf(term.getDefinition()));
+    out.add(strings.indexOf(term.getComment()));
+    out.add(strings.indexOf(term.getCreatedBy()));
+    out.add(term.isObsolete() ? 1 : 0);
+    if (term.getCreationDate().isPresent()) {
+      final long time = term.getCreationDate().get().getTime();
+      out.add(1);
+      out.add((int) (time >>> 32));
+      out.add((int) time);
+    } else {
+      out.add(0);
+    }
+    out.add(term.getDatabaseXrefs().size());
+    for (SimpleXref xref : term.getDatabaseXrefs()) {
+      // the curie parses back to the same prefix and id, also for unknown prefixes
+      out.add(strings.indexOf(xref.getCurie()));
+    }
+    out.add(term.getSubsets().size());
+    for (String subset : term.getSubsets()) {
+      out.add(strings.indexOf(subset));
+    }
+    out.add(term.getSynonyms().size());
+    for (TermSynonym synonym : term.getSynonyms()) {
+      out.add(strings.indexOf(synonym.getValue()));
+      out.add(synonym.getScope() == null ? -1 : synonym.getScope().ordinal());
+      out.add(strings.indexOf(synonym.getSynonymTypeName()));
+      out.add(synonym.getSynonymType().ordinal());
+      if (synonym.getTermXrefs() == null) {
+        out.add(-1);
+      } else {
+        out.add(synonym.getTermXrefs().size());
+        for (TermXref xref : synonym.getTermXrefs()) {
+          out.add(xref.getId() == null ? -1 : strings.indexOf(xref.getId().getValue()));
+          out.add(strings.indexOf(xref.getDescription()));
+        }
+      }
+    }
+    out.add(term.getXrefs().size());
+    for (Dbxref xref : term.getXrefs()) {
+      out.add(strings.indexOf(xref.getName()));
+      out.add(strings.indexOf(xref.getDescription()));
+      if (xref.getTrailingModifiers() == null) {
+        out.add(-1);
+      } else {
+        out.add(xref.getTrailingModifiers().size());
+        for (Map.Entry<String, String> modifier : xref.getTrailingModifiers().entrySet()) {
+          out.add(strings.indexOf(modifier.getKey()));
+          out.add(strings.indexOf(modifier.getValue()));
+        }
+      }
+    }
+  }
+
+  /** The closures stored in a snapshot. */
+  private enum Closure {
+    ANCESTORS,
+    PROPAGATING_ANCESTORS,
+    DESCENDANTS
+  }
+
+  /**
+   * @return Sorted closure of each vertex, translated to the ordinals of the snapshot.
+   */
+  private static int[][] closure(TermId[] vertices, int[] ordinals, Ontology ontology, Closure closure) {
+    final int[][] result = new int[vertices.length][];
+    for (int v = 0; v < vertices.length; ++v) {
+      final int ordinal = ontology.ordinalOf(vertices[v]);
+      final OrdinalSet set;
+      switch (closure) {
+        case PROPAGATING_ANCESTORS:
+          set = ontology.getPropagatingAncestorOrdinals(ordinal);
+          break;
+        case DESCENDANTS:
+          set = ontology.getDescendantOrdinals(ordinal);
+          break;
+        case ANCESTORS:
+        default:
+          set = ontology.getAncestorOrdinals(ordinal);
+          break;
+      }
+      final int[] members = set.toArray();
+      int size = 0;
+      for (int member : members) {
+        if (ordinals[member] != -1) {
+          members[size++] = ordinals[member];
+        }
+      }
+      result[v] = Arrays.copyOf(members, size);
+      Arrays.sort(result[v]);
+    }
+    return result;
+  }
+
+  private static int[] offsetsOf(int[][] lists) {
+    final int[] result = new int[lists.length + 1];
+    for (int i = 0; i < lists.length; ++i) {
+      result[i + 1] = result[i] + lists[i].length;
+    }
+    return result;
+  }
+
+  private static int[] concat(int[][] lists) {
+    final int[] result = new int[offsetsOf(lists)[lists.length]];
+    int pos = 0;
+    for (int[] list : lists) {
+      System.arraycopy(list, 0, result, pos, list.length);
+      pos += list.length;
+    }
+    return result;
+  }
+
+  private static int[] termIdStrings(Set<TermId> termIds, StringPool strings) {
+    return termIds.stream().sorted().mapToInt(termId -> strings.indexOf(termId.getValue())).toArray();
+  }
+
+  /** @return Little endian {@link ByteBuffer} with <code>values</code>, ready for reading. */
+  private static ByteBuffer ints(int[] values) {
+    final ByteBuffer result = ByteBuffer.allocate(4 * values.length).order(ByteOrder.LITTLE_ENDIAN);
+    result.asIntBuffer().put(values);
+    return result;
+  }
+
+  /** @return <code>offset</code> rounded up to a multiple of 8. */
+  private static long align(long offset) {
+    return (offset + 7) & ~7L;
+  }
+
+  private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+    while (buffer.hasRemaining()) {
+      channel.write(buffer);
+    }
+  }
+
+  /** Growable list of <code>int</code>s. */
+  private static final class IntList {
+
+    private int[] values = new int[16];
+
+    private int size;
+
+    void add(int value) {
+      if (size == values.length) {
+        values = Arrays.copyOf(values, 2 * size);
+      }
+      values[size++] = value;
+    }
+
+    int size() {
+      return size;
+    }
+
+    int[] toArray() {
+      return Arrays.copyOf(values, size);
+    }
+  }
+
+  /** Pool of distinct strings, numbered in order of first occurrence. */
+  private static final class StringPool {
+
+    private final Map<String, Integer> indices = new HashMap<>();
+
+    private final List<byte[]> encoded = new ArrayList<>();
+
+    /** @return Index of <code>string</code>, <code>-1</code> for <code>null</code>. */
+    int indexOf(String string) {
+      if (string == null) {
+        return -1;
+      }
+      return indices.computeIfAbsent(string, key -> {
+        encoded.add(key.getBytes(StandardCharsets.UTF_8));
+        return encoded.size() - 1;
+      });
+    }
+
+    int[] offsets() {
+      final int[] result = new int[encoded.size() + 1];
+      for (int i = 0; i < encoded.size(); ++i) {
+        result[i + 1] = result[i] + encoded.get(i).length;
+      }
+      return result;
+    }
+
+    byte[] bytes() {
+      final int[] offsets = offsets();
+      final byte[] result = new byte[offsets[encoded.size()]];
+      for (int i = 0; i < encoded.size(); ++i) {
+        System.arraycopy(encoded.get(i), 0, result, offsets[i], encoded.get(i).length);
+      }
+      return result;
+    }
+  }
+}
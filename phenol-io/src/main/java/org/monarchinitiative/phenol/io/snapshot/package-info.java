@@ -0,0 +1,7 @@
+/**
+ * Binary ontology snapshots that are opened by memory mapping, see {@link
+ * org.monarchinitiative.phenol.io.snapshot.OntologySnapshot}, and a directory of snapshots keyed
+ * by the content of the ontology file, see {@link
+ * org.monarchinitiative.phenol.io.snapshot.OntologyCache}.
+ */
+package org.monarchinitiative.phenol.io.snapshot;
@@ -0,0 +1,80 @@
+package org.monarchinitiative.phenol.io;
+
+import org.junit.jupiter.api.Test;
+import org.monarchinitiative.phenol.graph.csr.OrdinalClosure;
+import org.monarchinitiative.phenol.ontology.data.Ontology;
+import org.monarchinitiative.phenol.ontology.data.TermId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.file.Paths;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Compare the memory footprint of the ordinal-based ancestor closure against the previous
+ * representation, a Guava <code>ImmutableMap&lt;TermId, ImmutableSet&lt;TermId&gt;&gt;</code>.
+ *
+ * <p>Both sides are estimated assuming 12 byte object headers and compressed oops; the {@link
+ * TermId} instances are shared by both representations and not counted. The full HPO, GO, and MONDO
+ * releases are not part of the test resources, so the comparison runs on the excerpts shipped with
+ * the tests.
+ */
+class AncestorClosureMemoryTest {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(AncestorClosureMemoryTest.class);
+
+  @Test
+  void testHpoClosureIsSmaller() {
+    compare("HP", OntologyLoader.loadOntology(Paths.get("src/test/resources/hp_head.obo").toFile()));
+  }
+
+  @Test
+  void testGoClosureIsSmaller() {
+    compare("GO", OntologyLoader.loadOntology(Paths.get("src/test/resources/go/go_head.obo").toFile(), "GO"));
+  }
+
+  @Test
+  void testMondoClosureIsSmaller() {
+    compare("MONDO", OntologyLoader.loadOntology(Paths.get("src/test/resources/mondo_small.obo").toFile(), "MONDO"));
+  }
+
+  private static void compare(String name, Ontology ontology) {
+    final OrdinalClosure closure = OrdinalClosure.ancestorsOf(ontology.getCsrGraph());
+    final long ordinalBytes = closure.estimatedSizeInBytes();
+    final long guavaBytes = estimateGuavaClosure(ontology);
+    LOGGER.info("{} ancestor closure over {} terms: ordinal sets {} bytes, ImmutableMap/ImmutableSet {} bytes",
+      name, closure.vertexCount(), ordinalBytes, guavaBytes);
+    assertTrue(ordinalBytes < guavaBytes);
+  }
+
+  /** Estimate of the heap used by an <code>ImmutableMap&lt;TermId, ImmutableSet&lt;TermId&gt;&gt;</code>. */
+  private static long estimateGuavaClosure(Ontology ontology) {
+    final int n = ontology.getCsrGraph().vertexCount();
+    // map object, entries array, hash table, and one entry object (key, value, next) per term
+    long result = 32 + array(4L * n) + array(4L * tableSize(n)) + 24L * n;
+    for (int i = 0; i < n; ++i) {
+      final TermId termId = ontology.termAt(i);
+      final int k = ontology.getAncestorTermIds(termId).size();
+      if (k == 1) {
+        result += 16; // SingletonImmutableSet
+      } else if (k > 1) {
+        result += 24 + array(4L * k) + array(4L * tableSize(k)); // RegularImmutableSet
+      }
+    }
+    return result;
+  }
+
+  /** Closed hash table size used by Guava's immutable collections (load factor 0.7). */
+  private static int tableSize(int k) {
+    int tableSize = Integer.highestOneBit(Math.max(k - 1, 1)) << 1;
+    while (tableSize * 0.7 < k) {
+      tableSize <<= 1;
+    }
+    return tableSize;
+  }
+
+  private static long array(long payload) {
+    return (16 + payload + 7) & ~7L;
+  }
+}
@@ -10,7 +10,9 @@ import java.util.Arrays;
 import java.util.List;
 import java.util.Set;
 
+import org.monarchinitiative.phenol.io.utils.CurieUtilBuilder;
 import org.monarchinitiative.phenol.ontology.data.*;
+import org.monarchinitiative.phenol.utils.PhaseRecorder;
 import org.monarchinitiative.phenol.graph.IdLabeledEdge;
 import org.jgrapht.graph.DefaultDirectedGraph;
 import org.junit.jupiter.api.Test;
@@ -67,6 +69,38 @@ class OntologyLoaderTest {
     System.out.println(ontology.countAllTerms());
   }
 
+  @Test
+  void recordsPhasesOfOboLoad() throws Exception {
+    Path ontologyPath = Paths.get("src/test/resources/hp_head.obo");
+    PhaseRecorder recorder = PhaseRecorder.create();
+    Ontology ontology = OntologyLoader.loadOntology(ontologyPath.toFile(), recorder, CurieUtilBuilder.defaultCurieUtil());
+
+    PhaseRecorder.PhaseReport report = recorder.getReport();
+    List<String> phases = report.getPhases().stream().map(PhaseRecorder.PhaseRecord::getName).collect(toList());
+    assertEquals(Arrays.asList(PhaseRecorder.PARSE, PhaseRecorder.TERM_CONSTRUCTION, PhaseRecorder.RELATIONSHIP_CONSTRUCTION,
+      PhaseRecorder.CURIE_MAPPING, PhaseRecorder.GRAPH_BUILD, PhaseRecorder.COMPATIBILITY_CHECK, PhaseRecorder.INDEX_BUILD,
+      PhaseRecorder.CLOSURE_PRECOMPUTE, PhaseRecorder.READ), phases);
+    assertEquals(Files.size(ontologyPath), (long) report.getPhase(PhaseRecorder.READ).get().getCounts().get("bytes"));
+    // the constructed terms include an obsolete term for every alt_id
+    assertTrue(report.getPhase(PhaseRecorder.TERM_CONSTRUCTION).get().getCounts().get("terms") >= ontology.countAllTerms());
+    assertEquals(ontology.getGraph().vertexSet().size(),
+      (long) report.getPhase(PhaseRecorder.INDEX_BUILD).get().getCounts().get("vertices"));
+  }
+
+  @Test
+  void recordsPhasesOfJsonLoad() throws Exception {
+    Path ontologyPath = Paths.get("src/test/resources/hp_small.json");
+    PhaseRecorder recorder = PhaseRecorder.create();
+    OntologyLoader.loadOntology(Files.newInputStream(ontologyPath), recorder, CurieUtilBuilder.defaultCurieUtil());
+
+    PhaseRecorder.PhaseReport report = recorder.getReport();
+    assertEquals(5L, (long) report.getPhase(PhaseRecorder.TERM_CONSTRUCTION).get().getCounts().get("terms"));
+    assertTrue(report.getPhase(PhaseRecorder.PARSE).get().getCounts().get("edges") > 0);
+    assertTrue(report.getPhase(PhaseRecorder.CURIE_MAPPING).get().getCounts().get("lookups") > 0);
+    assertEquals(Files.size(ontologyPath), (long) report.getPhase(PhaseRecorder.READ).get().getCounts().get("bytes"));
+    assertTrue(report.getPhase(PhaseRecorder.CLOSURE_PRECOMPUTE).isPresent());
+  }
+
   @Test
   void testNCITLoad() {
     Path ncitPath = Paths.get("src/test/resources/ncit_module.owl");
@@ -0,0 +1,192 @@
+package org.monarchinitiative.phenol.io.obo;
+
+import com.google.common.collect.ImmutableSet;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.monarchinitiative.phenol.base.PhenolException;
+import org.monarchinitiative.phenol.base.PhenolRuntimeException;
+import org.monarchinitiative.phenol.io.OntologyLoader;
+import org.monarchinitiative.phenol.io.obographs.OboGraphDocumentAdaptor;
+import org.monarchinitiative.phenol.io.obographs.OboGraphDocumentLoader;
+import org.monarchinitiative.phenol.io.utils.CurieUtilBuilder;
+import org.monarchinitiative.phenol.ontology.data.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class OboParserTest {
+
+  /**
+   * The native parser must produce the same terms and relationships as OWLAPI followed by the obographs conversion.
+   * Only the order of list-valued term attributes, and therefore the relationship ids, may differ.
+   */
+  @ParameterizedTest
+  @ValueSource(strings = {"hp_head.obo", "mondo_small.obo", "crossSpeciesPheno_head.obo", "go/go_head.obo", "mgi/mp_head.obo"})
+  public void testEquivalentToOwlApi(String resource) throws IOException, PhenolException {
+    Path path = Paths.get("src/test/resources", resource);
+    OboGraphDocumentAdaptor expected = OboGraphDocumentAdaptor.builder().build(OboGraphDocumentLoader.loadObo(path));
+    OboParser actual = OboParser.builder().build(path);
+
+    assertEquals(expected.getMetaInfo(), actual.getMetaInfo());
+    assertEquals(termsById(expected.getTerms()).keySet(), termsById(actual.getTerms()).keySet());
+    assertEquals(expected.getTerms().size(), actual.getTerms().size());
+    Map<TermId, Term> actualTerms = termsById(actual.getTerms());
+    for (Term term : expected.getTerms()) {
+      assertSameTerm(term, actualTerms.get(term.getId()));
+    }
+    assertEquals(edges(expected.getRelationships()), edges(actual.getRelationships()));
+    assertEquals(expected.getRelationships().size(), actual.getRelationships().size());
+  }
+
+  @Test
+  public void testOntologyLoaderSelectsNativeParser() throws IOException, PhenolException {
+    Path path = Paths.get("src/test/resources/hp_head.obo");
+    Ontology expected = OntologyLoader.loadOntology(OboGraphDocumentLoader.loadObo(path), CurieUtilBuilder.defaultCurieUtil());
+    Ontology fromFile = OntologyLoader.loadOntology(path.toFile());
+    Ontology fromStream = OntologyLoader.loadOntology(new ByteArrayInputStream(Files.readAllBytes(path)));
+    for (Ontology actual : Arrays.asList(fromFile, fromStream)) {
+      assertEquals(expected.getRootTermId(), actual.getRootTermId());
+      assertEquals(expected.getNonObsoleteTermIds(), actual.getNonObsoleteTermIds());
+      assertEquals(expected.getObsoleteTermIds(), actual.getObsoleteTermIds());
+      assertEquals(expected.getTermMap().keySet(), actual.getTermMap().keySet());
+      assertEquals(edges(expected.getRelationMap().values()), edges(actual.getRelationMap().values()));
+      for (TermId termId : expected.getNonObsoleteTermIds()) {
+        assertEquals(expected.getAncestorTermIds(termId), actual.getAncestorTermIds(termId));
+      }
+    }
+  }
+
+  @Test
+  public void testWantedTermIdPrefixes() throws IOException, PhenolException {
+    Path path = Paths.get("src/test/resources/crossSpeciesPheno_head.obo");
+    OboGraphDocumentAdaptor expected = OboGraphDocumentAdaptor.builder()
+      .wantedTermIdPrefixes(ImmutableSet.of("MP", "HP"))
+      .build(OboGraphDocumentLoader.loadObo(path));
+    OboParser actual = OboParser.builder().wantedTermIdPrefixes(ImmutableSet.of("MP", "HP")).build(path);
+    assertEquals(termsById(expected.getTerms()).keySet(), termsById(actual.getTerms()).keySet());
+    assertEquals(edges(expected.getRelationships()), edges(actual.getRelationships()));
+    assertEquals(3, actual.getTerms().size());
+    assertEquals(1, actual.getRelationships().size());
+
+    assertThrows(PhenolRuntimeException.class,
+      () -> OboParser.builder().wantedTermIdPrefixes(ImmutableSet.of("NOT_A_PREFIX")).build(path));
+  }
+
+  @Test
+  public void testEscapesQualifiersAndTypedefs() throws IOException {
+    String obo = "format-version: 1.4\n" +
+      "ontology: hp\n" +
+      "\n" +
+      "[Term]\n" +
+      "id: HP:0000001\n" +
+      "name: All ! the root\n" +
+      "\n" +
+      "[Term]\n" +
+      "id: HP:0000002\n" +
+      "name: Abnormality of body height {source=\"HPO\"}\n" +
+      "def: \"Deviation from the \\\"norm\\\",\\nor average.\" [HPO:probinson, PMID:123 \"a paper, really\"]\n" +
+      "synonym: \"Height, abnormal\" BROAD layperson [ORCID:0000-0001]\n" +
+      "synonym: \"Stature abnormality\" EXACT []\n" +
+      "xref: UMLS:C4025901 \"some description\"\n" +
+      "is_a: HP:0000001 {source=\"x\"} ! All\n" +
+      "relationship: part_of HP:0000001\n" +
+      "relationship: has_note HP:0000001\n" +
+      "\n" +
+      "[Typedef]\n" +
+      "id: part_of\n" +
+      "name: part of\n" +
+      "xref: BFO:0000050\n" +
+      "\n" +
+      "[Typedef]\n" +
+      "id: has_note\n" +
+      "is_metadata_tag: true\n";
+    OboParser parser = OboParser.builder().build(new ByteArrayInputStream(obo.getBytes(StandardCharsets.UTF_8)));
+    Map<TermId, Term> terms = termsById(parser.getTerms());
+    assertEquals("All", terms.get(TermId.of("HP:0000001")).getName());
+    Term term = terms.get(TermId.of("HP:0000002"));
+    assertEquals("Abnormality of body height", term.getName());
+    assertEquals("Deviation from the \"norm\",\nor average.", term.getDefinition());
+    assertEquals(Arrays.asList("HPO:probinson", "PMID:123"),
+      term.getDatabaseXrefs().stream().map(SimpleXref::getCurie).collect(Collectors.toList()));
+    assertEquals(2, term.getSynonyms().size());
+    TermSynonym synonym = term.getSynonyms().get(0);
+    assertEquals("Height, abnormal", synonym.getValue());
+    assertEquals(TermSynonymScope.BROAD, synonym.getScope());
+    assertEquals(SynonymType.LAYPERSON_TERM, synonym.getSynonymType());
+    assertEquals(TermId.of("ORCID:0000-0001"), synonym.getTermXrefs().get(0).getId());
+    assertEquals(TermSynonymScope.EXACT, term.getSynonyms().get(1).getScope());
+    assertEquals("UMLS:C4025901", term.getXrefs().get(0).getName());
+
+    assertEquals(2, parser.getRelationships().size());
+    assertEquals(RelationshipType.IS_A, parser.getRelationships().get(0).getRelationshipType());
+    assertEquals(RelationshipType.PART_OF, parser.getRelationships().get(1).getRelationshipType());
+    assertEquals(2, parser.getRelationships().get(1).getId());
+  }
+
+  @Test
+  public void testMalformedInput() {
+    String obo = "format-version: 1.4\n\n[Term]\nid: HP:0000001\nthis line has no tag\n";
+    PhenolRuntimeException e = assertThrows(PhenolRuntimeException.class,
+      () -> OboParser.builder().build(new ByteArrayInputStream(obo.getBytes(StandardCharsets.UTF_8))));
+    assertTrue(e.getMessage().contains("line 5"));
+
+    String unterminated = "[Term]\nid: HP:0000001\ndef: \"no end [HPO:a]\n";
+    assertThrows(PhenolRuntimeException.class,
+      () -> OboParser.builder().build(new ByteArrayInputStream(unterminated.getBytes(StandardCharsets.UTF_8))));
+  }
+
+  @Test
+  public void testMalformedAltIdIsSkipped() throws IOException {
+    String obo = "format-version: 1.4\n\n[Term]\nid: HP:0000001\nalt_id: HP:0000003\nalt_id: 0000004\n";
+    OboParser parser = OboParser.builder().build(new ByteArrayInputStream(obo.getBytes(StandardCharsets.UTF_8)));
+    Map<TermId, Term> terms = termsById(parser.getTerms());
+    assertEquals(Collections.singletonList(TermId.of("HP:0000003")), terms.get(TermId.of("HP:0000001")).getAltTermIds());
+    assertEquals(ImmutableSet.of(TermId.of("HP:0000001"), TermId.of("HP:0000003")), terms.keySet());
+  }
+
+  private static Map<TermId, Term> termsById(List<Term> terms) {
+    return terms.stream().collect(Collectors.toMap(Term::getId, Function.identity()));
+  }
+
+  private static Set<String> edges(Collection<Relationship> relationships) {
+    Set<String> result = new HashSet<>();
+    for (Relationship relationship : relationships) {
+      result.add(relationship.getSource() + " " + relationship.getRelationshipType() + " " + relationship.getTarget());
+    }
+    return result;
+  }
+
+  private static void assertSameTerm(Term expected, Term actual) {
+    assertNotNull(actual, expected.getId().toString());
+    assertEquals(expected.getName(), actual.getName());
+    assertEquals(expected.getDefinition(), actual.getDefinition());
+    assertEquals(expected.getComment(), actual.getComment());
+    assertEquals(expected.isObsolete(), actual.isObsolete());
+    assertEquals(sorted(expected.getAltTermIds()), sorted(actual.getAltTermIds()));
+    assertEquals(sorted(expected.getSubsets()), sorted(actual.getSubsets()));
+    assertEquals(sorted(expected.getDatabaseXrefs()), sorted(actual.getDatabaseXrefs()));
+    assertEquals(sorted(expected.getXrefs()), sorted(actual.getXrefs()));
+    assertEquals(sorted(expected.getSynonyms()), sorted(actual.getSynonyms()));
+    for (TermSynonym synonym : expected.getSynonyms()) {
+      TermSynonym match = actual.getSynonyms().stream()
+        .filter(s -> s.toString().equals(synonym.toString()))
+        .findFirst()
+        .orElseThrow(AssertionError::new);
+      assertEquals(synonym.getSynonymType(), match.getSynonymType());
+    }
+  }
+
+  private static List<String> sorted(List<?> values) {
+    return values.stream().map(Object::toString).sorted().collect(Collectors.toList());
+  }
+}
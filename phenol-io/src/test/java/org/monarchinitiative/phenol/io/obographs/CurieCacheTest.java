@@ -0,0 +1,75 @@
+package org.monarchinitiative.phenol.io.obographs;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import org.junit.jupiter.api.Test;
+import org.monarchinitiative.phenol.io.utils.CurieUtilBuilder;
+import org.prefixcommons.CurieUtil;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class CurieCacheTest {
+
+  private static final List<String> IRIS = ImmutableList.of(
+    "http://purl.obolibrary.org/obo/HP_0000001",
+    "http://purl.obolibrary.org/obo/HP_0000118",
+    "http://purl.obolibrary.org/obo/GO_0008150",
+    "http://purl.obolibrary.org/obo/BFO_0000050",
+    "http://purl.obolibrary.org/obo/hp#layperson",
+    "http://purl.obolibrary.org/obo/UNMAPPED_0000001",
+    "http://wibble.org/WIBBLE_0000000",
+    "http://wibble.org/WIBBLE_0000001",
+    "http://wibble.org/WOBBLE_0000001",
+    "http://example.org/ABC123",
+    "http://example.org/ABD123",
+    "http://example.org/XYZ",
+    "http://example.org/",
+    "is_a",
+    "");
+
+  private static CurieUtil curieUtil() {
+    // http://example.org/AB is a namespace followed by part of the local name, so the cache must not be used for it
+    return CurieUtilBuilder.withDefaultsAnd(ImmutableMap.of(
+      "WIBBLE", "http://wibble.org/WIBBLE_",
+      "AB", "http://example.org/AB",
+      "EX", "http://example.org/"));
+  }
+
+  @Test
+  void sameAsCurieUtil() {
+    CurieUtil curieUtil = curieUtil();
+    CurieCache instance = new CurieCache(curieUtil);
+    // twice, first filling the cache and then reading from it
+    for (int i = 0; i < 2; i++) {
+      for (String iri : IRIS) {
+        assertEquals(curieUtil.getCurie(iri), instance.getCurie(iri), iri);
+      }
+    }
+    assertEquals(Optional.of("HP:0000118"), instance.getCurie("http://purl.obolibrary.org/obo/HP_0000118"));
+    assertEquals(Optional.of("AB:D123"), instance.getCurie("http://example.org/ABD123"));
+    assertEquals(Optional.of("EX:XYZ"), instance.getCurie("http://example.org/XYZ"));
+    assertEquals(Optional.empty(), instance.getCurie("http://wibble.org/WOBBLE_0000001"));
+  }
+
+  @Test
+  void concurrentLookups() {
+    CurieUtil curieUtil = curieUtil();
+    CurieCache instance = new CurieCache(curieUtil);
+    List<String> iris = new ArrayList<>();
+    for (int i = 0; i < 10_000; i++) {
+      iris.add(IRIS.get(i % IRIS.size()) + i);
+    }
+    List<Optional<String>> expected = iris.stream().map(curieUtil::getCurie).collect(Collectors.toList());
+    List<Optional<String>> actual = IntStream.range(0, iris.size())
+      .parallel()
+      .mapToObj(i -> instance.getCurie(iris.get(i)))
+      .collect(Collectors.toList());
+    assertEquals(expected, actual);
+  }
+}
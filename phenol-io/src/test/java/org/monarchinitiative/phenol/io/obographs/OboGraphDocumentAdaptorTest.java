@@ -1,15 +1,26 @@
 package org.monarchinitiative.phenol.io.obographs;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import org.geneontology.obographs.model.*;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.monarchinitiative.phenol.base.PhenolException;
 import org.monarchinitiative.phenol.base.PhenolRuntimeException;
 import org.monarchinitiative.phenol.io.utils.CurieUtilBuilder;
 import org.monarchinitiative.phenol.ontology.data.*;
 import org.prefixcommons.CurieUtil;
 
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -261,4 +272,120 @@ class OboGraphDocumentAdaptorTest {
     assertEquals(TermId.of("HP:0000001"), hpoOntology.getRootTermId());
   }
 
+  @Test
+  void streamingJsonMatchesGraphDocument() throws IOException {
+    Path path = Paths.get("src/test/resources/hp_small.json");
+    OboGraphDocumentAdaptor expected;
+    try (InputStream inputStream = Files.newInputStream(path)) {
+      expected = OboGraphDocumentAdaptor.builder().build(OboGraphDocumentLoader.loadJson(inputStream));
+    }
+    OboGraphDocumentAdaptor actual;
+    try (InputStream inputStream = Files.newInputStream(path)) {
+      actual = OboGraphDocumentAdaptor.builder().buildFromJson(inputStream);
+    }
+    assertFalse(actual.getTerms().isEmpty());
+    assertEquals(expected.getMetaInfo(), actual.getMetaInfo());
+    assertSameTerms(expected.getTerms(), actual.getTerms());
+    assertEquals(expected.getRelationships(), actual.getRelationships());
+  }
+
+  @ParameterizedTest
+  @ValueSource(strings = {"go/go_head.obo", "mgi/mp_head.obo", "crossSpeciesPheno_head.obo"})
+  void streamingJsonMatchesGraphDocumentWithWantedPrefixes(String resource) throws IOException, PhenolException {
+    // round-trip the OWLAPI output through JSON to exercise metadata, synonyms, xrefs and property nodes
+    GraphDocument graphDocument = OboGraphDocumentLoader.loadObo(Paths.get("src/test/resources", resource));
+    byte[] json = new ObjectMapper().writeValueAsBytes(graphDocument);
+    for (ImmutableSet<String> prefixes : ImmutableList.of(ImmutableSet.<String>of(), ImmutableSet.of("MP", "GO"))) {
+      OboGraphDocumentAdaptor expected = OboGraphDocumentAdaptor.builder().wantedTermIdPrefixes(prefixes).build(graphDocument);
+      OboGraphDocumentAdaptor actual = OboGraphDocumentAdaptor.builder()
+        .wantedTermIdPrefixes(prefixes)
+        .buildFromJson(new ByteArrayInputStream(json));
+      assertEquals(expected.getMetaInfo(), actual.getMetaInfo());
+      assertSameTerms(expected.getTerms(), actual.getTerms());
+      assertEquals(expected.getRelationships(), actual.getRelationships());
+    }
+  }
+
+  @Test
+  void streamingJsonSkipsUnwantedNodesAndOtherGraphs() throws IOException {
+    String json = "{\"graphs\": [{" +
+      "\"id\": \"http://purl.obolibrary.org/obo/hp.owl\"," +
+      "\"logicalDefinitionAxioms\": [{\"definedClassId\": \"x\", \"genusIds\": [\"y\"]}]," +
+      "\"nodes\": [" +
+      "{\"id\": \"http://purl.obolibrary.org/obo/HP_0000001\", \"type\": \"CLASS\", \"lbl\": \"All\"}," +
+      "{\"id\": \"http://purl.obolibrary.org/obo/HP_0000118\", \"meta\": {\"definition\": {\"val\": \"A def.\"}}, \"type\": \"CLASS\", \"lbl\": \"Phenotypic abnormality\"}," +
+      "{\"id\": \"http://purl.obolibrary.org/obo/GO_0008150\", \"type\": \"CLASS\", \"meta\": {\"deprecated\": true}, \"lbl\": \"biological_process\"}," +
+      "{\"id\": \"http://purl.obolibrary.org/obo/BFO_0000050\", \"type\": \"PROPERTY\", \"lbl\": \"part of\"}]," +
+      "\"edges\": [" +
+      "{\"sub\": \"http://purl.obolibrary.org/obo/HP_0000118\", \"pred\": \"is_a\", \"obj\": \"http://purl.obolibrary.org/obo/HP_0000001\"}," +
+      "{\"sub\": \"http://purl.obolibrary.org/obo/HP_0000118\", \"pred\": \"http://purl.obolibrary.org/obo/BFO_0000050\", \"obj\": \"http://purl.obolibrary.org/obo/HP_0000001\", \"meta\": {}}," +
+      "{\"sub\": \"http://purl.obolibrary.org/obo/GO_0008150\", \"pred\": \"is_a\", \"obj\": \"http://purl.obolibrary.org/obo/HP_0000001\"}]" +
+      "}, {\"nodes\": [{\"id\": \"http://purl.obolibrary.org/obo/HP_0000005\", \"type\": \"CLASS\"}], \"edges\": []}]}";
+
+    OboGraphDocumentAdaptor instance = OboGraphDocumentAdaptor.builder()
+      .wantedTermIdPrefixes(ImmutableSet.of("HP"))
+      .buildFromJson(new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)));
+
+    assertEquals(2, instance.getTerms().size());
+    assertEquals("A def.", instance.getTerms().get(1).getDefinition());
+    assertEquals(ImmutableList.of(
+      new Relationship(TermId.of("HP:0000118"), TermId.of("HP:0000001"), 1, RelationshipType.IS_A),
+      new Relationship(TermId.of("HP:0000118"), TermId.of("HP:0000001"), 2, RelationshipType.PART_OF)),
+      instance.getRelationships());
+    assertEquals("part of", instance.getRelationships().get(1).getRelationshipType().getLabel());
+    assertTrue(instance.getMetaInfo().isEmpty());
+  }
+
+  @Test
+  void streamingJsonEmptyDocuments() {
+    assertThrows(PhenolRuntimeException.class, () -> buildFromJson("{}"), "GraphDocument is empty");
+    assertThrows(PhenolRuntimeException.class, () -> buildFromJson("{\"graphs\": [{}]}"), "No nodes found in loaded ontology.");
+    assertThrows(PhenolRuntimeException.class, () -> buildFromJson("{\"graphs\": [{\"nodes\": []}]}"), "No edges found in loaded ontology.");
+    assertThrows(PhenolRuntimeException.class, () -> buildFromJson("[]"));
+    assertThrows(IOException.class, () -> buildFromJson("{\"graphs\": [{\"nodes\": ["));
+  }
+
+  @Test
+  void largeGraphIsConvertedInOrder() {
+    // more nodes and edges than are converted by one task, including some with unmapped ids
+    ImmutableList.Builder<Node> nodes = new ImmutableList.Builder<>();
+    ImmutableList.Builder<Edge> edges = new ImmutableList.Builder<>();
+    ImmutableList.Builder<Term> expectedTerms = new ImmutableList.Builder<>();
+    ImmutableList.Builder<Relationship> expectedRelationships = new ImmutableList.Builder<>();
+    int edgeId = 1;
+    for (int i = 1; i <= 10_000; i++) {
+      boolean unmapped = i % 7 == 0;
+      String iri = (unmapped ? "http://wibble.org/WIBBLE_" : "http://purl.obolibrary.org/obo/HP_") + i;
+      nodes.add(new Node.Builder().id(iri).label("term " + i).type(Node.RDFTYPES.CLASS).build());
+      if (!unmapped) {
+        expectedTerms.add(Term.of(TermId.of("HP:" + i), "term " + i));
+      }
+      if (i > 1) {
+        edges.add(new Edge.Builder().sub(iri).pred("is_a").obj("http://purl.obolibrary.org/obo/HP_" + (i / 2)).build());
+        if (!unmapped) {
+          expectedRelationships.add(new Relationship(TermId.of("HP:" + i), TermId.of("HP:" + (i / 2)), edgeId++, RelationshipType.IS_A));
+        }
+      }
+    }
+    Graph graph = new Graph.Builder().nodes(nodes.build()).edges(edges.build()).build();
+    GraphDocument graphDocument = new GraphDocument.Builder().graphs(ImmutableList.of(graph)).build();
+
+    OboGraphDocumentAdaptor instance = OboGraphDocumentAdaptor.builder().build(graphDocument);
+    assertEquals(expectedTerms.build(), instance.getTerms());
+    assertEquals(expectedRelationships.build(), instance.getRelationships());
+  }
+
+  private static void assertSameTerms(List<Term> expected, List<Term> actual) {
+    // Dbxref and SimpleXref do not implement equals, so compare the string representations
+    assertEquals(expected.size(), actual.size());
+    for (int i = 0; i < expected.size(); i++) {
+      assertEquals(expected.get(i).toString(), actual.get(i).toString());
+      assertEquals(expected.get(i).getDatabaseXrefs().toString(), actual.get(i).getDatabaseXrefs().toString());
+    }
+  }
+
+  private static OboGraphDocumentAdaptor buildFromJson(String json) throws IOException {
+    return OboGraphDocumentAdaptor.builder().buildFromJson(new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)));
+  }
+
 }
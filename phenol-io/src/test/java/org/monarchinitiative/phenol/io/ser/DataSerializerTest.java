@@ -0,0 +1,117 @@
+package org.monarchinitiative.phenol.io.ser;
+
+import com.google.common.io.ByteStreams;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.monarchinitiative.phenol.io.OntologyLoader;
+import org.monarchinitiative.phenol.ontology.data.Ontology;
+import org.monarchinitiative.phenol.ontology.data.TermId;
+
+import java.io.ByteArrayInputStream;
+import java.io.FileOutputStream;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Random;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DataSerializerTest {
+
+  private static final byte[] MAGIC_BYTES = {'P', 'H', 'N', 'L'};
+
+  private static final String MIN_VERSION = "1.0";
+
+  @TempDir
+  Path tempDir;
+
+  @ParameterizedTest
+  @EnumSource(DataSerializer.Compression.class)
+  void ontologyRoundTrip(DataSerializer.Compression compression) throws Exception {
+    Ontology ontology = OntologyLoader.loadOntology(Paths.get("src/test/resources/hp_small.json").toFile());
+    String filename = tempDir.resolve("hp.ser").toString();
+    new DataSerializer(MAGIC_BYTES, MIN_VERSION, filename, compression).save(ontology);
+
+    // reading does not depend on the compression of the writer
+    Ontology result = (Ontology) new DataSerializer(MAGIC_BYTES, MIN_VERSION, filename).load();
+
+    assertEquals(ontology.getTermMap().keySet(), result.getTermMap().keySet());
+    assertEquals(ontology.getRelationMap(), result.getRelationMap());
+    TermId termId = TermId.of("HP:0000001");
+    assertEquals(ontology.getTermMap().get(termId).toString(), result.getTermMap().get(termId).toString());
+    assertEquals(ontology.getDescendantTermIds(termId), result.getDescendantTermIds(termId));
+  }
+
+  @ParameterizedTest
+  @EnumSource(value = DataSerializer.Compression.class, names = {"FAST", "GZIP"})
+  void largePayloadIsValidGzip(DataSerializer.Compression compression) throws Exception {
+    // several blocks, compressed in parallel
+    byte[] data = new byte[3 * BlockGzipOutputStream.BLOCK_SIZE + 12345];
+    Random random = new Random(42);
+    for (int i = 0; i < data.length; i++) {
+      data[i] = (byte) ('a' + random.nextInt(4));
+    }
+    Path path = tempDir.resolve("large.ser");
+    new DataSerializer(MAGIC_BYTES, MIN_VERSION, path.toString(), compression).save(data);
+
+    assertArrayEquals(data, (byte[]) new DataSerializer(MAGIC_BYTES, MIN_VERSION, path.toString()).load());
+    // after the magic bytes, the file is a plain multi-member gzip stream
+    byte[] file = Files.readAllBytes(path);
+    try (GZIPInputStream in = new GZIPInputStream(
+      new ByteArrayInputStream(file, MAGIC_BYTES.length, file.length - MAGIC_BYTES.length))) {
+      byte[] content = ByteStreams.toByteArray(in);
+      assertTrue(content.length > data.length);
+    }
+  }
+
+  @Test
+  void uncompressedIsSmallerThanBefore() throws Exception {
+    Ontology ontology = OntologyLoader.loadOntology(Paths.get("src/test/resources/hp_small.json").toFile());
+    Path path = tempDir.resolve("hp.ser");
+    new DataSerializer(MAGIC_BYTES, MIN_VERSION, path.toString(), DataSerializer.Compression.NONE).save(ontology);
+    long uncompressed = Files.size(path);
+    new DataSerializer(MAGIC_BYTES, MIN_VERSION, path.toString(), DataSerializer.Compression.GZIP).save(ontology);
+
+    assertTrue(Files.size(path) < uncompressed);
+  }
+
+  @Test
+  void loadsFilesOfEarlierVersions() throws Exception {
+    // single gzip stream, as written before the choice of compression
+    Path path = tempDir.resolve("old.ser");
+    try (OutputStream out = new FileOutputStream(path.toFile())) {
+      out.write(MAGIC_BYTES);
+      try (ObjectOutputStream oos = new ObjectOutputStream(new GZIPOutputStream(out))) {
+        oos.writeObject("1.2.3");
+        oos.writeObject("payload");
+      }
+    }
+
+    assertEquals("payload", new DataSerializer(MAGIC_BYTES, MIN_VERSION, path.toString()).load());
+  }
+
+  @Test
+  void wrongMagicBytesAreRejected() throws Exception {
+    String filename = tempDir.resolve("data.ser").toString();
+    new DataSerializer(MAGIC_BYTES, MIN_VERSION, filename).save("payload");
+
+    DataSerializer instance = new DataSerializer(new byte[] {'X', 'X', 'X', 'X'}, MIN_VERSION, filename);
+    assertThrows(SerializationException.class, instance::load);
+  }
+
+  @Test
+  void tooOldVersionIsRejected() throws Exception {
+    String filename = tempDir.resolve("data.ser").toString();
+    new DataSerializer(MAGIC_BYTES, MIN_VERSION, filename, DataSerializer.Compression.NONE).save("payload");
+
+    DataSerializer instance = new DataSerializer(MAGIC_BYTES, "999.0", filename);
+    SerializationException e = assertThrows(SerializationException.class, instance::load);
+    assertTrue(e.getCause().getMessage().contains("we need at least 999.0"));
+  }
+}
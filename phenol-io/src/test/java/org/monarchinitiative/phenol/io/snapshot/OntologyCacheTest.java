@@ -0,0 +1,111 @@
+package org.monarchinitiative.phenol.io.snapshot;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import com.google.common.collect.ImmutableMap;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.monarchinitiative.phenol.base.PhenolRuntimeException;
+import org.monarchinitiative.phenol.io.OntologyLoader;
+import org.monarchinitiative.phenol.io.utils.CurieUtilBuilder;
+import org.monarchinitiative.phenol.ontology.data.Ontology;
+import org.monarchinitiative.phenol.ontology.data.TermId;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class OntologyCacheTest {
+
+  private static final File HP_HEAD = Paths.get("src/test/resources/hp_head.obo").toFile();
+
+  @TempDir
+  Path tempDir;
+
+  @Test
+  public void testHitAfterMiss() {
+    final OntologyCache cache = OntologyCache.of(tempDir.resolve("cache"));
+    final Ontology parsed = OntologyLoader.loadOntology(HP_HEAD, cache);
+    assertFalse(parsed instanceof MappedOntology);
+    assertEquals(0, cache.getHitCount());
+    assertEquals(1, cache.getMissCount());
+    assertEquals(1, snapshotCount(cache));
+
+    final Ontology cached = OntologyLoader.loadOntology(HP_HEAD, cache);
+    assertTrue(cached instanceof MappedOntology);
+    assertEquals(1, cache.getHitCount());
+    assertEquals(1, cache.getMissCount());
+    assertEquals(cache.getHitLoadTime(TimeUnit.NANOSECONDS) + cache.getMissLoadTime(TimeUnit.NANOSECONDS),
+      cache.getLoadTime(TimeUnit.NANOSECONDS));
+
+    assertEquals(parsed.getMetaInfo(), cached.getMetaInfo());
+    assertEquals(parsed.getRootTermId(), cached.getRootTermId());
+    assertEquals(parsed.getNonObsoleteTermIds(), cached.getNonObsoleteTermIds());
+    assertEquals(parsed.getObsoleteTermIds(), cached.getObsoleteTermIds());
+    for (TermId termId : parsed.getNonObsoleteTermIds()) {
+      assertEquals(parsed.getTermMap().get(termId).toString(), cached.getTermMap().get(termId).toString());
+      assertEquals(parsed.getAncestorTermIds(termId), cached.getAncestorTermIds(termId));
+    }
+  }
+
+  @Test
+  public void testKeyDependsOnContentAndOptions() throws IOException {
+    final String key = OntologyCache.key(HP_HEAD, CurieUtilBuilder.defaultCurieUtil());
+    final Path copy = tempDir.resolve("copy.obo");
+    Files.copy(HP_HEAD.toPath(), copy);
+    assertEquals(key, OntologyCache.key(copy.toFile(), CurieUtilBuilder.defaultCurieUtil()));
+    assertEquals(OntologyCache.key(HP_HEAD, CurieUtilBuilder.defaultCurieUtil(), "HP", "GO"),
+      OntologyCache.key(HP_HEAD, CurieUtilBuilder.defaultCurieUtil(), "GO", "HP", "GO"));
+
+    assertNotEquals(key, OntologyCache.key(HP_HEAD, CurieUtilBuilder.defaultCurieUtil(), "HP"));
+    assertNotEquals(key, OntologyCache.key(HP_HEAD,
+      CurieUtilBuilder.withDefaultsAnd(ImmutableMap.of("WIBBLE", "http://wibble.org/WIBBLE_"))));
+    Files.write(copy, "\n".getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+    assertNotEquals(key, OntologyCache.key(copy.toFile(), CurieUtilBuilder.defaultCurieUtil()));
+  }
+
+  @Test
+  public void testPrefixFilterIsCachedSeparately() {
+    final OntologyCache cache = OntologyCache.of(tempDir);
+    final Ontology all = cache.loadOntology(HP_HEAD);
+    final Ontology filtered = cache.loadOntology(HP_HEAD, "HP");
+    assertEquals(2, cache.getMissCount());
+    assertEquals(all.getAllTermIds(), filtered.getAllTermIds());
+    assertEquals(2, snapshotCount(cache));
+  }
+
+  @Test
+  public void testUnreadableSnapshotIsReplaced() throws IOException {
+    final OntologyCache cache = OntologyCache.of(tempDir);
+    final Path snapshot = tempDir.resolve(OntologyCache.key(HP_HEAD, CurieUtilBuilder.defaultCurieUtil())
+      + OntologyCache.EXTENSION);
+    Files.write(snapshot, "not a snapshot".getBytes(StandardCharsets.UTF_8));
+
+    final Ontology ontology = cache.loadOntology(HP_HEAD);
+    assertFalse(ontology instanceof MappedOntology);
+    assertEquals(1, cache.getMissCount());
+    assertTrue(cache.loadOntology(HP_HEAD) instanceof MappedOntology);
+    assertEquals(1, cache.getHitCount());
+  }
+
+  @Test
+  public void testMissingFile() {
+    final OntologyCache cache = OntologyCache.of(tempDir);
+    assertThrows(PhenolRuntimeException.class, () -> cache.loadOntology(tempDir.resolve("missing.obo").toFile()));
+    assertEquals(0, cache.getMissCount());
+  }
+
+  private static long snapshotCount(OntologyCache cache) {
+    try (Stream<Path> files = Files.list(cache.getDirectory())) {
+      return files.filter(path -> path.toString().endsWith(OntologyCache.EXTENSION)).count();
+    } catch (IOException e) {
+      throw new AssertionError(e);
+    }
+  }
+}
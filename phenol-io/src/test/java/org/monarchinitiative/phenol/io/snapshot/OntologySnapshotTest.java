@@ -0,0 +1,193 @@
+package org.monarchinitiative.phenol.io.snapshot;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.monarchinitiative.phenol.io.OntologyLoader;
+import org.monarchinitiative.phenol.io.ser.SerializationException;
+import org.monarchinitiative.phenol.ontology.data.Ontology;
+import org.monarchinitiative.phenol.ontology.data.Term;
+import org.monarchinitiative.phenol.ontology.data.TermId;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class OntologySnapshotTest {
+
+  @TempDir
+  static Path tempDir;
+
+  private static Ontology hpo;
+
+  private static Path snapshotPath;
+
+  private static MappedOntology mapped;
+
+  @BeforeAll
+  static void setUp() throws SerializationException {
+    hpo = OntologyLoader.loadOntology(Paths.get("src/test/resources/hp_head.obo").toFile());
+    snapshotPath = tempDir.resolve("hp_head.snapshot");
+    OntologySnapshot.write(hpo, snapshotPath);
+    mapped = OntologySnapshot.open(snapshotPath);
+  }
+
+  @Test
+  public void testOrdinals() {
+    final int vertexCount = hpo.getCsrGraph().vertexCount();
+    assertEquals(vertexCount, mapped.getCsrGraph().vertexCount());
+    for (int ordinal = 0; ordinal < vertexCount; ++ordinal) {
+      assertEquals(hpo.termAt(ordinal), mapped.termAt(ordinal));
+      assertEquals(ordinal, mapped.ordinalOf(hpo.termAt(ordinal)));
+    }
+    assertEquals(-1, mapped.ordinalOf(TermId.of("HP:9999999")));
+  }
+
+  @Test
+  public void testClosures() {
+    for (int ordinal = 0; ordinal < hpo.getCsrGraph().vertexCount(); ++ordinal) {
+      assertEquals(hpo.getAncestorOrdinals(ordinal), mapped.getAncestorOrdinals(ordinal));
+      assertEquals(hpo.getPropagatingAncestorOrdinals(ordinal), mapped.getPropagatingAncestorOrdinals(ordinal));
+      assertEquals(hpo.getDescendantOrdinals(ordinal), mapped.getDescendantOrdinals(ordinal));
+      assertArrayEquals(hpo.getCsrGraph().parentsOf(ordinal), mapped.getCsrGraph().parentsOf(ordinal));
+      assertArrayEquals(hpo.getCsrGraph().childrenOf(ordinal), mapped.getCsrGraph().childrenOf(ordinal));
+    }
+    for (TermId a : hpo.getNonObsoleteTermIds()) {
+      assertEquals(hpo.getAncestorTermIds(a, false), mapped.getAncestorTermIds(a, false));
+      assertEquals(hpo.getDescendantTermIds(a), mapped.getDescendantTermIds(a));
+      assertEquals(hpo.descendantCount(a), mapped.descendantCount(a));
+      for (TermId b : hpo.getNonObsoleteTermIds()) {
+        assertEquals(hpo.isAncestor(a, b), mapped.isAncestor(a, b));
+        assertEquals(hpo.getCommonAncestors(a, b), mapped.getCommonAncestors(a, b));
+      }
+    }
+    assertEquals(
+      hpo.getAllAncestorOrdinals(hpo.getNonObsoleteTermIds(), false),
+      mapped.getAllAncestorOrdinals(hpo.getNonObsoleteTermIds(), false));
+  }
+
+  @Test
+  public void testTermsAndRelationships() {
+    assertEquals(hpo.getRootTermId(), mapped.getRootTermId());
+    assertEquals(hpo.getMetaInfo(), mapped.getMetaInfo());
+    assertEquals(hpo.getNonObsoleteTermIds(), mapped.getNonObsoleteTermIds());
+    assertEquals(hpo.getObsoleteTermIds(), mapped.getObsoleteTermIds());
+    assertEquals(hpo.getAllTermIds(), mapped.getAllTermIds());
+    assertEquals(hpo.getRelationshipTypes(), mapped.getRelationshipTypes());
+    assertEquals(hpo.getRelationMap(), mapped.getRelationMap());
+    assertEquals(hpo.getGraph().vertexSet(), mapped.getGraph().vertexSet());
+    assertEquals(hpo.getGraph().edgeSet().size(), mapped.getGraph().edgeSet().size());
+    assertEquals(hpo.getTermMap().keySet(), mapped.getTermMap().keySet());
+    for (Term term : hpo.getTerms()) {
+      final Term mappedTerm = mapped.getTermMap().get(term.getId());
+      assertEquals(term.getName(), mappedTerm.getName());
+      assertEquals(term.getAltTermIds(), mappedTerm.getAltTermIds());
+      assertEquals(hpo.getTermLabel(term.getId()), mapped.getTermLabel(term.getId()));
+      assertTrue(mapped.containsTerm(term.getId()));
+    }
+    assertFalse(mapped.containsTerm(TermId.of("HP:9999999")));
+  }
+
+  @Test
+  public void testSubOntology() {
+    final TermId subRoot = TermId.of("HP:0000118");
+    final Ontology sub = mapped.subOntology(subRoot);
+    assertSame(sub, mapped.subOntology(subRoot));
+    assertEquals(hpo.subOntology(subRoot).getNonObsoleteTermIds(), sub.getNonObsoleteTermIds());
+  }
+
+  @Test
+  public void testJavaSerializationReopensSnapshot() throws IOException, ClassNotFoundException {
+    final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+      out.writeObject(mapped);
+    }
+    try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+      final MappedOntology copy = (MappedOntology) in.readObject();
+      assertEquals(mapped.getPath().map(Path::toAbsolutePath), copy.getPath());
+      assertEquals(mapped.getNonObsoleteTermIds(), copy.getNonObsoleteTermIds());
+    }
+  }
+
+  @Test
+  public void testTermText() {
+    for (Term term : hpo.getTerms()) {
+      assertSameText(term, mapped.getTermMap().get(term.getId()));
+    }
+    final TermId termId = hpo.getNonObsoleteTermIds().iterator().next();
+    assertSame(mapped.getTermMap().get(termId), mapped.getTermMap().get(termId));
+  }
+
+  @Test
+  public void testOffHeap() throws IOException, ClassNotFoundException {
+    final MappedOntology offHeap = OntologySnapshot.toOffHeap(hpo);
+    assertFalse(offHeap.getPath().isPresent());
+    assertEquals(hpo.getNonObsoleteTermIds(), offHeap.getNonObsoleteTermIds());
+    assertEquals(hpo.getTermMap().keySet(), offHeap.getTermMap().keySet());
+    for (Term term : hpo.getTerms()) {
+      assertSameText(term, offHeap.getTermMap().get(term.getId()));
+    }
+
+    final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+      out.writeObject(offHeap);
+    }
+    try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+      final MappedOntology copy = (MappedOntology) in.readObject();
+      assertEquals(offHeap.getRelationMap(), copy.getRelationMap());
+    }
+  }
+
+  private static void assertSameText(Term expected, Term actual) {
+    assertEquals(expected.getId(), actual.getId());
+    assertEquals(expected.getName(), actual.getName());
+    assertEquals(expected.getAltTermIds(), actual.getAltTermIds());
+    assertEquals(expected.getDefinition(), actual.getDefinition());
+    assertEquals(expected.getComment(), actual.getComment());
+    assertEquals(expected.getCreatedBy(), actual.getCreatedBy());
+    assertEquals(expected.getCreationDate(), actual.getCreationDate());
+    assertEquals(expected.isObsolete(), actual.isObsolete());
+    assertEquals(expected.getSubsets(), actual.getSubsets());
+    assertEquals(expected.getDatabaseXrefs().toString(), actual.getDatabaseXrefs().toString());
+    assertEquals(expected.getSynonyms().toString(), actual.getSynonyms().toString());
+    assertEquals(expected.getXrefs().toString(), actual.getXrefs().toString());
+    for (int i = 0; i < expected.getSynonyms().size(); ++i) {
+      assertEquals(expected.getSynonyms().get(i).getSynonymType(), actual.getSynonyms().get(i).getSynonymType());
+    }
+  }
+
+  @Test
+  public void testRejectsWrongMagicBytes() throws IOException {
+    final Path path = tempDir.resolve("not-a-snapshot");
+    Files.write(path, "format-version: 1.2\n".getBytes());
+    assertThrows(SerializationException.class, () -> OntologySnapshot.open(path));
+  }
+
+  @Test
+  public void testRejectsOtherFormatVersion() throws IOException {
+    final byte[] bytes = Files.readAllBytes(snapshotPath);
+    ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN)
+      .putInt(OntologySnapshot.MAGIC_BYTES.length, OntologySnapshot.FORMAT_VERSION + 1);
+    final Path path = tempDir.resolve("future.snapshot");
+    Files.write(path, bytes);
+    assertThrows(SerializationException.class, () -> OntologySnapshot.open(path));
+  }
+
+  @Test
+  public void testRejectsTruncatedFile() throws IOException {
+    final byte[] bytes = Files.readAllBytes(snapshotPath);
+    final Path path = tempDir.resolve("truncated.snapshot");
+    Files.write(path, Arrays.copyOf(bytes, bytes.length / 2));
+    assertThrows(SerializationException.class, () -> OntologySnapshot.open(path));
+  }
+}